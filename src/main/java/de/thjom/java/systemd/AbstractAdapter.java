@@ -11,18 +11,38 @@
 
 package de.thjom.java.systemd;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.DBusSigHandler;
 import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
 import org.freedesktop.dbus.messages.DBusSignal;
+import org.freedesktop.dbus.types.Variant;
+
+import de.thjom.java.systemd.instrumentation.FlightRecording;
+import de.thjom.java.systemd.instrumentation.Instrumentation;
 
 abstract class AbstractAdapter {
 
-    protected final List<UnitStateListener> unitStateListeners = new ArrayList<>();
+    private static final String SIGNAL_PROPERTIES_CHANGED = "PropertiesChanged";
+
+    protected final List<UnitStateListener> unitStateListeners = new CopyOnWriteArrayList<>();
+
+    private final List<PropertyInterest> propertyInterests = new CopyOnWriteArrayList<>();
+
+    // Guards (un-)registration of listeners and the default handler, dispatching is lock-free
+    private final Lock listenerLock = new ReentrantLock();
 
+    private volatile Set<String> interestedProperties = Collections.emptySet();
     private DBusSigHandler<PropertiesChanged> defaultHandler;
 
     protected AbstractAdapter() {
@@ -34,26 +54,73 @@ abstract class AbstractAdapter {
     public abstract <T extends DBusSignal> void removeHandler(final Class<T> type, final DBusSigHandler<T> handler) throws DBusException;
 
     public void addListener(final UnitStateListener listener) throws DBusException {
-        synchronized (unitStateListeners) {
-            if (defaultHandler == null) {
-                defaultHandler = createStateHandler();
+        listenerLock.lock();
 
-                addHandler(PropertiesChanged.class, defaultHandler);
-            }
+        try {
+            acquireDefaultHandler();
 
             unitStateListeners.add(listener);
         }
+        finally {
+            listenerLock.unlock();
+        }
     }
 
     public void removeListener(final UnitStateListener listener) throws DBusException {
-        synchronized (unitStateListeners) {
+        listenerLock.lock();
+
+        try {
             unitStateListeners.remove(listener);
 
-            if (unitStateListeners.isEmpty() && defaultHandler != null) {
-                removeHandler(PropertiesChanged.class, defaultHandler);
+            releaseDefaultHandler();
+        }
+        finally {
+            listenerLock.unlock();
+        }
+    }
 
-                defaultHandler = null;
-            }
+    /**
+     * Registers a listener for changes of the given properties only. The
+     * listener is not invoked for signals which do not change any of these
+     * properties, and it sees only these properties.
+     *
+     * @param listener The listener to add.
+     * @param propertyNames The names of the properties of interest.
+     * @throws DBusException If the signal handler cannot be registered.
+     */
+    public void addPropertyListener(final UnitPropertyListener listener, final Collection<String> propertyNames) throws DBusException {
+        if (propertyNames.isEmpty()) {
+            throw new IllegalArgumentException("At least one property name is required");
+        }
+
+        listenerLock.lock();
+
+        try {
+            acquireDefaultHandler();
+
+            propertyInterests.add(new PropertyInterest(listener, propertyNames));
+            updateInterestedProperties();
+        }
+        finally {
+            listenerLock.unlock();
+        }
+    }
+
+    public void addPropertyListener(final UnitPropertyListener listener, final String... propertyNames) throws DBusException {
+        addPropertyListener(listener, Arrays.asList(propertyNames));
+    }
+
+    public void removePropertyListener(final UnitPropertyListener listener) throws DBusException {
+        listenerLock.lock();
+
+        try {
+            propertyInterests.removeIf(i -> i.listener == listener);
+            updateInterestedProperties();
+
+            releaseDefaultHandler();
+        }
+        finally {
+            listenerLock.unlock();
         }
     }
 
@@ -61,4 +128,101 @@ abstract class AbstractAdapter {
         return signal -> {};
     }
 
+    /**
+     * Dispatches changed properties of a unit to all state listeners (if a state
+     * property has changed) and to all property listeners whose interest set
+     * intersects with the changed properties. No lock is held while listeners
+     * are invoked.
+     *
+     * @param unit The unit the properties belong to.
+     * @param properties The changed properties.
+     */
+    protected void notifyListeners(final Unit unit, final Map<String, Variant<?>> properties) {
+        boolean stateChanged = properties.containsKey(Unit.Property.ACTIVE_STATE)
+                || properties.containsKey(Unit.Property.LOAD_STATE)
+                || properties.containsKey(Unit.Property.SUB_STATE);
+
+        long start = Instrumentation.isEnabled() ? System.nanoTime() : 0L;
+        Object event = FlightRecording.beginSignal();
+        int listenerCount = 0;
+
+        if (stateChanged) {
+            for (UnitStateListener listener : unitStateListeners) {
+                listener.stateChanged(unit, properties);
+                listenerCount++;
+            }
+        }
+
+        if (!propertyInterests.isEmpty() && intersects(interestedProperties, properties)) {
+            for (PropertyInterest interest : propertyInterests) {
+                if (intersects(interest.propertyNames, properties)) {
+                    interest.listener.propertiesChanged(unit, new ChangedProperties(properties, interest.propertyNames));
+                    listenerCount++;
+                }
+            }
+        }
+
+        if (start != 0L) {
+            Instrumentation.recordSignal(SIGNAL_PROPERTIES_CHANGED, System.nanoTime() - start);
+        }
+
+        if (event != null) {
+            FlightRecording.endSignal(event, SIGNAL_PROPERTIES_CHANGED, unit.getObjectPath(), listenerCount);
+        }
+    }
+
+    private static boolean intersects(final Set<String> propertyNames, final Map<String, Variant<?>> properties) {
+        if (propertyNames.size() <= properties.size()) {
+            for (String propertyName : propertyNames) {
+                if (properties.containsKey(propertyName)) {
+                    return true;
+                }
+            }
+        }
+        else {
+            for (String propertyName : properties.keySet()) {
+                if (propertyNames.contains(propertyName)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void acquireDefaultHandler() throws DBusException {
+        if (defaultHandler == null) {
+            defaultHandler = createStateHandler();
+
+            addHandler(PropertiesChanged.class, defaultHandler);
+        }
+    }
+
+    private void releaseDefaultHandler() throws DBusException {
+        if (unitStateListeners.isEmpty() && propertyInterests.isEmpty() && defaultHandler != null) {
+            removeHandler(PropertiesChanged.class, defaultHandler);
+
+            defaultHandler = null;
+        }
+    }
+
+    private void updateInterestedProperties() {
+        Set<String> union = new HashSet<>();
+        propertyInterests.forEach(i -> union.addAll(i.propertyNames));
+
+        interestedProperties = union;
+    }
+
+    private static final class PropertyInterest {
+
+        private final UnitPropertyListener listener;
+        private final Set<String> propertyNames;
+
+        PropertyInterest(final UnitPropertyListener listener, final Collection<String> propertyNames) {
+            this.listener = listener;
+            this.propertyNames = Collections.unmodifiableSet(new HashSet<>(propertyNames));
+        }
+
+    }
+
 }
@@ -30,12 +30,23 @@ public class Automount extends Unit {
         public static final String TIMEOUT_IDLE_USEC = "TimeoutIdleUSec";
         public static final String WHERE = "Where";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofLong(DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofString(RESULT),
+                PropertyDescriptor.ofBigInteger(TIMEOUT_IDLE_USEC),
+                PropertyDescriptor.ofString(WHERE)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
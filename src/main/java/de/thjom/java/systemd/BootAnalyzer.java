@@ -0,0 +1,460 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.types.UnitType;
+
+/**
+ * Computes boot performance figures comparable to <code>systemd-analyze time</code>,
+ * <code>blame</code> and <code>critical-chain</code>.<p>
+ *
+ * All manager timestamps are read with a single <code>GetAll</code> call and the
+ * unit timestamps are fetched with one <code>GetAll</code> call per unit, issued
+ * concurrently on the shared bus connection. The resulting {@link Report} is an
+ * immutable snapshot which answers all queries locally.
+ */
+public class BootAnalyzer {
+
+    public static final int DEFAULT_PARALLELISM = 16;
+
+    private static final Logger LOG = LoggerFactory.getLogger(BootAnalyzer.class);
+
+    private final Manager manager;
+    private final int parallelism;
+
+    public BootAnalyzer(final Manager manager) {
+        this(manager, DEFAULT_PARALLELISM);
+    }
+
+    public BootAnalyzer(final Manager manager, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        this.manager = Objects.requireNonNull(manager);
+        this.parallelism = parallelism;
+    }
+
+    public Report analyze() throws DBusException {
+        Map<String, Variant<?>> managerProperties = manager.getProperties().getAll();
+        String defaultTarget = manager.getDefaultTarget();
+        List<UnitType> units = manager.listUnits();
+
+        return new Report(Phases.of(managerProperties), fetchTimings(units), defaultTarget);
+    }
+
+    private Map<String, UnitTiming> fetchTimings(final Collection<UnitType> units) throws DBusException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, units.size())), new FetchThreadFactory());
+
+        try {
+            List<CompletableFuture<Optional<UnitTiming>>> futures = new ArrayList<>(units.size());
+
+            for (UnitType unit : units) {
+                futures.add(CompletableFuture.supplyAsync(() -> fetchTiming(unit), executor));
+            }
+
+            Map<String, UnitTiming> timings = new HashMap<>(units.size() * 2);
+
+            for (CompletableFuture<Optional<UnitTiming>> future : futures) {
+                future.join().ifPresent(t -> timings.put(t.getUnitName(), t));
+            }
+
+            return timings;
+        }
+        catch (final CompletionException e) {
+            if (e.getCause() instanceof UncheckedDBusException) {
+                throw ((UncheckedDBusException) e.getCause()).getCause();
+            }
+
+            throw e;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<UnitTiming> fetchTiming(final UnitType unit) {
+        try {
+            Properties properties = Properties.create(manager.dbus, unit.getUnitObjectPath().getPath(), Unit.SERVICE_NAME);
+
+            return Optional.of(UnitTiming.of(unit.getUnitName(), properties.getAll()));
+        }
+        catch (final DBusException e) {
+            throw new UncheckedDBusException(e);
+        }
+        catch (final DBusExecutionException e) {
+            // Unit may have been garbage-collected between listing and fetching
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Unable to fetch timestamps of unit %s: %s", unit.getUnitName(), e.getMessage()));
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    static long longValue(final Map<String, Variant<?>> properties, final String propertyName) {
+        Variant<?> variant = properties.get(propertyName);
+
+        if (variant != null && variant.getValue() instanceof Number) {
+            return ((Number) variant.getValue()).longValue();
+        }
+
+        return 0L;
+    }
+
+    public static final class Phases {
+
+        private final long firmwareUSec;
+        private final long loaderUSec;
+        private final long kernelUSec;
+        private final long initRDUSec;
+        private final long userspaceUSec;
+        private final long userspaceTimestampMonotonic;
+        private final long finishTimestampMonotonic;
+
+        private Phases(final long firmwareUSec, final long loaderUSec, final long kernelUSec, final long initRDUSec,
+                final long userspaceUSec, final long userspaceTimestampMonotonic, final long finishTimestampMonotonic) {
+            this.firmwareUSec = firmwareUSec;
+            this.loaderUSec = loaderUSec;
+            this.kernelUSec = kernelUSec;
+            this.initRDUSec = initRDUSec;
+            this.userspaceUSec = userspaceUSec;
+            this.userspaceTimestampMonotonic = userspaceTimestampMonotonic;
+            this.finishTimestampMonotonic = finishTimestampMonotonic;
+        }
+
+        static Phases of(final Map<String, Variant<?>> properties) {
+            // Firmware and loader timestamps are counted backwards from kernel start
+            long firmware = longValue(properties, Manager.Property.FIRMWARE_TIMESTAMP_MONOTONIC);
+            long loader = longValue(properties, Manager.Property.LOADER_TIMESTAMP_MONOTONIC);
+            long kernel = longValue(properties, Manager.Property.KERNEL_TIMESTAMP_MONOTONIC);
+            long initRD = longValue(properties, Manager.Property.INIT_RD_TIMESTAMP_MONOTONIC);
+            long userspace = longValue(properties, Manager.Property.USERSPACE_TIMESTAMP_MONOTONIC);
+            long finish = longValue(properties, Manager.Property.FINISH_TIMESTAMP_MONOTONIC);
+
+            long firmwareUSec = firmware > 0 ? firmware - loader : 0L;
+            long kernelUSec = (initRD > 0 ? initRD : userspace) - kernel;
+            long initRDUSec = initRD > 0 ? userspace - initRD : 0L;
+            long userspaceUSec = finish > 0 ? finish - userspace : 0L;
+
+            return new Phases(firmwareUSec, loader, kernelUSec, initRDUSec, userspaceUSec, userspace, finish);
+        }
+
+        public Duration getFirmware() {
+            return Systemd.usecsToDuration(firmwareUSec);
+        }
+
+        public Duration getLoader() {
+            return Systemd.usecsToDuration(loaderUSec);
+        }
+
+        public Duration getKernel() {
+            return Systemd.usecsToDuration(kernelUSec);
+        }
+
+        public Duration getInitRD() {
+            return Systemd.usecsToDuration(initRDUSec);
+        }
+
+        public Duration getUserspace() {
+            return Systemd.usecsToDuration(userspaceUSec);
+        }
+
+        public Duration getTotal() {
+            return Systemd.usecsToDuration(firmwareUSec + loaderUSec + kernelUSec + initRDUSec + userspaceUSec);
+        }
+
+        public boolean isFinished() {
+            return finishTimestampMonotonic > 0;
+        }
+
+        long getUserspaceTimestampMonotonic() {
+            return userspaceTimestampMonotonic;
+        }
+
+        long getFinishTimestampMonotonic() {
+            return finishTimestampMonotonic;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (firmware) + %s (loader) + %s (kernel) + %s (initrd) + %s (userspace) = %s",
+                    getFirmware(), getLoader(), getKernel(), getInitRD(), getUserspace(), getTotal());
+        }
+
+    }
+
+    public static final class UnitTiming {
+
+        private final String unitName;
+        private final long activating;
+        private final long activated;
+        private final long deactivating;
+        private final long deactivated;
+        private final List<String> after;
+
+        UnitTiming(final String unitName, final long activating, final long activated, final long deactivating,
+                final long deactivated, final List<String> after) {
+            this.unitName = Objects.requireNonNull(unitName);
+            this.activating = activating;
+            this.activated = activated;
+            this.deactivating = deactivating;
+            this.deactivated = deactivated;
+            this.after = Collections.unmodifiableList(after);
+        }
+
+        @SuppressWarnings("unchecked")
+        static UnitTiming of(final String unitName, final Map<String, Variant<?>> properties) {
+            Variant<?> afterVariant = properties.get(Unit.Property.AFTER);
+            List<String> after = afterVariant != null && afterVariant.getValue() instanceof List ? new ArrayList<>((List<String>) afterVariant.getValue()) : new ArrayList<>();
+
+            return new UnitTiming(unitName,
+                    longValue(properties, Unit.Property.INACTIVE_EXIT_TIMESTAMP_MONOTONIC),
+                    longValue(properties, Unit.Property.ACTIVE_ENTER_TIMESTAMP_MONOTONIC),
+                    longValue(properties, Unit.Property.ACTIVE_EXIT_TIMESTAMP_MONOTONIC),
+                    longValue(properties, Unit.Property.INACTIVE_ENTER_TIMESTAMP_MONOTONIC),
+                    after);
+        }
+
+        public String getUnitName() {
+            return unitName;
+        }
+
+        public long getActivatingTimestampMonotonic() {
+            return activating;
+        }
+
+        public long getActivatedTimestampMonotonic() {
+            return activated;
+        }
+
+        public long getDeactivatingTimestampMonotonic() {
+            return deactivating;
+        }
+
+        public long getDeactivatedTimestampMonotonic() {
+            return deactivated;
+        }
+
+        public List<String> getAfter() {
+            return after;
+        }
+
+        public Duration getActivationTime() {
+            return Systemd.usecsToDuration(activationUSec());
+        }
+
+        long activationUSec() {
+            return activating > 0 && activated >= activating ? activated - activating : 0L;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s", getActivationTime(), unitName);
+        }
+
+    }
+
+    public static final class ChainLink {
+
+        private final UnitTiming timing;
+        private final Duration activatedAt;
+
+        ChainLink(final UnitTiming timing, final Duration activatedAt) {
+            this.timing = timing;
+            this.activatedAt = activatedAt;
+        }
+
+        public String getUnitName() {
+            return timing.getUnitName();
+        }
+
+        public UnitTiming getTiming() {
+            return timing;
+        }
+
+        /**
+         * Returns the point in time when the unit became active, relative to the
+         * start of userspace.
+         *
+         * @return Offset since userspace start.
+         */
+        public Duration getActivatedAt() {
+            return activatedAt;
+        }
+
+        public Duration getActivationTime() {
+            return timing.getActivationTime();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s @%s +%s", getUnitName(), activatedAt, getActivationTime());
+        }
+
+    }
+
+    public static final class Report {
+
+        private final Phases phases;
+        private final Map<String, UnitTiming> timings;
+        private final String defaultTarget;
+
+        Report(final Phases phases, final Map<String, UnitTiming> timings, final String defaultTarget) {
+            this.phases = phases;
+            this.timings = Collections.unmodifiableMap(timings);
+            this.defaultTarget = defaultTarget;
+        }
+
+        public Phases getPhases() {
+            return phases;
+        }
+
+        public String getDefaultTarget() {
+            return defaultTarget;
+        }
+
+        public Collection<UnitTiming> getUnitTimings() {
+            return timings.values();
+        }
+
+        public Optional<UnitTiming> getUnitTiming(final String unitName) {
+            return Optional.ofNullable(timings.get(unitName));
+        }
+
+        /**
+         * Returns all units which spent time in activating state, sorted by
+         * descending activation time (like <code>systemd-analyze blame</code>).
+         *
+         * @return Units ordered by activation time.
+         */
+        public List<UnitTiming> getBlame() {
+            List<UnitTiming> blame = new ArrayList<>();
+
+            for (UnitTiming timing : timings.values()) {
+                if (timing.activationUSec() > 0) {
+                    blame.add(timing);
+                }
+            }
+
+            blame.sort(Comparator.comparingLong(UnitTiming::activationUSec).reversed().thenComparing(UnitTiming::getUnitName));
+
+            return blame;
+        }
+
+        public List<ChainLink> getCriticalChain() {
+            return getCriticalChain(defaultTarget);
+        }
+
+        /**
+         * Follows the <code>After=</code> dependencies of the given unit backwards,
+         * always choosing the dependency which became active last before the unit
+         * started activating (like <code>systemd-analyze critical-chain</code>).
+         *
+         * @param unitName The unit at the end of the chain.
+         * @return The chain ordered from the given unit back to its earliest link.
+         */
+        public List<ChainLink> getCriticalChain(final String unitName) {
+            List<ChainLink> chain = new ArrayList<>();
+            Set<String> visited = new HashSet<>();
+            UnitTiming current = timings.get(unitName);
+
+            while (current != null && visited.add(current.getUnitName())) {
+                chain.add(new ChainLink(current, Systemd.usecsToDuration(Math.max(0L, current.activated - phases.getUserspaceTimestampMonotonic()))));
+
+                current = findLatestPredecessor(current, visited);
+            }
+
+            return chain;
+        }
+
+        private UnitTiming findLatestPredecessor(final UnitTiming unit, final Set<String> visited) {
+            long limit = unit.activating > 0 ? unit.activating : unit.activated;
+            long bootFinish = phases.getFinishTimestampMonotonic();
+            UnitTiming latest = null;
+
+            for (String dependency : unit.getAfter()) {
+                UnitTiming candidate = timings.get(dependency);
+
+                if (candidate == null || visited.contains(dependency) || candidate.activated == 0) {
+                    continue;
+                }
+
+                if (candidate.activated > limit || (bootFinish > 0 && candidate.activated > bootFinish)) {
+                    continue;
+                }
+
+                if (latest == null || candidate.activated > latest.activated) {
+                    latest = candidate;
+                }
+            }
+
+            return latest;
+        }
+
+    }
+
+    private static final class UncheckedDBusException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        UncheckedDBusException(final DBusException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized DBusException getCause() {
+            return (DBusException) super.getCause();
+        }
+
+    }
+
+    private static final class FetchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, BootAnalyzer.class.getSimpleName() + "-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
@@ -32,12 +32,25 @@ public class BusName extends Unit {
         public static final String RESULT = "Result";
         public static final String TIMEOUT_USEC = "TimeoutUSec";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBoolean(ACCEPT_FILE_DESCRIPTORS),
+                PropertyDescriptor.ofBoolean(ACTIVATING),
+                PropertyDescriptor.ofLong(CONTROL_PID, "u"),
+                PropertyDescriptor.ofString(NAME),
+                PropertyDescriptor.ofString(RESULT),
+                PropertyDescriptor.ofBigInteger(TIMEOUT_USEC)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -0,0 +1,309 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.Introspectable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.types.UnitType;
+
+/**
+ * Properties and methods provided by a systemd instance, derived from the
+ * introspection data of the manager and of one unit per unit type.<p>
+ *
+ * Capabilities are loaded once per {@link Manager} (see
+ * {@link Manager#getCapabilities()}) and cached by systemd version, so hosts
+ * running the same version share a single instance. Once loaded for a
+ * connection, accessing an unsupported property or method fails locally with
+ * an {@link UnsupportedCapabilityException} instead of a bus round trip.<p>
+ *
+ * Interfaces which have not been introspected (e.g. unit types of which no unit
+ * was loaded) are unknown; all of their members are considered supported.
+ */
+public final class Capabilities {
+
+    private static final Logger LOG = LoggerFactory.getLogger(Capabilities.class);
+
+    private static final Map<String, Capabilities> CACHE = new ConcurrentHashMap<>();
+    private static final Map<DBusConnection, Binding> CONNECTIONS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String version;
+    private final Map<String, Set<String>> properties;
+    private final Map<String, Set<String>> methods;
+
+    private Capabilities(final String version, final Map<String, Set<String>> properties, final Map<String, Set<String>> methods) {
+        this.version = version;
+        this.properties = properties;
+        this.methods = methods;
+    }
+
+    /**
+     * Creates capabilities from introspection documents.
+     *
+     * @param version The systemd version.
+     * @param documents The introspection XML documents.
+     * @return The capabilities.
+     * @throws IllegalArgumentException If a document cannot be parsed.
+     */
+    public static Capabilities parse(final String version, final Collection<String> documents) {
+        Map<String, Set<String>> properties = new HashMap<>();
+        Map<String, Set<String>> methods = new HashMap<>();
+
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+
+        for (String document : documents) {
+            try {
+                XMLStreamReader reader = factory.createXMLStreamReader(new StringReader(document));
+
+                try {
+                    String interfaceName = null;
+
+                    while (reader.hasNext()) {
+                        int event = reader.next();
+
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            String element = reader.getLocalName();
+                            String name = reader.getAttributeValue(null, "name");
+
+                            if ("interface".equals(element)) {
+                                interfaceName = name;
+                                properties.computeIfAbsent(name, k -> new HashSet<>());
+                                methods.computeIfAbsent(name, k -> new HashSet<>());
+                            }
+                            else if ("property".equals(element) && interfaceName != null) {
+                                properties.get(interfaceName).add(name);
+                            }
+                            else if ("method".equals(element) && interfaceName != null) {
+                                methods.get(interfaceName).add(name);
+                            }
+                        }
+                        else if (event == XMLStreamConstants.END_ELEMENT && "interface".equals(reader.getLocalName())) {
+                            interfaceName = null;
+                        }
+                    }
+                }
+                finally {
+                    reader.close();
+                }
+            }
+            catch (final XMLStreamException e) {
+                throw new IllegalArgumentException("Malformed introspection data", e);
+            }
+        }
+
+        properties.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+        methods.replaceAll((k, v) -> Collections.unmodifiableSet(v));
+
+        return new Capabilities(version, Collections.unmodifiableMap(properties), Collections.unmodifiableMap(methods));
+    }
+
+    /**
+     * Returns the capabilities of the systemd instance of the given manager,
+     * introspecting it only if no capabilities of its version are cached.
+     * The capabilities are registered for the connection of the manager.
+     *
+     * @param manager The manager.
+     * @return The capabilities.
+     * @throws DBusException If introspection fails.
+     */
+    static Capabilities load(final Manager manager) throws DBusException {
+        String version = manager.getVersion();
+        Capabilities capabilities = CACHE.get(version);
+
+        if (capabilities == null) {
+            capabilities = parse(version, introspect(manager));
+
+            Capabilities cached = CACHE.putIfAbsent(version, capabilities);
+
+            if (cached != null) {
+                capabilities = cached;
+            }
+        }
+
+        register(manager.dbus, capabilities);
+
+        return capabilities;
+    }
+
+    private static List<String> introspect(final Manager manager) throws DBusException {
+        List<String> documents = new ArrayList<>();
+        documents.add(manager.introspect());
+
+        Set<String> unitTypes = new HashSet<>();
+
+        for (UnitType unit : manager.listUnits()) {
+            String name = unit.getUnitName();
+            String unitType = name.substring(name.lastIndexOf('.') + 1);
+
+            if (unitTypes.add(unitType)) {
+                try {
+                    Introspectable intro = manager.dbus.getRemoteObject(Systemd.SERVICE_NAME, unit.getUnitObjectPath().getPath(), Introspectable.class);
+                    documents.add(intro.Introspect());
+                }
+                catch (final DBusExecutionException e) {
+                    LOG.warn(String.format("Unable to introspect unit type '%s'", unitType), e);
+
+                    unitTypes.remove(unitType);
+                }
+            }
+        }
+
+        return documents;
+    }
+
+    static Optional<Capabilities> forConnection(final DBusConnection dbus) {
+        Binding binding = CONNECTIONS.get(dbus);
+
+        return binding != null ? Optional.ofNullable(binding.get()) : Optional.empty();
+    }
+
+    /**
+     * Returns the binding of the given connection, which refers to the
+     * capabilities registered for it (if any). Adapters resolve the binding once
+     * and keep it, so checking capabilities on each call only reads a volatile
+     * field instead of going through the connection registry.
+     *
+     * @param dbus The connection.
+     * @return The binding of the connection.
+     */
+    static Binding bind(final DBusConnection dbus) {
+        return CONNECTIONS.computeIfAbsent(dbus, k -> new Binding());
+    }
+
+    static void register(final DBusConnection dbus, final Capabilities capabilities) {
+        bind(dbus).capabilities = capabilities;
+    }
+
+    static void unregister(final DBusConnection dbus) {
+        Binding binding = CONNECTIONS.remove(dbus);
+
+        if (binding != null) {
+            binding.capabilities = null;
+        }
+    }
+
+    /**
+     * Clears the version cache, e.g. after systemd has been upgraded in
+     * place. Capabilities registered for open connections remain in effect.
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Set<String> getInterfaceNames() {
+        return properties.keySet();
+    }
+
+    public boolean isKnown(final String interfaceName) {
+        return properties.containsKey(interfaceName);
+    }
+
+    public Set<String> getProperties(final String interfaceName) {
+        return properties.getOrDefault(interfaceName, Collections.emptySet());
+    }
+
+    public Set<String> getMethods(final String interfaceName) {
+        return methods.getOrDefault(interfaceName, Collections.emptySet());
+    }
+
+    public boolean supportsProperty(final String interfaceName, final String propertyName) {
+        Set<String> names = properties.get(interfaceName);
+
+        return names == null || names.contains(propertyName);
+    }
+
+    public boolean supportsMethod(final String interfaceName, final String methodName) {
+        Set<String> names = methods.get(interfaceName);
+
+        return names == null || names.contains(methodName);
+    }
+
+    public void requireProperty(final String interfaceName, final String propertyName) {
+        if (!supportsProperty(interfaceName, propertyName)) {
+            throw new UnsupportedCapabilityException(UnsupportedCapabilityException.UNKNOWN_PROPERTY, interfaceName, propertyName, version);
+        }
+    }
+
+    public void requireMethod(final String interfaceName, final String methodName) {
+        if (!supportsMethod(interfaceName, methodName)) {
+            throw new UnsupportedCapabilityException(UnsupportedCapabilityException.UNKNOWN_METHOD, interfaceName, methodName, version);
+        }
+    }
+
+    /**
+     * Restricts the given descriptor table to the supported properties.
+     *
+     * @param interfaceName The interface the properties belong to.
+     * @param table The descriptor table.
+     * @return The supported subset of the table.
+     */
+    public PropertyTable filter(final String interfaceName, final PropertyTable table) {
+        if (!isKnown(interfaceName)) {
+            return table;
+        }
+
+        Set<String> names = properties.get(interfaceName);
+        List<PropertyDescriptor<?>> supported = new ArrayList<>(table.size());
+
+        for (PropertyDescriptor<?> descriptor : table) {
+            if (names.contains(descriptor.getName())) {
+                supported.add(descriptor);
+            }
+        }
+
+        return PropertyTable.of(supported.toArray(new PropertyDescriptor<?>[0]));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[version=%s, interfaces=%s]", getClass().getSimpleName(), version, properties.keySet());
+    }
+
+    static final class Binding {
+
+        private volatile Capabilities capabilities;
+
+        Capabilities get() {
+            return capabilities;
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+
+/**
+ * Read-only view on the changed properties of a unit which a
+ * {@link UnitPropertyListener} has registered interest in. Properties outside
+ * of the interest set are invisible. No copy of the underlying signal data is
+ * made; values are unwrapped from their variants on access and the accessors
+ * merely cast or convert the raw bus value.
+ */
+public final class ChangedProperties {
+
+    private final Map<String, Variant<?>> properties;
+    private final Set<String> propertyNames;
+
+    ChangedProperties(final Map<String, Variant<?>> properties, final Set<String> propertyNames) {
+        this.properties = properties;
+        this.propertyNames = propertyNames;
+    }
+
+    public boolean contains(final String propertyName) {
+        return propertyNames.contains(propertyName) && properties.containsKey(propertyName);
+    }
+
+    /**
+     * Returns the names of all changed properties within the interest set.
+     *
+     * @return The names of the changed properties.
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>(propertyNames.size());
+
+        for (String propertyName : propertyNames) {
+            if (properties.containsKey(propertyName)) {
+                names.add(propertyName);
+            }
+        }
+
+        return names;
+    }
+
+    public Object getValue(final String propertyName) {
+        if (!propertyNames.contains(propertyName)) {
+            return null;
+        }
+
+        Variant<?> variant = properties.get(propertyName);
+
+        return variant != null ? variant.getValue() : null;
+    }
+
+    public <T> T getValue(final String propertyName, final Class<T> type) {
+        return type.cast(getValue(propertyName));
+    }
+
+    public String getString(final String propertyName) {
+        Object value = getValue(propertyName);
+
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    public boolean getBoolean(final String propertyName) {
+        return Boolean.TRUE.equals(getValue(propertyName));
+    }
+
+    public int getInteger(final String propertyName) {
+        Number value = (Number) getValue(propertyName);
+
+        return value != null ? value.intValue() : 0;
+    }
+
+    public long getLong(final String propertyName) {
+        Number value = (Number) getValue(propertyName);
+
+        return value != null ? value.longValue() : 0L;
+    }
+
+    public BigInteger getBigInteger(final String propertyName) {
+        Object value = getValue(propertyName);
+
+        if (value instanceof UInt64) {
+            return ((UInt64) value).value();
+        }
+
+        return value != null ? BigInteger.valueOf(((Number) value).longValue()) : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ChangedProperties %s", getNames());
+    }
+
+}
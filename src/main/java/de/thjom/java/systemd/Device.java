@@ -26,12 +26,20 @@ public class Device extends Unit {
 
         public static final String SYS_FS_PATH = "SysFSPath";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofString(SYS_FS_PATH)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
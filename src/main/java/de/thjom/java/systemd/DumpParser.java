@@ -0,0 +1,260 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for the manager state dump (see {@link Manager#openDump()}).<p>
+ *
+ * The dump is read line by line and handed out one {@link Record} at a time, so
+ * that only the currently parsed unit (or job) section is held on the heap. Lines
+ * preceding the first section (manager timestamps, taint flags, etc.) are returned
+ * as a record of kind {@link #KIND_MANAGER}.
+ */
+public class DumpParser implements Closeable {
+
+    public static final String KIND_MANAGER = "Manager";
+    public static final String KIND_UNIT = "Unit";
+    public static final String KIND_JOB = "Job";
+
+    private static final String SECTION_PREFIX = "-> ";
+    private static final String KEY_SEPARATOR = ": ";
+
+    private final BufferedReader reader;
+
+    private String pendingHeader;
+    private boolean started;
+    private boolean finished;
+
+    public DumpParser(final Reader reader) {
+        Objects.requireNonNull(reader);
+
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    /**
+     * Parses the next section of the dump.
+     *
+     * @return The next record, or <code>null</code> if the end of the dump has been reached.
+     * @throws IOException If reading from the underlying stream fails.
+     */
+    public Record next() throws IOException {
+        while (!finished) {
+            Record record;
+
+            if (!started) {
+                started = true;
+                record = new Record(KIND_MANAGER, "");
+            }
+            else if (pendingHeader != null) {
+                record = parseHeader(pendingHeader);
+                pendingHeader = null;
+            }
+            else {
+                finished = true;
+
+                break;
+            }
+
+            readEntries(record);
+
+            if (!(KIND_MANAGER.equals(record.getKind()) && record.getEntries().isEmpty())) {
+                return record;
+            }
+        }
+
+        return null;
+    }
+
+    public void forEach(final Consumer<Record> consumer) throws IOException {
+        Record record;
+
+        while ((record = next()) != null) {
+            consumer.accept(record);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        reader.close();
+    }
+
+    private void readEntries(final Record record) throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.startsWith(SECTION_PREFIX)) {
+                pendingHeader = line;
+
+                return;
+            }
+
+            if (!line.trim().isEmpty()) {
+                record.add(parseEntry(line));
+            }
+        }
+
+        pendingHeader = null;
+    }
+
+    private static Record parseHeader(final String line) {
+        String header = line.substring(SECTION_PREFIX.length()).trim();
+
+        if (header.endsWith(":")) {
+            header = header.substring(0, header.length() - 1);
+        }
+
+        int space = header.indexOf(' ');
+
+        if (space < 0) {
+            return new Record(header, "");
+        }
+
+        return new Record(header.substring(0, space), header.substring(space + 1).trim());
+    }
+
+    private static Entry parseEntry(final String line) {
+        int depth = 0;
+
+        while (depth < line.length() && line.charAt(depth) == '\t') {
+            depth++;
+        }
+
+        String content = line.substring(depth).trim();
+        int separator = content.indexOf(KEY_SEPARATOR);
+
+        if (separator < 0) {
+            if (content.endsWith(":")) {
+                return new Entry(content.substring(0, content.length() - 1), "", depth);
+            }
+
+            return new Entry(content, "", depth);
+        }
+
+        return new Entry(content.substring(0, separator), content.substring(separator + KEY_SEPARATOR.length()), depth);
+    }
+
+    public static final class Record {
+
+        private final String kind;
+        private final String name;
+        private final List<Entry> entries = new ArrayList<>();
+
+        Record(final String kind, final String name) {
+            this.kind = kind;
+            this.name = name;
+        }
+
+        void add(final Entry entry) {
+            entries.add(entry);
+        }
+
+        /**
+         * Returns the section kind, e.g. {@link DumpParser#KIND_UNIT} or {@link DumpParser#KIND_JOB}.
+         *
+         * @return The section kind.
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isUnit() {
+            return KIND_UNIT.equals(kind);
+        }
+
+        public List<Entry> getEntries() {
+            return Collections.unmodifiableList(entries);
+        }
+
+        public Optional<String> getValue(final String key) {
+            for (Entry entry : entries) {
+                if (entry.getKey().equals(key)) {
+                    return Optional.of(entry.getValue());
+                }
+            }
+
+            return Optional.empty();
+        }
+
+        public List<String> getValues(final String key) {
+            List<String> values = new ArrayList<>();
+
+            for (Entry entry : entries) {
+                if (entry.getKey().equals(key)) {
+                    values.add(entry.getValue());
+                }
+            }
+
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s (%d entries)", kind, name, entries.size());
+        }
+
+    }
+
+    public static final class Entry {
+
+        private final String key;
+        private final String value;
+        private final int depth;
+
+        Entry(final String key, final String value, final int depth) {
+            this.key = key;
+            this.value = value;
+            this.depth = depth;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the indentation level of the entry within its section (nested
+         * entries, e.g. below an <code>ExecStart</code> command, have a depth
+         * greater than one).
+         *
+         * @return The indentation level.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s", key, value);
+        }
+
+    }
+
+}
@@ -11,9 +11,6 @@
 
 package de.thjom.java.systemd;
 
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
 
 import org.freedesktop.dbus.connections.impl.DBusConnection;
@@ -21,9 +18,8 @@ import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.DBusInterface;
 import org.freedesktop.dbus.interfaces.DBusSigHandler;
 import org.freedesktop.dbus.messages.DBusSignal;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
+import de.thjom.java.systemd.instrumentation.Instrumentation;
 import de.thjom.java.systemd.interfaces.PropertyInterface;
 
 public abstract class InterfaceAdapter extends AbstractAdapter implements DBusInterface {
@@ -32,13 +28,15 @@ public abstract class InterfaceAdapter extends AbstractAdapter implements DBusIn
 
     protected Properties properties;
 
+    private final DBusInterface remoteInterface;
     private final DBusInterface iface;
 
     protected InterfaceAdapter(final DBusConnection dbus, final DBusInterface iface) {
         super();
 
         this.dbus = Objects.requireNonNull(dbus);
-        this.iface = Objects.requireNonNull(iface);
+        this.remoteInterface = Objects.requireNonNull(iface);
+        this.iface = Instrumentation.instrument(iface);
     }
 
     @Override
@@ -55,6 +53,17 @@ public abstract class InterfaceAdapter extends AbstractAdapter implements DBusIn
         return iface;
     }
 
+    /**
+     * Returns the remote object as imported by the bus connection, i.e. not
+     * wrapped by the instrumentation proxy. Needed for connection methods which
+     * look up the remote object, such as <code>callWithCallback()</code>.
+     *
+     * @return The unwrapped remote interface.
+     */
+    protected DBusInterface getRemoteInterface() {
+        return remoteInterface;
+    }
+
     /**
      * Returns the {@link PropertyInterface} adapter of this interface adapter.<p>
      *
@@ -100,39 +109,16 @@ public abstract class InterfaceAdapter extends AbstractAdapter implements DBusIn
         return Objects.hash(dbus.getUniqueName(), getObjectPath());
     }
 
+    /**
+     * Base of the property classes of interface adapters, which declare the
+     * property names as constants and describe them by a {@link PropertyTable}.
+     */
     public static class AdapterProperty {
 
-        private static final Logger LOG = LoggerFactory.getLogger(AdapterProperty.class);
-
         protected AdapterProperty() {
             // Do nothing (static implementation)
         }
 
-        protected static List<String> getAllNames(final Class<?>... types) {
-            List<String> names = new ArrayList<>();
-
-            for (Class<?> type : types) {
-                Field[] fields = type.getDeclaredFields();
-
-                for (Field field : fields) {
-                    // Exclude synthetic fields (occurs during code coverage analysis)
-                    if (!field.isSynthetic()) {
-                        Object obj = "";
-
-                        try {
-                            obj = field.get(null);
-                        } catch (final IllegalAccessException | IllegalArgumentException e) {
-                            LOG.error("Unable to enumerate field names", e);
-                        }
-
-                        names.add(obj.toString());
-                    }
-                }
-            }
-
-            return names;
-        }
-
     }
 
 }
@@ -11,27 +11,48 @@
 
 package de.thjom.java.systemd;
 
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.FileDescriptor;
 import org.freedesktop.dbus.connections.impl.DBusConnection;
 import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.CallbackHandler;
 import org.freedesktop.dbus.interfaces.Introspectable;
+import org.freedesktop.dbus.types.UInt32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import de.thjom.java.systemd.Unit.Mode;
 import de.thjom.java.systemd.Unit.Who;
 import de.thjom.java.systemd.interfaces.ManagerInterface;
+import de.thjom.java.systemd.types.AuxiliaryUnit;
 import de.thjom.java.systemd.types.DynamicUser;
+import de.thjom.java.systemd.types.JobType;
 import de.thjom.java.systemd.types.UnitFileChange;
 import de.thjom.java.systemd.types.UnitFileInstallChange;
 import de.thjom.java.systemd.types.UnitFileType;
 import de.thjom.java.systemd.types.UnitProcessType;
+import de.thjom.java.systemd.types.UnitProperty;
 import de.thjom.java.systemd.types.UnitType;
 
 public class Manager extends InterfaceAdapter {
 
     public static final String SERVICE_NAME = Systemd.SERVICE_NAME + ".Manager";
+    public static final String JOB_SERVICE_NAME = Systemd.SERVICE_NAME + ".Job";
+
+    private static final Logger LOG = LoggerFactory.getLogger(Manager.class);
 
     public static class Property extends InterfaceAdapter.AdapterProperty {
 
@@ -144,17 +165,137 @@ public class Manager extends InterfaceAdapter {
         public static final String VERSION = "Version";
         public static final String VIRTUALIZATION = "Virtualization";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofString(ARCHITECTURE),
+                PropertyDescriptor.ofBoolean(CONFIRM_SPAWN),
+                PropertyDescriptor.ofString(CONTROL_GROUP),
+                PropertyDescriptor.ofBoolean(DEFAULT_BLOCK_IO_ACCOUNTING),
+                PropertyDescriptor.ofBoolean(DEFAULT_CPU_ACCOUNTING),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_AS),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_AS_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_CORE),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_CORE_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_CPU),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_CPU_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_DATA),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_DATA_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_FSIZE),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_FSIZE_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_LOCKS),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_LOCKS_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_MEMLOCK),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_MEMLOCK_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_MSGQUEUE),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_MSGQUEUE_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_NICE),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_NICE_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_NOFILE),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_NOFILE_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_NPROC),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_NPROC_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_RSS),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_RSS_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_RTPRIO),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_RTPRIO_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_RTTIME),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_RTTIME_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_SIGPENDING),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_SIGPENDING_SOFT),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_STACK),
+                PropertyDescriptor.ofBigInteger(DEFAULT_LIMIT_STACK_SOFT),
+                PropertyDescriptor.ofBoolean(DEFAULT_MEMORY_ACCOUNTING),
+                PropertyDescriptor.ofString(DEFAULT_OOM_POLICY),
+                PropertyDescriptor.ofBigInteger(DEFAULT_RESTART_USEC),
+                PropertyDescriptor.ofString(DEFAULT_STANDARD_ERROR),
+                PropertyDescriptor.ofString(DEFAULT_STANDARD_OUTPUT),
+                PropertyDescriptor.ofLong(DEFAULT_START_LIMIT_BURST, "u"),
+                PropertyDescriptor.ofLong(DEFAULT_START_LIMIT_INTERVAL_USEC, "t"),
+                PropertyDescriptor.ofBoolean(DEFAULT_TASKS_ACCOUNTING),
+                PropertyDescriptor.ofBigInteger(DEFAULT_TASKS_MAX),
+                PropertyDescriptor.ofBigInteger(DEFAULT_TIMEOUT_ABORT_USEC),
+                PropertyDescriptor.ofBigInteger(DEFAULT_TIMEOUT_START_USEC),
+                PropertyDescriptor.ofBigInteger(DEFAULT_TIMEOUT_STOP_USEC),
+                PropertyDescriptor.ofBigInteger(DEFAULT_TIMER_ACCURACY_USEC),
+                PropertyDescriptor.ofList(ENVIRONMENT, "as"),
+                PropertyDescriptor.ofByte(EXIT_CODE),
+                PropertyDescriptor.ofString(FEATURES),
+                PropertyDescriptor.ofLong(FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(FIRMWARE_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(FIRMWARE_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(GENERATORS_FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(GENERATORS_FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(GENERATORS_START_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(GENERATORS_START_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_GENERATORS_FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_GENERATORS_FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_GENERATORS_START_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_GENERATORS_START_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_SECURITY_FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_SECURITY_FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_SECURITY_START_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_SECURITY_START_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_UNITS_LOAD_FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_UNITS_LOAD_FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_UNITS_LOAD_START_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INIT_RD_UNITS_LOAD_START_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(KERNEL_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(KERNEL_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofBigInteger(KEXEC_WATCHDOG_USEC),
+                PropertyDescriptor.ofLong(LOADER_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(LOADER_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofString(LOG_LEVEL),
+                PropertyDescriptor.ofString(LOG_TARGET),
+                PropertyDescriptor.ofLong(NFAILED_JOBS, "u"),
+                PropertyDescriptor.ofLong(NFAILED_UNITS, "u"),
+                PropertyDescriptor.ofLong(NINSTALLED_JOBS, "u"),
+                PropertyDescriptor.ofLong(NJOBS, "u"),
+                PropertyDescriptor.ofLong(NNAMES, "u"),
+                PropertyDescriptor.ofDouble(PROGRESS),
+                PropertyDescriptor.ofBigInteger(REBOOT_WATCHDOG_USEC),
+                PropertyDescriptor.ofBigInteger(RUNTIME_WATCHDOG_USEC),
+                PropertyDescriptor.ofLong(SECURITY_FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(SECURITY_FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(SECURITY_START_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(SECURITY_START_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofBoolean(SERVICE_WATCHDOGS),
+                PropertyDescriptor.ofBoolean(SHOW_STATUS),
+                PropertyDescriptor.ofString(SYSTEM_STATE),
+                PropertyDescriptor.ofString(TAINTED),
+                PropertyDescriptor.ofBigInteger(TIMER_SLACK_NSEC),
+                PropertyDescriptor.ofList(UNIT_PATH, "as"),
+                PropertyDescriptor.ofLong(UNITS_LOAD_FINISH_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(UNITS_LOAD_FINISH_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(UNITS_LOAD_START_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(UNITS_LOAD_START_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(USERSPACE_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(USERSPACE_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofString(VERSION),
+                PropertyDescriptor.ofString(VIRTUALIZATION)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
 
-    private boolean subscribed;
+    private final Lock subscriptionLock = new ReentrantLock();
+
+    private volatile boolean subscribed;
+
+    private final Lock capabilitiesLock = new ReentrantLock();
+    private volatile Capabilities capabilities;
 
     private Manager(final DBusConnection dbus, final ManagerInterface iface) throws DBusException {
         super(dbus, iface);
@@ -162,7 +303,15 @@ public class Manager extends InterfaceAdapter {
         this.properties = Properties.create(dbus, Systemd.OBJECT_PATH, SERVICE_NAME);
     }
 
-    static Manager create(final DBusConnection dbus) throws DBusException {
+    /**
+     * Creates a manager on an arbitrary bus connection, e.g. a private bus
+     * or an embedded daemon. Usually {@link Systemd#getManager()} is used.
+     *
+     * @param dbus The bus connection.
+     * @return The manager.
+     * @throws DBusException If the remote objects cannot be obtained.
+     */
+    public static Manager create(final DBusConnection dbus) throws DBusException {
         ManagerInterface iface = dbus.getRemoteObject(Systemd.SERVICE_NAME, Systemd.OBJECT_PATH, ManagerInterface.class);
 
         return new Manager(dbus, iface);
@@ -173,6 +322,44 @@ public class Manager extends InterfaceAdapter {
         return (ManagerInterface) super.getInterface();
     }
 
+    /**
+     * Returns the capabilities of the connected systemd instance. They are
+     * loaded on first access (shared by all instances of the same systemd
+     * version) and from then on unsupported properties and methods fail fast.
+     *
+     * @return The capabilities.
+     * @throws DBusException If introspection fails.
+     */
+    public Capabilities getCapabilities() throws DBusException {
+        Capabilities result = capabilities;
+
+        if (result == null) {
+            capabilitiesLock.lock();
+
+            try {
+                result = capabilities;
+
+                if (result == null) {
+                    result = Capabilities.load(this);
+                    capabilities = result;
+                }
+            }
+            finally {
+                capabilitiesLock.unlock();
+            }
+        }
+
+        return result;
+    }
+
+    private void requireMethod(final String methodName) {
+        Capabilities result = capabilities;
+
+        if (result != null) {
+            result.requireMethod(SERVICE_NAME, methodName);
+        }
+    }
+
     public String introspect() throws DBusException {
         Introspectable intro = dbus.getRemoteObject(Systemd.SERVICE_NAME, Systemd.OBJECT_PATH, Introspectable.class);
 
@@ -188,6 +375,8 @@ public class Manager extends InterfaceAdapter {
     }
 
     public void cleanUnit(final String name, final List<String> mask) {
+        requireMethod("CleanUnit");
+
         getInterface().cleanUnit(name, mask);
     }
 
@@ -203,6 +392,40 @@ public class Manager extends InterfaceAdapter {
         return getInterface().dump();
     }
 
+    public FileDescriptor dumpByFileDescriptor() {
+        requireMethod("DumpByFileDescriptor");
+
+        return getInterface().dumpByFileDescriptor();
+    }
+
+    /**
+     * Opens a character stream on the manager state dump.<p>
+     *
+     * The dump is preferably received through a file descriptor (<code>DumpByFileDescriptor</code>)
+     * so that it never needs to be held on the heap as a whole. In case the systemd
+     * instance or the bus transport does not support file descriptor passing, the
+     * dump is fetched as a string via {@link #dump()} instead.
+     *
+     * @return A reader on the dump which must be closed by the caller.
+     * @see DumpParser
+     */
+    public Reader openDump() {
+        try {
+            FileDescriptor fd = dumpByFileDescriptor();
+
+            if (fd != null) {
+                return new InputStreamReader(new FileInputStream(fd.toJavaFileDescriptor()), StandardCharsets.UTF_8);
+            }
+        }
+        catch (final DBusExecutionException | DBusException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Falling back to string based dump: %s", e.getMessage()));
+            }
+        }
+
+        return new StringReader(dump());
+    }
+
     public List<UnitFileChange> enableUnitFiles(final List<String> names, final boolean runtime, final boolean force) {
         return getInterface().enableUnitFiles(names, runtime, force);
     }
@@ -212,6 +435,8 @@ public class Manager extends InterfaceAdapter {
     }
 
     public void freezeUnit(final String name) {
+        requireMethod("FreezeUnit");
+
         getInterface().freezeUnit(name);
     }
 
@@ -220,9 +445,15 @@ public class Manager extends InterfaceAdapter {
     }
 
     public List<DynamicUser> getDynamicUsers() {
+        requireMethod("GetDynamicUsers");
+
         return getInterface().getDynamicUsers();
     }
 
+    public DBusPath getJob(final long id) {
+        return getInterface().getJob(new UInt32(id));
+    }
+
     public DBusPath getUnitByPID(final int pid) {
         return getInterface().getUnitByPID(pid);
     }
@@ -236,6 +467,8 @@ public class Manager extends InterfaceAdapter {
     }
 
     public List<UnitProcessType> getUnitProcesses(final String name) {
+        requireMethod("GetUnitProcesses");
+
         return getInterface().getUnitProcesses(name);
     }
 
@@ -259,10 +492,27 @@ public class Manager extends InterfaceAdapter {
         return getInterface().linkUnitFiles(names, runtime, force);
     }
 
+    public List<JobType> listJobs() {
+        return getInterface().listJobs();
+    }
+
     public List<UnitFileType> listUnitFiles() {
         return getInterface().listUnitFiles();
     }
 
+    /**
+     * Lists the unit files matching the given states and name patterns.
+     *
+     * @param states The unit file states (e.g. "enabled"), all states if empty.
+     * @param patterns The shell-style name patterns (e.g. "*.socket"), all names if empty.
+     * @return The matching unit files.
+     */
+    public List<UnitFileType> listUnitFilesByPatterns(final List<String> states, final List<String> patterns) {
+        requireMethod("ListUnitFilesByPatterns");
+
+        return getInterface().listUnitFilesByPatterns(states, patterns);
+    }
+
     public List<UnitType> listUnits() {
         return getInterface().listUnits();
     }
@@ -272,10 +522,14 @@ public class Manager extends InterfaceAdapter {
     }
 
     public long lookupDynamicUserByName(final String name) {
+        requireMethod("LookupDynamicUserByName");
+
         return getInterface().lookupDynamicUserByName(name);
     }
 
     public String lookupDynamicUserByUID(final long uid) {
+        requireMethod("LookupDynamicUserByUID");
+
         return getInterface().lookupDynamicUserByUID(uid);
     }
 
@@ -371,6 +625,52 @@ public class Manager extends InterfaceAdapter {
         getInterface().setExitCode(value);
     }
 
+    public DBusPath startTransientUnit(final String name, final Mode mode, final List<UnitProperty> properties) {
+        return startTransientUnit(name, mode.getValue(), properties, Collections.emptyList());
+    }
+
+    public DBusPath startTransientUnit(final String name, final String mode, final List<UnitProperty> properties, final List<AuxiliaryUnit> aux) {
+        return getInterface().startTransientUnit(name, mode, properties, aux);
+    }
+
+    /**
+     * Creates and starts a transient unit without waiting for the reply. The
+     * call is sent right away, hence subsequent calls are pipelined on the
+     * connection instead of taking one round trip each.
+     *
+     * @param name The name of the transient unit.
+     * @param mode The job mode.
+     * @param properties The properties of the unit.
+     * @return A future which completes with the job path, or exceptionally
+     *         with a {@link DBusExecutionException} if the call fails.
+     */
+    public CompletableFuture<DBusPath> startTransientUnitAsync(final String name, final Mode mode, final List<UnitProperty> properties) {
+        CompletableFuture<DBusPath> future = new CompletableFuture<>();
+
+        CallbackHandler<DBusPath> callback = new CallbackHandler<DBusPath>() {
+
+            @Override
+            public void handle(final DBusPath job) {
+                future.complete(job);
+            }
+
+            @Override
+            public void handleError(final DBusExecutionException e) {
+                future.completeExceptionally(e);
+            }
+
+        };
+
+        try {
+            dbus.callWithCallback(getRemoteInterface(), "startTransientUnit", callback, name, mode.getValue(), properties, Collections.<AuxiliaryUnit>emptyList());
+        }
+        catch (final DBusExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
     public DBusPath startUnit(final String name, final Mode mode) {
         return startUnit(name, mode.getValue());
     }
@@ -387,11 +687,22 @@ public class Manager extends InterfaceAdapter {
         return getInterface().stopUnit(name, mode);
     }
 
-    public synchronized void subscribe() {
-        if (!subscribed) {
-            getInterface().subscribe();
+    public void subscribe() {
+        if (subscribed) {
+            return;
+        }
+
+        subscriptionLock.lock();
+
+        try {
+            if (!subscribed) {
+                getInterface().subscribe();
 
-            subscribed = true;
+                subscribed = true;
+            }
+        }
+        finally {
+            subscriptionLock.unlock();
         }
     }
 
@@ -400,6 +711,8 @@ public class Manager extends InterfaceAdapter {
     }
 
     public void thawUnit(final String name) {
+        requireMethod("ThawUnit");
+
         getInterface().thawUnit(name);
     }
 
@@ -427,12 +740,33 @@ public class Manager extends InterfaceAdapter {
         getInterface().unsetEnvironment(names);
     }
 
-    public synchronized void unsubscribe() {
-        if (subscribed) {
-            getInterface().unsubscribe();
+    public void unsubscribe() {
+        subscriptionLock.lock();
+
+        try {
+            if (subscribed) {
+                getInterface().unsubscribe();
 
-            subscribed = false;
+                subscribed = false;
+            }
         }
+        finally {
+            subscriptionLock.unlock();
+        }
+    }
+
+    /**
+     * Creates a property adapter for an arbitrary object of the manager, e.g. for
+     * bulk reads of a unit via {@link Properties#getAll()} without creating its
+     * typed adapter.
+     *
+     * @param objectPath The object path (e.g. of a unit).
+     * @param interfaceName The interface whose properties are accessed.
+     * @return The property interface adapter.
+     * @throws DBusException If the remote object cannot be accessed.
+     */
+    public Properties getProperties(final String objectPath, final String interfaceName) throws DBusException {
+        return Properties.create(dbus, objectPath, interfaceName);
     }
 
     public Automount getAutomount(final String name) throws DBusException {
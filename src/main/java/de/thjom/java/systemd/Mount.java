@@ -94,22 +94,84 @@ public class Mount extends Unit implements ExtendedCpuAccounting, DynamicUserAcc
         public static final String WHERE = "Where";
         public static final String WORKING_DIRECTORY = "WorkingDirectory";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.union(
+                PropertyTable.of(
+                        PropertyDescriptor.ofBigInteger(CAPABILITY_BOUNDING_SET),
+                        PropertyDescriptor.ofLong(CONTROL_PID, "u"),
+                        PropertyDescriptor.ofList(DEVICE_ALLOW, "a(ss)"),
+                        PropertyDescriptor.ofString(DEVICE_POLICY),
+                        PropertyDescriptor.ofLong(DIRECTORY_MODE, "u"),
+                        PropertyDescriptor.ofList(ENVIRONMENT, "as"),
+                        PropertyDescriptor.ofList(ENVIRONMENT_FILES, "a(sb)"),
+                        PropertyDescriptor.ofList(EXEC_MOUNT, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_REMOUNT, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_UNMOUNT, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofInteger(FINAL_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofBoolean(FORCE_UNMOUNT),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_CLASS, "i"),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_PRIORITY, "i"),
+                        PropertyDescriptor.ofBoolean(IGNORE_SIGPIPE),
+                        PropertyDescriptor.ofList(INACCESSIBLE_PATHS, "as"),
+                        PropertyDescriptor.ofString(KILL_MODE),
+                        PropertyDescriptor.ofInteger(KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofBoolean(LAZY_UNMOUNT),
+                        PropertyDescriptor.ofBigInteger(MOUNT_FLAGS),
+                        PropertyDescriptor.ofInteger(NICE, "i"),
+                        PropertyDescriptor.ofBoolean(NO_NEW_PRIVILEGES),
+                        PropertyDescriptor.ofBoolean(NON_BLOCKING),
+                        PropertyDescriptor.ofInteger(OOM_SCORE_ADJUST, "i"),
+                        PropertyDescriptor.ofString(OPTIONS),
+                        PropertyDescriptor.ofString(PAMNAME),
+                        PropertyDescriptor.ofList(READ_ONLY_PATHS, "as"),
+                        PropertyDescriptor.ofBoolean(READ_WRITE_ONLY),
+                        PropertyDescriptor.ofList(READ_WRITE_PATHS, "as"),
+                        PropertyDescriptor.ofInteger(RESTART_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(RESULT),
+                        PropertyDescriptor.ofString(ROOT_DIRECTORY),
+                        PropertyDescriptor.ofBoolean(SAME_PROCESS_GROUP),
+                        PropertyDescriptor.ofInteger(SECURE_BITS, "i"),
+                        PropertyDescriptor.ofBoolean(SEND_SIGHUP),
+                        PropertyDescriptor.ofBoolean(SEND_SIGKILL),
+                        PropertyDescriptor.ofString(SLICE),
+                        PropertyDescriptor.ofBoolean(SLOPPY_OPTIONS),
+                        PropertyDescriptor.ofList(SUPPLEMENTARY_GROUPS, "as"),
+                        PropertyDescriptor.ofString(SYSLOG_IDENTIFIER),
+                        PropertyDescriptor.ofBoolean(SYSLOG_LEVEL_PREFIX),
+                        PropertyDescriptor.ofInteger(SYSLOG_PRIORITY, "i"),
+                        PropertyDescriptor.ofRaw(SYSTEM_CALL_FILTER, "(bas)"),
+                        PropertyDescriptor.ofString(TTY_PATH),
+                        PropertyDescriptor.ofBoolean(TTY_RESET),
+                        PropertyDescriptor.ofBoolean(TTY_V_HANGUP),
+                        PropertyDescriptor.ofBoolean(TTY_VT_DISALLOCATE),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_USEC),
+                        PropertyDescriptor.ofBigInteger(TIMER_SLACK_NSEC),
+                        PropertyDescriptor.ofString(TYPE),
+                        PropertyDescriptor.ofLong(UMASK, "u"),
+                        PropertyDescriptor.ofInteger(WATCHDOG_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(WHAT),
+                        PropertyDescriptor.ofString(WHERE),
+                        PropertyDescriptor.ofString(WORKING_DIRECTORY)
+                ),
+                ExtendedCpuAccounting.Property.getDescriptors(),
+                DynamicUserAccounting.Property.getDescriptors(),
+                IoAccounting.Property.getDescriptors(),
+                IpAccounting.Property.getDescriptors(),
+                ExtendedMemoryAccounting.Property.getDescriptors(),
+                ResourceControl.Property.getDescriptors(),
+                TasksAccounting.Property.getDescriptors(),
+                Ulimit.Property.getDescriptors()
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(
-                    Property.class,
-                    ExtendedCpuAccounting.Property.class,
-                    DynamicUserAccounting.Property.class,
-                    IoAccounting.Property.class,
-                    IpAccounting.Property.class,
-                    ExtendedMemoryAccounting.Property.class,
-                    ResourceControl.Property.class,
-                    TasksAccounting.Property.class,
-                    Ulimit.Property.class
-            );
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -31,12 +31,24 @@ public class Path extends Unit {
         public static final String RESULT = "Result";
         public static final String UNIT = "Unit";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofLong(DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofBoolean(MAKE_DIRECTORY),
+                PropertyDescriptor.ofList(PATHS, "a(ss)"),
+                PropertyDescriptor.ofString(RESULT),
+                PropertyDescriptor.ofString(UNIT)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -13,6 +13,7 @@ package de.thjom.java.systemd;
 
 import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import org.freedesktop.dbus.connections.impl.DBusConnection;
@@ -27,11 +28,13 @@ public class Properties extends InterfaceAdapter {
     public static final String SERVICE_NAME = "org.freedesktop.DBus.Properties";
 
     private final String serviceName;
+    private final Capabilities.Binding capabilities;
 
     private Properties(final DBusConnection dbus, final PropertyInterface iface, final String serviceName) {
         super(dbus, iface);
 
         this.serviceName = Objects.requireNonNull(serviceName);
+        this.capabilities = Capabilities.bind(dbus);
     }
 
     static Properties create(final DBusConnection dbus, final String objectPath, final String serviceName) throws DBusException {
@@ -78,10 +81,48 @@ public class Properties extends InterfaceAdapter {
         return this;
     }
 
+    /**
+     * Fetches the value of a single property. If {@link Capabilities} have been
+     * loaded for the connection, unsupported properties fail without a bus call.
+     *
+     * @param propertyName The name of the property.
+     * @return The value of the property.
+     * @throws UnsupportedCapabilityException If the property is known to be unsupported.
+     */
     public Variant<?> getVariant(final String propertyName) {
+        Capabilities current = capabilities.get();
+
+        if (current != null) {
+            current.requireProperty(serviceName, propertyName);
+        }
+
         return getInterface().getProperty(serviceName, propertyName);
     }
 
+    /**
+     * Fetches all properties of the adapted interface with a single bus call.<p>
+     *
+     * @return All property values of the interface, keyed by property name.
+     */
+    public Map<String, Variant<?>> getAll() {
+        return getInterface().getAllProperties(serviceName);
+    }
+
+    /**
+     * Fetches all properties of the adapted interface with a single bus call
+     * and decodes those described by the given table.<p>
+     *
+     * @param table The descriptors of the properties to decode.
+     * @return The decoded property values, keyed by property name.
+     */
+    public Map<String, Object> getAll(final PropertyTable table) {
+        return table.decode(getAll());
+    }
+
+    public <T> T get(final PropertyDescriptor<T> descriptor) {
+        return descriptor.decode(getVariant(descriptor.getName()));
+    }
+
     public boolean getBoolean(final String propertyName) {
         return (Boolean) getVariant(propertyName).getValue();
     }
@@ -0,0 +1,158 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+
+/**
+ * Static description of a single property of a systemd interface, i.e. its
+ * name, D-Bus signature, Java type and the decoder which converts the raw value
+ * of the property (as delivered by the bus) into that type.<p>
+ *
+ * Descriptors are declared in the descriptor tables of the property classes,
+ * see e.g. {@link Unit.Property#getDescriptors()}.
+ *
+ * @param <T> The Java type of the property.
+ */
+public final class PropertyDescriptor<T> {
+
+    private final String name;
+    private final String signature;
+    private final Class<T> type;
+    private final Function<Object, T> decoder;
+
+    private PropertyDescriptor(final String name, final String signature, final Class<T> type, final Function<Object, T> decoder) {
+        this.name = Objects.requireNonNull(name);
+        this.signature = Objects.requireNonNull(signature);
+        this.type = Objects.requireNonNull(type);
+        this.decoder = Objects.requireNonNull(decoder);
+
+        if (signature.isEmpty()) {
+            throw new IllegalArgumentException("Empty signature of property " + name);
+        }
+    }
+
+    public static <T> PropertyDescriptor<T> of(final String name, final String signature, final Class<T> type, final Function<Object, T> decoder) {
+        return new PropertyDescriptor<>(name, signature, type, decoder);
+    }
+
+    public static PropertyDescriptor<Boolean> ofBoolean(final String name) {
+        return of(name, "b", Boolean.class, Boolean.class::cast);
+    }
+
+    public static PropertyDescriptor<Byte> ofByte(final String name) {
+        return of(name, "y", Byte.class, Byte.class::cast);
+    }
+
+    /**
+     * Creates a descriptor of a 32-bit integer property.
+     *
+     * @param name The name of the property.
+     * @param signature Either "i" (signed) or "u" (unsigned).
+     * @return The descriptor.
+     */
+    public static PropertyDescriptor<Integer> ofInteger(final String name, final String signature) {
+        return of(name, signature, Integer.class, value -> ((Number) value).intValue());
+    }
+
+    /**
+     * Creates a descriptor of an integer property which is represented as
+     * <code>long</code>.
+     *
+     * @param name The name of the property.
+     * @param signature The integer signature, e.g. "u" or "t".
+     * @return The descriptor.
+     */
+    public static PropertyDescriptor<Long> ofLong(final String name, final String signature) {
+        return of(name, signature, Long.class, value -> ((Number) value).longValue());
+    }
+
+    public static PropertyDescriptor<BigInteger> ofBigInteger(final String name) {
+        return of(name, "t", BigInteger.class, value -> ((UInt64) value).value());
+    }
+
+    public static PropertyDescriptor<Double> ofDouble(final String name) {
+        return of(name, "d", Double.class, value -> ((Number) value).doubleValue());
+    }
+
+    public static PropertyDescriptor<String> ofString(final String name) {
+        return of(name, "s", String.class, String::valueOf);
+    }
+
+    /**
+     * Creates a descriptor of an array property. Elements are kept as delivered
+     * by the bus (e.g. strings or structure arrays).
+     *
+     * @param name The name of the property.
+     * @param signature The array signature, e.g. "as" or "a(ss)".
+     * @return The descriptor.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public static PropertyDescriptor<List<?>> ofList(final String name, final String signature) {
+        if (signature.charAt(0) != 'a') {
+            throw new IllegalArgumentException("Not an array signature: " + signature);
+        }
+
+        return of(name, signature, (Class) List.class, value -> (List<?>) value);
+    }
+
+    /**
+     * Creates a descriptor of a property whose value is kept as delivered by
+     * the bus, typically a structure (an <code>Object[]</code>) or a byte array.
+     *
+     * @param name The name of the property.
+     * @param signature The signature, e.g. "(bas)" or "ay".
+     * @return The descriptor.
+     */
+    public static PropertyDescriptor<Object> ofRaw(final String name, final String signature) {
+        return of(name, signature, Object.class, Function.identity());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Decodes the given raw property value.
+     *
+     * @param value The raw value as delivered by the bus, may be <code>null</code>.
+     * @return The decoded value or <code>null</code> if the given value is <code>null</code>.
+     * @throws ClassCastException If the value does not match the described type.
+     */
+    public T decode(final Object value) {
+        return value != null ? decoder.apply(value) : null;
+    }
+
+    public T decode(final Variant<?> variant) {
+        return variant != null ? decode(variant.getValue()) : null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[name=%s, signature=%s, type=%s]", getClass().getSimpleName(), name, signature, type.getSimpleName());
+    }
+
+}
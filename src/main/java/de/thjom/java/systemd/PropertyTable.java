@@ -0,0 +1,121 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.freedesktop.dbus.types.Variant;
+
+/**
+ * Immutable, ordered table of {@link PropertyDescriptor}s of an interface.<p>
+ *
+ * Tables are built once during class initialization of the property classes
+ * and replace the reflective enumeration of property names. Besides the names
+ * they allow decoding all properties fetched by a bulk read (see
+ * {@link Properties#getAll()}) into their Java types.
+ */
+public final class PropertyTable implements Iterable<PropertyDescriptor<?>> {
+
+    private final Map<String, PropertyDescriptor<?>> descriptors;
+    private final List<String> names;
+
+    private PropertyTable(final Map<String, PropertyDescriptor<?>> descriptors) {
+        this.descriptors = Collections.unmodifiableMap(descriptors);
+        this.names = Collections.unmodifiableList(new ArrayList<>(descriptors.keySet()));
+    }
+
+    /**
+     * Creates a table of the given descriptors.
+     *
+     * @param descriptors The descriptors in declaration order.
+     * @return The table.
+     * @throws IllegalArgumentException If a property name is declared twice.
+     */
+    public static PropertyTable of(final PropertyDescriptor<?>... descriptors) {
+        Map<String, PropertyDescriptor<?>> map = new LinkedHashMap<>(descriptors.length * 2);
+
+        for (PropertyDescriptor<?> descriptor : descriptors) {
+            if (map.putIfAbsent(descriptor.getName(), descriptor) != null) {
+                throw new IllegalArgumentException("Duplicate property: " + descriptor.getName());
+            }
+        }
+
+        return new PropertyTable(map);
+    }
+
+    /**
+     * Combines the given tables, e.g. the table of an interface with the tables
+     * of its features. For properties declared by multiple tables the first
+     * declaration wins.
+     *
+     * @param tables The tables to combine.
+     * @return The combined table.
+     */
+    public static PropertyTable union(final PropertyTable... tables) {
+        Map<String, PropertyDescriptor<?>> map = new LinkedHashMap<>();
+
+        for (PropertyTable table : tables) {
+            table.descriptors.forEach(map::putIfAbsent);
+        }
+
+        return new PropertyTable(map);
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public Optional<PropertyDescriptor<?>> get(final String name) {
+        return Optional.ofNullable(descriptors.get(name));
+    }
+
+    public boolean contains(final String name) {
+        return descriptors.containsKey(name);
+    }
+
+    public int size() {
+        return descriptors.size();
+    }
+
+    /**
+     * Decodes the values of a bulk read. Values of properties which are not
+     * part of this table are skipped.
+     *
+     * @param values The raw values keyed by property name.
+     * @return The decoded values in table order.
+     */
+    public Map<String, Object> decode(final Map<String, Variant<?>> values) {
+        Map<String, Object> decoded = new LinkedHashMap<>(descriptors.size() * 2);
+
+        for (PropertyDescriptor<?> descriptor : descriptors.values()) {
+            Variant<?> variant = values.get(descriptor.getName());
+
+            if (variant != null) {
+                decoded.put(descriptor.getName(), descriptor.decode(variant));
+            }
+        }
+
+        return decoded;
+    }
+
+    @Override
+    public Iterator<PropertyDescriptor<?>> iterator() {
+        return descriptors.values().iterator();
+    }
+
+}
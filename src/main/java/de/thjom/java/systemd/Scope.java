@@ -49,20 +49,42 @@ public class Scope extends Unit implements CpuAccounting, IoAccounting, IpAccoun
         public static final String TIMEOUT_STOP_USEC = "TimeoutStopUSec";
         public static final String WATCHDOG_SIGNAL = "WatchdogSignal";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.union(
+                PropertyTable.of(
+                        PropertyDescriptor.ofString(CONTROL_GROUP),
+                        PropertyDescriptor.ofString(CONTROLLER),
+                        PropertyDescriptor.ofList(DEVICE_ALLOW, "a(ss)"),
+                        PropertyDescriptor.ofString(DEVICE_POLICY),
+                        PropertyDescriptor.ofInteger(FINAL_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(KILL_MODE),
+                        PropertyDescriptor.ofInteger(KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofInteger(RESTART_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(RESULT),
+                        PropertyDescriptor.ofBigInteger(RUNTIME_MAX_USEC),
+                        PropertyDescriptor.ofBoolean(SEND_SIGHUP),
+                        PropertyDescriptor.ofBoolean(SEND_SIGKILL),
+                        PropertyDescriptor.ofString(SLICE),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_STOP_USEC),
+                        PropertyDescriptor.ofInteger(WATCHDOG_SIGNAL, "i")
+                ),
+                CpuAccounting.Property.getDescriptors(),
+                IoAccounting.Property.getDescriptors(),
+                IpAccounting.Property.getDescriptors(),
+                MemoryAccounting.Property.getDescriptors(),
+                ResourceControl.Property.getDescriptors(),
+                TasksAccounting.Property.getDescriptors()
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(
-                    Property.class,
-                    CpuAccounting.Property.class,
-                    IoAccounting.Property.class,
-                    IpAccounting.Property.class,
-                    MemoryAccounting.Property.class,
-                    ResourceControl.Property.class,
-                    TasksAccounting.Property.class
-            );
+            return DESCRIPTORS.getNames();
         }
 
     }
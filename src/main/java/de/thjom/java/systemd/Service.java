@@ -136,22 +136,124 @@ public class Service extends Unit implements ExtendedCpuAccounting, DynamicUserA
         public static final String WATCHDOG_USEC = "WatchdogUSec";
         public static final String WORKING_DIRECTORY = "WorkingDirectory";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.union(
+                PropertyTable.of(
+                        PropertyDescriptor.ofString(BUS_NAME),
+                        PropertyDescriptor.ofBigInteger(CAPABILITY_BOUNDING_SET),
+                        PropertyDescriptor.ofString(CLEAN_RESULT),
+                        PropertyDescriptor.ofLong(CONTROL_PID, "u"),
+                        PropertyDescriptor.ofList(DEVICE_ALLOW, "a(ss)"),
+                        PropertyDescriptor.ofString(DEVICE_POLICY),
+                        PropertyDescriptor.ofList(ENVIRONMENT, "as"),
+                        PropertyDescriptor.ofList(ENVIRONMENT_FILES, "a(sb)"),
+                        PropertyDescriptor.ofList(EXEC_CONDITION, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_CONDITION_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofInteger(EXEC_MAIN_CODE, "i"),
+                        PropertyDescriptor.ofLong(EXEC_MAIN_EXIT_TIMESTAMP, "t"),
+                        PropertyDescriptor.ofLong(EXEC_MAIN_EXIT_TIMESTAMP_MONOTONIC, "t"),
+                        PropertyDescriptor.ofLong(EXEC_MAIN_PID, "u"),
+                        PropertyDescriptor.ofLong(EXEC_MAIN_START_TIMESTAMP, "t"),
+                        PropertyDescriptor.ofLong(EXEC_MAIN_START_TIMESTAMP_MONOTONIC, "t"),
+                        PropertyDescriptor.ofInteger(EXEC_MAIN_STATUS, "i"),
+                        PropertyDescriptor.ofList(EXEC_RELOAD, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_RELOAD_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START_POST, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START_POST_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START_PRE, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START_PRE_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_STOP, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_STOP_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_STOP_POST, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_STOP_POST_EX, "a(sasasttttuii)"),
+                        PropertyDescriptor.ofLong(FILE_DESCRIPTOR_STORE_MAX, "u"),
+                        PropertyDescriptor.ofInteger(FINAL_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofBoolean(GUESS_MAIN_PID),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_CLASS, "i"),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_PRIORITY, "i"),
+                        PropertyDescriptor.ofBoolean(IGNORE_SIGPIPE),
+                        PropertyDescriptor.ofList(INACCESSIBLE_PATHS, "as"),
+                        PropertyDescriptor.ofString(KILL_MODE),
+                        PropertyDescriptor.ofInteger(KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofInteger(MAIN_PID, "u"),
+                        PropertyDescriptor.ofBigInteger(MOUNT_FLAGS),
+                        PropertyDescriptor.ofLong(NFILE_DESCRIPTOR_STORE, "u"),
+                        PropertyDescriptor.ofInteger(NICE, "i"),
+                        PropertyDescriptor.ofBoolean(NO_NEW_PRIVILEGES),
+                        PropertyDescriptor.ofBoolean(NON_BLOCKING),
+                        PropertyDescriptor.ofString(NOTIFY_ACCESS),
+                        PropertyDescriptor.ofLong(N_RESTARTS, "u"),
+                        PropertyDescriptor.ofString(OOM_POLICY),
+                        PropertyDescriptor.ofInteger(OOM_SCORE_ADJUST, "i"),
+                        PropertyDescriptor.ofString(PAM_NAME),
+                        PropertyDescriptor.ofString(PID_FILE),
+                        PropertyDescriptor.ofList(READ_ONLY_PATHS, "as"),
+                        PropertyDescriptor.ofList(READ_WRITE_PATHS, "as"),
+                        PropertyDescriptor.ofString(RELOAD_RESULT),
+                        PropertyDescriptor.ofBoolean(REMAIN_AFTER_EXIT),
+                        PropertyDescriptor.ofString(RESTART),
+                        PropertyDescriptor.ofRaw(RESTART_FORCE_EXIT_STATUS, "(aiai)"),
+                        PropertyDescriptor.ofInteger(RESTART_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofRaw(RESTART_PREVENT_EXIT_STATUS, "(aiai)"),
+                        PropertyDescriptor.ofBigInteger(RESTART_USEC),
+                        PropertyDescriptor.ofString(RESULT),
+                        PropertyDescriptor.ofString(ROOT_DIRECTORY),
+                        PropertyDescriptor.ofBoolean(ROOT_DIRECTORY_START_ONLY),
+                        PropertyDescriptor.ofBigInteger(RUNTIME_MAX_USEC),
+                        PropertyDescriptor.ofBoolean(SAME_PROCESS_GROUP),
+                        PropertyDescriptor.ofInteger(SECURE_BITS, "i"),
+                        PropertyDescriptor.ofBoolean(SEND_SIGHUP),
+                        PropertyDescriptor.ofBoolean(SEND_SIGKILL),
+                        PropertyDescriptor.ofString(SLICE),
+                        PropertyDescriptor.ofInteger(STATUS_ERRNO, "i"),
+                        PropertyDescriptor.ofString(STATUS_TEXT),
+                        PropertyDescriptor.ofRaw(SUCCESS_EXIT_STATUS, "(aiai)"),
+                        PropertyDescriptor.ofList(SUPPLEMENTARY_GROUPS, "as"),
+                        PropertyDescriptor.ofString(SYSLOG_IDENTIFIER),
+                        PropertyDescriptor.ofBoolean(SYSLOG_LEVEL_PREFIX),
+                        PropertyDescriptor.ofInteger(SYSLOG_PRIORITY, "i"),
+                        PropertyDescriptor.ofRaw(SYSTEM_CALL_FILTER, "(bas)"),
+                        PropertyDescriptor.ofString(TTY_PATH),
+                        PropertyDescriptor.ofBoolean(TTY_RESET),
+                        PropertyDescriptor.ofBoolean(TTY_V_HANGUP),
+                        PropertyDescriptor.ofBoolean(TTY_VT_DISALLOCATE),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_ABORT_USEC),
+                        PropertyDescriptor.ofString(TIMEOUT_START_FAILURE_MODE),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_START_USEC),
+                        PropertyDescriptor.ofString(TIMEOUT_STOP_FAILURE_MODE),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_STOP_USEC),
+                        PropertyDescriptor.ofBigInteger(TIMER_SLACK_NSEC),
+                        PropertyDescriptor.ofString(TYPE),
+                        PropertyDescriptor.ofLong(UMASK, "u"),
+                        PropertyDescriptor.ofString(USB_FUNCTION_DESCRIPTORS),
+                        PropertyDescriptor.ofString(USB_FUNCTION_STRINGS),
+                        PropertyDescriptor.ofInteger(WATCHDOG_SIGNAL, "i"),
+                        PropertyDescriptor.ofLong(WATCHDOG_TIMESTAMP, "t"),
+                        PropertyDescriptor.ofLong(WATCHDOG_TIMESTAMP_MONOTONIC, "t"),
+                        PropertyDescriptor.ofBigInteger(WATCHDOG_USEC),
+                        PropertyDescriptor.ofString(WORKING_DIRECTORY)
+                ),
+                ExtendedCpuAccounting.Property.getDescriptors(),
+                DynamicUserAccounting.Property.getDescriptors(),
+                IoAccounting.Property.getDescriptors(),
+                IpAccounting.Property.getDescriptors(),
+                ExtendedMemoryAccounting.Property.getDescriptors(),
+                ResourceControl.Property.getDescriptors(),
+                TasksAccounting.Property.getDescriptors(),
+                Ulimit.Property.getDescriptors()
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(
-                    Property.class,
-                    ExtendedCpuAccounting.Property.class,
-                    DynamicUserAccounting.Property.class,
-                    IoAccounting.Property.class,
-                    IpAccounting.Property.class,
-                    ExtendedMemoryAccounting.Property.class,
-                    ResourceControl.Property.class,
-                    TasksAccounting.Property.class,
-                    Ulimit.Property.class
-            );
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -37,20 +37,31 @@ public class Slice extends Unit implements CpuAccounting, IoAccounting, IpAccoun
         public static final String DEVICE_POLICY = "DevicePolicy";
         public static final String SLICE = "Slice";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.union(
+                PropertyTable.of(
+                        PropertyDescriptor.ofString(CONTROL_GROUP),
+                        PropertyDescriptor.ofList(DEVICE_ALLOW, "a(ss)"),
+                        PropertyDescriptor.ofString(DEVICE_POLICY),
+                        PropertyDescriptor.ofString(SLICE)
+                ),
+                CpuAccounting.Property.getDescriptors(),
+                IoAccounting.Property.getDescriptors(),
+                IpAccounting.Property.getDescriptors(),
+                MemoryAccounting.Property.getDescriptors(),
+                ResourceControl.Property.getDescriptors(),
+                TasksAccounting.Property.getDescriptors()
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(
-                    Property.class,
-                    CpuAccounting.Property.class,
-                    IoAccounting.Property.class,
-                    IpAccounting.Property.class,
-                    MemoryAccounting.Property.class,
-                    ResourceControl.Property.class,
-                    TasksAccounting.Property.class
-            );
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -136,22 +136,125 @@ public class Socket extends Unit implements ExtendedCpuAccounting, DynamicUserAc
         public static final String WORKING_DIRECTORY = "WorkingDirectory";
         public static final String WRITABLE = "Writable";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.union(
+                PropertyTable.of(
+                        PropertyDescriptor.ofBoolean(ACCEPT),
+                        PropertyDescriptor.ofLong(BACKLOG, "u"),
+                        PropertyDescriptor.ofString(BIND_IPV6_ONLY),
+                        PropertyDescriptor.ofString(BIND_TO_DEVICE),
+                        PropertyDescriptor.ofBoolean(BROADCAST),
+                        PropertyDescriptor.ofBigInteger(CAPABILITY_BOUNDING_SET),
+                        PropertyDescriptor.ofLong(CONTROL_PID, "u"),
+                        PropertyDescriptor.ofBigInteger(DEFER_ACCEPT_USEC),
+                        PropertyDescriptor.ofList(DEVICE_ALLOW, "a(ss)"),
+                        PropertyDescriptor.ofString(DEVICE_POLICY),
+                        PropertyDescriptor.ofLong(DIRECTORY_MODE, "u"),
+                        PropertyDescriptor.ofList(ENVIRONMENT, "as"),
+                        PropertyDescriptor.ofList(ENVIRONMENT_FILES, "a(sb)"),
+                        PropertyDescriptor.ofList(EXEC_START_POST, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_START_PRE, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_STOP_POST, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_STOP_PRE, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofString(FILE_DESCRIPTOR_NAME),
+                        PropertyDescriptor.ofInteger(FINAL_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofBoolean(FLUSH_PENDING),
+                        PropertyDescriptor.ofBoolean(FREE_BIND),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_CLASS, "i"),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_PRIORITY, "i"),
+                        PropertyDescriptor.ofInteger(IP_TOS, "i"),
+                        PropertyDescriptor.ofInteger(IP_TTL, "i"),
+                        PropertyDescriptor.ofBoolean(IGNORE_SIGPIPE),
+                        PropertyDescriptor.ofList(INACCESSIBLE_PATHS, "as"),
+                        PropertyDescriptor.ofBoolean(KEEP_ALIVE),
+                        PropertyDescriptor.ofBigInteger(KEEP_ALIVE_INTERVAL_USEC),
+                        PropertyDescriptor.ofLong(KEEP_ALIVE_PROBES, "u"),
+                        PropertyDescriptor.ofBigInteger(KEEP_ALIVE_TIME_USEC),
+                        PropertyDescriptor.ofString(KILL_MODE),
+                        PropertyDescriptor.ofInteger(KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofList(LISTEN, "a(ss)"),
+                        PropertyDescriptor.ofInteger(MARK, "i"),
+                        PropertyDescriptor.ofLong(MAX_CONNECTIONS, "u"),
+                        PropertyDescriptor.ofLong(MAX_CONNECTIONS_PER_SOURCE, "u"),
+                        PropertyDescriptor.ofLong(MESSAGE_QUEUE_MAX_MESSAGES, "x"),
+                        PropertyDescriptor.ofLong(MESSAGE_QUEUE_MESSAGE_SIZE, "x"),
+                        PropertyDescriptor.ofBigInteger(MOUNT_FLAGS),
+                        PropertyDescriptor.ofLong(NACCEPTED, "u"),
+                        PropertyDescriptor.ofLong(NCONNECTIONS, "u"),
+                        PropertyDescriptor.ofInteger(NICE, "i"),
+                        PropertyDescriptor.ofBoolean(NO_DELAY),
+                        PropertyDescriptor.ofBoolean(NO_NEW_PRIVILEGES),
+                        PropertyDescriptor.ofBoolean(NON_BLOCKING),
+                        PropertyDescriptor.ofLong(NREFUSED, "u"),
+                        PropertyDescriptor.ofInteger(OOM_SCORE_ADJUST, "i"),
+                        PropertyDescriptor.ofString(PAM_NAME),
+                        PropertyDescriptor.ofBoolean(PASS_CREDENTIALS),
+                        PropertyDescriptor.ofBoolean(PASS_PACKET_INFO),
+                        PropertyDescriptor.ofBoolean(PASS_SECURITY),
+                        PropertyDescriptor.ofBigInteger(PIPE_SIZE),
+                        PropertyDescriptor.ofInteger(PRIORITY, "i"),
+                        PropertyDescriptor.ofList(READ_ONLY_PATHS, "as"),
+                        PropertyDescriptor.ofList(READ_WRITE_PATHS, "as"),
+                        PropertyDescriptor.ofBigInteger(RECEIVE_BUFFER),
+                        PropertyDescriptor.ofBoolean(REMOVE_ON_STOP),
+                        PropertyDescriptor.ofInteger(RESTART_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(RESULT),
+                        PropertyDescriptor.ofBoolean(REUSE_PORT),
+                        PropertyDescriptor.ofString(ROOT_DIRECTORY),
+                        PropertyDescriptor.ofBoolean(SAME_PROCESS_GROUP),
+                        PropertyDescriptor.ofInteger(SECURE_BITS, "i"),
+                        PropertyDescriptor.ofBigInteger(SEND_BUFFER),
+                        PropertyDescriptor.ofBoolean(SEND_SIGHUP),
+                        PropertyDescriptor.ofBoolean(SEND_SIGKILL),
+                        PropertyDescriptor.ofString(SLICE),
+                        PropertyDescriptor.ofString(SMACK_LABEL),
+                        PropertyDescriptor.ofString(SMACK_LABEL_IPIN),
+                        PropertyDescriptor.ofString(SMACK_LABEL_IPOUT),
+                        PropertyDescriptor.ofString(SOCKET_GROUP),
+                        PropertyDescriptor.ofLong(SOCKET_MODE, "u"),
+                        PropertyDescriptor.ofInteger(SOCKET_PROTOCOL, "i"),
+                        PropertyDescriptor.ofString(SOCKET_USER),
+                        PropertyDescriptor.ofList(SUPPLEMENTARY_GROUPS, "as"),
+                        PropertyDescriptor.ofList(SYMLINKS, "as"),
+                        PropertyDescriptor.ofString(SYSLOG_IDENTIFIER),
+                        PropertyDescriptor.ofBoolean(SYSLOG_LEVEL_PREFIX),
+                        PropertyDescriptor.ofInteger(SYSLOG_PRIORITY, "i"),
+                        PropertyDescriptor.ofRaw(SYSTEM_CALL_FILTER, "(bas)"),
+                        PropertyDescriptor.ofString(TCP_CONGESTION),
+                        PropertyDescriptor.ofLong(TRIGGER_LIMIT_BURST, "u"),
+                        PropertyDescriptor.ofBigInteger(TRIGGER_LIMIT_INTERVAL_USEC),
+                        PropertyDescriptor.ofString(TTY_PATH),
+                        PropertyDescriptor.ofBoolean(TTY_RESET),
+                        PropertyDescriptor.ofBoolean(TTY_V_HANGUP),
+                        PropertyDescriptor.ofBoolean(TTY_VT_DISALLOCATE),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_USEC),
+                        PropertyDescriptor.ofBigInteger(TIMER_SLACK_NSEC),
+                        PropertyDescriptor.ofString(TIMESTAMPING),
+                        PropertyDescriptor.ofBoolean(TRANSPARENT),
+                        PropertyDescriptor.ofLong(UMASK, "u"),
+                        PropertyDescriptor.ofInteger(WATCHDOG_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(WORKING_DIRECTORY),
+                        PropertyDescriptor.ofBoolean(WRITABLE)
+                ),
+                ExtendedCpuAccounting.Property.getDescriptors(),
+                DynamicUserAccounting.Property.getDescriptors(),
+                IoAccounting.Property.getDescriptors(),
+                IpAccounting.Property.getDescriptors(),
+                ExtendedMemoryAccounting.Property.getDescriptors(),
+                ResourceControl.Property.getDescriptors(),
+                TasksAccounting.Property.getDescriptors(),
+                Ulimit.Property.getDescriptors()
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(
-                    Property.class,
-                    ExtendedCpuAccounting.Property.class,
-                    DynamicUserAccounting.Property.class,
-                    IoAccounting.Property.class,
-                    IpAccounting.Property.class,
-                    ExtendedMemoryAccounting.Property.class,
-                    ResourceControl.Property.class,
-                    TasksAccounting.Property.class,
-                    Ulimit.Property.class
-            );
+            return DESCRIPTORS.getNames();
         }
 
     }
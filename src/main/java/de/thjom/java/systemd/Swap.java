@@ -88,22 +88,78 @@ public class Swap extends Unit implements ExtendedCpuAccounting, DynamicUserAcco
         public static final String WHAT = "What";
         public static final String WORKING_DIRECTORY = "WorkingDirectory";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.union(
+                PropertyTable.of(
+                        PropertyDescriptor.ofBigInteger(CAPABILITY_BOUNDING_SET),
+                        PropertyDescriptor.ofLong(CONTROL_PID, "u"),
+                        PropertyDescriptor.ofList(DEVICE_ALLOW, "a(ss)"),
+                        PropertyDescriptor.ofString(DEVICE_POLICY),
+                        PropertyDescriptor.ofBoolean(DYNAMIC_USER),
+                        PropertyDescriptor.ofList(ENVIRONMENT, "as"),
+                        PropertyDescriptor.ofList(ENVIRONMENT_FILES, "a(sb)"),
+                        PropertyDescriptor.ofList(EXEC_ACTIVATE, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofList(EXEC_DEACTIVATE, "a(sasbttttuii)"),
+                        PropertyDescriptor.ofInteger(FINAL_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofBoolean(IGNORE_SIGPIPE),
+                        PropertyDescriptor.ofList(INACCESSIBLE_PATHS, "as"),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_CLASS, "i"),
+                        PropertyDescriptor.ofInteger(IO_SCHEDULING_PRIORITY, "i"),
+                        PropertyDescriptor.ofString(KILL_MODE),
+                        PropertyDescriptor.ofInteger(KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofBigInteger(MOUNT_FLAGS),
+                        PropertyDescriptor.ofInteger(NICE, "i"),
+                        PropertyDescriptor.ofBoolean(NON_BLOCKING),
+                        PropertyDescriptor.ofBoolean(NO_NEW_PRIVILEGES),
+                        PropertyDescriptor.ofInteger(OOM_SCORE_ADJUST, "i"),
+                        PropertyDescriptor.ofString(OPTIONS),
+                        PropertyDescriptor.ofString(PAM_NAME),
+                        PropertyDescriptor.ofInteger(PRIORITY, "i"),
+                        PropertyDescriptor.ofList(READ_ONLY_PATHS, "as"),
+                        PropertyDescriptor.ofList(READ_WRITE_PATHS, "as"),
+                        PropertyDescriptor.ofInteger(RESTART_KILL_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(RESULT),
+                        PropertyDescriptor.ofString(ROOT_DIRECTORY),
+                        PropertyDescriptor.ofBoolean(SAME_PROCESS_GROUP),
+                        PropertyDescriptor.ofInteger(SECURE_BITS, "i"),
+                        PropertyDescriptor.ofBoolean(SEND_SIGHUP),
+                        PropertyDescriptor.ofBoolean(SEND_SIGKILL),
+                        PropertyDescriptor.ofString(SLICE),
+                        PropertyDescriptor.ofList(SUPPLEMENTARY_GROUPS, "as"),
+                        PropertyDescriptor.ofString(SYSLOG_IDENTIFIER),
+                        PropertyDescriptor.ofBoolean(SYSLOG_LEVEL_PREFIX),
+                        PropertyDescriptor.ofInteger(SYSLOG_PRIORITY, "i"),
+                        PropertyDescriptor.ofRaw(SYSTEM_CALL_FILTER, "(bas)"),
+                        PropertyDescriptor.ofBigInteger(TIMEOUT_USEC),
+                        PropertyDescriptor.ofLong(TIMER_SLACK_NSEC, "t"),
+                        PropertyDescriptor.ofString(TTY_PATH),
+                        PropertyDescriptor.ofBoolean(TTY_RESET),
+                        PropertyDescriptor.ofBoolean(TTY_V_HANGUP),
+                        PropertyDescriptor.ofBoolean(TTY_VT_DISALLOCATE),
+                        PropertyDescriptor.ofLong(UMASK, "u"),
+                        PropertyDescriptor.ofInteger(WATCHDOG_SIGNAL, "i"),
+                        PropertyDescriptor.ofString(WHAT),
+                        PropertyDescriptor.ofString(WORKING_DIRECTORY)
+                ),
+                ExtendedCpuAccounting.Property.getDescriptors(),
+                DynamicUserAccounting.Property.getDescriptors(),
+                IoAccounting.Property.getDescriptors(),
+                IpAccounting.Property.getDescriptors(),
+                ExtendedMemoryAccounting.Property.getDescriptors(),
+                ResourceControl.Property.getDescriptors(),
+                TasksAccounting.Property.getDescriptors(),
+                Ulimit.Property.getDescriptors()
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(
-                    Property.class,
-                    ExtendedCpuAccounting.Property.class,
-                    DynamicUserAccounting.Property.class,
-                    IoAccounting.Property.class,
-                    IpAccounting.Property.class,
-                    ExtendedMemoryAccounting.Property.class,
-                    ResourceControl.Property.class,
-                    TasksAccounting.Property.class,
-                    Ulimit.Property.class
-            );
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -14,8 +14,10 @@ package de.thjom.java.systemd;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Arrays;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.xml.bind.DatatypeConverter;
@@ -60,7 +62,8 @@ public final class Systemd {
 
     private static final Logger LOG = LoggerFactory.getLogger(Systemd.class);
 
-    private static final Systemd[] INSTANCES = new Systemd[InstanceType.values().length];
+    private static final AtomicReferenceArray<Systemd> INSTANCES = new AtomicReferenceArray<>(InstanceType.values().length);
+    private static final Lock INSTANCES_LOCK = new ReentrantLock();
 
     private final InstanceType instanceType;
 
@@ -89,6 +92,33 @@ public final class Systemd {
         return "";
     }
 
+    public static String unescapePath(final CharSequence escapedPath) {
+        if (escapedPath != null) {
+            StringBuilder unescaped = new StringBuilder(escapedPath.length());
+            int length = escapedPath.length();
+
+            for (int i = 0; i < length; i++) {
+                char c = escapedPath.charAt(i);
+
+                if (c == '_' && i + 2 < length && isHexDigit(escapedPath.charAt(i + 1)) && isHexDigit(escapedPath.charAt(i + 2))) {
+                    unescaped.append((char) Integer.parseInt(escapedPath.subSequence(i + 1, i + 3).toString(), 16));
+                    i += 2;
+                }
+                else {
+                    unescaped.append(c);
+                }
+            }
+
+            return unescaped.toString();
+        }
+
+        return "";
+    }
+
+    private static boolean isHexDigit(final char c) {
+        return Character.digit(c, 16) >= 0;
+    }
+
     public static Instant timestampToInstant(final long timestamp) {
         return Instant.EPOCH.plus(timestamp, ChronoUnit.MICROS);
     }
@@ -106,21 +136,29 @@ public final class Systemd {
     }
 
     public static Systemd get(final InstanceType instanceType) throws DBusException {
-        final DBusBusType index = instanceType.getIndex();
+        final int index = instanceType.getIndex().ordinal();
+
+        Systemd instance = INSTANCES.get(index);
+
+        if (instance != null) {
+            return instance;
+        }
 
-        Systemd instance;
+        INSTANCES_LOCK.lock();
 
-        synchronized (INSTANCES) {
-            if (INSTANCES[index.ordinal()] == null) {
+        try {
+            instance = INSTANCES.get(index);
+
+            if (instance == null) {
                 instance = new Systemd(instanceType);
                 instance.open();
 
-                INSTANCES[index.ordinal()] = instance;
-            }
-            else {
-                instance = INSTANCES[index.ordinal()];
+                INSTANCES.set(index, instance);
             }
         }
+        finally {
+            INSTANCES_LOCK.unlock();
+        }
 
         return instance;
     }
@@ -130,28 +168,36 @@ public final class Systemd {
     }
 
     public static void disconnect(final InstanceType instanceType) {
-        final DBusBusType index = instanceType.getIndex();
+        final int index = instanceType.getIndex().ordinal();
 
-        synchronized (INSTANCES) {
-            Systemd instance = INSTANCES[index.ordinal()];
+        INSTANCES_LOCK.lock();
+
+        try {
+            Systemd instance = INSTANCES.getAndSet(index, null);
 
             if (instance != null) {
                 instance.close();
             }
-
-            INSTANCES[index.ordinal()] = null;
+        }
+        finally {
+            INSTANCES_LOCK.unlock();
         }
     }
 
     public static void disconnectAll() {
-        synchronized (INSTANCES) {
-            for (Systemd instance : INSTANCES) {
+        INSTANCES_LOCK.lock();
+
+        try {
+            for (int i = 0; i < INSTANCES.length(); i++) {
+                Systemd instance = INSTANCES.getAndSet(i, null);
+
                 if (instance != null) {
                     instance.close();
                 }
             }
-
-            Arrays.fill(INSTANCES, null);
+        }
+        finally {
+            INSTANCES_LOCK.unlock();
         }
     }
 
@@ -172,6 +218,10 @@ public final class Systemd {
     }
 
     private void close() {
+        if (dbus != null) {
+            Capabilities.unregister(dbus);
+        }
+
         if (isConnected()) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug(String.format("Disconnecting from %s bus", instanceType));
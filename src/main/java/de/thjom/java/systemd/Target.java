@@ -26,12 +26,18 @@ public class Target extends Unit {
 
         // No properties available so far
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of();
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -44,12 +44,35 @@ public class Timer extends Unit {
         public static final String TIMERS_MONOTONIC = "TimersMonotonic";
         public static final String WAKE_SYSTEM = "WakeSystem";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBigInteger(ACCURACY_USEC),
+                PropertyDescriptor.ofBoolean(FIXED_RANDOM_DELAY),
+                PropertyDescriptor.ofBigInteger(LAST_TRIGGER_USEC),
+                PropertyDescriptor.ofBigInteger(LAST_TRIGGER_USEC_MONOTONIC),
+                PropertyDescriptor.ofBigInteger(NEXT_ELAPSE_USEC_MONOTONIC),
+                PropertyDescriptor.ofBigInteger(NEXT_ELAPSE_USEC_REALTIME),
+                PropertyDescriptor.ofBoolean(ON_CLOCK_CHANGE),
+                PropertyDescriptor.ofBoolean(ON_TIMEZONE_CHANGE),
+                PropertyDescriptor.ofBoolean(PERSISTENT),
+                PropertyDescriptor.ofBigInteger(RANDOMIZED_DELAY_USEC),
+                PropertyDescriptor.ofBoolean(REMAIN_AFTER_ELAPSE),
+                PropertyDescriptor.ofString(RESULT),
+                PropertyDescriptor.ofString(UNIT),
+                PropertyDescriptor.ofList(TIMERS_CALENDAR, "a(sst)"),
+                PropertyDescriptor.ofList(TIMERS_MONOTONIC, "a(stt)"),
+                PropertyDescriptor.ofBoolean(WAKE_SYSTEM)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -16,9 +16,13 @@ import static de.thjom.java.systemd.Unit.Property.LOAD_STATE;
 import static de.thjom.java.systemd.Unit.Property.SUB_STATE;
 
 import java.math.BigInteger;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.freedesktop.dbus.DBusPath;
 import org.freedesktop.dbus.exceptions.DBusException;
@@ -33,6 +37,7 @@ import de.thjom.java.systemd.interfaces.UnitInterface;
 import de.thjom.java.systemd.types.Condition;
 import de.thjom.java.systemd.types.Job;
 import de.thjom.java.systemd.types.LoadError;
+import de.thjom.java.systemd.types.UnitType;
 
 public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier {
 
@@ -85,6 +90,210 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
 
     }
 
+    /**
+     * Values of the <code>ActiveState</code> property. Values unknown to this
+     * library map to {@link #UNKNOWN}.
+     */
+    public enum ActiveState {
+        ACTIVE("active"),
+        RELOADING("reloading"),
+        INACTIVE("inactive"),
+        FAILED("failed"),
+        ACTIVATING("activating"),
+        DEACTIVATING("deactivating"),
+        MAINTENANCE("maintenance"),
+        REFRESHING("refreshing"),
+        UNKNOWN("unknown");
+
+        private static final Map<String, ActiveState> VALUES = new HashMap<>();
+
+        static {
+            for (ActiveState state : values()) {
+                VALUES.put(state.value, state);
+            }
+        }
+
+        private final String value;
+
+        ActiveState(final String value) {
+            this.value = value;
+        }
+
+        public static ActiveState of(final String value) {
+            return value != null ? VALUES.getOrDefault(value, UNKNOWN) : UNKNOWN;
+        }
+
+        public final String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+
+    }
+
+    /**
+     * Values of the <code>LoadState</code> property.
+     */
+    public enum LoadState {
+        STUB("stub"),
+        LOADED("loaded"),
+        NOT_FOUND("not-found"),
+        BAD_SETTING("bad-setting"),
+        ERROR("error"),
+        MERGED("merged"),
+        MASKED("masked"),
+        UNKNOWN("unknown");
+
+        private static final Map<String, LoadState> VALUES = new HashMap<>();
+
+        static {
+            for (LoadState state : values()) {
+                VALUES.put(state.value, state);
+            }
+        }
+
+        private final String value;
+
+        LoadState(final String value) {
+            this.value = value;
+        }
+
+        public static LoadState of(final String value) {
+            return value != null ? VALUES.getOrDefault(value, UNKNOWN) : UNKNOWN;
+        }
+
+        public final String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+
+    }
+
+    /**
+     * Values of the <code>SubState</code> property across all unit types.
+     */
+    public enum SubState {
+        DEAD("dead"),
+        CONDITION("condition"),
+        START_PRE("start-pre"),
+        START_CHOWN("start-chown"),
+        START("start"),
+        START_POST("start-post"),
+        RUNNING("running"),
+        EXITED("exited"),
+        RELOAD("reload"),
+        STOP("stop"),
+        STOP_PRE("stop-pre"),
+        STOP_PRE_SIGTERM("stop-pre-sigterm"),
+        STOP_PRE_SIGKILL("stop-pre-sigkill"),
+        STOP_WATCHDOG("stop-watchdog"),
+        STOP_SIGTERM("stop-sigterm"),
+        STOP_SIGKILL("stop-sigkill"),
+        STOP_POST("stop-post"),
+        FINAL_WATCHDOG("final-watchdog"),
+        FINAL_SIGTERM("final-sigterm"),
+        FINAL_SIGKILL("final-sigkill"),
+        FAILED("failed"),
+        AUTO_RESTART("auto-restart"),
+        CLEANING("cleaning"),
+        ABANDONED("abandoned"),
+        WAITING("waiting"),
+        LISTENING("listening"),
+        ELAPSED("elapsed"),
+        ACTIVE("active"),
+        TENTATIVE("tentative"),
+        PLUGGED("plugged"),
+        MOUNTING("mounting"),
+        MOUNTING_DONE("mounting-done"),
+        MOUNTED("mounted"),
+        REMOUNTING("remounting"),
+        REMOUNTING_SIGTERM("remounting-sigterm"),
+        REMOUNTING_SIGKILL("remounting-sigkill"),
+        UNMOUNTING("unmounting"),
+        UNMOUNTING_SIGTERM("unmounting-sigterm"),
+        UNMOUNTING_SIGKILL("unmounting-sigkill"),
+        ACTIVATING("activating"),
+        ACTIVATING_DONE("activating-done"),
+        DEACTIVATING("deactivating"),
+        DEACTIVATING_SIGTERM("deactivating-sigterm"),
+        DEACTIVATING_SIGKILL("deactivating-sigkill"),
+        UNKNOWN("unknown");
+
+        private static final Map<String, SubState> VALUES = new HashMap<>();
+
+        static {
+            for (SubState state : values()) {
+                VALUES.put(state.value, state);
+            }
+        }
+
+        private final String value;
+
+        SubState(final String value) {
+            this.value = value;
+        }
+
+        public static SubState of(final String value) {
+            return value != null ? VALUES.getOrDefault(value, UNKNOWN) : UNKNOWN;
+        }
+
+        public final String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+
+    }
+
+    /**
+     * Values of the <code>FreezerState</code> property.
+     */
+    public enum FreezerState {
+        RUNNING("running"),
+        FREEZING("freezing"),
+        FROZEN("frozen"),
+        THAWING("thawing"),
+        UNKNOWN("unknown");
+
+        private static final Map<String, FreezerState> VALUES = new HashMap<>();
+
+        static {
+            for (FreezerState state : values()) {
+                VALUES.put(state.value, state);
+            }
+        }
+
+        private final String value;
+
+        FreezerState(final String value) {
+            this.value = value;
+        }
+
+        public static FreezerState of(final String value) {
+            return value != null ? VALUES.getOrDefault(value, UNKNOWN) : UNKNOWN;
+        }
+
+        public final String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+
+    }
+
     public static class Property extends InterfaceAdapter.AdapterProperty {
 
         public static final String ACTIVE_ENTER_TIMESTAMP = "ActiveEnterTimestamp";
@@ -174,12 +383,105 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
         public static final String WANTED_BY = "WantedBy";
         public static final String WANTS = "Wants";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofLong(ACTIVE_ENTER_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(ACTIVE_ENTER_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(ACTIVE_EXIT_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(ACTIVE_EXIT_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofString(ACTIVE_STATE),
+                PropertyDescriptor.ofList(AFTER, "as"),
+                PropertyDescriptor.ofBoolean(ALLOW_ISOLATE),
+                PropertyDescriptor.ofBoolean(ASSERT_RESULT),
+                PropertyDescriptor.ofLong(ASSERT_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(ASSERT_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofList(ASSERTS, "a(sbbsi)"),
+                PropertyDescriptor.ofList(BEFORE, "as"),
+                PropertyDescriptor.ofList(BINDS_TO, "as"),
+                PropertyDescriptor.ofList(BOUND_BY, "as"),
+                PropertyDescriptor.ofList(CAN_CLEAN, "as"),
+                PropertyDescriptor.ofBoolean(CAN_FREEZE),
+                PropertyDescriptor.ofBoolean(CAN_ISOLATE),
+                PropertyDescriptor.ofBoolean(CAN_RELOAD),
+                PropertyDescriptor.ofBoolean(CAN_START),
+                PropertyDescriptor.ofBoolean(CAN_STOP),
+                PropertyDescriptor.ofString(COLLECT_MODE),
+                PropertyDescriptor.ofBoolean(CONDITION_RESULT),
+                PropertyDescriptor.ofLong(CONDITION_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(CONDITION_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofList(CONDITIONS, "a(sbbsi)"),
+                PropertyDescriptor.ofList(CONFLICTED_BY, "as"),
+                PropertyDescriptor.ofList(CONFLICTS, "as"),
+                PropertyDescriptor.ofList(CONSISTS_OF, "as"),
+                PropertyDescriptor.ofBoolean(DEFAULT_DEPENDENCIES),
+                PropertyDescriptor.ofString(DESCRIPTION),
+                PropertyDescriptor.ofList(DOCUMENTATION, "as"),
+                PropertyDescriptor.ofList(DROP_IN_PATHS, "as"),
+                PropertyDescriptor.ofString(FAILURE_ACTION),
+                PropertyDescriptor.ofInteger(FAILURE_ACTION_EXIT_STATUS, "i"),
+                PropertyDescriptor.ofString(FOLLOWING),
+                PropertyDescriptor.ofString(FRAGMENT_PATH),
+                PropertyDescriptor.ofString(FREEZER_STATE),
+                PropertyDescriptor.ofString(ID),
+                PropertyDescriptor.ofBoolean(IGNORE_ON_ISOLATE),
+                PropertyDescriptor.ofLong(INACTIVE_ENTER_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INACTIVE_ENTER_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofLong(INACTIVE_EXIT_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(INACTIVE_EXIT_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofRaw(INVOCATION_ID, "ay"),
+                PropertyDescriptor.ofRaw(JOB, "(uo)"),
+                PropertyDescriptor.ofBigInteger(JOB_RUNNING_TIMEOUT_USEC),
+                PropertyDescriptor.ofString(JOB_TIMEOUT_ACTION),
+                PropertyDescriptor.ofString(JOB_TIMEOUT_REBOOT_ARGUMENT),
+                PropertyDescriptor.ofBigInteger(JOB_TIMEOUT_USEC),
+                PropertyDescriptor.ofList(JOINS_NAMESPACE_OF, "as"),
+                PropertyDescriptor.ofRaw(LOAD_ERROR, "(ss)"),
+                PropertyDescriptor.ofString(LOAD_STATE),
+                PropertyDescriptor.ofList(NAMES, "as"),
+                PropertyDescriptor.ofBoolean(NEED_DAEMON_RELOAD),
+                PropertyDescriptor.ofList(ON_FAILURE, "as"),
+                PropertyDescriptor.ofString(ON_FAILURE_JOB_MODE),
+                PropertyDescriptor.ofList(PART_OF, "as"),
+                PropertyDescriptor.ofBoolean(PERPETUAL),
+                PropertyDescriptor.ofList(PROPAGATES_RELOAD_TO, "as"),
+                PropertyDescriptor.ofString(REBOOT_ARGUMENT),
+                PropertyDescriptor.ofList(REFS, "as"),
+                PropertyDescriptor.ofBoolean(REFUSE_MANUAL_START),
+                PropertyDescriptor.ofBoolean(REFUSE_MANUAL_STOP),
+                PropertyDescriptor.ofList(RELOAD_PROPAGATED_FROM, "as"),
+                PropertyDescriptor.ofList(REQUIRED_BY, "as"),
+                PropertyDescriptor.ofList(REQUIRES, "as"),
+                PropertyDescriptor.ofList(REQUIRES_MOUNTS_FOR, "as"),
+                PropertyDescriptor.ofList(REQUISITE, "as"),
+                PropertyDescriptor.ofList(REQUISITE_OF, "as"),
+                PropertyDescriptor.ofString(SOURCE_PATH),
+                PropertyDescriptor.ofString(START_LIMIT_ACTION),
+                PropertyDescriptor.ofLong(START_LIMIT_BURST, "u"),
+                PropertyDescriptor.ofLong(START_LIMIT_INTERVAL_USEC, "t"),
+                PropertyDescriptor.ofLong(STATE_CHANGE_TIMESTAMP, "t"),
+                PropertyDescriptor.ofLong(STATE_CHANGE_TIMESTAMP_MONOTONIC, "t"),
+                PropertyDescriptor.ofBoolean(STOP_WHEN_UNNEEDED),
+                PropertyDescriptor.ofString(SUB_STATE),
+                PropertyDescriptor.ofString(SUCCESS_ACTION),
+                PropertyDescriptor.ofInteger(SUCCESS_ACTION_EXIT_STATUS, "i"),
+                PropertyDescriptor.ofBoolean(TRANSIENT),
+                PropertyDescriptor.ofList(TRIGGERED_BY, "as"),
+                PropertyDescriptor.ofList(TRIGGERS, "as"),
+                PropertyDescriptor.ofString(UNIT_FILE_PRESET),
+                PropertyDescriptor.ofString(UNIT_FILE_STATE),
+                PropertyDescriptor.ofList(WANTED_BY, "as"),
+                PropertyDescriptor.ofList(WANTS, "as")
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -287,15 +589,7 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
 
     @Override
     protected DBusSigHandler<PropertiesChanged> createStateHandler() {
-        return signal -> {
-            Map<String, Variant<?>> properties = signal.getPropertiesChanged();
-
-            if (properties.containsKey(ACTIVE_STATE) || properties.containsKey(LOAD_STATE) || properties.containsKey(SUB_STATE)) {
-                synchronized (unitStateListeners) {
-                    unitStateListeners.forEach(l -> l.stateChanged(Unit.this, properties));
-                }
-            }
-        };
+        return signal -> notifyListeners(Unit.this, signal.getPropertiesChanged());
     }
 
     public String introspect() throws DBusException {
@@ -416,6 +710,10 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
         return unitProperties.getString(Property.ACTIVE_STATE);
     }
 
+    public ActiveState getActiveStateValue() {
+        return ActiveState.of(getActiveState());
+    }
+
     public List<String> getAfter() {
         return unitProperties.getList(Property.AFTER);
     }
@@ -608,6 +906,10 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
         return unitProperties.getString(Property.LOAD_STATE);
     }
 
+    public LoadState getLoadStateValue() {
+        return LoadState.of(getLoadState());
+    }
+
     public List<String> getNames() {
         return unitProperties.getList(Property.NAMES);
     }
@@ -708,6 +1010,10 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
         return unitProperties.getString(Property.SUB_STATE);
     }
 
+    public SubState getSubStateValue() {
+        return SubState.of(getSubState());
+    }
+
     public String getSuccessAction() {
         return unitProperties.getString(Property.SUCCESS_ACTION);
     }
@@ -749,36 +1055,119 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
         return name;
     }
 
+    /**
+     * Combination of load, active and sub state of a unit.<p>
+     *
+     * Instances obtained via the static factory methods are interned, i.e. equal
+     * states share one instance and may be compared by reference. The typed
+     * accessors allow comparisons by enum constant instead of string equality.
+     */
     public static final class StateTuple {
 
+        static final int MAX_INTERNED = 4096;
+
+        private static final String UNSET = "-";
+
+        private static final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, StateTuple>>> INTERNED = new ConcurrentHashMap<>();
+
+        private static final AtomicInteger INTERNED_COUNT = new AtomicInteger();
+
         private final String loadState;
         private final String activeState;
         private final String subState;
 
+        private final LoadState load;
+        private final ActiveState active;
+        private final SubState sub;
+
         public StateTuple(final String loadState, final String activeState, final String subState) {
             this.loadState = loadState;
             this.activeState = activeState;
             this.subState = subState;
+
+            this.load = LoadState.of(loadState);
+            this.active = ActiveState.of(activeState);
+            this.sub = SubState.of(subState);
+        }
+
+        /**
+         * Returns the shared instance for the given states. Once the (generous)
+         * limit of distinct combinations is reached, new combinations are no
+         * longer interned but returned as fresh instances.
+         *
+         * @param loadState The load state.
+         * @param activeState The active state.
+         * @param subState The sub state.
+         * @return The (interned) state tuple.
+         */
+        public static StateTuple intern(final String loadState, final String activeState, final String subState) {
+            String load = loadState != null ? loadState : UNSET;
+            String active = activeState != null ? activeState : UNSET;
+            String sub = subState != null ? subState : UNSET;
+
+            ConcurrentMap<String, ConcurrentMap<String, StateTuple>> byActive = INTERNED.get(load);
+            ConcurrentMap<String, StateTuple> bySub = byActive != null ? byActive.get(active) : null;
+            StateTuple tuple = bySub != null ? bySub.get(sub) : null;
+
+            if (tuple != null) {
+                return tuple;
+            }
+
+            tuple = new StateTuple(load, active, sub);
+
+            // Claim a slot first, so concurrent callers cannot exceed the limit
+            if (INTERNED_COUNT.get() >= MAX_INTERNED || INTERNED_COUNT.incrementAndGet() > MAX_INTERNED) {
+                return tuple;
+            }
+
+            bySub = INTERNED.computeIfAbsent(load, k -> new ConcurrentHashMap<>()).computeIfAbsent(active, k -> new ConcurrentHashMap<>());
+
+            StateTuple existing = bySub.putIfAbsent(sub, tuple);
+
+            if (existing != null) {
+                INTERNED_COUNT.decrementAndGet();
+
+                return existing;
+            }
+
+            return tuple;
         }
 
         public static StateTuple of(final Unit unit) {
-            return new StateTuple(unit.getLoadState(), unit.getActiveState(), unit.getSubState());
+            return intern(unit.getLoadState(), unit.getActiveState(), unit.getSubState());
         }
 
-        public static StateTuple of(final Map<String, Variant<?>> properties) {
-            String loadState = String.valueOf(properties.getOrDefault(LOAD_STATE, new Variant<>("-")).getValue());
-            String activeState = String.valueOf(properties.getOrDefault(ACTIVE_STATE, new Variant<>("-")).getValue());
-            String subState = String.valueOf(properties.getOrDefault(SUB_STATE, new Variant<>("-")).getValue());
+        public static StateTuple of(final UnitType unitType) {
+            return intern(unitType.getLoadState(), unitType.getActiveState(), unitType.getSubState());
+        }
 
-            return new StateTuple(loadState, activeState, subState);
+        public static StateTuple of(final Map<String, Variant<?>> properties) {
+            return intern(valueOf(properties, LOAD_STATE), valueOf(properties, ACTIVE_STATE), valueOf(properties, SUB_STATE));
         }
 
+        /**
+         * Creates a state tuple from changed properties, reading states which
+         * are not contained in the map from the unit (only those).
+         *
+         * @param unit The unit the properties belong to.
+         * @param properties The changed properties.
+         * @return The (interned) state tuple.
+         */
         public static StateTuple of(final Unit unit, final Map<String, Variant<?>> properties) {
-            String loadState = String.valueOf(properties.getOrDefault(LOAD_STATE, new Variant<>(unit.getLoadState())).getValue());
-            String activeState = String.valueOf(properties.getOrDefault(ACTIVE_STATE, new Variant<>(unit.getActiveState())).getValue());
-            String subState = String.valueOf(properties.getOrDefault(SUB_STATE, new Variant<>(unit.getSubState())).getValue());
+            String loadState = valueOf(properties, LOAD_STATE);
+            String activeState = valueOf(properties, ACTIVE_STATE);
+            String subState = valueOf(properties, SUB_STATE);
+
+            return intern(
+                    loadState != null ? loadState : unit.getLoadState(),
+                    activeState != null ? activeState : unit.getActiveState(),
+                    subState != null ? subState : unit.getSubState());
+        }
 
-            return new StateTuple(loadState, activeState, subState);
+        private static String valueOf(final Map<String, Variant<?>> properties, final String name) {
+            Variant<?> variant = properties.get(name);
+
+            return variant != null ? String.valueOf(variant.getValue()) : null;
         }
 
         public String getLoadState() {
@@ -793,6 +1182,38 @@ public abstract class Unit extends InterfaceAdapter implements UnitStateNotifier
             return subState;
         }
 
+        public LoadState getLoad() {
+            return load;
+        }
+
+        public ActiveState getActive() {
+            return active;
+        }
+
+        public SubState getSub() {
+            return sub;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof StateTuple)) {
+                return false;
+            }
+
+            StateTuple other = (StateTuple) obj;
+
+            return Objects.equals(loadState, other.loadState) && Objects.equals(activeState, other.activeState) && Objects.equals(subState, other.subState);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(loadState, activeState, subState);
+        }
+
         @Override
         public String toString() {
             return String.format("%s - %s (%s)", loadState, activeState, subState);
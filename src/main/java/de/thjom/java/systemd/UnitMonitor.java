@@ -11,7 +11,6 @@
 
 package de.thjom.java.systemd;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -21,15 +20,19 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.DBusSigHandler;
 import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
 import org.freedesktop.dbus.messages.DBusSignal;
-import org.freedesktop.dbus.types.Variant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.thjom.java.systemd.instrumentation.FlightRecording;
+import de.thjom.java.systemd.instrumentation.Instrumentation;
 import de.thjom.java.systemd.interfaces.ManagerInterface.Reloading;
 import de.thjom.java.systemd.interfaces.ManagerInterface.UnitFilesChanged;
 
@@ -37,16 +40,17 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
 
     protected static final String ERROR_MSG_MONITOR_REFRESH = "Error while refreshing internal monitor state";
 
-	private static final String ACTIVE_STATE = Unit.Property.ACTIVE_STATE;
-	private static final String LOAD_STATE = Unit.Property.LOAD_STATE;
-	private static final String SUB_STATE = Unit.Property.SUB_STATE;
-
     protected final Logger log = LoggerFactory.getLogger(getClass());
 
     protected final Manager manager;
     protected final ConcurrentMap<String, Unit> monitoredUnits = new ConcurrentHashMap<>();
 
-    protected final List<UnitMonitorListener> unitMonitorListeners = new ArrayList<>();
+    protected final List<UnitMonitorListener> unitMonitorListeners = new CopyOnWriteArrayList<>();
+
+    /** Serializes modifications and refreshes of the monitored units. */
+    protected final Lock monitorLock = new ReentrantLock();
+
+    private final Lock pollingLock = new ReentrantLock();
 
     protected ReloadingHandler reloadingHandler;
     protected UnitFilesChangedHandler unitFilesChangedHandler;
@@ -89,22 +93,16 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
             Optional<Unit> unit = findMonitoredUnit(Unit.extractName(signal.getPath()));
 
             if (unit.isPresent()) {
-                Map<String, Variant<?>> properties = signal.getPropertiesChanged();
-
-                if (properties.containsKey(ACTIVE_STATE) || properties.containsKey(LOAD_STATE) || properties.containsKey(SUB_STATE)) {
-                    synchronized (unitStateListeners) {
-                        unitStateListeners.forEach(l -> l.stateChanged(unit.get(), properties));
-                    }
-                }
+                notifyListeners(unit.get(), signal.getPropertiesChanged());
             }
         };
     }
 
-    public synchronized void addListener(final UnitMonitorListener listener) {
+    public void addListener(final UnitMonitorListener listener) {
         unitMonitorListeners.add(listener);
     }
 
-    public synchronized void removeListener(final UnitMonitorListener listener) {
+    public void removeListener(final UnitMonitorListener listener) {
         unitMonitorListeners.remove(listener);
     }
 
@@ -112,7 +110,33 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
 
     public abstract void refresh() throws DBusException;
 
-    public synchronized void startPolling(final long delay, final long period) {
+    /**
+     * Replaces the monitored units by the given ones without passing through an
+     * empty state, hence signals of units which stay monitored are not lost
+     * during a refresh.
+     *
+     * @param units The monitored units by escaped unit name.
+     */
+    protected void replaceMonitoredUnits(final Map<String, Unit> units) {
+        monitoredUnits.putAll(units);
+        monitoredUnits.keySet().retainAll(units.keySet());
+    }
+
+    /**
+     * Completes a refresh by recording the given flight recorder event (see
+     * {@link FlightRecording#beginRefresh()}) and notifying the listeners.
+     *
+     * @param event The event token, may be <code>null</code>.
+     */
+    protected void refreshed(final Object event) {
+        if (event != null) {
+            FlightRecording.endRefresh(event, getClass().getSimpleName(), monitoredUnits.size());
+        }
+
+        unitMonitorListeners.forEach(l -> l.monitorRefreshed(monitoredUnits.values()));
+    }
+
+    public void startPolling(final long delay, final long period) {
         TimerTask task = new TimerTask() {
 
             @Override
@@ -127,17 +151,31 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
 
         };
 
-        if (pollingTimer != null) {
-            pollingTimer.cancel();
-        }
+        pollingLock.lock();
+
+        try {
+            if (pollingTimer != null) {
+                pollingTimer.cancel();
+            }
 
-        pollingTimer = createTimer();
-        pollingTimer.schedule(task, delay, period);
+            pollingTimer = createTimer();
+            pollingTimer.schedule(task, delay, period);
+        }
+        finally {
+            pollingLock.unlock();
+        }
     }
 
-    public synchronized void stopPolling() {
-        if (pollingTimer != null) {
-            pollingTimer.cancel();
+    public void stopPolling() {
+        pollingLock.lock();
+
+        try {
+            if (pollingTimer != null) {
+                pollingTimer.cancel();
+            }
+        }
+        finally {
+            pollingLock.unlock();
         }
     }
 
@@ -161,6 +199,21 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
         return monitoredUnits.values();
     }
 
+    private void refreshOnSignal(final Class<? extends DBusSignal> type) {
+        long start = Instrumentation.isEnabled() ? System.nanoTime() : 0L;
+
+        try {
+            refresh();
+        }
+        catch (final DBusException e) {
+            log.error(ERROR_MSG_MONITOR_REFRESH, e);
+        }
+
+        if (start != 0L) {
+            Instrumentation.recordSignal(type.getSimpleName(), System.nanoTime() - start);
+        }
+    }
+
     public class ReloadingHandler implements DBusSigHandler<Reloading> {
 
         @Override
@@ -175,12 +228,7 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
                     log.debug(String.format("Signal received ('daemon-reload' finished: %s)", signal));
                 }
 
-                try {
-                    refresh();
-                }
-                catch (final DBusException e) {
-                    log.error(ERROR_MSG_MONITOR_REFRESH, e);
-                }
+                refreshOnSignal(Reloading.class);
             }
         }
 
@@ -194,12 +242,7 @@ abstract class UnitMonitor extends AbstractAdapter implements UnitStateNotifier
                 log.debug(String.format("Signal received (unit files changed: %s)", signal));
             }
 
-            try {
-                refresh();
-            }
-            catch (final DBusException e) {
-                log.error(ERROR_MSG_MONITOR_REFRESH, e);
-            }
+            refreshOnSignal(UnitFilesChanged.class);
         }
 
     }
@@ -11,64 +11,111 @@
 
 package de.thjom.java.systemd;
 
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.freedesktop.dbus.exceptions.DBusException;
 
+import de.thjom.java.systemd.instrumentation.FlightRecording;
+
 public class UnitNameMonitor extends UnitMonitor {
 
-    protected final Set<String> monitoredNames = new HashSet<>();
+    protected final Set<String> monitoredNames = ConcurrentHashMap.newKeySet();
 
     public UnitNameMonitor(final Manager manager) {
         super(manager);
     }
 
     @Override
-    public synchronized void reset() {
-        monitoredNames.clear();
-        monitoredUnits.clear();
+    public void reset() {
+        monitorLock.lock();
+
+        try {
+            monitoredNames.clear();
+            monitoredUnits.clear();
+        }
+        finally {
+            monitorLock.unlock();
+        }
     }
 
     @Override
-    public synchronized void refresh() throws DBusException {
+    public void refresh() throws DBusException {
+        Object event = FlightRecording.beginRefresh();
+
+        monitorLock.lock();
+
         try {
-            monitoredUnits.clear();
+            Map<String, Unit> units = new HashMap<>();
 
             for (String unitName : monitoredNames) {
-                monitoredUnits.put(Systemd.escapePath(unitName), manager.getUnit(unitName));
+                units.put(Systemd.escapePath(unitName), manager.getUnit(unitName));
             }
+
+            replaceMonitoredUnits(units);
         }
         finally {
-            unitMonitorListeners.forEach(l -> l.monitorRefreshed(monitoredUnits.values()));
+            monitorLock.unlock();
+
+            refreshed(event);
         }
     }
 
-    public synchronized void addUnits(final String... fullUnitNames) throws DBusException {
-        for (String unitName : fullUnitNames) {
-            monitoredNames.add(unitName);
-            monitoredUnits.put(Systemd.escapePath(unitName), manager.getUnit(unitName));
+    public void addUnits(final String... fullUnitNames) throws DBusException {
+        monitorLock.lock();
+
+        try {
+            for (String unitName : fullUnitNames) {
+                monitoredNames.add(unitName);
+                monitoredUnits.put(Systemd.escapePath(unitName), manager.getUnit(unitName));
+            }
+        }
+        finally {
+            monitorLock.unlock();
         }
     }
 
-    public synchronized void addUnits(final Unit... units) {
-        for (Unit unit : units) {
-            monitoredNames.add(unit.getId());
-            monitoredUnits.put(Systemd.escapePath(unit.getId()), unit);
+    public void addUnits(final Unit... units) {
+        monitorLock.lock();
+
+        try {
+            for (Unit unit : units) {
+                monitoredNames.add(unit.getId());
+                monitoredUnits.put(Systemd.escapePath(unit.getId()), unit);
+            }
+        }
+        finally {
+            monitorLock.unlock();
         }
     }
 
-    public synchronized void removeUnits(final String... fullUnitNames) {
-        for (String unitName : fullUnitNames) {
-            monitoredNames.remove(unitName);
-            monitoredUnits.remove(Systemd.escapePath(unitName));
+    public void removeUnits(final String... fullUnitNames) {
+        monitorLock.lock();
+
+        try {
+            for (String unitName : fullUnitNames) {
+                monitoredNames.remove(unitName);
+                monitoredUnits.remove(Systemd.escapePath(unitName));
+            }
+        }
+        finally {
+            monitorLock.unlock();
         }
     }
 
-    public synchronized void removeUnits(final Unit... units) {
-        for (Unit unit : units) {
-            monitoredNames.remove(unit.getId());
-            monitoredUnits.remove(Systemd.escapePath(unit.getId()));
+    public void removeUnits(final Unit... units) {
+        monitorLock.lock();
+
+        try {
+            for (Unit unit : units) {
+                monitoredNames.remove(unit.getId());
+                monitoredUnits.remove(Systemd.escapePath(unit.getId()));
+            }
+        }
+        finally {
+            monitorLock.unlock();
         }
     }
 
@@ -13,9 +13,12 @@ package de.thjom.java.systemd;
 
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.freedesktop.dbus.exceptions.DBusException;
 
+import de.thjom.java.systemd.instrumentation.FlightRecording;
 import de.thjom.java.systemd.types.UnitType;
 
 public class UnitTypeMonitor extends UnitMonitor {
@@ -96,38 +99,67 @@ public class UnitTypeMonitor extends UnitMonitor {
     }
 
     @Override
-    public synchronized void reset() {
-        monitoredTypes.clear();
-        monitoredUnits.clear();
+    public void reset() {
+        monitorLock.lock();
+
+        try {
+            monitoredTypes.clear();
+            monitoredUnits.clear();
+        }
+        finally {
+            monitorLock.unlock();
+        }
     }
 
     @Override
-    public synchronized void refresh() throws DBusException {
+    public void refresh() throws DBusException {
+        Object event = FlightRecording.beginRefresh();
+
+        monitorLock.lock();
+
         try {
-            monitoredUnits.clear();
+            Map<String, Unit> units = new HashMap<>();
 
             for (UnitType unit : manager.listUnits()) {
                 if (isIncluded(unit)) {
                     String name = unit.getUnitName();
 
-                    monitoredUnits.put(Systemd.escapePath(name), manager.getUnit(name));
+                    units.put(Systemd.escapePath(name), manager.getUnit(name));
                 }
             }
+
+            replaceMonitoredUnits(units);
         }
         finally {
-            unitMonitorListeners.forEach(l -> l.monitorRefreshed(monitoredUnits.values()));
+            monitorLock.unlock();
+
+            refreshed(event);
         }
     }
 
     public final void addMonitoredTypes(final MonitoredType... monitoredTypes) throws DBusException {
-        Collections.addAll(this.monitoredTypes, monitoredTypes);
+        monitorLock.lock();
+
+        try {
+            Collections.addAll(this.monitoredTypes, monitoredTypes);
+        }
+        finally {
+            monitorLock.unlock();
+        }
 
         refresh();
     }
 
     public final void removeMonitoredTypes(final MonitoredType... monitoredTypes) throws DBusException {
-        for (MonitoredType monitoredType : monitoredTypes) {
-            this.monitoredTypes.remove(monitoredType);
+        monitorLock.lock();
+
+        try {
+            for (MonitoredType monitoredType : monitoredTypes) {
+                this.monitoredTypes.remove(monitoredType);
+            }
+        }
+        finally {
+            monitorLock.unlock();
         }
 
         refresh();
@@ -0,0 +1,49 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+
+/**
+ * Thrown locally (without a bus round trip) when a property or method is not
+ * provided by the connected systemd instance according to its
+ * {@link Capabilities}. The error type equals the one systemd would reply
+ * with, hence existing handling of {@link DBusExecutionException}s applies.
+ */
+public class UnsupportedCapabilityException extends DBusExecutionException {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String UNKNOWN_PROPERTY = "org.freedesktop.DBus.Error.UnknownProperty";
+    public static final String UNKNOWN_METHOD = "org.freedesktop.DBus.Error.UnknownMethod";
+
+    private final String interfaceName;
+    private final String member;
+
+    public UnsupportedCapabilityException(final String type, final String interfaceName, final String member, final String version) {
+        super(String.format("%s.%s is not supported by systemd %s", interfaceName, member, version));
+
+        this.interfaceName = interfaceName;
+        this.member = member;
+
+        setType(type);
+    }
+
+    public String getInterfaceName() {
+        return interfaceName;
+    }
+
+    public String getMember() {
+        return member;
+    }
+
+}
@@ -0,0 +1,502 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.thjom.java.systemd.Unit;
+
+/**
+ * Reads resource accounting counters of a unit directly from the unified
+ * control group (v2) hierarchy.<p>
+ *
+ * The <code>ControlGroup</code> of the unit is resolved once on creation; all
+ * subsequent reads bypass "systemd" and the bus. Files are read into a buffer
+ * owned by this instance and parsed without regular expressions or intermediate
+ * strings, so periodic sampling via {@link #sample(Sample)} does not allocate.
+ * Instances are thread-safe, concurrent reads on the same instance are serialized.<p>
+ *
+ * Counters which are not available (e.g. controller not enabled) are reported
+ * as {@link #UNAVAILABLE}.
+ */
+public class CgroupAccounting {
+
+    public static final Path DEFAULT_CGROUP_ROOT = Paths.get("/sys/fs/cgroup");
+    public static final long UNAVAILABLE = -1L;
+
+    static final String MEMORY_CURRENT = "memory.current";
+    static final String MEMORY_STAT = "memory.stat";
+    static final String CPU_STAT = "cpu.stat";
+    static final String IO_STAT = "io.stat";
+    static final String PIDS_CURRENT = "pids.current";
+
+    private static final byte[] USAGE_USEC = bytes("usage_usec");
+    private static final byte[] USER_USEC = bytes("user_usec");
+    private static final byte[] SYSTEM_USEC = bytes("system_usec");
+    private static final byte[] RBYTES = bytes("rbytes");
+    private static final byte[] WBYTES = bytes("wbytes");
+    private static final byte[] RIOS = bytes("rios");
+    private static final byte[] WIOS = bytes("wios");
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    private final Path directory;
+    private final String controlGroup;
+    private final Lock lock = new ReentrantLock();
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    public CgroupAccounting(final Path cgroupRoot, final String controlGroup) {
+        this.controlGroup = Objects.requireNonNull(controlGroup);
+        this.directory = resolve(Objects.requireNonNull(cgroupRoot), controlGroup);
+    }
+
+    public static CgroupAccounting of(final Unit unit) {
+        return of(unit, DEFAULT_CGROUP_ROOT);
+    }
+
+    public static CgroupAccounting of(final Unit unit, final Path cgroupRoot) {
+        String controlGroup = ControlGroups.of(unit)
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unit %s has no control group", unit)));
+
+        return new CgroupAccounting(cgroupRoot, controlGroup);
+    }
+
+    static Path resolve(final Path cgroupRoot, final String controlGroup) {
+        String relative = controlGroup.startsWith("/") ? controlGroup.substring(1) : controlGroup;
+
+        return relative.isEmpty() ? cgroupRoot : cgroupRoot.resolve(relative);
+    }
+
+    public String getControlGroup() {
+        return controlGroup;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public long getMemoryCurrent() throws IOException {
+        lock.lock();
+
+        try {
+            int length = read(MEMORY_CURRENT);
+
+            return length < 0 ? UNAVAILABLE : parseLong(buffer.array(), 0, length);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a single counter from <code>memory.stat</code>, e.g. <code>anon</code>
+     * or <code>file</code>.
+     *
+     * @param key The counter name.
+     * @return The counter value in bytes (or events, depending on the key).
+     * @throws IOException If reading the file fails.
+     */
+    public long getMemoryStat(final String key) throws IOException {
+        lock.lock();
+
+        try {
+            int length = read(MEMORY_STAT);
+
+            return length < 0 ? UNAVAILABLE : findValue(buffer.array(), length, bytes(key));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies all counters from <code>memory.stat</code> into the given map.
+     *
+     * @param target The map to fill.
+     * @return The given map.
+     * @throws IOException If reading the file fails.
+     */
+    public Map<String, Long> getMemoryStat(final Map<String, Long> target) throws IOException {
+        lock.lock();
+
+        try {
+            int length = read(MEMORY_STAT);
+            byte[] data = buffer.array();
+            int lineStart = 0;
+
+            for (int i = 0; i <= length; i++) {
+                if (i == length || data[i] == '\n') {
+                    int space = indexOf(data, lineStart, i, (byte) ' ');
+
+                    if (space > lineStart) {
+                        target.put(new String(data, lineStart, space - lineStart, StandardCharsets.US_ASCII), parseLong(data, space + 1, i));
+                    }
+
+                    lineStart = i + 1;
+                }
+            }
+
+            return target;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the CPU time consumed by the control group, in nanoseconds like
+     * the <code>CPUUsageNSec</code> property.
+     *
+     * @return The consumed CPU time in nanoseconds.
+     * @throws IOException If reading the file fails.
+     */
+    public long getCPUUsageNSec() throws IOException {
+        lock.lock();
+
+        try {
+            int length = read(CPU_STAT);
+
+            if (length < 0) {
+                return UNAVAILABLE;
+            }
+
+            long usec = findValue(buffer.array(), length, USAGE_USEC);
+
+            return usec < 0 ? UNAVAILABLE : usec * 1000L;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getIOReadBytes() throws IOException {
+        lock.lock();
+
+        try {
+            return sumIOStat(RBYTES);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getIOWriteBytes() throws IOException {
+        lock.lock();
+
+        try {
+            return sumIOStat(WBYTES);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getIOReadOperations() throws IOException {
+        lock.lock();
+
+        try {
+            return sumIOStat(RIOS);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getIOWriteOperations() throws IOException {
+        lock.lock();
+
+        try {
+            return sumIOStat(WIOS);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTasksCurrent() throws IOException {
+        lock.lock();
+
+        try {
+            int length = read(PIDS_CURRENT);
+
+            return length < 0 ? UNAVAILABLE : parseLong(buffer.array(), 0, length);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads all counters into the given (reusable) sample.
+     *
+     * @param sample The sample to fill.
+     * @return The given sample.
+     * @throws IOException If reading one of the files fails.
+     */
+    public Sample sample(final Sample sample) throws IOException {
+        lock.lock();
+
+        try {
+            sample.timestamp = System.nanoTime();
+            sample.memoryCurrent = getMemoryCurrent();
+            sample.tasksCurrent = getTasksCurrent();
+
+            int length = read(CPU_STAT);
+
+            if (length < 0) {
+                sample.cpuUsageUSec = UNAVAILABLE;
+                sample.cpuUserUSec = UNAVAILABLE;
+                sample.cpuSystemUSec = UNAVAILABLE;
+            }
+            else {
+                sample.cpuUsageUSec = findValue(buffer.array(), length, USAGE_USEC);
+                sample.cpuUserUSec = findValue(buffer.array(), length, USER_USEC);
+                sample.cpuSystemUSec = findValue(buffer.array(), length, SYSTEM_USEC);
+            }
+
+            length = read(IO_STAT);
+
+            if (length < 0) {
+                sample.ioReadBytes = UNAVAILABLE;
+                sample.ioWriteBytes = UNAVAILABLE;
+                sample.ioReadOperations = UNAVAILABLE;
+                sample.ioWriteOperations = UNAVAILABLE;
+            }
+            else {
+                sample.ioReadBytes = sumKeyValues(buffer.array(), length, RBYTES);
+                sample.ioWriteBytes = sumKeyValues(buffer.array(), length, WBYTES);
+                sample.ioReadOperations = sumKeyValues(buffer.array(), length, RIOS);
+                sample.ioWriteOperations = sumKeyValues(buffer.array(), length, WIOS);
+            }
+
+            return sample;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    int read(final String fileName) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(fileName), StandardOpenOption.READ)) {
+            buffer.clear();
+
+            while (true) {
+                int count = channel.read(buffer);
+
+                if (count < 0) {
+                    break;
+                }
+
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    buffer = larger;
+                }
+            }
+
+            return buffer.position();
+        }
+        catch (final NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    private long sumIOStat(final byte[] key) throws IOException {
+        int length = read(IO_STAT);
+
+        return length < 0 ? UNAVAILABLE : sumKeyValues(buffer.array(), length, key);
+    }
+
+    /**
+     * Finds the value of a <code>key value</code> line (flat keyed format).
+     */
+    static long findValue(final byte[] data, final int length, final byte[] key) {
+        int lineStart = 0;
+
+        while (lineStart < length) {
+            int lineEnd = indexOf(data, lineStart, length, (byte) '\n');
+
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+
+            if (regionMatches(data, lineStart, lineEnd, key) && lineStart + key.length < lineEnd && data[lineStart + key.length] == ' ') {
+                return parseLong(data, lineStart + key.length + 1, lineEnd);
+            }
+
+            lineStart = lineEnd + 1;
+        }
+
+        return UNAVAILABLE;
+    }
+
+    /**
+     * Sums up all values of <code>key=value</code> tokens (nested keyed format, as
+     * used by <code>io.stat</code>) across all lines.
+     */
+    static long sumKeyValues(final byte[] data, final int length, final byte[] key) {
+        long sum = 0L;
+        int tokenStart = 0;
+
+        for (int i = 0; i <= length; i++) {
+            if (i == length || data[i] == ' ' || data[i] == '\n') {
+                if (i - tokenStart > key.length && data[tokenStart + key.length] == '=' && regionMatches(data, tokenStart, i, key)) {
+                    long value = parseLong(data, tokenStart + key.length + 1, i);
+
+                    if (value > 0) {
+                        sum += value;
+                    }
+                }
+
+                tokenStart = i + 1;
+            }
+        }
+
+        return sum;
+    }
+
+    static long parseLong(final byte[] data, final int from, final int to) {
+        long value = 0L;
+        boolean digits = false;
+
+        for (int i = from; i < to; i++) {
+            byte b = data[i];
+
+            if (b >= '0' && b <= '9') {
+                value = value * 10L + (b - '0');
+                digits = true;
+            }
+            else if (digits || (b != ' ' && b != '\t')) {
+                // Stop at the first non-digit ("max" limits are reported as unavailable)
+                break;
+            }
+        }
+
+        return digits ? value : UNAVAILABLE;
+    }
+
+    private static boolean regionMatches(final byte[] data, final int from, final int to, final byte[] key) {
+        if (to - from < key.length) {
+            return false;
+        }
+
+        for (int i = 0; i < key.length; i++) {
+            if (data[from + i] != key[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(final byte[] data, final int from, final int to, final byte value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Mutable holder for one set of counters, meant to be reused across sampling
+     * intervals. All CPU times are given in microseconds as exposed by cgroupfs.
+     */
+    public static final class Sample {
+
+        private long timestamp;
+        private long memoryCurrent = UNAVAILABLE;
+        private long tasksCurrent = UNAVAILABLE;
+        private long cpuUsageUSec = UNAVAILABLE;
+        private long cpuUserUSec = UNAVAILABLE;
+        private long cpuSystemUSec = UNAVAILABLE;
+        private long ioReadBytes = UNAVAILABLE;
+        private long ioWriteBytes = UNAVAILABLE;
+        private long ioReadOperations = UNAVAILABLE;
+        private long ioWriteOperations = UNAVAILABLE;
+
+        /**
+         * Returns the value of {@link System#nanoTime()} when the sample was taken.
+         *
+         * @return The sample timestamp.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getMemoryCurrent() {
+            return memoryCurrent;
+        }
+
+        public long getTasksCurrent() {
+            return tasksCurrent;
+        }
+
+        public long getCPUUsageUSec() {
+            return cpuUsageUSec;
+        }
+
+        public long getCPUUserUSec() {
+            return cpuUserUSec;
+        }
+
+        public long getCPUSystemUSec() {
+            return cpuSystemUSec;
+        }
+
+        public long getIOReadBytes() {
+            return ioReadBytes;
+        }
+
+        public long getIOWriteBytes() {
+            return ioWriteBytes;
+        }
+
+        public long getIOReadOperations() {
+            return ioReadOperations;
+        }
+
+        public long getIOWriteOperations() {
+            return ioWriteOperations;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sample [memory=%d, tasks=%d, cpu=%dus, ioRead=%d, ioWrite=%d]",
+                    memoryCurrent, tasksCurrent, cpuUsageUSec, ioReadBytes, ioWriteBytes);
+        }
+
+    }
+
+}
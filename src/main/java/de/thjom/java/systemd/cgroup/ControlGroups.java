@@ -0,0 +1,154 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import de.thjom.java.systemd.Mount;
+import de.thjom.java.systemd.Scope;
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.Slice;
+import de.thjom.java.systemd.Socket;
+import de.thjom.java.systemd.Swap;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.features.DynamicUserAccounting;
+
+final class ControlGroups {
+
+    static final String[] UNIT_SUFFIXES = {
+            Service.UNIT_SUFFIX,
+            Scope.UNIT_SUFFIX,
+            Slice.UNIT_SUFFIX,
+            Socket.UNIT_SUFFIX,
+            Mount.UNIT_SUFFIX,
+            Swap.UNIT_SUFFIX
+    };
+
+    private static final String UNIFIED_HIERARCHY_PREFIX = "0::";
+    private static final String SYSTEMD_CONTROLLER = ":name=systemd:";
+
+    private ControlGroups() {
+        // Do nothing (static implementation)
+    }
+
+    static boolean hasControlGroup(final String unitName) {
+        for (String suffix : UNIT_SUFFIXES) {
+            if (unitName.endsWith(suffix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static Optional<String> of(final Unit unit) {
+        String controlGroup = null;
+
+        if (unit instanceof DynamicUserAccounting) {
+            controlGroup = ((DynamicUserAccounting) unit).getControlGroup();
+        }
+        else if (unit instanceof Scope) {
+            controlGroup = ((Scope) unit).getControlGroup();
+        }
+        else if (unit instanceof Slice) {
+            controlGroup = ((Slice) unit).getControlGroup();
+        }
+
+        return controlGroup == null || controlGroup.isEmpty() ? Optional.empty() : Optional.of(controlGroup);
+    }
+
+    /**
+     * Extracts the control group path of a process from the contents of
+     * <code>/proc/&lt;pid&gt;/cgroup</code>. The unified (v2) hierarchy is
+     * preferred, the named systemd (v1) hierarchy is used otherwise.
+     */
+    static Optional<String> parseProcCgroup(final List<String> lines) {
+        String legacy = null;
+
+        for (String line : lines) {
+            if (line.startsWith(UNIFIED_HIERARCHY_PREFIX)) {
+                return Optional.of(line.substring(UNIFIED_HIERARCHY_PREFIX.length()));
+            }
+
+            int index = line.indexOf(SYSTEMD_CONTROLLER);
+
+            if (index >= 0) {
+                legacy = line.substring(index + SYSTEMD_CONTROLLER.length());
+            }
+        }
+
+        return Optional.ofNullable(legacy);
+    }
+
+    /**
+     * Extracts the process start time (in clock ticks since boot) from the
+     * contents of <code>/proc/&lt;pid&gt;/stat</code>.
+     */
+    static long parseStartTime(final String stat) {
+        // The command name may contain spaces and parentheses, hence parse from its end
+        int end = stat.lastIndexOf(')');
+
+        if (end < 0) {
+            return -1L;
+        }
+
+        int field = 2;
+        int start = -1;
+
+        for (int i = end + 1; i < stat.length(); i++) {
+            if (stat.charAt(i) == ' ') {
+                field++;
+
+                if (field == 22) {
+                    start = i + 1;
+                }
+                else if (field == 23) {
+                    return Long.parseLong(stat.substring(start, i));
+                }
+            }
+        }
+
+        return start > 0 ? Long.parseLong(stat.substring(start).trim()) : -1L;
+    }
+
+    static Optional<String> readFirstLine(final Path file) throws IOException {
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+
+            return lines.isEmpty() ? Optional.empty() : Optional.of(lines.get(0));
+        }
+        catch (final NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Tells whether a control group path belongs to a slice, including the
+     * root control group of <code>-.slice</code>.
+     */
+    static boolean isSlice(final String controlGroup) {
+        return controlGroup.isEmpty() || "/".equals(controlGroup) || controlGroup.endsWith(Slice.UNIT_SUFFIX);
+    }
+
+    static String parent(final String controlGroup) {
+        int index = controlGroup.lastIndexOf('/');
+
+        return index > 0 ? controlGroup.substring(0, index) : "/";
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.types.UnitType;
+
+/**
+ * Resolves process IDs to the names of the units they belong to.<p>
+ *
+ * The control group of a process is read from <code>/proc/&lt;pid&gt;/cgroup</code>
+ * and matched (longest prefix) against the <code>ControlGroup</code> properties of
+ * known units. Only if no unit matches, <code>GetUnitByPID</code> is called on the
+ * bus. Results are kept in an LRU cache keyed by PID and process start time, so
+ * that recycled PIDs are never mapped to a stale unit.
+ */
+public class PidUnitResolver {
+
+    public static final Path DEFAULT_PROC_ROOT = Paths.get("/proc");
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final Logger LOG = LoggerFactory.getLogger(PidUnitResolver.class);
+
+    private final Manager manager;
+    private final Path procRoot;
+    private final Map<ProcessKey, String> cache;
+    private final ConcurrentMap<String, String> controlGroups = new ConcurrentHashMap<>();
+
+    private long hits;
+    private long misses;
+
+    public PidUnitResolver(final Manager manager) {
+        this(manager, DEFAULT_PROC_ROOT, DEFAULT_CACHE_SIZE);
+    }
+
+    public PidUnitResolver(final Manager manager, final Path procRoot, final int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+
+        this.manager = Objects.requireNonNull(manager);
+        this.procRoot = Objects.requireNonNull(procRoot);
+        this.cache = new LinkedHashMap<ProcessKey, String>(Math.min(cacheSize, 1024), 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ProcessKey, String> eldest) {
+                return size() > cacheSize;
+            }
+
+        };
+    }
+
+    /**
+     * Populates the control group index with the <code>ControlGroup</code>
+     * property of all currently loaded units which own a control group.
+     *
+     * @throws DBusException If a unit adapter cannot be created.
+     */
+    public void loadControlGroups() throws DBusException {
+        for (UnitType unitType : manager.listUnits()) {
+            String unitName = unitType.getUnitName();
+
+            if (ControlGroups.hasControlGroup(unitName)) {
+                try {
+                    ControlGroups.of(manager.getUnit(unitName)).ifPresent(cg -> controlGroups.put(cg, unitName));
+                }
+                catch (final DBusExecutionException e) {
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(String.format("Unable to read control group of unit %s: %s", unitName, e.getMessage()));
+                    }
+                }
+            }
+        }
+    }
+
+    public void registerControlGroup(final String controlGroup, final String unitName) {
+        controlGroups.put(Objects.requireNonNull(controlGroup), Objects.requireNonNull(unitName));
+    }
+
+    public void registerControlGroup(final Unit unit) {
+        ControlGroups.of(unit).ifPresent(cg -> controlGroups.put(cg, unit.getId()));
+    }
+
+    public Optional<String> resolve(final int pid) {
+        long startTime;
+
+        try {
+            startTime = readStartTime(pid);
+        }
+        catch (final IOException e) {
+            LOG.warn(String.format("Unable to read process information of PID %d", pid), e);
+
+            return Optional.empty();
+        }
+
+        if (startTime < 0) {
+            // Process has already terminated
+            return Optional.empty();
+        }
+
+        ProcessKey key = new ProcessKey(pid, startTime);
+
+        synchronized (cache) {
+            String unitName = cache.get(key);
+
+            if (unitName != null) {
+                hits++;
+
+                return Optional.of(unitName);
+            }
+
+            misses++;
+        }
+
+        Optional<String> unitName = resolveUncached(pid);
+
+        unitName.ifPresent(name -> {
+            synchronized (cache) {
+                cache.put(key, name);
+            }
+        });
+
+        return unitName;
+    }
+
+    /**
+     * Resolves a batch of process IDs. Processes which share a control group
+     * cause at most one bus call for the whole batch.
+     *
+     * @param pids The process IDs to resolve.
+     * @return The unit names of all resolvable processes, keyed by PID.
+     */
+    public Map<Integer, String> resolveAll(final Collection<Integer> pids) {
+        Map<Integer, String> units = new LinkedHashMap<>(pids.size() * 2);
+
+        for (Integer pid : pids) {
+            resolve(pid).ifPresent(name -> units.put(pid, name));
+        }
+
+        return units;
+    }
+
+    public Map<Integer, String> resolveAll(final int... pids) {
+        Map<Integer, String> units = new LinkedHashMap<>(pids.length * 2);
+
+        for (int pid : pids) {
+            resolve(pid).ifPresent(name -> units.put(pid, name));
+        }
+
+        return units;
+    }
+
+    public void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public void invalidate(final int pid) {
+        synchronized (cache) {
+            cache.keySet().removeIf(key -> key.pid == pid);
+        }
+    }
+
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getCacheHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    public long getCacheMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    private Optional<String> resolveUncached(final int pid) {
+        Optional<String> controlGroup;
+
+        try {
+            controlGroup = ControlGroups.parseProcCgroup(Files.readAllLines(procRoot.resolve(Integer.toString(pid)).resolve("cgroup"), StandardCharsets.UTF_8));
+        }
+        catch (final NoSuchFileException e) {
+            return Optional.empty();
+        }
+        catch (final IOException e) {
+            LOG.warn(String.format("Unable to read control group of PID %d", pid), e);
+
+            controlGroup = Optional.empty();
+        }
+
+        if (controlGroup.isPresent()) {
+            Optional<String> unitName = lookupControlGroup(controlGroup.get());
+
+            if (unitName.isPresent()) {
+                return unitName;
+            }
+        }
+
+        return resolveByBus(pid, controlGroup);
+    }
+
+    /**
+     * Walks up the control group hierarchy until an indexed unit is found.
+     * The walk stops at slices: processes never live in a slice control group
+     * directly, so reaching one means the owning service or scope is not
+     * indexed yet and has to be resolved via the bus.
+     */
+    private Optional<String> lookupControlGroup(final String controlGroup) {
+        String current = controlGroup;
+
+        while (true) {
+            if (ControlGroups.isSlice(current)) {
+                return Optional.empty();
+            }
+
+            String unitName = controlGroups.get(current);
+
+            if (unitName != null) {
+                return Optional.of(unitName);
+            }
+
+            current = ControlGroups.parent(current);
+        }
+    }
+
+    private Optional<String> resolveByBus(final int pid, final Optional<String> controlGroup) {
+        try {
+            DBusPath unitPath = manager.getUnitByPID(pid);
+
+            if (unitPath == null) {
+                return Optional.empty();
+            }
+
+            String unitName = Systemd.unescapePath(Unit.extractName(unitPath.getPath()));
+
+            if (unitName.isEmpty()) {
+                return Optional.empty();
+            }
+
+            controlGroup.ifPresent(cg -> controlGroups.putIfAbsent(cg, unitName));
+
+            return Optional.of(unitName);
+        }
+        catch (final DBusExecutionException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Unable to resolve unit of PID %d: %s", pid, e.getMessage()));
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    private long readStartTime(final int pid) throws IOException {
+        Optional<String> stat = ControlGroups.readFirstLine(procRoot.resolve(Integer.toString(pid)).resolve("stat"));
+
+        return stat.isPresent() ? ControlGroups.parseStartTime(stat.get()) : -1L;
+    }
+
+    private static final class ProcessKey {
+
+        private final int pid;
+        private final long startTime;
+
+        ProcessKey(final int pid, final long startTime) {
+            this.pid = pid;
+            this.startTime = startTime;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof ProcessKey)) {
+                return false;
+            }
+
+            ProcessKey other = (ProcessKey) obj;
+
+            return pid == other.pid && startTime == other.startTime;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * pid + Long.hashCode(startTime);
+        }
+
+    }
+
+}
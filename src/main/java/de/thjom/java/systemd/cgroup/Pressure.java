@@ -0,0 +1,195 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Pressure stall information (PSI) of one resource of a control group, as
+ * exposed by the <code>*.pressure</code> files of the unified hierarchy.<p>
+ *
+ * Averages are given in percent, totals in microseconds of stall time.
+ */
+public final class Pressure {
+
+    public enum Resource {
+
+        CPU("cpu.pressure"),
+        MEMORY("memory.pressure"),
+        IO("io.pressure");
+
+        private final String fileName;
+
+        private Resource(final String fileName) {
+            this.fileName = fileName;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+    }
+
+    public enum Kind {
+
+        /** At least one task stalled on the resource. */
+        SOME,
+
+        /** All non-idle tasks stalled on the resource simultaneously. */
+        FULL
+
+    }
+
+    private final String controlGroup;
+    private final Resource resource;
+    private final Stall some;
+    private final Stall full;
+
+    Pressure(final String controlGroup, final Resource resource, final Stall some, final Stall full) {
+        this.controlGroup = Objects.requireNonNull(controlGroup);
+        this.resource = Objects.requireNonNull(resource);
+        this.some = Objects.requireNonNull(some);
+        this.full = full;
+    }
+
+    static Optional<Pressure> parse(final String controlGroup, final Resource resource, final List<String> lines) {
+        Stall some = null;
+        Stall full = null;
+
+        for (String line : lines) {
+            if (line.startsWith("some ")) {
+                some = Stall.parse(line);
+            }
+            else if (line.startsWith("full ")) {
+                full = Stall.parse(line);
+            }
+        }
+
+        return some != null ? Optional.of(new Pressure(controlGroup, resource, some, full)) : Optional.empty();
+    }
+
+    public String getControlGroup() {
+        return controlGroup;
+    }
+
+    public Resource getResource() {
+        return resource;
+    }
+
+    public Stall getSome() {
+        return some;
+    }
+
+    /**
+     * Returns the <code>full</code> line, which is not reported for CPU pressure
+     * by older kernels.
+     *
+     * @return The full stall information, if present.
+     */
+    public Optional<Stall> getFull() {
+        return Optional.ofNullable(full);
+    }
+
+    public Optional<Stall> get(final Kind kind) {
+        return kind == Kind.SOME ? Optional.of(some) : getFull();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Pressure [controlGroup=%s, resource=%s, some=%s, full=%s]", controlGroup, resource, some, full);
+    }
+
+    public static final class Stall {
+
+        private final double avg10;
+        private final double avg60;
+        private final double avg300;
+        private final long total;
+
+        Stall(final double avg10, final double avg60, final double avg300, final long total) {
+            this.avg10 = avg10;
+            this.avg60 = avg60;
+            this.avg300 = avg300;
+            this.total = total;
+        }
+
+        static Stall parse(final String line) {
+            double avg10 = 0d;
+            double avg60 = 0d;
+            double avg300 = 0d;
+            long total = 0L;
+
+            int start = line.indexOf(' ') + 1;
+
+            while (start > 0 && start < line.length()) {
+                int end = line.indexOf(' ', start);
+
+                if (end < 0) {
+                    end = line.length();
+                }
+
+                int eq = line.indexOf('=', start);
+
+                if (eq > start && eq < end) {
+                    String key = line.substring(start, eq);
+                    String value = line.substring(eq + 1, end);
+
+                    switch (key) {
+                        case "avg10":
+                            avg10 = Double.parseDouble(value);
+                            break;
+                        case "avg60":
+                            avg60 = Double.parseDouble(value);
+                            break;
+                        case "avg300":
+                            avg300 = Double.parseDouble(value);
+                            break;
+                        case "total":
+                            total = Long.parseLong(value);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+
+                start = end + 1;
+            }
+
+            return new Stall(avg10, avg60, avg300, total);
+        }
+
+        public double getAvg10() {
+            return avg10;
+        }
+
+        public double getAvg60() {
+            return avg60;
+        }
+
+        public double getAvg300() {
+            return avg300;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stall [avg10=%.2f, avg60=%.2f, avg300=%.2f, total=%d]", avg10, avg60, avg300, total);
+        }
+
+    }
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Unit;
+
+/**
+ * Reads pressure stall information (PSI) of control groups and reports
+ * threshold crossings.<p>
+ *
+ * Thresholds are evaluated on the delta of the cumulative stall time between two
+ * polls, i.e. a threshold of <code>0.2</code> is exceeded if tasks were stalled
+ * more than 20% of the wall clock time since the previous poll. This reacts
+ * faster than the kernel's exponentially decaying averages and does not miss
+ * short bursts. Listeners are notified once when a threshold is exceeded and once
+ * when the pressure drops below it again.
+ */
+public class PressureMonitor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PressureMonitor.class);
+
+    private final Path cgroupRoot;
+    private final List<Threshold> thresholds = new ArrayList<>();
+    private final List<PressureListener> listeners = new ArrayList<>();
+    private final Lock lock = new ReentrantLock();
+
+    private Timer pollingTimer;
+
+    public PressureMonitor() {
+        this(CgroupAccounting.DEFAULT_CGROUP_ROOT);
+    }
+
+    public PressureMonitor(final Path cgroupRoot) {
+        this.cgroupRoot = Objects.requireNonNull(cgroupRoot);
+    }
+
+    public Optional<Pressure> read(final String controlGroup, final Pressure.Resource resource) throws IOException {
+        Path file = CgroupAccounting.resolve(cgroupRoot, controlGroup).resolve(resource.getFileName());
+
+        try {
+            return Pressure.parse(controlGroup, resource, Files.readAllLines(file, StandardCharsets.US_ASCII));
+        }
+        catch (final NoSuchFileException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Optional<Pressure> read(final Unit unit, final Pressure.Resource resource) throws IOException {
+        Optional<String> controlGroup = ControlGroups.of(unit);
+
+        return controlGroup.isPresent() ? read(controlGroup.get(), resource) : Optional.empty();
+    }
+
+    /**
+     * Reads the pressure of the given control group and all of its parents (the
+     * enclosing slices), starting with the given group itself. Groups without
+     * pressure information (e.g. the root group on older kernels) are skipped.
+     *
+     * @param controlGroup The control group path.
+     * @param resource The resource to read.
+     * @return The pressure information from the given group up to the root.
+     * @throws IOException If reading a pressure file fails.
+     */
+    public List<Pressure> readHierarchy(final String controlGroup, final Pressure.Resource resource) throws IOException {
+        List<Pressure> hierarchy = new ArrayList<>();
+        String current = controlGroup;
+
+        while (true) {
+            read(current, resource).ifPresent(hierarchy::add);
+
+            if ("/".equals(current) || current.isEmpty()) {
+                break;
+            }
+
+            current = ControlGroups.parent(current);
+        }
+
+        return hierarchy;
+    }
+
+    public void addThreshold(final String controlGroup, final Pressure.Resource resource, final Pressure.Kind kind, final double ratio) {
+        lock.lock();
+
+        try {
+            if (ratio <= 0d || ratio > 1d) {
+                throw new IllegalArgumentException("Threshold ratio must be within (0, 1]");
+            }
+
+            thresholds.add(new Threshold(Objects.requireNonNull(controlGroup), Objects.requireNonNull(resource), Objects.requireNonNull(kind), ratio));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void addThreshold(final Unit unit, final Pressure.Resource resource, final Pressure.Kind kind, final double ratio) {
+        String controlGroup = ControlGroups.of(unit)
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Unit %s has no control group", unit)));
+
+        addThreshold(controlGroup, resource, kind, ratio);
+    }
+
+    public void removeThresholds(final String controlGroup) {
+        lock.lock();
+
+        try {
+            thresholds.removeIf(t -> t.controlGroup.equals(controlGroup));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void addListener(final PressureListener listener) {
+        lock.lock();
+
+        try {
+            listeners.add(listener);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void removeListener(final PressureListener listener) {
+        lock.lock();
+
+        try {
+            listeners.remove(listener);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void poll() throws IOException {
+        poll(System.nanoTime());
+    }
+
+    void poll(final long timestamp) throws IOException {
+        List<Event> events = new ArrayList<>();
+        List<PressureListener> currentListeners;
+
+        lock.lock();
+
+        try {
+            for (Threshold threshold : thresholds) {
+                Optional<Pressure.Stall> stall = read(threshold.controlGroup, threshold.resource).flatMap(p -> p.get(threshold.kind));
+
+                if (stall.isPresent()) {
+                    threshold.update(stall.get().getTotal(), timestamp).ifPresent(events::add);
+                }
+            }
+
+            currentListeners = events.isEmpty() ? Collections.emptyList() : new ArrayList<>(listeners);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        // Listeners are invoked without holding the lock
+        for (Event event : events) {
+            notifyListeners(currentListeners, event);
+        }
+    }
+
+    private static void notifyListeners(final List<PressureListener> listeners, final Event event) {
+        for (PressureListener listener : listeners) {
+            try {
+                listener.thresholdCrossed(event);
+            }
+            catch (final RuntimeException e) {
+                LOG.warn(String.format("Pressure listener failed for control group %s", event.getControlGroup()), e);
+            }
+        }
+    }
+
+    public void startPolling(final long delay, final long period) {
+        lock.lock();
+
+        try {
+            TimerTask task = new TimerTask() {
+
+                @Override
+                public void run() {
+                    try {
+                        poll();
+                    }
+                    catch (final IOException e) {
+                        LOG.error("Unable to read pressure information", e);
+                    }
+                }
+
+            };
+
+            if (pollingTimer != null) {
+                pollingTimer.cancel();
+            }
+
+            pollingTimer = new Timer(getClass().getSimpleName() + "-pollingTimer", true);
+            pollingTimer.schedule(task, delay, period);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void stopPolling() {
+        lock.lock();
+
+        try {
+            if (pollingTimer != null) {
+                pollingTimer.cancel();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Threshold {
+
+        private final String controlGroup;
+        private final Pressure.Resource resource;
+        private final Pressure.Kind kind;
+        private final double ratio;
+
+        private long lastTotal = -1L;
+        private long lastTimestamp;
+        private boolean exceeded;
+
+        Threshold(final String controlGroup, final Pressure.Resource resource, final Pressure.Kind kind, final double ratio) {
+            this.controlGroup = controlGroup;
+            this.resource = resource;
+            this.kind = kind;
+            this.ratio = ratio;
+        }
+
+        Optional<Event> update(final long total, final long timestamp) {
+            long previousTotal = lastTotal;
+            long elapsed = timestamp - lastTimestamp;
+
+            lastTotal = total;
+            lastTimestamp = timestamp;
+
+            if (previousTotal < 0 || elapsed <= 0L) {
+                // First sample only establishes the baseline
+                return Optional.empty();
+            }
+
+            // Stall totals are reported in microseconds, timestamps in nanoseconds
+            double current = (total - previousTotal) * 1000d / elapsed;
+            boolean above = current > ratio;
+
+            if (above == exceeded) {
+                return Optional.empty();
+            }
+
+            exceeded = above;
+
+            return Optional.of(new Event(controlGroup, resource, kind, ratio, current, above));
+        }
+
+    }
+
+    public static final class Event {
+
+        private final String controlGroup;
+        private final Pressure.Resource resource;
+        private final Pressure.Kind kind;
+        private final double threshold;
+        private final double ratio;
+        private final boolean exceeded;
+
+        Event(final String controlGroup, final Pressure.Resource resource, final Pressure.Kind kind, final double threshold, final double ratio, final boolean exceeded) {
+            this.controlGroup = controlGroup;
+            this.resource = resource;
+            this.kind = kind;
+            this.threshold = threshold;
+            this.ratio = ratio;
+            this.exceeded = exceeded;
+        }
+
+        public String getControlGroup() {
+            return controlGroup;
+        }
+
+        public Pressure.Resource getResource() {
+            return resource;
+        }
+
+        public Pressure.Kind getKind() {
+            return kind;
+        }
+
+        public double getThreshold() {
+            return threshold;
+        }
+
+        /**
+         * Returns the fraction of time stalled since the previous poll.
+         *
+         * @return The stall ratio (0..1).
+         */
+        public double getRatio() {
+            return ratio;
+        }
+
+        /**
+         * @return <code>true</code> if the threshold has been exceeded, <code>false</code> if the pressure has recovered.
+         */
+        public boolean isExceeded() {
+            return exceeded;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Event [controlGroup=%s, resource=%s, kind=%s, threshold=%.2f, ratio=%.2f, exceeded=%b]",
+                    controlGroup, resource, kind, threshold, ratio, exceeded);
+        }
+
+    }
+
+}
@@ -0,0 +1,20 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+/**
+ * This package contains tools which read the control group hierarchy
+ * (cgroupfs) and the process file system directly in order to answer
+ * questions about units without a round trip to "systemd". The bus is
+ * only used to resolve the control group of a unit (once) or as fallback.
+ *
+ */
+
+package de.thjom.java.systemd.cgroup;
@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface CpuAccounting extends Feature {
 
@@ -31,12 +33,29 @@ public interface CpuAccounting extends Feature {
         public static final String STARTUP_CPU_SHARES = "StartupCPUShares";
         public static final String STARTUP_CPU_WEIGHT = "StartupCPUWeight";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofRaw(ALLOWED_CPUS, "ay"),
+                PropertyDescriptor.ofBoolean(CPU_ACCOUNTING),
+                PropertyDescriptor.ofBigInteger(CPU_QUOTA_PER_SEC_USEC),
+                PropertyDescriptor.ofBigInteger(CPU_QUOTA_PERIOD_USEC),
+                PropertyDescriptor.ofBigInteger(CPU_SHARES),
+                PropertyDescriptor.ofBigInteger(CPU_USAGE_NSEC),
+                PropertyDescriptor.ofBigInteger(CPU_WEIGHT),
+                PropertyDescriptor.ofRaw(EFFECTIVE_CPUS, "ay"),
+                PropertyDescriptor.ofBigInteger(STARTUP_CPU_SHARES),
+                PropertyDescriptor.ofBigInteger(STARTUP_CPU_WEIGHT)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
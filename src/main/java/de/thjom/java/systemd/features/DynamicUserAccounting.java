@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 import de.thjom.java.systemd.types.AddressFamilyRestriction;
 import de.thjom.java.systemd.types.AppArmorProfile;
 import de.thjom.java.systemd.types.BindPath;
@@ -114,12 +116,101 @@ public interface DynamicUserAccounting extends Feature {
         public static final String UTMP_IDENTIFIER = "UtmpIdentifier";
         public static final String UTMP_MODE = "UtmpMode";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBigInteger(AMBIENT_CAPABILITIES),
+                PropertyDescriptor.ofRaw(APP_ARMOR_PROFILE, "(bs)"),
+                PropertyDescriptor.ofList(BIND_PATHS, "a(ssbt)"),
+                PropertyDescriptor.ofList(BIND_READ_ONLY_PATHS, "a(ssbt)"),
+                PropertyDescriptor.ofList(CACHE_DIRECTORY, "as"),
+                PropertyDescriptor.ofLong(CACHE_DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofList(CONFIGURATION_DIRECTORY, "as"),
+                PropertyDescriptor.ofLong(CONFIGURATION_DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofString(CONTROL_GROUP),
+                PropertyDescriptor.ofBigInteger(COREDUMP_FILTER),
+                PropertyDescriptor.ofBoolean(DYNAMIC_USER),
+                PropertyDescriptor.ofInteger(GID, "u"),
+                PropertyDescriptor.ofString(GROUP),
+                PropertyDescriptor.ofString(KEYRING_MODE),
+                PropertyDescriptor.ofList(LOAD_CREDENTIAL, "a(ss)"),
+                PropertyDescriptor.ofBoolean(LOCK_PERSONALITY),
+                PropertyDescriptor.ofList(LOG_EXTRA_FIELDS, "aay"),
+                PropertyDescriptor.ofInteger(LOG_LEVEL_MAX, "i"),
+                PropertyDescriptor.ofString(LOG_NAMESPACE),
+                PropertyDescriptor.ofLong(LOG_RATE_LIMIT_BURST, "u"),
+                PropertyDescriptor.ofBigInteger(LOG_RATE_LIMIT_INTERVAL_USEC),
+                PropertyDescriptor.ofList(LOGS_DIRECTORY, "as"),
+                PropertyDescriptor.ofLong(LOGS_DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofBoolean(MOUNT_APIVFS),
+                PropertyDescriptor.ofList(MOUNT_IMAGES, "a(ssba(ss))"),
+                PropertyDescriptor.ofString(NETWORK_NAMESPACE_PATH),
+                PropertyDescriptor.ofList(PASS_ENVIRONMENT, "as"),
+                PropertyDescriptor.ofString(PERSONALITY),
+                PropertyDescriptor.ofBoolean(PRIVATE_DEVICES),
+                PropertyDescriptor.ofBoolean(PRIVATE_MOUNTS),
+                PropertyDescriptor.ofBoolean(PRIVATE_NETWORK),
+                PropertyDescriptor.ofBoolean(PRIVATE_TMP),
+                PropertyDescriptor.ofBoolean(PRIVATE_USERS),
+                PropertyDescriptor.ofString(PROC_SUBSET),
+                PropertyDescriptor.ofBoolean(PROTECT_CLOCK),
+                PropertyDescriptor.ofBoolean(PROTECT_CONTROL_GROUPS),
+                PropertyDescriptor.ofString(PROTECT_HOME),
+                PropertyDescriptor.ofBoolean(PROTECT_HOSTNAME),
+                PropertyDescriptor.ofBoolean(PROTECT_KERNEL_LOGS),
+                PropertyDescriptor.ofBoolean(PROTECT_KERNEL_MODULES),
+                PropertyDescriptor.ofBoolean(PROTECT_KERNEL_TUNABLES),
+                PropertyDescriptor.ofString(PROTECT_PROC),
+                PropertyDescriptor.ofString(PROTECT_SYSTEM),
+                PropertyDescriptor.ofBoolean(REMOVE_IPC),
+                PropertyDescriptor.ofRaw(RESTRICT_ADDRESS_FAMILIES, "(bas)"),
+                PropertyDescriptor.ofBigInteger(RESTRICT_NAMESPACES),
+                PropertyDescriptor.ofBoolean(RESTRICT_REALTIME),
+                PropertyDescriptor.ofBoolean(RESTRICT_SUID_SGID),
+                PropertyDescriptor.ofRaw(ROOT_HASH, "ay"),
+                PropertyDescriptor.ofString(ROOT_HASH_PATH),
+                PropertyDescriptor.ofRaw(ROOT_HASH_SIGNATURE, "ay"),
+                PropertyDescriptor.ofString(ROOT_HASH_SIGNATURE_PATH),
+                PropertyDescriptor.ofString(ROOT_IMAGE),
+                PropertyDescriptor.ofList(ROOT_IMAGE_OPTIONS, "a(ss)"),
+                PropertyDescriptor.ofString(ROOT_VERITY),
+                PropertyDescriptor.ofList(RUNTIME_DIRECTORY, "as"),
+                PropertyDescriptor.ofLong(RUNTIME_DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofString(RUNTIME_DIRECTORY_PRESERVE),
+                PropertyDescriptor.ofRaw(SELINUX_CONTEXT, "(bs)"),
+                PropertyDescriptor.ofList(SET_CREDENTIAL, "a(say)"),
+                PropertyDescriptor.ofRaw(SMACK_PROCESS_LABEL, "(bs)"),
+                PropertyDescriptor.ofString(STANDARD_ERROR),
+                PropertyDescriptor.ofString(STANDARD_ERROR_FILE_DESCRIPTOR_NAME),
+                PropertyDescriptor.ofString(STANDARD_INPUT),
+                PropertyDescriptor.ofRaw(STANDARD_INPUT_DATA, "ay"),
+                PropertyDescriptor.ofString(STANDARD_INPUT_FILE_DESCRIPTOR_NAME),
+                PropertyDescriptor.ofString(STANDARD_OUTPUT),
+                PropertyDescriptor.ofString(STANDARD_OUTPUT_FILE_DESCRIPTOR_NAME),
+                PropertyDescriptor.ofList(STATE_DIRECTORY, "as"),
+                PropertyDescriptor.ofLong(STATE_DIRECTORY_MODE, "u"),
+                PropertyDescriptor.ofInteger(SYSLOG_FACILITY, "i"),
+                PropertyDescriptor.ofInteger(SYSLOG_LEVEL, "i"),
+                PropertyDescriptor.ofList(SYSTEM_CALL_ARCHITECTURES, "as"),
+                PropertyDescriptor.ofInteger(SYSTEM_CALL_ERROR_NUMBER, "i"),
+                PropertyDescriptor.ofRaw(SYSTEM_CALL_LOG, "(bas)"),
+                PropertyDescriptor.ofList(TEMPORARY_FILE_SYSTEM, "a(ss)"),
+                PropertyDescriptor.ofBigInteger(TIMEOUT_CLEAN_USEC),
+                PropertyDescriptor.ofInteger(UID, "u"),
+                PropertyDescriptor.ofList(UNSET_ENVIRONMENT, "as"),
+                PropertyDescriptor.ofString(USER),
+                PropertyDescriptor.ofString(UTMP_IDENTIFIER),
+                PropertyDescriptor.ofString(UTMP_MODE)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
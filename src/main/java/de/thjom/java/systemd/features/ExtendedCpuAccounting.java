@@ -14,6 +14,8 @@ package de.thjom.java.systemd.features;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface ExtendedCpuAccounting extends CpuAccounting {
 
@@ -27,12 +29,26 @@ public interface ExtendedCpuAccounting extends CpuAccounting {
         public static final String NUMA_MASK = "NUMAMask";
         public static final String NUMA_POLICY = "NUMAPolicy";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofRaw(CPU_AFFINITY, "ay"),
+                PropertyDescriptor.ofBoolean(CPU_AFFINITY_FROM_NUMA),
+                PropertyDescriptor.ofInteger(CPU_SCHEDULING_POLICY, "i"),
+                PropertyDescriptor.ofInteger(CPU_SCHEDULING_PRIORITY, "i"),
+                PropertyDescriptor.ofBoolean(CPU_SCHEDULING_RESET_ON_FORK),
+                PropertyDescriptor.ofRaw(NUMA_MASK, "ay"),
+                PropertyDescriptor.ofInteger(NUMA_POLICY, "i")
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -14,6 +14,8 @@ package de.thjom.java.systemd.features;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface ExtendedMemoryAccounting extends MemoryAccounting {
 
@@ -21,12 +23,20 @@ public interface ExtendedMemoryAccounting extends MemoryAccounting {
 
         public static final String MEMORY_DENY_WRITE_EXECUTE = "MemoryDenyWriteExecute";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBoolean(MEMORY_DENY_WRITE_EXECUTE)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
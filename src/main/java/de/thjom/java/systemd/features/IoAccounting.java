@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 import de.thjom.java.systemd.types.IOBandwidth;
 import de.thjom.java.systemd.types.IODeviceLatency;
 import de.thjom.java.systemd.types.IODeviceWeight;
@@ -46,12 +48,40 @@ public interface IoAccounting extends Feature {
         public static final String STARTUP_BLOCK_IO_WEIGHT = "StartupBlockIOWeight";
         public static final String STARTUP_IO_WEIGHT = "StartupIOWeight";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBoolean(BLOCK_IO_ACCOUNTING),
+                PropertyDescriptor.ofList(BLOCK_IO_DEVICE_WEIGHT, "a(st)"),
+                PropertyDescriptor.ofList(BLOCK_IO_READ_BANDWIDTH, "a(st)"),
+                PropertyDescriptor.ofBigInteger(BLOCK_IO_WEIGHT),
+                PropertyDescriptor.ofList(BLOCK_IO_WRITE_BANDWIDTH, "a(st)"),
+                PropertyDescriptor.ofBoolean(IO_ACCOUNTING),
+                PropertyDescriptor.ofList(IO_DEVICE_LATENCY_TARGET_USEC, "a(st)"),
+                PropertyDescriptor.ofList(IO_DEVICE_WEIGHT, "a(st)"),
+                PropertyDescriptor.ofList(IO_READ_BANDWIDTH_MAX, "a(st)"),
+                PropertyDescriptor.ofBigInteger(IO_READ_BYTES),
+                PropertyDescriptor.ofList(IO_READ_IOPS_MAX, "a(st)"),
+                PropertyDescriptor.ofBigInteger(IO_READ_OPERATIONS),
+                PropertyDescriptor.ofBigInteger(IO_WEIGHT),
+                PropertyDescriptor.ofList(IO_WRITE_BANDWIDTH_MAX, "a(st)"),
+                PropertyDescriptor.ofBigInteger(IO_WRITE_BYTES),
+                PropertyDescriptor.ofList(IO_WRITE_IOPS_MAX, "a(st)"),
+                PropertyDescriptor.ofBigInteger(IO_WRITE_OPERATIONS),
+                PropertyDescriptor.ofList(IP_EGRESS_FILTER_PATH, "as"),
+                PropertyDescriptor.ofList(IP_INGRESS_FILTER_PATH, "as"),
+                PropertyDescriptor.ofBigInteger(STARTUP_BLOCK_IO_WEIGHT),
+                PropertyDescriptor.ofBigInteger(STARTUP_IO_WEIGHT)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 import de.thjom.java.systemd.types.IpAddressPolicy;
 
 public interface IpAccounting extends Feature {
@@ -29,12 +31,26 @@ public interface IpAccounting extends Feature {
         public static final String IP_INGRESS_BYTES = "IPIngressBytes";
         public static final String IP_INGRESS_PACKETS = "IPIngressPackets";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBoolean(IP_ACCOUNTING),
+                PropertyDescriptor.ofList(IP_ADDRESS_ALLOW, "a(iayu)"),
+                PropertyDescriptor.ofList(IP_ADDRESS_DENY, "a(iayu)"),
+                PropertyDescriptor.ofBigInteger(IP_EGRESS_BYTES),
+                PropertyDescriptor.ofBigInteger(IP_EGRESS_PACKETS),
+                PropertyDescriptor.ofBigInteger(IP_INGRESS_BYTES),
+                PropertyDescriptor.ofBigInteger(IP_INGRESS_PACKETS)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
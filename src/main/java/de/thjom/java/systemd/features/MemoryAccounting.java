@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface MemoryAccounting extends Feature {
 
@@ -36,12 +38,34 @@ public interface MemoryAccounting extends Feature {
         public static final String MEMORY_MIN = "MemoryMin";
         public static final String MEMORY_SWAP_MAX = "MemorySwapMax";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofRaw(ALLOWED_MEMORY_NODES, "ay"),
+                PropertyDescriptor.ofBigInteger(DEFAULT_MEMORY_LOW),
+                PropertyDescriptor.ofBigInteger(DEFAULT_MEMORY_MIN),
+                PropertyDescriptor.ofRaw(EFFECTIVE_MEMORY_NODES, "ay"),
+                PropertyDescriptor.ofString(MANAGED_OOM_MEMORY_PRESSURE),
+                PropertyDescriptor.ofString(MANAGED_OOM_MEMORY_PRESSURE_LIMIT_PERCENT),
+                PropertyDescriptor.ofString(MANAGED_OOM_SWAP),
+                PropertyDescriptor.ofBoolean(MEMORY_ACCOUNTING),
+                PropertyDescriptor.ofBigInteger(MEMORY_CURRENT),
+                PropertyDescriptor.ofBigInteger(MEMORY_HIGH),
+                PropertyDescriptor.ofBigInteger(MEMORY_LIMIT),
+                PropertyDescriptor.ofBigInteger(MEMORY_LOW),
+                PropertyDescriptor.ofBigInteger(MEMORY_MAX),
+                PropertyDescriptor.ofBigInteger(MEMORY_MIN),
+                PropertyDescriptor.ofBigInteger(MEMORY_SWAP_MAX)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
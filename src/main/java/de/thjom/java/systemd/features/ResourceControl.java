@@ -14,6 +14,8 @@ package de.thjom.java.systemd.features;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface ResourceControl extends Feature {
 
@@ -23,12 +25,22 @@ public interface ResourceControl extends Feature {
         public static final String DELEGATE_CONTROLLERS = "DelegateControllers";
         public static final String DISABLE_CONTROLLERS = "DisableControllers";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBoolean(DELEGATE),
+                PropertyDescriptor.ofList(DELEGATE_CONTROLLERS, "as"),
+                PropertyDescriptor.ofList(DISABLE_CONTROLLERS, "as")
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface TasksAccounting extends Feature {
 
@@ -24,12 +26,22 @@ public interface TasksAccounting extends Feature {
         public static final String TASKS_CURRENT = "TasksCurrent";
         public static final String TASKS_MAX = "TasksMax";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBoolean(TASKS_ACCOUNTING),
+                PropertyDescriptor.ofBigInteger(TASKS_CURRENT),
+                PropertyDescriptor.ofBigInteger(TASKS_MAX)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
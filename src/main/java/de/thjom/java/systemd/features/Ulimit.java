@@ -15,6 +15,8 @@ import java.math.BigInteger;
 import java.util.List;
 
 import de.thjom.java.systemd.InterfaceAdapter;
+import de.thjom.java.systemd.PropertyDescriptor;
+import de.thjom.java.systemd.PropertyTable;
 
 public interface Ulimit extends Feature {
 
@@ -53,12 +55,51 @@ public interface Ulimit extends Feature {
         public static final String LIMIT_STACK = "LimitSTACK";
         public static final String LIMIT_STACK_SOFT = "LimitSTACKSoft";
 
+        private static final PropertyTable DESCRIPTORS = PropertyTable.of(
+                PropertyDescriptor.ofBigInteger(LIMIT_AS),
+                PropertyDescriptor.ofBigInteger(LIMIT_AS_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_CORE),
+                PropertyDescriptor.ofBigInteger(LIMIT_CORE_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_CPU),
+                PropertyDescriptor.ofBigInteger(LIMIT_CPU_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_DATA),
+                PropertyDescriptor.ofBigInteger(LIMIT_DATA_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_FSIZE),
+                PropertyDescriptor.ofBigInteger(LIMIT_FSIZE_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_LOCKS),
+                PropertyDescriptor.ofBigInteger(LIMIT_LOCKS_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_MEMLOCK),
+                PropertyDescriptor.ofBigInteger(LIMIT_MEMLOCK_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_MSGQUEUE),
+                PropertyDescriptor.ofBigInteger(LIMIT_MSGQUEUE_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_NICE),
+                PropertyDescriptor.ofBigInteger(LIMIT_NICE_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_NOFILE),
+                PropertyDescriptor.ofBigInteger(LIMIT_NOFILE_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_NPROC),
+                PropertyDescriptor.ofBigInteger(LIMIT_NPROC_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_RSS),
+                PropertyDescriptor.ofBigInteger(LIMIT_RSS_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_RTPRIO),
+                PropertyDescriptor.ofBigInteger(LIMIT_RTPRIO_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_RTTIME),
+                PropertyDescriptor.ofBigInteger(LIMIT_RTTIME_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_SIGPENDING),
+                PropertyDescriptor.ofBigInteger(LIMIT_SIGPENDING_SOFT),
+                PropertyDescriptor.ofBigInteger(LIMIT_STACK),
+                PropertyDescriptor.ofBigInteger(LIMIT_STACK_SOFT)
+        );
+
         private Property() {
             super();
         }
 
+        public static PropertyTable getDescriptors() {
+            return DESCRIPTORS;
+        }
+
         public static final List<String> getAllNames() {
-            return getAllNames(Property.class);
+            return DESCRIPTORS.getNames();
         }
 
     }
@@ -0,0 +1,76 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.fleet;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.freedesktop.dbus.types.Variant;
+
+/**
+ * Unit event of a member of a {@link SystemdFleet}, tagged with the identifier
+ * of that member.
+ */
+public final class FleetEvent {
+
+    public enum Type {
+
+        STATE_CHANGED,
+        UNIT_NEW,
+        UNIT_REMOVED
+
+    }
+
+    private final String source;
+    private final Type type;
+    private final String unitName;
+    private final Map<String, Variant<?>> changedProperties;
+
+    FleetEvent(final String source, final Type type, final String unitName, final Map<String, Variant<?>> changedProperties) {
+        this.source = source;
+        this.type = type;
+        this.unitName = unitName;
+        this.changedProperties = changedProperties;
+    }
+
+    /**
+     * Returns the identifier of the fleet member which emitted the event.
+     *
+     * @return The member identifier.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getUnitName() {
+        return unitName;
+    }
+
+    /**
+     * Returns the changed properties of a {@link Type#STATE_CHANGED} event.
+     *
+     * @return The changed properties, empty for other event types.
+     */
+    public Map<String, Variant<?>> getChangedProperties() {
+        return changedProperties != null ? Collections.unmodifiableMap(changedProperties) : Collections.emptyMap();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FleetEvent [source=%s, type=%s, unitName=%s, changedProperties=%s]", source, type, unitName, getChangedProperties().keySet());
+    }
+
+}
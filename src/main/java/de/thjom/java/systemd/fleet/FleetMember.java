@@ -0,0 +1,66 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.fleet;
+
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+
+/**
+ * A systemd instance of a {@link SystemdFleet}, identified by a name which is
+ * unique within the fleet.
+ */
+public final class FleetMember {
+
+    private final String id;
+    private final String address;
+    private final DBusConnection dbus;
+    private final Manager manager;
+
+    // Guarded by the lock of the fleet
+    DBusSigHandler<PropertiesChanged> stateHandler;
+    DBusSigHandler<UnitNew> unitNewHandler;
+    DBusSigHandler<UnitRemoved> unitRemovedHandler;
+
+    FleetMember(final String id, final String address, final DBusConnection dbus, final Manager manager) {
+        this.id = id;
+        this.address = address;
+        this.dbus = dbus;
+        this.manager = manager;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public DBusConnection getConnection() {
+        return dbus;
+    }
+
+    public Manager getManager() {
+        return manager;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s [address=%s]", id, address);
+    }
+
+}
@@ -0,0 +1,28 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.fleet;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+
+import de.thjom.java.systemd.Manager;
+
+/**
+ * Query which is fanned out to all members of a {@link SystemdFleet}.
+ *
+ * @param <T> The type of the result per member.
+ */
+@FunctionalInterface
+public interface FleetQuery<T> {
+
+    T apply(final Manager manager) throws DBusException;
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.fleet;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Result of an operation which has been fanned out to the members of a
+ * {@link SystemdFleet}. A failing member does not fail the whole operation;
+ * its cause is reported by {@link #getFailures()} instead.
+ *
+ * @param <T> The type of the result per member.
+ */
+public final class FleetResult<T> {
+
+    private final Map<String, T> values = new TreeMap<>();
+    private final Map<String, Throwable> failures = new TreeMap<>();
+
+    void put(final String id, final T value) {
+        values.put(id, value);
+    }
+
+    void fail(final String id, final Throwable cause) {
+        failures.put(id, cause);
+    }
+
+    /**
+     * Returns the results of the succeeded members.
+     *
+     * @return The results by member identifier.
+     */
+    public Map<String, T> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Returns the causes of failure of the failed (or timed out) members.
+     *
+     * @return The causes by member identifier.
+     */
+    public Map<String, Throwable> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FleetResult [values=%s, failures=%s]", values.keySet(), failures.keySet());
+    }
+
+}
@@ -0,0 +1,583 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.fleet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.flow.EventPublisher;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+import de.thjom.java.systemd.types.UnitType;
+
+/**
+ * Aggregation of many systemd instances, e.g. container managers or per-user
+ * managers, each reachable on its own bus address.<p>
+ *
+ * Every member gets a private connection which dispatches signals with a single
+ * thread (like {@link Systemd}); the bus threads only hand over events. Blocking
+ * bus calls (connecting, fanned out queries) run on a call executor which by
+ * default grows with the number of members, so that members which do not
+ * answer cannot starve queries of other members. Events are delivered to
+ * subscribers by a separate, small event executor shared by all members.<p>
+ *
+ * Unit events of all members are merged into a single {@link #getEvents()
+ * publisher}, each event being tagged with the identifier of its member. The
+ * order of events is preserved per member but not across members.
+ */
+public class SystemdFleet implements AutoCloseable {
+
+    public static final int DEFAULT_THREAD_POOL_SIZE = 4;
+    public static final long DEFAULT_TIMEOUT = 30_000L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SystemdFleet.class);
+
+    private final ExecutorService callExecutor;
+    private final ExecutorService executor;
+    private final boolean ownCallExecutor;
+    private final boolean ownExecutor;
+    private final Map<String, FleetMember> members = new LinkedHashMap<>();
+    private final Lock lock = new ReentrantLock();
+    private final FleetPublisher events;
+
+    // Guarded by lock
+    private boolean eventsActive;
+    private boolean closed;
+
+    /**
+     * Creates a fleet with an own event executor of {@link #DEFAULT_THREAD_POOL_SIZE}
+     * daemon threads and an own call executor which creates daemon threads on
+     * demand. Both are shut down on {@link #close()}.
+     */
+    public SystemdFleet() {
+        this(Executors.newCachedThreadPool(daemonThreads("systemd-fleet-call-")), true, Executors.newFixedThreadPool(DEFAULT_THREAD_POOL_SIZE, daemonThreads("systemd-fleet-")), true);
+    }
+
+    /**
+     * Creates a fleet which delivers events with the given executor and runs
+     * blocking bus calls on an own call executor which creates daemon threads
+     * on demand. The given executor remains owned by the caller.
+     *
+     * @param executor The executor delivering events to subscribers.
+     */
+    public SystemdFleet(final ExecutorService executor) {
+        this(Executors.newCachedThreadPool(daemonThreads("systemd-fleet-call-")), true, executor, false);
+    }
+
+    /**
+     * Creates a fleet which uses the given executors. Both remain owned by the
+     * caller. The call executor should provide at least one thread per member,
+     * otherwise members which do not answer delay queries of the others.
+     *
+     * @param callExecutor The executor running blocking bus calls.
+     * @param executor The executor delivering events to subscribers.
+     */
+    public SystemdFleet(final ExecutorService callExecutor, final ExecutorService executor) {
+        this(callExecutor, false, executor, false);
+    }
+
+    private SystemdFleet(final ExecutorService callExecutor, final boolean ownCallExecutor, final ExecutorService executor, final boolean ownExecutor) {
+        this.callExecutor = Objects.requireNonNull(callExecutor);
+        this.ownCallExecutor = ownCallExecutor;
+        this.executor = Objects.requireNonNull(executor);
+        this.ownExecutor = ownExecutor;
+        this.events = new FleetPublisher();
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    /**
+     * Connects to the systemd instance on the given bus address and adds it to
+     * the fleet.
+     *
+     * @param id The identifier of the member, unique within the fleet.
+     * @param address The bus address, e.g. <code>unix:path=/run/user/1000/bus</code>.
+     * @return The new member.
+     * @throws DBusException If the connection fails.
+     * @throws IllegalArgumentException If the identifier is already in use.
+     * @throws IllegalStateException If the fleet has been closed.
+     */
+    public FleetMember connect(final String id, final String address) throws DBusException {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(address);
+
+        lock.lock();
+
+        try {
+            checkOpen();
+
+            if (members.containsKey(id)) {
+                throw new IllegalArgumentException("Fleet member already exists: " + id);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        FleetMember member = open(id, address);
+
+        lock.lock();
+
+        try {
+            if (closed || members.containsKey(id)) {
+                member.getConnection().disconnect();
+
+                checkOpen();
+
+                throw new IllegalArgumentException("Fleet member already exists: " + id);
+            }
+
+            members.put(id, member);
+
+            if (eventsActive) {
+                try {
+                    register(member);
+                }
+                catch (final DBusException e) {
+                    members.remove(id);
+                    member.getConnection().disconnect();
+
+                    throw e;
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return member;
+    }
+
+    /**
+     * Connects to the given bus addresses concurrently and waits at most
+     * {@link #DEFAULT_TIMEOUT} milliseconds for all connections.
+     *
+     * @param addresses The bus addresses by member identifier.
+     * @return The new members by identifier.
+     */
+    public FleetResult<FleetMember> connectAll(final Map<String, String> addresses) {
+        return connectAll(addresses, DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Connects to the given bus addresses concurrently. Members which cannot
+     * be connected are reported as failures of the result, members which are
+     * not connected in time as failures with a {@link TimeoutException}. The
+     * latter are disconnected again should their connection succeed later on.
+     *
+     * @param addresses The bus addresses by member identifier.
+     * @param timeout The maximum time to wait for all connections.
+     * @param unit The unit of the timeout.
+     * @return The new members by identifier.
+     */
+    public FleetResult<FleetMember> connectAll(final Map<String, String> addresses, final long timeout, final TimeUnit unit) {
+        Map<String, CompletableFuture<FleetMember>> futures = new LinkedHashMap<>();
+
+        for (Map.Entry<String, String> entry : addresses.entrySet()) {
+            String id = entry.getKey();
+            CompletableFuture<FleetMember> future = new CompletableFuture<>();
+
+            callExecutor.execute(() -> {
+                try {
+                    FleetMember member = connect(id, entry.getValue());
+
+                    if (!future.complete(member)) {
+                        // Timed out meanwhile
+                        disconnect(id);
+                    }
+                }
+                catch (final DBusException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+
+            futures.put(id, future);
+        }
+
+        return collect(futures, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Removes the given member from the fleet and closes its connection.
+     *
+     * @param id The identifier of the member.
+     * @return <code>true</code> if the member existed.
+     */
+    public boolean disconnect(final String id) {
+        FleetMember member;
+
+        lock.lock();
+
+        try {
+            member = members.remove(id);
+
+            if (member != null && eventsActive) {
+                unregister(member);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (member != null) {
+            close(member);
+        }
+
+        return member != null;
+    }
+
+    /**
+     * Runs the given query against all members in parallel and waits at most
+     * {@link #DEFAULT_TIMEOUT} milliseconds for their results.
+     *
+     * @param <T> The type of the result per member.
+     * @param query The query.
+     * @return The results and failures by member identifier.
+     */
+    public <T> FleetResult<T> query(final FleetQuery<T> query) {
+        return query(query, DEFAULT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the given query against all members in parallel. Members which do
+     * not answer in time are reported as failures (with a
+     * {@link TimeoutException}) of the result.
+     *
+     * @param <T> The type of the result per member.
+     * @param query The query.
+     * @param timeout The maximum time to wait for all members.
+     * @param unit The unit of the timeout.
+     * @return The results and failures by member identifier.
+     */
+    public <T> FleetResult<T> query(final FleetQuery<T> query, final long timeout, final TimeUnit unit) {
+        Objects.requireNonNull(query);
+
+        Map<String, CompletableFuture<T>> futures = new LinkedHashMap<>();
+
+        for (FleetMember member : getMembers()) {
+            futures.put(member.getId(), CompletableFuture.supplyAsync(() -> {
+                try {
+                    return query.apply(member.getManager());
+                }
+                catch (final DBusException e) {
+                    throw new CompletionException(e);
+                }
+            }, callExecutor));
+        }
+
+        return collect(futures, System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Lists the failed units of all members in parallel.
+     *
+     * @return The failed units by member identifier.
+     */
+    public FleetResult<List<UnitType>> listFailedUnits() {
+        String failed = Unit.ActiveState.FAILED.getValue();
+
+        return query(manager -> manager.listUnits().stream()
+                .filter(u -> failed.equals(u.getActiveState()))
+                .collect(Collectors.toList()));
+    }
+
+    private <T> FleetResult<T> collect(final Map<String, CompletableFuture<T>> futures, final long deadline) {
+        FleetResult<T> result = new FleetResult<>();
+
+        for (Map.Entry<String, CompletableFuture<T>> entry : futures.entrySet()) {
+            String id = entry.getKey();
+            CompletableFuture<T> future = entry.getValue();
+
+            try {
+                result.put(id, future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+            catch (final ExecutionException e) {
+                result.fail(id, e.getCause());
+            }
+            catch (final TimeoutException e) {
+                future.cancel(true);
+                result.fail(id, e);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                result.fail(id, e);
+            }
+        }
+
+        return result;
+    }
+
+    private FleetMember open(final String id, final String address) throws DBusException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Connecting to fleet member %s on %s", id, address));
+        }
+
+        DBusConnection dbus;
+
+        try {
+            dbus = DBusConnection.getConnection(address, true, false);
+            dbus.changeThreadCount(Systemd.DEFAULT_THREAD_POOL_SIZE);
+        }
+        catch (final DBusException e) {
+            LOG.error(String.format("Unable to connect to fleet member %s on %s", id, address), e);
+
+            throw e;
+        }
+
+        try {
+            return new FleetMember(id, address, dbus, Manager.create(dbus));
+        }
+        catch (final DBusException e) {
+            dbus.disconnect();
+
+            throw e;
+        }
+    }
+
+    private void close(final FleetMember member) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Disconnecting from fleet member %s", member));
+        }
+
+        member.getConnection().disconnect();
+    }
+
+    private void register(final FleetMember member) throws DBusException {
+        String id = member.getId();
+        Manager manager = member.getManager();
+
+        member.stateHandler = signal -> {
+            if (Unit.SERVICE_NAME.equals(signal.getInterfaceName()) && signal.getPath().startsWith(Unit.OBJECT_PATH)) {
+                events.publish(new FleetEvent(id, FleetEvent.Type.STATE_CHANGED, Systemd.unescapePath(Unit.extractName(signal.getPath())), signal.getPropertiesChanged()));
+            }
+        };
+        member.unitNewHandler = signal -> events.publish(new FleetEvent(id, FleetEvent.Type.UNIT_NEW, signal.getId(), null));
+        member.unitRemovedHandler = signal -> events.publish(new FleetEvent(id, FleetEvent.Type.UNIT_REMOVED, signal.getId(), null));
+
+        manager.subscribe();
+        manager.addHandler(PropertiesChanged.class, member.stateHandler);
+        manager.addHandler(UnitNew.class, member.unitNewHandler);
+        manager.addHandler(UnitRemoved.class, member.unitRemovedHandler);
+    }
+
+    private void unregister(final FleetMember member) {
+        Manager manager = member.getManager();
+
+        try {
+            manager.removeHandler(PropertiesChanged.class, member.stateHandler);
+            manager.removeHandler(UnitNew.class, member.unitNewHandler);
+            manager.removeHandler(UnitRemoved.class, member.unitRemovedHandler);
+        }
+        catch (final DBusException e) {
+            LOG.warn(String.format("Unable to remove signal handlers of fleet member %s", member), e);
+        }
+        finally {
+            member.stateHandler = null;
+            member.unitNewHandler = null;
+            member.unitRemovedHandler = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Fleet has been closed");
+        }
+    }
+
+    /**
+     * Returns the publisher of the merged unit events of all members. Signal
+     * handlers are registered with the members while the publisher has
+     * subscribers, including members which are connected later on.
+     *
+     * @return The event publisher.
+     */
+    public EventPublisher<FleetEvent> getEvents() {
+        return events;
+    }
+
+    public Optional<FleetMember> getMember(final String id) {
+        lock.lock();
+
+        try {
+            return Optional.ofNullable(members.get(id));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public List<FleetMember> getMembers() {
+        lock.lock();
+
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(members.values()));
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+
+        try {
+            return members.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the executor which runs blocking bus calls.
+     *
+     * @return The call executor.
+     */
+    public ExecutorService getCallExecutor() {
+        return callExecutor;
+    }
+
+    /**
+     * Returns the executor which delivers events to subscribers.
+     *
+     * @return The event executor.
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Completes all event subscriptions, closes the connections of all members
+     * and shuts down the executors owned by the fleet.
+     */
+    @Override
+    public void close() {
+        List<FleetMember> closing;
+
+        lock.lock();
+
+        try {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            closing = new ArrayList<>(members.values());
+            members.clear();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        events.close();
+        closing.forEach(this::close);
+
+        if (ownCallExecutor) {
+            callExecutor.shutdownNow();
+        }
+
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private final class FleetPublisher extends EventPublisher<FleetEvent> {
+
+        FleetPublisher() {
+            super(executor, DEFAULT_BUFFER_CAPACITY, DEFAULT_OVERFLOW_STRATEGY);
+        }
+
+        @Override
+        protected void activate() throws DBusException {
+            lock.lock();
+
+            try {
+                List<FleetMember> registered = new ArrayList<>();
+
+                try {
+                    for (FleetMember member : members.values()) {
+                        register(member);
+                        registered.add(member);
+                    }
+                }
+                catch (final DBusException e) {
+                    registered.forEach(SystemdFleet.this::unregister);
+
+                    throw e;
+                }
+
+                eventsActive = true;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        protected void deactivate() throws DBusException {
+            lock.lock();
+
+            try {
+                eventsActive = false;
+
+                members.values().forEach(SystemdFleet.this::unregister);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        // Makes publishing accessible to the signal handlers of the fleet
+        @Override
+        protected void publish(final FleetEvent event) {
+            super.publish(event);
+        }
+
+    }
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Subscription with a bounded buffer. All signals to the subscriber are issued
+ * by a single drain task at a time, hence they never overlap.
+ */
+final class BufferedSubscription<T> implements Flow.Subscription, Runnable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BufferedSubscription.class);
+
+    private final EventPublisher<T> publisher;
+    private final Flow.Subscriber<? super T> subscriber;
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowStrategy overflowStrategy;
+
+    private final ArrayDeque<T> buffer = new ArrayDeque<>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Guarded by buffer
+    private long demand;
+    private boolean completed;
+    private Throwable error;
+
+    // Confined to the drain task
+    private boolean subscribed;
+
+    private volatile boolean cancelled;
+
+    BufferedSubscription(final EventPublisher<T> publisher, final Flow.Subscriber<? super T> subscriber, final Executor executor, final int capacity, final OverflowStrategy overflowStrategy) {
+        this.publisher = publisher;
+        this.subscriber = Objects.requireNonNull(subscriber);
+        this.executor = executor;
+        this.capacity = capacity;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    void start() {
+        schedule();
+    }
+
+    void offer(final T event) {
+        synchronized (buffer) {
+            if (cancelled || completed || error != null) {
+                return;
+            }
+
+            if (buffer.size() >= capacity) {
+                switch (overflowStrategy) {
+                    case DROP_OLDEST:
+                        buffer.poll();
+                        buffer.add(event);
+                        publisher.dropped();
+                        break;
+                    case DROP_LATEST:
+                        publisher.dropped();
+                        return;
+                    case ERROR:
+                    default:
+                        error = new MissingDemandException(String.format("Subscriber fell behind by more than %d events", capacity));
+                        buffer.clear();
+                        break;
+                }
+            }
+            else {
+                buffer.add(event);
+            }
+        }
+
+        schedule();
+    }
+
+    void complete() {
+        synchronized (buffer) {
+            completed = true;
+        }
+
+        schedule();
+    }
+
+    void fail(final Throwable cause) {
+        synchronized (buffer) {
+            if (error == null) {
+                error = cause;
+                buffer.clear();
+            }
+        }
+
+        schedule();
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n <= 0L) {
+            fail(new IllegalArgumentException("Non-positive number of events requested: " + n));
+
+            return;
+        }
+
+        synchronized (buffer) {
+            demand += n;
+
+            if (demand < 0L) {
+                // Overflow, unbounded demand
+                demand = Long.MAX_VALUE;
+            }
+        }
+
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+
+            synchronized (buffer) {
+                buffer.clear();
+            }
+
+            publisher.remove(this);
+        }
+    }
+
+    private void schedule() {
+        if (pending.getAndIncrement() == 0) {
+            try {
+                executor.execute(this);
+            }
+            catch (final RejectedExecutionException e) {
+                LOG.error("Unable to deliver events to subscriber", e);
+
+                pending.set(0);
+                cancel();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        int missed = 1;
+
+        do {
+            if (!subscribed) {
+                subscribed = true;
+
+                try {
+                    subscriber.onSubscribe(this);
+                }
+                catch (final RuntimeException e) {
+                    LOG.warn("Subscriber failed in onSubscribe", e);
+                    cancel();
+                }
+            }
+
+            drain();
+
+            missed = pending.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+
+    private void drain() {
+        while (!cancelled) {
+            T event = null;
+            Throwable failure;
+            boolean done;
+
+            synchronized (buffer) {
+                failure = error;
+
+                if (failure == null && demand > 0L) {
+                    event = buffer.poll();
+
+                    if (event != null && demand != Long.MAX_VALUE) {
+                        demand--;
+                    }
+                }
+
+                done = completed && buffer.isEmpty();
+            }
+
+            if (failure != null) {
+                cancel();
+                subscriber.onError(failure);
+
+                return;
+            }
+
+            if (event != null) {
+                try {
+                    subscriber.onNext(event);
+                }
+                catch (final RuntimeException e) {
+                    LOG.warn("Subscriber failed in onNext", e);
+                    cancel();
+                }
+            }
+            else {
+                if (done) {
+                    cancel();
+                    subscriber.onComplete();
+                }
+
+                return;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base of publishers which bridge bus signals to {@link Flow.Subscriber}s.<p>
+ *
+ * Each subscription owns a bounded buffer which is filled by the (bus) thread
+ * publishing events and drained on the configured executor as far as the
+ * subscriber has signalled demand. Publishing never blocks; events beyond the
+ * buffer capacity are handled according to the {@link OverflowStrategy}.<p>
+ *
+ * The source of events (e.g. a signal handler) is registered when the first
+ * subscriber arrives and released again after the last subscription ended.
+ *
+ * @param <T> The type of events.
+ */
+public abstract class EventPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = Flow.defaultBufferSize();
+    public static final OverflowStrategy DEFAULT_OVERFLOW_STRATEGY = OverflowStrategy.DROP_OLDEST;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EventPublisher.class);
+
+    private final Executor executor;
+    private final int bufferCapacity;
+    private final OverflowStrategy overflowStrategy;
+    private final List<BufferedSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+    private final Lock lock = new ReentrantLock();
+
+    private boolean active;
+    private boolean closed;
+
+    protected EventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY, DEFAULT_OVERFLOW_STRATEGY);
+    }
+
+    protected EventPublisher(final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("Buffer capacity must be positive");
+        }
+
+        this.executor = Objects.requireNonNull(executor);
+        this.bufferCapacity = bufferCapacity;
+        this.overflowStrategy = Objects.requireNonNull(overflowStrategy);
+    }
+
+    /**
+     * Registers the source of events.
+     *
+     * @throws DBusException If the source cannot be registered.
+     */
+    protected abstract void activate() throws DBusException;
+
+    /**
+     * Releases the source of events.
+     *
+     * @throws DBusException If the source cannot be released.
+     */
+    protected abstract void deactivate() throws DBusException;
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        BufferedSubscription<T> subscription = new BufferedSubscription<>(this, subscriber, executor, bufferCapacity, overflowStrategy);
+
+        lock.lock();
+
+        try {
+            if (closed) {
+                subscription.complete();
+
+                return;
+            }
+
+            if (!active) {
+                try {
+                    activate();
+                    active = true;
+                }
+                catch (final DBusException e) {
+                    subscription.fail(e);
+
+                    return;
+                }
+            }
+
+            subscriptions.add(subscription);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        subscription.start();
+    }
+
+    /**
+     * Offers the given event to all current subscriptions. This method never
+     * blocks.
+     *
+     * @param event The event.
+     */
+    protected void publish(final T event) {
+        for (BufferedSubscription<T> subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    void remove(final BufferedSubscription<T> subscription) {
+        lock.lock();
+
+        try {
+            if (subscriptions.remove(subscription) && subscriptions.isEmpty() && active) {
+                release();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    void dropped() {
+        dropped.increment();
+    }
+
+    private void release() {
+        active = false;
+
+        try {
+            deactivate();
+        }
+        catch (final DBusException e) {
+            LOG.warn(String.format("Unable to deactivate %s", getClass().getSimpleName()), e);
+        }
+    }
+
+    /**
+     * Completes all subscriptions (after their buffered events have been
+     * delivered) and releases the source of events. Later subscribers are
+     * completed immediately.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            if (!closed) {
+                closed = true;
+
+                subscriptions.forEach(BufferedSubscription::complete);
+
+                if (active) {
+                    release();
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Returns the number of events which have been discarded by subscriptions
+     * due to missing demand.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public OverflowStrategy getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.UnitMonitorListener;
+import de.thjom.java.systemd.UnitNameMonitor;
+import de.thjom.java.systemd.UnitTypeMonitor;
+
+/**
+ * Publishes the results of unit monitor refreshes. Each event is a snapshot
+ * of the monitored units at the end of a refresh.
+ */
+public class MonitorRefreshPublisher extends EventPublisher<Collection<Unit>> {
+
+    private final Consumer<UnitMonitorListener> register;
+    private final Consumer<UnitMonitorListener> unregister;
+    private final UnitMonitorListener listener = units -> publish(Collections.unmodifiableList(new ArrayList<>(units)));
+
+    public MonitorRefreshPublisher(final UnitNameMonitor monitor) {
+        this(monitor, ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY, DEFAULT_OVERFLOW_STRATEGY);
+    }
+
+    public MonitorRefreshPublisher(final UnitNameMonitor monitor, final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        super(executor, bufferCapacity, overflowStrategy);
+
+        Objects.requireNonNull(monitor);
+
+        this.register = monitor::addListener;
+        this.unregister = monitor::removeListener;
+    }
+
+    public MonitorRefreshPublisher(final UnitTypeMonitor monitor) {
+        this(monitor, ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY, DEFAULT_OVERFLOW_STRATEGY);
+    }
+
+    public MonitorRefreshPublisher(final UnitTypeMonitor monitor, final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        super(executor, bufferCapacity, overflowStrategy);
+
+        Objects.requireNonNull(monitor);
+
+        this.register = monitor::addListener;
+        this.unregister = monitor::removeListener;
+    }
+
+    @Override
+    protected void activate() {
+        register.accept(listener);
+    }
+
+    @Override
+    protected void deactivate() {
+        unregister.accept(listener);
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+/**
+ * Behaviour of a subscription whose buffer is full since the subscriber did
+ * not signal enough demand.
+ */
+public enum OverflowStrategy {
+
+    /** Discards the oldest buffered event in favour of the new one. */
+    DROP_OLDEST,
+
+    /** Discards the new event. */
+    DROP_LATEST,
+
+    /** Terminates the subscription with a {@link MissingDemandException}. */
+    ERROR
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Signal;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+
+/**
+ * Publishes signals of the manager, e.g. job events ({@link #jobs(Manager)}) or
+ * the unit lifecycle ({@link #unitLifecycle(Manager)}). Signals of different
+ * types are published in the order of their arrival.
+ *
+ * @param <T> The common type of the published signals.
+ */
+public class SignalPublisher<T extends Signal> extends EventPublisher<T> {
+
+    private final Manager manager;
+    private final List<Class<? extends T>> signalTypes;
+    private final DBusSigHandler<T> handler = this::publish;
+
+    public SignalPublisher(final Manager manager, final List<Class<? extends T>> signalTypes) {
+        this(manager, signalTypes, ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY, DEFAULT_OVERFLOW_STRATEGY);
+    }
+
+    public SignalPublisher(final Manager manager, final List<Class<? extends T>> signalTypes, final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        super(executor, bufferCapacity, overflowStrategy);
+
+        if (signalTypes.isEmpty()) {
+            throw new IllegalArgumentException("No signal types given");
+        }
+
+        this.manager = Objects.requireNonNull(manager);
+        this.signalTypes = Collections.unmodifiableList(signalTypes);
+    }
+
+    /**
+     * Creates a publisher of {@link JobNew} and {@link JobRemoved} signals.
+     *
+     * @param manager The manager.
+     * @return The publisher.
+     */
+    public static SignalPublisher<Signal> jobs(final Manager manager) {
+        return new SignalPublisher<>(manager, Arrays.asList(JobNew.class, JobRemoved.class));
+    }
+
+    public static SignalPublisher<Signal> jobs(final Manager manager, final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        return new SignalPublisher<>(manager, Arrays.asList(JobNew.class, JobRemoved.class), executor, bufferCapacity, overflowStrategy);
+    }
+
+    /**
+     * Creates a publisher of {@link UnitNew} and {@link UnitRemoved} signals.
+     *
+     * @param manager The manager.
+     * @return The publisher.
+     */
+    public static SignalPublisher<Signal> unitLifecycle(final Manager manager) {
+        return new SignalPublisher<>(manager, Arrays.asList(UnitNew.class, UnitRemoved.class));
+    }
+
+    public static SignalPublisher<Signal> unitLifecycle(final Manager manager, final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        return new SignalPublisher<>(manager, Arrays.asList(UnitNew.class, UnitRemoved.class), executor, bufferCapacity, overflowStrategy);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void activate() throws DBusException {
+        manager.subscribe();
+
+        for (Class<? extends T> signalType : signalTypes) {
+            manager.addHandler((Class<T>) signalType, handler);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void deactivate() throws DBusException {
+        for (Class<? extends T> signalType : signalTypes) {
+            manager.removeHandler((Class<T>) signalType, handler);
+        }
+    }
+
+    public List<Class<? extends T>> getSignalTypes() {
+        return signalTypes;
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.freedesktop.dbus.types.Variant;
+
+import de.thjom.java.systemd.Unit;
+
+/**
+ * State change of a unit as published by a {@link UnitStatePublisher}.
+ */
+public final class UnitStateEvent {
+
+    private final Unit unit;
+    private final Map<String, Variant<?>> changedProperties;
+
+    UnitStateEvent(final Unit unit, final Map<String, Variant<?>> changedProperties) {
+        this.unit = unit;
+        this.changedProperties = Collections.unmodifiableMap(changedProperties);
+    }
+
+    public Unit getUnit() {
+        return unit;
+    }
+
+    public Map<String, Variant<?>> getChangedProperties() {
+        return changedProperties;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UnitStateEvent [unit=%s, changedProperties=%s]", unit.getId(), changedProperties.keySet());
+    }
+
+}
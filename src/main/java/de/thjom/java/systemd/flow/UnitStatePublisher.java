@@ -0,0 +1,51 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+
+import de.thjom.java.systemd.UnitStateListener;
+import de.thjom.java.systemd.UnitStateNotifier;
+
+/**
+ * Publishes the state changes announced by a {@link UnitStateNotifier}, i.e. a
+ * single unit or a unit monitor.
+ */
+public class UnitStatePublisher extends EventPublisher<UnitStateEvent> {
+
+    private final UnitStateNotifier notifier;
+    private final UnitStateListener listener = (unit, changedProperties) -> publish(new UnitStateEvent(unit, changedProperties));
+
+    public UnitStatePublisher(final UnitStateNotifier notifier) {
+        this.notifier = Objects.requireNonNull(notifier);
+    }
+
+    public UnitStatePublisher(final UnitStateNotifier notifier, final Executor executor, final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+        super(executor, bufferCapacity, overflowStrategy);
+
+        this.notifier = Objects.requireNonNull(notifier);
+    }
+
+    @Override
+    protected void activate() throws DBusException {
+        notifier.addListener(listener);
+    }
+
+    @Override
+    protected void deactivate() throws DBusException {
+        notifier.removeListener(listener);
+    }
+
+}
@@ -0,0 +1,20 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+/**
+ * This package contains {@link java.util.concurrent.Flow.Publisher} adapters
+ * for unit, job and monitor events. Events are buffered per subscriber and
+ * delivered according to the demand signalled via
+ * {@link java.util.concurrent.Flow.Subscription#request(long)}.
+ *
+ */
+
+package de.thjom.java.systemd.flow;
@@ -0,0 +1,596 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.history;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.Unit.ActiveState;
+import de.thjom.java.systemd.Unit.SubState;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+
+/**
+ * Detection of units which are repeatedly started and terminated, e.g.
+ * services crash-looping under <code>Restart=always</code>.<p>
+ *
+ * State transitions are taken from <code>PropertiesChanged</code> signals. A
+ * cycle begins when a unit is seen in any state other than <code>failed</code>,
+ * <code>inactive</code> and the sub state <code>auto-restart</code> (e.g.
+ * <code>activating</code>, <code>active</code>, <code>reloading</code>) and ends
+ * when it reaches one of these. As "systemd" merges changes within an event
+ * loop iteration, a service under <code>Restart=always</code> may be reported
+ * as <code>active/running</code> right after <code>activating/auto-restart</code>;
+ * such a loop still counts one cycle per restart.
+ * The end times of the last {@link #getThreshold()} cycles are kept in a
+ * primitive ring buffer per unit, hence the memory per unit is constant.<p>
+ *
+ * A unit is flagged as flapping when the threshold of cycles is reached within
+ * the window. For hysteresis it is only cleared again once no more than
+ * {@link #getClearThreshold()} cycles remain within the window; this is checked
+ * by a timer which exists only for flagged units. Changes are reported to the
+ * registered {@link FlapListener}s.
+ */
+public class FlapDetector implements Closeable {
+
+    public static final int DEFAULT_THRESHOLD = 5;
+    public static final long DEFAULT_WINDOW = 60_000L;
+    public static final int DEFAULT_CLEAR_THRESHOLD = 0;
+
+    private static final Logger LOG = LoggerFactory.getLogger(FlapDetector.class);
+
+    private final Manager manager;
+    private final int threshold;
+    private final long windowNanos;
+    private final ScheduledExecutorService executor;
+    private final boolean ownExecutor;
+    private final List<FlapListener> listeners = new CopyOnWriteArrayList<>();
+    private final Lock lock = new ReentrantLock();
+    private final DBusSigHandler<PropertiesChanged> stateHandler = this::handleSignal;
+    private final DBusSigHandler<UnitRemoved> removedHandler = this::handleSignal;
+
+    // Guarded by lock
+    private final Map<String, UnitWindow> units = new HashMap<>();
+
+    private int clearThreshold = DEFAULT_CLEAR_THRESHOLD;
+    private long flapCount;
+    private boolean open;
+    private boolean closed;
+
+    public FlapDetector(final Manager manager) {
+        this(manager, DEFAULT_THRESHOLD, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Creates a detector with an own timer thread which is shut down on
+     * {@link #close()}.
+     *
+     * @param manager The manager.
+     * @param threshold The number of cycles which flags a unit.
+     * @param window The window in milliseconds.
+     */
+    public FlapDetector(final Manager manager, final int threshold, final long window) {
+        this(manager, threshold, window, Executors.newSingleThreadScheduledExecutor(daemonThreads()), true);
+    }
+
+    /**
+     * Creates a detector which schedules its timers on the given executor. The
+     * executor remains owned by the caller.
+     *
+     * @param manager The manager.
+     * @param threshold The number of cycles which flags a unit.
+     * @param window The window in milliseconds.
+     * @param executor The executor.
+     */
+    public FlapDetector(final Manager manager, final int threshold, final long window, final ScheduledExecutorService executor) {
+        this(manager, threshold, window, executor, false);
+    }
+
+    private FlapDetector(final Manager manager, final int threshold, final long window, final ScheduledExecutorService executor, final boolean ownExecutor) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+
+        if (window <= 0L) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+
+        this.manager = Objects.requireNonNull(manager);
+        this.threshold = threshold;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(window);
+        this.executor = Objects.requireNonNull(executor);
+        this.ownExecutor = ownExecutor;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, "systemd-flap-detector-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    /**
+     * Registers the signal handlers for state changes and unit removals.
+     *
+     * @throws DBusException If a signal handler cannot be registered.
+     */
+    public void open() throws DBusException {
+        lock.lock();
+
+        try {
+            if (closed) {
+                throw new IllegalStateException("Flap detector is closed");
+            }
+
+            if (!open) {
+                manager.subscribe();
+                manager.addHandler(PropertiesChanged.class, stateHandler);
+                manager.addHandler(UnitRemoved.class, removedHandler);
+
+                open = true;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the signal handlers and discards all collected cycles.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+
+            if (open) {
+                open = false;
+
+                try {
+                    manager.removeHandler(PropertiesChanged.class, stateHandler);
+                    manager.removeHandler(UnitRemoved.class, removedHandler);
+                }
+                catch (final DBusException e) {
+                    LOG.warn("Unable to remove signal handlers", e);
+                }
+            }
+
+            units.values().forEach(UnitWindow::cancelClear);
+            units.clear();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    public void addListener(final FlapListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    public void removeListener(final FlapListener listener) {
+        listeners.remove(listener);
+    }
+
+    void handleSignal(final PropertiesChanged signal) {
+        if (!Unit.SERVICE_NAME.equals(signal.getInterfaceName())) {
+            return;
+        }
+
+        Map<String, Variant<?>> properties = signal.getPropertiesChanged();
+        Variant<?> activeState = properties.get(Unit.Property.ACTIVE_STATE);
+
+        if (activeState != null) {
+            Variant<?> subState = properties.get(Unit.Property.SUB_STATE);
+
+            transition(
+                    Systemd.unescapePath(Unit.extractName(signal.getPath())),
+                    ActiveState.of(String.valueOf(activeState.getValue())),
+                    subState != null ? SubState.of(String.valueOf(subState.getValue())) : SubState.UNKNOWN,
+                    System.nanoTime());
+        }
+    }
+
+    void handleSignal(final UnitRemoved signal) {
+        boolean ended = false;
+
+        lock.lock();
+
+        try {
+            UnitWindow window = units.remove(signal.getId());
+
+            if (window != null) {
+                window.cancelClear();
+                ended = window.flapping;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (ended) {
+            notifyListeners(signal.getId(), false, 0);
+        }
+    }
+
+    /**
+     * Processes a state transition of a unit.
+     *
+     * @param unitName The name of the unit.
+     * @param activeState The new active state.
+     * @param subState The new sub state.
+     * @param now The time of the transition ({@link System#nanoTime()}).
+     */
+    void transition(final String unitName, final ActiveState activeState, final SubState subState, final long now) {
+        int cycles;
+
+        lock.lock();
+
+        try {
+            if (closed) {
+                return;
+            }
+
+            UnitWindow window = units.get(unitName);
+
+            boolean terminated = activeState == ActiveState.FAILED || activeState == ActiveState.INACTIVE || subState == SubState.AUTO_RESTART;
+
+            if (!terminated) {
+                if (activeState != ActiveState.UNKNOWN) {
+                    if (window == null) {
+                        window = new UnitWindow(unitName, threshold);
+                        units.put(unitName, window);
+                    }
+
+                    window.armed = true;
+                }
+
+                return;
+            }
+
+            if (window == null || !window.armed) {
+                return;
+            }
+
+            window.armed = false;
+            window.add(now);
+
+            cycles = window.count(now - windowNanos);
+
+            if (window.flapping) {
+                scheduleClear(window, now);
+
+                return;
+            }
+
+            if (cycles < threshold) {
+                return;
+            }
+
+            window.flapping = true;
+            flapCount++;
+
+            scheduleClear(window, now);
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Unit %s is flapping (%d cycles)", unitName, cycles));
+        }
+
+        notifyListeners(unitName, true, cycles);
+    }
+
+    /**
+     * Clears the flag of a unit if no more than the clear threshold of cycles
+     * remain within the window, otherwise schedules the next check.
+     *
+     * @param unitName The name of the unit.
+     * @param now The current time ({@link System#nanoTime()}).
+     */
+    void evaluate(final String unitName, final long now) {
+        int cycles;
+
+        lock.lock();
+
+        try {
+            UnitWindow window = units.get(unitName);
+
+            if (closed || window == null || !window.flapping) {
+                return;
+            }
+
+            cycles = window.count(now - windowNanos);
+
+            if (cycles > clearThreshold) {
+                scheduleClear(window, now);
+
+                return;
+            }
+
+            window.flapping = false;
+            window.cancelClear();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Unit %s stopped flapping (%d cycles)", unitName, cycles));
+        }
+
+        notifyListeners(unitName, false, cycles);
+    }
+
+    private void scheduleClear(final UnitWindow window, final long now) {
+        long delay = Math.max(0L, window.clearTime(now - windowNanos, clearThreshold) + windowNanos - now);
+
+        window.cancelClear();
+        window.clearTask = executor.schedule(() -> evaluate(window.unitName, System.nanoTime()), delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void notifyListeners(final String unitName, final boolean flapping, final int cycles) {
+        for (FlapListener listener : listeners) {
+            try {
+                listener.flappingChanged(unitName, flapping, cycles);
+            }
+            catch (final RuntimeException e) {
+                LOG.warn(String.format("Flap listener failed for unit %s", unitName), e);
+            }
+        }
+    }
+
+    public boolean isFlapping(final String unitName) {
+        lock.lock();
+
+        try {
+            UnitWindow window = units.get(unitName);
+
+            return window != null && window.flapping;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cycles of a unit within the current window.
+     *
+     * @param unitName The name of the unit.
+     * @return The number of cycles (at most the threshold).
+     */
+    public int getCycleCount(final String unitName) {
+        lock.lock();
+
+        try {
+            UnitWindow window = units.get(unitName);
+
+            return window != null ? window.count(System.nanoTime() - windowNanos) : 0;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public Set<String> getFlappingUnits() {
+        Set<String> flapping = new TreeSet<>();
+
+        lock.lock();
+
+        try {
+            units.values().stream().filter(w -> w.flapping).forEach(w -> flapping.add(w.unitName));
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return flapping;
+    }
+
+    /**
+     * Returns the number of units which have been seen in a non-terminal state, i.e. for
+     * which cycles are tracked.
+     *
+     * @return The number of tracked units.
+     */
+    public int getUnitCount() {
+        lock.lock();
+
+        try {
+            return units.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how often units have been flagged as flapping.
+     *
+     * @return The number of flaps.
+     */
+    public long getFlapCount() {
+        lock.lock();
+
+        try {
+            return flapCount;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public long getWindow() {
+        return TimeUnit.NANOSECONDS.toMillis(windowNanos);
+    }
+
+    public int getClearThreshold() {
+        lock.lock();
+
+        try {
+            return clearThreshold;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the number of cycles within the window at or below which a flagged
+     * unit is cleared again. Applies to later checks.
+     *
+     * @param clearThreshold The clear threshold (less than the threshold).
+     */
+    public void setClearThreshold(final int clearThreshold) {
+        if (clearThreshold < 0 || clearThreshold >= threshold) {
+            throw new IllegalArgumentException("Clear threshold must be non-negative and less than the threshold");
+        }
+
+        lock.lock();
+
+        try {
+            this.clearThreshold = clearThreshold;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        lock.lock();
+
+        try {
+            return open;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ring buffer of the end times of the most recent cycles of a unit. Times
+     * are added in chronological order.
+     */
+    private static final class UnitWindow {
+
+        private final String unitName;
+        private final long[] times;
+
+        private int next;
+        private int size;
+        private boolean armed;
+        private boolean flapping;
+        private ScheduledFuture<?> clearTask;
+
+        UnitWindow(final String unitName, final int capacity) {
+            this.unitName = unitName;
+            this.times = new long[capacity];
+        }
+
+        void add(final long time) {
+            times[next] = time;
+            next = (next + 1) % times.length;
+
+            if (size < times.length) {
+                size++;
+            }
+        }
+
+        int count(final long since) {
+            int count = 0;
+
+            for (int i = 0; i < size; i++) {
+                if (times[i] - since >= 0L) {
+                    count++;
+                }
+            }
+
+            return count;
+        }
+
+        /**
+         * Returns the end time of the cycle whose expiry leaves no more than
+         * the given number of cycles within the window.
+         */
+        long clearTime(final long since, final int clearThreshold) {
+            int expiring = count(since) - clearThreshold;
+
+            if (expiring <= 0) {
+                // Nothing to expire
+                return since;
+            }
+
+            int oldest = (next - size + times.length) % times.length;
+
+            for (int i = 0; i < size; i++) {
+                long time = times[(oldest + i) % times.length];
+
+                if (time - since >= 0L && --expiring == 0) {
+                    return time;
+                }
+            }
+
+            return since;
+        }
+
+        void cancelClear() {
+            if (clearTask != null) {
+                clearTask.cancel(false);
+                clearTask = null;
+            }
+        }
+
+    }
+
+}
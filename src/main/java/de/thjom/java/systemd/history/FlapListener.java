@@ -0,0 +1,30 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.history;
+
+/**
+ * Receives notifications from a {@link FlapDetector} when units start or stop
+ * flapping.
+ */
+@FunctionalInterface
+public interface FlapListener {
+
+    /**
+     * Called when the flapping state of a unit changed.
+     *
+     * @param unitName The name of the unit.
+     * @param flapping Whether the unit is flapping now.
+     * @param cycles The number of cycles within the window.
+     */
+    void flappingChanged(String unitName, boolean flapping, int cycles);
+
+}
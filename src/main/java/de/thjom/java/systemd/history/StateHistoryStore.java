@@ -0,0 +1,694 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.UnitStateListener;
+
+/**
+ * Append-only store of unit state transitions (load, active and sub state).<p>
+ *
+ * Transitions are written to memory-mapped segment files of fixed size within
+ * a directory. Unit names and state strings are dictionary encoded per segment,
+ * so that each transition occupies 25 bytes once its strings are known. When a
+ * segment is full a new one is started and the oldest segments beyond the
+ * configured maximum are deleted, which bounds the disk usage. Timestamps are
+ * microseconds since the epoch and never decrease within a store; a sparse index
+ * per segment allows time range queries without scanning whole segments. Per
+ * unit, only the offsets of the first and the last transition of each segment
+ * are known, so a query for a single unit still reads all transitions of other
+ * units in between.<p>
+ *
+ * The store can be registered as {@link UnitStateListener} directly. It is
+ * thread-safe; appends are serialized, while queries only take the lock to
+ * determine the range to read and read the segments without holding it.
+ */
+public class StateHistoryStore implements UnitStateListener, Closeable {
+
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_MAX_SEGMENTS = 8;
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    static final int MAGIC = 0x53484953;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final byte TYPE_END = 0;
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_EVENT = 2;
+
+    static final int EVENT_SIZE = 1 + 8 + 4 * 4;
+    static final int INDEX_INTERVAL = 256;
+
+    private static final int MIN_SEGMENT_SIZE = 4096;
+
+    private static final Logger LOG = LoggerFactory.getLogger(StateHistoryStore.class);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Lock lock = new ReentrantLock();
+
+    private Segment active;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private boolean closed;
+
+    public StateHistoryStore(final Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+    }
+
+    public StateHistoryStore(final Path directory, final int segmentSize, final int maxSegments) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + " bytes");
+        }
+
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("Number of segments must be positive");
+        }
+
+        this.directory = Files.createDirectories(Objects.requireNonNull(directory));
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+
+        load();
+    }
+
+    private void load() throws IOException {
+        List<Path> files = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+
+        files.sort(null);
+
+        for (Path file : files) {
+            Segment segment = Segment.open(file, sequenceOf(file));
+            segments.addLast(segment);
+
+            if (segment.eventCount > 0) {
+                lastTimestamp = Math.max(lastTimestamp, segment.lastTimestamp);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            roll();
+        }
+        else {
+            active = segments.getLast();
+        }
+
+        trim();
+    }
+
+    private static long sequenceOf(final Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+
+        try {
+            return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+        }
+        catch (final NumberFormatException e) {
+            throw new IOException("Invalid segment file name: " + file, e);
+        }
+    }
+
+    @Override
+    public void stateChanged(final Unit unit, final Map<String, Variant<?>> changedProperties) {
+        if (changedProperties.containsKey(Unit.Property.LOAD_STATE)
+                || changedProperties.containsKey(Unit.Property.ACTIVE_STATE)
+                || changedProperties.containsKey(Unit.Property.SUB_STATE)) {
+
+            String unitName = Systemd.unescapePath(Unit.extractName(unit.getObjectPath()));
+
+            try {
+                append(unitName, Unit.StateTuple.of(unit, changedProperties));
+            }
+            catch (final IOException e) {
+                LOG.error(String.format("Unable to record state transition of unit %s", unitName), e);
+            }
+        }
+    }
+
+    public void append(final String unitName, final Unit.StateTuple state) throws IOException {
+        append(currentTimeMicros(), unitName, state);
+    }
+
+    /**
+     * Appends a transition with an explicit timestamp. Timestamps older than the
+     * most recent one are raised to the latter, keeping the store monotonic.
+     *
+     * @param timestamp The time of the transition in microseconds since the epoch.
+     * @param unitName The name of the unit.
+     * @param state The new state of the unit.
+     * @throws IOException If a new segment cannot be created.
+     */
+    public void append(final long timestamp, final String unitName, final Unit.StateTuple state) throws IOException {
+        lock.lock();
+
+        try {
+            if (closed) {
+                throw new IOException("Store is closed");
+            }
+
+            String[] values = {
+                    Objects.requireNonNull(unitName),
+                    Objects.toString(state.getLoadState(), ""),
+                    Objects.toString(state.getActiveState(), ""),
+                    Objects.toString(state.getSubState(), "")
+            };
+
+            if (!active.fits(values)) {
+                roll();
+
+                if (!active.fits(values)) {
+                    throw new IllegalArgumentException("State transition exceeds segment size");
+                }
+            }
+
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+
+            active.append(lastTimestamp, values);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Entry> query(final long from, final long to) {
+        List<Entry> entries = new ArrayList<>();
+        forEach(null, from, to, entries::add);
+
+        return entries;
+    }
+
+    public List<Entry> query(final String unitName, final long from, final long to) {
+        List<Entry> entries = new ArrayList<>();
+        forEach(Objects.requireNonNull(unitName), from, to, entries::add);
+
+        return entries;
+    }
+
+    /**
+     * Streams all transitions within the given (inclusive) time range in
+     * chronological order.
+     *
+     * @param unitName The unit to filter for or <code>null</code> for all units.
+     * @param from The start of the range in microseconds since the epoch.
+     * @param to The end of the range in microseconds since the epoch.
+     * @param consumer The consumer of the matching transitions.
+     */
+    public void forEach(final String unitName, final long from, final long to, final Consumer<Entry> consumer) {
+        List<Scan> scans = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            for (Segment segment : segments) {
+                if (segment.eventCount > 0 && segment.firstTimestamp <= to && segment.lastTimestamp >= from) {
+                    Scan scan = segment.prepare(unitName, from);
+
+                    if (scan != null) {
+                        scans.add(scan);
+                    }
+                }
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        // Appends only write beyond the prepared ranges, so no lock is needed while reading
+        for (Scan scan : scans) {
+            scan.run(from, to, consumer);
+        }
+    }
+
+    public void flush() {
+        lock.lock();
+
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            if (!closed) {
+                flush();
+                segments.clear();
+                active = null;
+                closed = true;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentCount() {
+        lock.lock();
+
+        try {
+            return segments.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEventCount() {
+        lock.lock();
+
+        try {
+            long count = 0L;
+
+            for (Segment segment : segments) {
+                count += segment.eventCount;
+            }
+
+            return count;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() throws IOException {
+        long sequence = active != null ? active.sequence + 1 : 0L;
+
+        if (active != null) {
+            active.buffer.force();
+        }
+
+        Path file = directory.resolve(String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+
+        active = Segment.create(file, sequence, segmentSize);
+        segments.addLast(active);
+
+        trim();
+    }
+
+    private void trim() throws IOException {
+        while (segments.size() > maxSegments) {
+            Segment oldest = segments.removeFirst();
+            Files.deleteIfExists(oldest.file);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Deleted history segment %s", oldest.file));
+            }
+        }
+    }
+
+    private static long currentTimeMicros() {
+        Instant now = Instant.now();
+
+        return ChronoUnit.MICROS.between(Instant.EPOCH, now);
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long sequence;
+        private final MappedByteBuffer buffer;
+
+        private final Map<String, Integer> ids = new HashMap<>();
+
+        // Dictionary and offsets of the first and last transition per unit, indexed by string id
+        private String[] strings = new String[64];
+        private int[] firstOffsets = new int[64];
+        private int[] lastOffsets = new int[64];
+        private int stringCount;
+
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private int eventCount;
+
+        private long[] indexTimestamps = new long[16];
+        private int[] indexOffsets = new int[16];
+        private int indexSize;
+
+        private Segment(final Path file, final long sequence, final MappedByteBuffer buffer) {
+            this.file = file;
+            this.sequence = sequence;
+            this.buffer = buffer;
+        }
+
+        static Segment create(final Path file, final long sequence, final int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Segment segment = new Segment(file, sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+                segment.buffer.putInt(MAGIC);
+                segment.buffer.putInt(VERSION);
+
+                return segment;
+            }
+        }
+
+        static Segment open(final Path file, final long sequence) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                Segment segment = new Segment(file, sequence, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+
+                if (segment.buffer.remaining() < HEADER_SIZE || segment.buffer.getInt() != MAGIC || segment.buffer.getInt() != VERSION) {
+                    throw new IOException("Invalid history segment: " + file);
+                }
+
+                segment.recover();
+
+                return segment;
+            }
+        }
+
+        /**
+         * Rebuilds the dictionary and the sparse index of an existing segment
+         * and positions the buffer after the last complete record.
+         */
+        private void recover() {
+            while (buffer.hasRemaining()) {
+                int offset = buffer.position();
+                byte type = buffer.get();
+
+                if (type == TYPE_STRING && buffer.remaining() >= 6) {
+                    int id = buffer.getInt();
+                    int length = buffer.getShort() & 0xFFFF;
+
+                    if (id != stringCount || buffer.remaining() < length) {
+                        buffer.position(offset);
+                        break;
+                    }
+
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    define(new String(bytes, StandardCharsets.UTF_8));
+                }
+                else if (type == TYPE_EVENT && buffer.remaining() >= EVENT_SIZE - 1) {
+                    long timestamp = buffer.getLong();
+                    int unitId = buffer.getInt();
+
+                    if (unitId < 0 || unitId >= stringCount) {
+                        buffer.position(offset);
+                        break;
+                    }
+
+                    buffer.position(buffer.position() + 12);
+                    indexEvent(offset, timestamp, unitId);
+                }
+                else {
+                    buffer.position(offset);
+                    break;
+                }
+            }
+        }
+
+        boolean fits(final String[] values) {
+            int needed = EVENT_SIZE + 1;
+
+            for (String value : values) {
+                if (!ids.containsKey(value)) {
+                    needed += 7 + value.length() * 3;
+                }
+            }
+
+            return needed <= buffer.remaining();
+        }
+
+        void append(final long timestamp, final String[] values) {
+            int unitId = idOf(values[0]);
+            int loadId = idOf(values[1]);
+            int activeId = idOf(values[2]);
+            int subId = idOf(values[3]);
+
+            int offset = buffer.position();
+
+            buffer.put(TYPE_EVENT);
+            buffer.putLong(timestamp);
+            buffer.putInt(unitId);
+            buffer.putInt(loadId);
+            buffer.putInt(activeId);
+            buffer.putInt(subId);
+
+            indexEvent(offset, timestamp, unitId);
+        }
+
+        private int idOf(final String value) {
+            Integer id = ids.get(value);
+
+            if (id != null) {
+                return id;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long for history store");
+            }
+
+            int newId = define(value);
+
+            buffer.put(TYPE_STRING);
+            buffer.putInt(newId);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+
+            return newId;
+        }
+
+        private int define(final String value) {
+            int id = stringCount;
+
+            if (id == strings.length) {
+                // Copies, as scans may still refer to the current arrays
+                strings = Arrays.copyOf(strings, id * 2);
+                firstOffsets = Arrays.copyOf(firstOffsets, id * 2);
+                lastOffsets = Arrays.copyOf(lastOffsets, id * 2);
+            }
+
+            strings[id] = value;
+            ids.put(value, id);
+            stringCount++;
+
+            return id;
+        }
+
+        private void indexEvent(final int offset, final long timestamp, final int unitId) {
+            if (eventCount == 0) {
+                firstTimestamp = timestamp;
+            }
+
+            if (firstOffsets[unitId] == 0) {
+                firstOffsets[unitId] = offset;
+            }
+
+            lastOffsets[unitId] = offset;
+
+            if (eventCount % INDEX_INTERVAL == 0) {
+                if (indexSize == indexOffsets.length) {
+                    indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+                    indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                }
+
+                indexTimestamps[indexSize] = timestamp;
+                indexOffsets[indexSize] = offset;
+                indexSize++;
+            }
+
+            lastTimestamp = timestamp;
+            eventCount++;
+        }
+
+        /**
+         * Determines the range of this segment to read for a query. Must be
+         * called while holding the store lock.
+         *
+         * @param unitName The unit to filter for or <code>null</code> for all units.
+         * @param from The start of the time range.
+         * @return The scan or <code>null</code> if the segment holds no
+         *         transitions of the unit.
+         */
+        Scan prepare(final String unitName, final long from) {
+            int start = startOffset(from);
+            int end = buffer.position();
+            int unitId = -1;
+
+            if (unitName != null) {
+                Integer id = ids.get(unitName);
+
+                if (id == null || firstOffsets[id] == 0) {
+                    return null;
+                }
+
+                unitId = id;
+                start = Math.max(start, firstOffsets[unitId]);
+                end = lastOffsets[unitId] + EVENT_SIZE;
+            }
+
+            return new Scan(buffer.duplicate(), strings, unitId, start, end);
+        }
+
+        private int startOffset(final long from) {
+            // Last index entry strictly before the range, as equal timestamps may precede it
+            int low = 0;
+            int high = indexSize - 1;
+            int found = -1;
+
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+
+                if (indexTimestamps[mid] < from) {
+                    found = mid;
+                    low = mid + 1;
+                }
+                else {
+                    high = mid - 1;
+                }
+            }
+
+            return found < 0 ? HEADER_SIZE : indexOffsets[found];
+        }
+
+    }
+
+    /**
+     * Range of a segment to read, prepared under the store lock. The buffer is
+     * a private view and the dictionary array is only ever appended to beyond
+     * the strings referenced within the range.
+     */
+    private static final class Scan {
+
+        private final ByteBuffer buffer;
+        private final String[] strings;
+        private final int unitId;
+        private final int start;
+        private final int end;
+
+        Scan(final ByteBuffer buffer, final String[] strings, final int unitId, final int start, final int end) {
+            this.buffer = buffer;
+            this.strings = strings;
+            this.unitId = unitId;
+            this.start = start;
+            this.end = end;
+        }
+
+        void run(final long from, final long to, final Consumer<Entry> consumer) {
+            int position = start;
+
+            while (position < end) {
+                byte type = buffer.get(position);
+
+                if (type == TYPE_STRING) {
+                    position += 7 + (buffer.getShort(position + 5) & 0xFFFF);
+                    continue;
+                }
+
+                if (type != TYPE_EVENT) {
+                    break;
+                }
+
+                long timestamp = buffer.getLong(position + 1);
+
+                if (timestamp > to) {
+                    break;
+                }
+
+                int eventUnit = buffer.getInt(position + 9);
+
+                if (timestamp >= from && (unitId < 0 || eventUnit == unitId)) {
+                    Unit.StateTuple state = Unit.StateTuple.intern(
+                            strings[buffer.getInt(position + 13)],
+                            strings[buffer.getInt(position + 17)],
+                            strings[buffer.getInt(position + 21)]);
+
+                    consumer.accept(new Entry(timestamp, strings[eventUnit], state));
+                }
+
+                position += EVENT_SIZE;
+            }
+        }
+
+    }
+
+    public static final class Entry {
+
+        private final long timestamp;
+        private final String unitName;
+        private final Unit.StateTuple state;
+
+        Entry(final long timestamp, final String unitName, final Unit.StateTuple state) {
+            this.timestamp = timestamp;
+            this.unitName = unitName;
+            this.state = state;
+        }
+
+        /**
+         * @return The time of the transition in microseconds since the epoch.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getUnitName() {
+            return unitName;
+        }
+
+        public Unit.StateTuple getState() {
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry [timestamp=%d, unitName=%s, state=%s]", timestamp, unitName, state);
+        }
+
+    }
+
+}
@@ -0,0 +1,19 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+/**
+ * This package contains persistent storage for unit state information which
+ * outlives the delivery of the corresponding signals, and the evaluation of
+ * state transitions over time.
+ *
+ */
+
+package de.thjom.java.systemd.history;
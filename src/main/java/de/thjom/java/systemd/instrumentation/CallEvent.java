@@ -0,0 +1,39 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(FlightRecording.EVENT_PREFIX + "Call")
+@Label("D-Bus Call")
+@Category({ FlightRecording.CATEGORY, "D-Bus" })
+@Description("Method call on a remote systemd interface")
+@StackTrace(false)
+final class CallEvent extends jdk.jfr.Event {
+
+    @Label("Interface")
+    String interfaceName;
+
+    @Label("Member")
+    String member;
+
+    @Label("Object Path")
+    String objectPath;
+
+    @Label("Failed")
+    boolean failed;
+
+}
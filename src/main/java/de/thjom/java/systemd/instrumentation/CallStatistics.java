@@ -0,0 +1,114 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of calls of a single bus member (method or property access).
+ */
+public final class CallStatistics implements CallStatisticsMXBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+
+    private final String interfaceName;
+    private final String memberName;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    CallStatistics(final String interfaceName, final String memberName) {
+        this.interfaceName = interfaceName;
+        this.memberName = memberName;
+    }
+
+    void enter() {
+        inFlight.incrementAndGet();
+    }
+
+    void exit(final long nanos, final boolean failed) {
+        inFlight.decrementAndGet();
+        latencies.record(nanos);
+
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String getInterfaceName() {
+        return interfaceName;
+    }
+
+    @Override
+    public String getMemberName() {
+        return memberName;
+    }
+
+    @Override
+    public long getCount() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latencies.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latencies.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latencies.getPercentile(50d) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return latencies.getPercentile(90d) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latencies.getPercentile(99d) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+        errors.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CallStatistics [member=%s.%s, count=%d, errors=%d, inFlight=%d, p99=%.3fms]",
+                interfaceName, memberName, getCount(), getErrorCount(), getInFlight(), getP99Millis());
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import jdk.jfr.EventType;
+
+/**
+ * Emission of JDK Flight Recorder events (module <code>jdk.jfr</code>).<p>
+ *
+ * Three event types are provided below the name prefix {@value #EVENT_PREFIX}:
+ * <code>Call</code> (method calls on remote interfaces), <code>Signal</code>
+ * (dispatching of signals to listeners) and <code>MonitorRefresh</code>
+ * (refreshes of unit monitors). Signal and refresh events are emitted whenever
+ * they are enabled in a running recording. Call events require bus interfaces
+ * to be wrapped by {@link Instrumentation#instrument(Object)}, hence they are
+ * opt-in via the system property {@value #ENABLED_PROPERTY} or at runtime via
+ * {@link #setCallTracingEnabled(boolean)}, which also takes effect for adapters
+ * created before.<p>
+ *
+ * Event objects are handed out as opaque tokens which are <code>null</code>
+ * if the event is not recorded, so callers do not depend on <code>jdk.jfr</code>.
+ * Without a recording, the cost is a check of the event type's state and no
+ * event is allocated.
+ */
+public final class FlightRecording {
+
+    public static final String ENABLED_PROPERTY = "de.thjom.java.systemd.jfr";
+
+    static final String EVENT_PREFIX = "de.thjom.java.systemd.";
+    static final String CATEGORY = "java-systemd";
+
+    private static final boolean AVAILABLE = isJfrPresent();
+
+    private static volatile boolean callTracingEnabled = AVAILABLE && Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private FlightRecording() {
+        // Do nothing (static implementation)
+    }
+
+    // Loaded on first use only, i.e. once jdk.jfr is known to be readable
+    private static final class Types {
+
+        static final EventType CALL = EventType.getEventType(CallEvent.class);
+        static final EventType SIGNAL = EventType.getEventType(SignalEvent.class);
+        static final EventType REFRESH = EventType.getEventType(MonitorRefreshEvent.class);
+
+        private Types() {
+            // Do nothing (static implementation)
+        }
+
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class<?> type = Class.forName("jdk.jfr.Event");
+
+            return FlightRecording.class.getModule().canRead(type.getModule());
+        }
+        catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    public static boolean isCallTracingEnabled() {
+        return callTracingEnabled;
+    }
+
+    public static void setCallTracingEnabled(final boolean enabled) {
+        callTracingEnabled = AVAILABLE && enabled;
+    }
+
+    static CallEvent beginCall() {
+        if (!callTracingEnabled || !Types.CALL.isEnabled()) {
+            return null;
+        }
+
+        CallEvent event = new CallEvent();
+        event.begin();
+
+        return event;
+    }
+
+    static void endCall(final CallEvent event, final String interfaceName, final String member, final String objectPath, final boolean failed) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.interfaceName = interfaceName;
+            event.member = member;
+            event.objectPath = objectPath;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts a signal event.
+     *
+     * @return The event token or <code>null</code> if not recorded.
+     */
+    public static Object beginSignal() {
+        if (!AVAILABLE || !Types.SIGNAL.isEnabled()) {
+            return null;
+        }
+
+        SignalEvent event = new SignalEvent();
+        event.begin();
+
+        return event;
+    }
+
+    public static void endSignal(final Object token, final String type, final String objectPath, final int listenerCount) {
+        SignalEvent event = (SignalEvent) token;
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.type = type;
+            event.objectPath = objectPath;
+            event.listenerCount = listenerCount;
+            event.commit();
+        }
+    }
+
+    /**
+     * Starts a monitor refresh event.
+     *
+     * @return The event token or <code>null</code> if not recorded.
+     */
+    public static Object beginRefresh() {
+        if (!AVAILABLE || !Types.REFRESH.isEnabled()) {
+            return null;
+        }
+
+        MonitorRefreshEvent event = new MonitorRefreshEvent();
+        event.begin();
+
+        return event;
+    }
+
+    public static void endRefresh(final Object token, final String monitor, final int unitCount) {
+        MonitorRefreshEvent event = (MonitorRefreshEvent) token;
+
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.monitor = monitor;
+            event.unitCount = unitCount;
+            event.commit();
+        }
+    }
+
+}
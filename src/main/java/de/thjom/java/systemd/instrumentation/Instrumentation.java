@@ -0,0 +1,208 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Entry point of the self-instrumentation.<p>
+ *
+ * Bus interfaces handed to adapters are wrapped by a proxy which, when enabled,
+ * records latency, errors and in-flight calls per member (keyed by the D-Bus
+ * interface name), and signal dispatching records arrival rate and listener
+ * execution time per signal. All statistics are registered as MXBeans in the
+ * platform MBean server below the domain {@value #JMX_DOMAIN}.<p>
+ *
+ * Instrumentation is disabled by default and may be enabled via the system
+ * property {@value #ENABLED_PROPERTY} or at runtime via {@link #setEnabled(boolean)},
+ * which also takes effect for adapters created before. While disabled, proxies
+ * and signal dispatching only read a volatile flag.
+ */
+public final class Instrumentation {
+
+    public static final String ENABLED_PROPERTY = "de.thjom.java.systemd.instrumentation";
+    public static final String JMX_DOMAIN = "de.thjom.java.systemd";
+
+    private static final Logger LOG = LoggerFactory.getLogger(Instrumentation.class);
+
+    private static final ConcurrentMap<String, CallStatistics> CALLS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, SignalStatistics> SIGNALS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    private Instrumentation() {
+        // Do nothing (static implementation)
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(final boolean enabled) {
+        Instrumentation.enabled = enabled;
+    }
+
+    /**
+     * Wraps the given bus interface with a recording proxy. The proxy checks
+     * whether statistics or call tracing via {@link FlightRecording} are
+     * enabled on each call and merely forwards otherwise.<p>
+     *
+     * Note that the proxy is not known to the bus connection, so calls which
+     * take the remote object itself (e.g. <code>callWithCallback()</code>)
+     * need the unwrapped interface.
+     *
+     * @param <T> The interface type.
+     * @param iface The remote interface.
+     * @return The recording proxy or the given interface if it is already
+     *         wrapped or implements no bus interface.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T instrument(final T iface) {
+        if (iface == null || Proxy.isProxyClass(iface.getClass()) && Proxy.getInvocationHandler(iface) instanceof InstrumentedInvocationHandler) {
+            return iface;
+        }
+
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        collectInterfaces(iface.getClass(), interfaces);
+
+        if (interfaces.isEmpty()) {
+            return iface;
+        }
+
+        try {
+            Class<?>[] types = interfaces.toArray(new Class<?>[0]);
+
+            return (T) Proxy.newProxyInstance(types[0].getClassLoader(), types, new InstrumentedInvocationHandler(iface));
+        }
+        catch (final IllegalArgumentException e) {
+            // Interfaces not visible from a common class loader
+            LOG.warn(String.format("Unable to instrument %s", iface.getClass().getName()), e);
+
+            return iface;
+        }
+    }
+
+    private static void collectInterfaces(final Class<?> type, final Set<Class<?>> interfaces) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Class<?> candidate : current.getInterfaces()) {
+                if (candidate.getName().startsWith("de.thjom.") || candidate.getName().startsWith("org.freedesktop.")) {
+                    interfaces.add(candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the dispatching of a signal to listeners.
+     *
+     * @param signalName The (simple) name of the signal.
+     * @param nanos The time spent in listeners.
+     */
+    public static void recordSignal(final String signalName, final long nanos) {
+        if (enabled) {
+            signal(signalName).record(nanos);
+        }
+    }
+
+    static CallStatistics call(final String interfaceName, final String memberName) {
+        String key = interfaceName + '.' + memberName;
+        CallStatistics statistics = CALLS.get(key);
+
+        if (statistics == null) {
+            statistics = new CallStatistics(interfaceName, memberName);
+
+            CallStatistics existing = CALLS.putIfAbsent(key, statistics);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            register(String.format("%s:type=Call,interface=%s,member=%s", JMX_DOMAIN, interfaceName, memberName), statistics);
+        }
+
+        return statistics;
+    }
+
+    static SignalStatistics signal(final String signalName) {
+        SignalStatistics statistics = SIGNALS.get(signalName);
+
+        if (statistics == null) {
+            statistics = new SignalStatistics(signalName);
+
+            SignalStatistics existing = SIGNALS.putIfAbsent(signalName, statistics);
+
+            if (existing != null) {
+                return existing;
+            }
+
+            register(String.format("%s:type=Signal,name=%s", JMX_DOMAIN, signalName), statistics);
+        }
+
+        return statistics;
+    }
+
+    public static Collection<CallStatistics> getCallStatistics() {
+        return Collections.unmodifiableCollection(CALLS.values());
+    }
+
+    public static Collection<SignalStatistics> getSignalStatistics() {
+        return Collections.unmodifiableCollection(SIGNALS.values());
+    }
+
+    /**
+     * Discards all statistics and unregisters their MBeans.
+     */
+    public static synchronized void reset() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            for (ObjectName name : server.queryNames(new ObjectName(JMX_DOMAIN + ":*"), null)) {
+                server.unregisterMBean(name);
+            }
+        }
+        catch (final JMException e) {
+            LOG.warn("Unable to unregister instrumentation MBeans", e);
+        }
+
+        CALLS.clear();
+        SIGNALS.clear();
+    }
+
+    private static void register(final String objectName, final Object mbean) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(objectName);
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(mbean, name);
+            }
+        }
+        catch (final JMException e) {
+            LOG.warn(String.format("Unable to register MBean %s", objectName), e);
+        }
+    }
+
+}
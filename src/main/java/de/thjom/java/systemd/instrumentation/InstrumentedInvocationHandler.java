@@ -0,0 +1,97 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.freedesktop.dbus.annotations.DBusInterfaceName;
+import org.freedesktop.dbus.annotations.DBusMemberName;
+import org.freedesktop.dbus.interfaces.DBusInterface;
+
+final class InstrumentedInvocationHandler implements InvocationHandler {
+
+    private static final Map<Method, String[]> MEMBER_NAMES = new ConcurrentHashMap<>();
+
+    private final Object target;
+
+    InstrumentedInvocationHandler(final Object target) {
+        this.target = target;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return forward(method, args);
+        }
+
+        boolean recording = Instrumentation.isEnabled();
+        CallEvent event = FlightRecording.beginCall();
+
+        if (!recording && event == null) {
+            return forward(method, args);
+        }
+
+        String[] names = MEMBER_NAMES.computeIfAbsent(method, InstrumentedInvocationHandler::namesOf);
+        CallStatistics statistics = recording ? Instrumentation.call(names[0], names[1]) : null;
+
+        if (statistics != null) {
+            statistics.enter();
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            Object result = forward(method, args);
+            failed = false;
+
+            return result;
+        }
+        finally {
+            if (statistics != null) {
+                statistics.exit(System.nanoTime() - start, failed);
+            }
+
+            if (event != null) {
+                FlightRecording.endCall(event, names[0], names[1], objectPath(), failed);
+            }
+        }
+    }
+
+    private String objectPath() {
+        return target instanceof DBusInterface ? ((DBusInterface) target).getObjectPath() : null;
+    }
+
+    private Object forward(final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        }
+        catch (final InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String[] namesOf(final Method method) {
+        DBusInterfaceName interfaceName = method.getDeclaringClass().getAnnotation(DBusInterfaceName.class);
+        DBusMemberName memberName = method.getAnnotation(DBusMemberName.class);
+
+        return new String[] {
+                interfaceName != null ? interfaceName.value() : method.getDeclaringClass().getName(),
+                memberName != null ? memberName.value() : method.getName()
+        };
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds.<p>
+ *
+ * Values are counted in logarithmic buckets with four linear sub-buckets per
+ * power of two, which bounds the relative error of reported percentiles by
+ * 25% at a fixed footprint of 248 counters. Recording is wait-free apart from
+ * the update of the maximum.
+ */
+public final class LatencyHistogram {
+
+    static final int BUCKETS = 248;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(final long nanos) {
+        long value = Math.max(0L, nanos);
+
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+
+        long current = max.get();
+
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    static int indexOf(final long value) {
+        if (value < 4L) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exponent - 2)) & 3L);
+
+        return (exponent - 1) * 4 + sub;
+    }
+
+    static long lowerBound(final int index) {
+        if (index < 4) {
+            return index;
+        }
+
+        int exponent = index / 4 + 1;
+        int sub = index % 4;
+
+        return (4L + sub) << (exponent - 2);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.sum();
+
+        return n > 0L ? (double) sum.sum() / n : 0d;
+    }
+
+    /**
+     * Returns an estimate (the upper bound of the matching bucket) of the given
+     * percentile.
+     *
+     * @param percentile The percentile within (0, 100].
+     * @return The estimated value in nanoseconds or <code>0</code> if nothing has been recorded.
+     */
+    public long getPercentile(final double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0L) {
+            return 0L;
+        }
+
+        long rank = (long) Math.ceil(total * Math.min(100d, Math.max(0d, percentile)) / 100d);
+        long seen = 0L;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+
+            if (seen >= Math.max(1L, rank)) {
+                long upper = i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+
+                return Math.min(upper, max.get());
+            }
+        }
+
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+
+        count.reset();
+        sum.reset();
+        max.set(0L);
+    }
+
+}
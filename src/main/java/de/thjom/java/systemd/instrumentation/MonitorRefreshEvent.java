@@ -0,0 +1,33 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(FlightRecording.EVENT_PREFIX + "MonitorRefresh")
+@Label("Monitor Refresh")
+@Category(FlightRecording.CATEGORY)
+@Description("Refresh of the units of a unit monitor")
+@StackTrace(false)
+final class MonitorRefreshEvent extends jdk.jfr.Event {
+
+    @Label("Monitor")
+    String monitor;
+
+    @Label("Unit Count")
+    int unitCount;
+
+}
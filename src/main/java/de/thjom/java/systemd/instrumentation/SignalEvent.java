@@ -0,0 +1,36 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(FlightRecording.EVENT_PREFIX + "Signal")
+@Label("D-Bus Signal")
+@Category({ FlightRecording.CATEGORY, "D-Bus" })
+@Description("Dispatching of a signal to listeners, the duration is the time spent in listeners")
+@StackTrace(false)
+final class SignalEvent extends jdk.jfr.Event {
+
+    @Label("Signal Type")
+    String type;
+
+    @Label("Object Path")
+    String objectPath;
+
+    @Label("Listener Count")
+    int listenerCount;
+
+}
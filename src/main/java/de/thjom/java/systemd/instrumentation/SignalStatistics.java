@@ -0,0 +1,95 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+/**
+ * Statistics of the dispatching of a single signal type to listeners.
+ */
+public final class SignalStatistics implements SignalStatisticsMXBean {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final String signalName;
+    private final LatencyHistogram listenerTimes = new LatencyHistogram();
+
+    private long rateCount;
+    private long rateTimestamp = System.nanoTime();
+
+    SignalStatistics(final String signalName) {
+        this.signalName = signalName;
+    }
+
+    void record(final long nanos) {
+        listenerTimes.record(nanos);
+    }
+
+    public LatencyHistogram getListenerTimes() {
+        return listenerTimes;
+    }
+
+    @Override
+    public String getSignalName() {
+        return signalName;
+    }
+
+    @Override
+    public long getCount() {
+        return listenerTimes.getCount();
+    }
+
+    /**
+     * Returns the arrival rate since the previous invocation of this method.
+     *
+     * @return The number of signals per second.
+     */
+    @Override
+    public synchronized double getRatePerSecond() {
+        long now = System.nanoTime();
+        long count = getCount();
+        double rate = now > rateTimestamp ? (count - rateCount) * NANOS_PER_SECOND / (now - rateTimestamp) : 0d;
+
+        rateCount = count;
+        rateTimestamp = now;
+
+        return Math.max(0d, rate);
+    }
+
+    @Override
+    public double getMeanListenerMillis() {
+        return listenerTimes.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxListenerMillis() {
+        return listenerTimes.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99ListenerMillis() {
+        return listenerTimes.getPercentile(99d) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public synchronized void reset() {
+        listenerTimes.reset();
+
+        rateCount = 0L;
+        rateTimestamp = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SignalStatistics [signal=%s, count=%d, meanListener=%.3fms]", signalName, getCount(), getMeanListenerMillis());
+    }
+
+}
@@ -14,10 +14,12 @@ package de.thjom.java.systemd.interfaces;
 import de.thjom.java.systemd.Signal;
 import de.thjom.java.systemd.types.*;
 import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.FileDescriptor;
 import org.freedesktop.dbus.annotations.DBusInterfaceName;
 import org.freedesktop.dbus.annotations.DBusMemberName;
 import org.freedesktop.dbus.exceptions.DBusException;
 import org.freedesktop.dbus.interfaces.DBusInterface;
+import org.freedesktop.dbus.types.UInt32;
 
 import java.util.List;
 
@@ -42,6 +44,9 @@ public interface ManagerInterface extends DBusInterface {
     @DBusMemberName(value = "Dump")
     String dump();
 
+    @DBusMemberName(value = "DumpByFileDescriptor")
+    FileDescriptor dumpByFileDescriptor();
+
     @DBusMemberName(value = "EnableUnitFiles")
     List<UnitFileChange> enableUnitFiles(List<String> names, boolean runtime, boolean force);
 
@@ -57,6 +62,9 @@ public interface ManagerInterface extends DBusInterface {
     @DBusMemberName(value = "GetDynamicUsers")
     List<DynamicUser> getDynamicUsers();
 
+    @DBusMemberName(value = "GetJob")
+    DBusPath getJob(UInt32 id);
+
     @DBusMemberName(value = "GetUnitByPID")
     DBusPath getUnitByPID(int pid);
 
@@ -81,9 +89,15 @@ public interface ManagerInterface extends DBusInterface {
     @DBusMemberName(value = "LinkUnitFiles")
     List<UnitFileChange> linkUnitFiles(List<String> names, boolean runtime, boolean force);
 
+    @DBusMemberName(value = "ListJobs")
+    List<JobType> listJobs();
+
     @DBusMemberName(value = "ListUnitFiles")
     List<UnitFileType> listUnitFiles();
 
+    @DBusMemberName(value = "ListUnitFilesByPatterns")
+    List<UnitFileType> listUnitFilesByPatterns(List<String> states, List<String> patterns);
+
     @DBusMemberName(value = "ListUnits")
     List<UnitType> listUnits();
 
@@ -153,6 +167,9 @@ public interface ManagerInterface extends DBusInterface {
     @DBusMemberName(value = "SetExitCode")
     void setExitCode(byte value);
 
+    @DBusMemberName(value = "StartTransientUnit")
+    DBusPath startTransientUnit(String name, String mode, List<UnitProperty> properties, List<AuxiliaryUnit> aux);
+
     @DBusMemberName(value = "StartUnit")
     DBusPath startUnit(String name, String mode);
 
@@ -11,6 +11,8 @@
 
 package de.thjom.java.systemd.interfaces;
 
+import java.util.Map;
+
 import org.freedesktop.dbus.annotations.DBusInterfaceName;
 import org.freedesktop.dbus.annotations.DBusMemberName;
 import org.freedesktop.dbus.interfaces.DBusInterface;
@@ -22,4 +24,7 @@ public interface PropertyInterface extends DBusInterface {
     @DBusMemberName(value = "Get")
     Variant<?> getProperty(String iface, String property);
 
+    @DBusMemberName(value = "GetAll")
+    Map<String, Variant<?>> getAllProperties(String iface);
+
 }
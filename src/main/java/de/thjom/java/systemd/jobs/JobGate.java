@@ -0,0 +1,728 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.Unit.Mode;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+
+/**
+ * Client-side admission control of job submissions.<p>
+ *
+ * Job-creating calls (start, stop, restart, reload) are queued by priority and
+ * issued to the manager only while fewer than {@link #getMaxInFlight()} jobs
+ * of this gate are pending and the token bucket rate limit allows it. A job
+ * stays in flight until its <code>JobRemoved</code> signal arrives (or its
+ * timeout expires), hence large rollouts do not inflate the job queue of the
+ * manager and other clients of the host are not slowed down.<p>
+ *
+ * Submissions return a future which completes with the job result (e.g.
+ * <code>done</code>, <code>failed</code>) or exceptionally if the call fails.
+ * The gate needs to be {@link #open() opened} before submitting jobs.
+ */
+public class JobGate implements Closeable {
+
+    public enum Operation {
+        START,
+        STOP,
+        RESTART,
+        RELOAD
+    }
+
+    public static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    public static final double DEFAULT_RATE = 50d;
+    public static final int DEFAULT_BURST = 10;
+    public static final long DEFAULT_JOB_TIMEOUT = 300_000L;
+    public static final int DEFAULT_PRIORITY = 0;
+    public static final int DEFAULT_THREAD_POOL_SIZE = 2;
+
+    private static final int MAX_EARLY_RESULTS = 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobGate.class);
+
+    private final Manager manager;
+    private final ScheduledExecutorService executor;
+    private final boolean ownExecutor;
+    private final Lock lock = new ReentrantLock();
+    private final DBusSigHandler<JobRemoved> removedHandler = this::jobRemoved;
+
+    // Guarded by lock
+    private final PriorityQueue<PendingJob> queue = new PriorityQueue<>();
+    private final Map<String, List<PendingJob>> inFlight = new HashMap<>();
+    private final Map<String, String> earlyResults = new LinkedHashMap<String, String>() {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return size() > MAX_EARLY_RESULTS;
+        }
+
+    };
+
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private TokenBucket bucket = new TokenBucket(DEFAULT_RATE, DEFAULT_BURST, System.nanoTime());
+    private long jobTimeout = DEFAULT_JOB_TIMEOUT;
+    private int occupied;
+    private int calling;
+    private long sequence;
+    private long submitted;
+    private long completed;
+    private long failed;
+    private boolean dispatchScheduled;
+    private boolean open;
+    private boolean closed;
+
+    /**
+     * Creates a gate with an own executor of {@link #DEFAULT_THREAD_POOL_SIZE}
+     * daemon threads which is shut down on {@link #close()}.
+     *
+     * @param manager The manager.
+     */
+    public JobGate(final Manager manager) {
+        this(manager, Executors.newScheduledThreadPool(DEFAULT_THREAD_POOL_SIZE, daemonThreads()), true);
+    }
+
+    /**
+     * Creates a gate which issues its calls on the given executor. The
+     * executor remains owned by the caller.
+     *
+     * @param manager The manager.
+     * @param executor The executor.
+     */
+    public JobGate(final Manager manager, final ScheduledExecutorService executor) {
+        this(manager, executor, false);
+    }
+
+    private JobGate(final Manager manager, final ScheduledExecutorService executor, final boolean ownExecutor) {
+        this.manager = Objects.requireNonNull(manager);
+        this.executor = Objects.requireNonNull(executor);
+        this.ownExecutor = ownExecutor;
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, "systemd-job-gate-" + count.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        };
+    }
+
+    /**
+     * Registers the <code>JobRemoved</code> handler which tracks completions.
+     *
+     * @throws DBusException If the signal handler cannot be registered.
+     */
+    public void open() throws DBusException {
+        lock.lock();
+
+        try {
+            checkNotClosed();
+
+            if (!open) {
+                manager.subscribe();
+                manager.addHandler(JobRemoved.class, removedHandler);
+
+                open = true;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the signal handler and cancels all queued and in-flight
+     * submissions. Jobs which have already been issued keep running in the
+     * manager.
+     */
+    @Override
+    public void close() {
+        List<PendingJob> cancelled = new ArrayList<>();
+
+        lock.lock();
+
+        try {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+
+            if (open) {
+                open = false;
+
+                try {
+                    manager.removeHandler(JobRemoved.class, removedHandler);
+                }
+                catch (final DBusException e) {
+                    LOG.warn("Unable to remove job signal handler", e);
+                }
+            }
+
+            cancelled.addAll(queue);
+            queue.clear();
+            inFlight.values().forEach(cancelled::addAll);
+            inFlight.clear();
+            earlyResults.clear();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        for (PendingJob job : cancelled) {
+            job.cancelTimeout();
+            job.future.completeExceptionally(new CancellationException("Job gate has been closed"));
+        }
+
+        if (ownExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    public CompletableFuture<String> startUnit(final String name, final Mode mode) {
+        return submit(Operation.START, name, mode, DEFAULT_PRIORITY);
+    }
+
+    public CompletableFuture<String> stopUnit(final String name, final Mode mode) {
+        return submit(Operation.STOP, name, mode, DEFAULT_PRIORITY);
+    }
+
+    public CompletableFuture<String> restartUnit(final String name, final Mode mode) {
+        return submit(Operation.RESTART, name, mode, DEFAULT_PRIORITY);
+    }
+
+    public CompletableFuture<String> reloadUnit(final String name, final Mode mode) {
+        return submit(Operation.RELOAD, name, mode, DEFAULT_PRIORITY);
+    }
+
+    /**
+     * Queues a job for the given unit name.
+     *
+     * @param operation The job operation.
+     * @param name The full unit name.
+     * @param mode The job mode.
+     * @param priority The priority, higher values are issued first.
+     * @return The future job result.
+     * @throws IllegalStateException If the gate is not open.
+     */
+    public CompletableFuture<String> submit(final Operation operation, final String name, final Mode mode, final int priority) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(mode);
+
+        switch (Objects.requireNonNull(operation)) {
+            case START:
+                return enqueue(operation, name, priority, () -> manager.startUnit(name, mode));
+            case STOP:
+                return enqueue(operation, name, priority, () -> manager.stopUnit(name, mode));
+            case RESTART:
+                return enqueue(operation, name, priority, () -> manager.restartUnit(name, mode));
+            case RELOAD:
+            default:
+                return enqueue(operation, name, priority, () -> manager.reloadUnit(name, mode));
+        }
+    }
+
+    /**
+     * Queues a job for the given unit.
+     *
+     * @param operation The job operation.
+     * @param unit The unit.
+     * @param mode The job mode.
+     * @param priority The priority, higher values are issued first.
+     * @return The future job result.
+     * @throws IllegalStateException If the gate is not open.
+     */
+    public CompletableFuture<String> submit(final Operation operation, final Unit unit, final Mode mode, final int priority) {
+        Objects.requireNonNull(mode);
+
+        String name = Systemd.unescapePath(Unit.extractName(unit.getObjectPath()));
+
+        switch (Objects.requireNonNull(operation)) {
+            case START:
+                return enqueue(operation, name, priority, () -> unit.start(mode));
+            case STOP:
+                return enqueue(operation, name, priority, () -> unit.stop(mode));
+            case RESTART:
+                return enqueue(operation, name, priority, () -> unit.restart(mode));
+            case RELOAD:
+            default:
+                return enqueue(operation, name, priority, () -> unit.reload(mode));
+        }
+    }
+
+    private CompletableFuture<String> enqueue(final Operation operation, final String name, final int priority, final JobCall call) {
+        PendingJob job;
+
+        lock.lock();
+
+        try {
+            checkNotClosed();
+
+            if (!open) {
+                throw new IllegalStateException("Job gate is not open");
+            }
+
+            job = new PendingJob(operation, name, priority, sequence++, call);
+
+            queue.add(job);
+            submitted++;
+
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return job.future;
+    }
+
+    // Requires lock
+    private void dispatch() {
+        while (!queue.isEmpty() && occupied < maxInFlight && !closed) {
+            long wait = bucket.tryAcquire(System.nanoTime());
+
+            if (wait > 0L) {
+                scheduleDispatch(wait);
+
+                return;
+            }
+
+            PendingJob job = queue.poll();
+            occupied++;
+            calling++;
+
+            try {
+                executor.execute(() -> call(job));
+            }
+            catch (final RejectedExecutionException e) {
+                occupied--;
+                calling--;
+                failed++;
+
+                job.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Requires lock
+    private void scheduleDispatch(final long delayNanos) {
+        if (!dispatchScheduled) {
+            dispatchScheduled = true;
+
+            executor.schedule(() -> {
+                lock.lock();
+
+                try {
+                    dispatchScheduled = false;
+                    dispatch();
+                }
+                finally {
+                    lock.unlock();
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void call(final PendingJob job) {
+        DBusPath path;
+
+        try {
+            path = job.call.call();
+        }
+        catch (final DBusException | DBusExecutionException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Unable to issue %s job for unit %s: %s", job.operation, job.unitName, e.getMessage()));
+            }
+
+            lock.lock();
+
+            try {
+                calling--;
+                occupied--;
+                failed++;
+
+                dispatch();
+            }
+            finally {
+                lock.unlock();
+            }
+
+            job.future.completeExceptionally(e);
+
+            return;
+        }
+
+        String result;
+        boolean cancelled = false;
+
+        lock.lock();
+
+        try {
+            calling--;
+
+            // The JobRemoved signal may have overtaken the reply
+            result = earlyResults.remove(path.getPath());
+
+            if (result != null) {
+                occupied--;
+                completed++;
+            }
+            else if (closed) {
+                cancelled = true;
+            }
+            else {
+                job.path = path.getPath();
+                job.timeout = executor.schedule(() -> timeout(job), jobTimeout, TimeUnit.MILLISECONDS);
+
+                inFlight.computeIfAbsent(job.path, k -> new ArrayList<>(1)).add(job);
+            }
+
+            if (calling == 0) {
+                earlyResults.clear();
+            }
+
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        if (result != null) {
+            job.future.complete(result);
+        }
+        else if (cancelled) {
+            job.future.completeExceptionally(new CancellationException("Job gate has been closed"));
+        }
+    }
+
+    void jobRemoved(final JobRemoved signal) {
+        String path = signal.getJob().getPath();
+        List<PendingJob> jobs;
+
+        lock.lock();
+
+        try {
+            jobs = inFlight.remove(path);
+
+            if (jobs == null) {
+                if (calling > 0) {
+                    earlyResults.put(path, signal.getResult());
+                }
+
+                return;
+            }
+
+            occupied -= jobs.size();
+            completed += jobs.size();
+
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        for (PendingJob job : jobs) {
+            job.cancelTimeout();
+            job.future.complete(signal.getResult());
+        }
+    }
+
+    private void timeout(final PendingJob job) {
+        lock.lock();
+
+        try {
+            List<PendingJob> jobs = inFlight.get(job.path);
+
+            if (jobs == null || !jobs.remove(job)) {
+                return;
+            }
+
+            if (jobs.isEmpty()) {
+                inFlight.remove(job.path);
+            }
+
+            occupied--;
+            failed++;
+
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+
+        LOG.warn(String.format("No completion of %s job %s for unit %s within %d ms", job.operation, job.path, job.unitName, jobTimeout));
+
+        job.future.completeExceptionally(new TimeoutException(String.format("Job %s did not complete within %d ms", job.path, jobTimeout)));
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Job gate has been closed");
+        }
+    }
+
+    public int getMaxInFlight() {
+        lock.lock();
+
+        try {
+            return maxInFlight;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the maximum number of pending jobs (issued but not yet removed).
+     * Raising the limit issues queued jobs immediately.
+     *
+     * @param maxInFlight The maximum number of jobs in flight.
+     */
+    public void setMaxInFlight(final int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Maximum of in-flight jobs must be positive");
+        }
+
+        lock.lock();
+
+        try {
+            this.maxInFlight = maxInFlight;
+
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public double getRate() {
+        lock.lock();
+
+        try {
+            return bucket.getRate();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getBurst() {
+        lock.lock();
+
+        try {
+            return bucket.getBurst();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the token bucket rate limit of job calls.
+     *
+     * @param rate The sustained number of calls per second, may be
+     *        {@link Double#POSITIVE_INFINITY} to disable rate limiting.
+     * @param burst The number of calls which may be issued at once.
+     */
+    public void setRateLimit(final double rate, final int burst) {
+        TokenBucket replacement = new TokenBucket(rate, burst, System.nanoTime());
+
+        lock.lock();
+
+        try {
+            bucket = replacement;
+
+            dispatch();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getJobTimeout() {
+        lock.lock();
+
+        try {
+            return jobTimeout;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the time after which an issued job without <code>JobRemoved</code>
+     * signal no longer counts as in flight; its future fails with a
+     * {@link TimeoutException}.
+     *
+     * @param jobTimeout The timeout in milliseconds.
+     */
+    public void setJobTimeout(final long jobTimeout) {
+        if (jobTimeout < 1L) {
+            throw new IllegalArgumentException("Job timeout must be positive");
+        }
+
+        lock.lock();
+
+        try {
+            this.jobTimeout = jobTimeout;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueuedCount() {
+        lock.lock();
+
+        try {
+            return queue.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlightCount() {
+        lock.lock();
+
+        try {
+            return occupied;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSubmittedCount() {
+        lock.lock();
+
+        try {
+            return submitted;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCompletedCount() {
+        lock.lock();
+
+        try {
+            return completed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFailedCount() {
+        lock.lock();
+
+        try {
+            return failed;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isOpen() {
+        lock.lock();
+
+        try {
+            return open;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface JobCall {
+
+        DBusPath call() throws DBusException;
+
+    }
+
+    private static final class PendingJob implements Comparable<PendingJob> {
+
+        private final Operation operation;
+        private final String unitName;
+        private final int priority;
+        private final long sequence;
+        private final JobCall call;
+        private final CompletableFuture<String> future = new CompletableFuture<>();
+
+        // Guarded by the lock of the gate
+        private String path;
+        private ScheduledFuture<?> timeout;
+
+        PendingJob(final Operation operation, final String unitName, final int priority, final long sequence, final JobCall call) {
+            this.operation = operation;
+            this.unitName = unitName;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.call = call;
+        }
+
+        void cancelTimeout() {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+
+        @Override
+        public int compareTo(final PendingJob other) {
+            // Higher priority first, FIFO within a priority
+            int result = Integer.compare(other.priority, priority);
+
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.thjom.java.systemd.instrumentation.LatencyHistogram;
+
+/**
+ * Latencies and result counts of completed jobs, kept by a {@link JobTable}
+ * per job type and per unit and job type.<p>
+ *
+ * The queue latency spans from <code>JobNew</code> until the job state turns
+ * to <code>running</code>, the execution latency from there until
+ * <code>JobRemoved</code>. Jobs which were created before the table has been
+ * opened or whose start has not been observed (e.g. jobs which completed
+ * without waiting) only contribute the latencies which are known.
+ */
+public final class JobStatistics {
+
+    private final LatencyHistogram queueLatency = new LatencyHistogram();
+    private final LatencyHistogram executionLatency = new LatencyHistogram();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+    private final ConcurrentMap<String, LongAdder> results = new ConcurrentHashMap<>();
+
+    void record(final String result, final long queueNanos, final long executionNanos, final long totalNanos) {
+        results.computeIfAbsent(result, k -> new LongAdder()).increment();
+
+        if (queueNanos >= 0L) {
+            queueLatency.record(queueNanos);
+        }
+
+        if (executionNanos >= 0L) {
+            executionLatency.record(executionNanos);
+        }
+
+        if (totalNanos >= 0L) {
+            totalLatency.record(totalNanos);
+        }
+    }
+
+    public LatencyHistogram getQueueLatency() {
+        return queueLatency;
+    }
+
+    public LatencyHistogram getExecutionLatency() {
+        return executionLatency;
+    }
+
+    /**
+     * Returns the latencies from <code>JobNew</code> until <code>JobRemoved</code>.
+     *
+     * @return The histogram of total latencies.
+     */
+    public LatencyHistogram getTotalLatency() {
+        return totalLatency;
+    }
+
+    /**
+     * Returns the number of completed jobs by result (e.g. <code>done</code>,
+     * <code>failed</code>, <code>canceled</code>).
+     *
+     * @return A snapshot of the result counts.
+     */
+    public Map<String, Long> getResultCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        results.forEach((k, v) -> counts.put(k, v.sum()));
+
+        return Collections.unmodifiableMap(counts);
+    }
+
+    public long getResultCount(final String result) {
+        LongAdder count = results.get(result);
+
+        return count != null ? count.sum() : 0L;
+    }
+
+    public long getCount() {
+        long count = 0L;
+
+        for (LongAdder adder : results.values()) {
+            count += adder.sum();
+        }
+
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("JobStatistics [count=%d, results=%s]", getCount(), getResultCounts());
+    }
+
+}
@@ -0,0 +1,443 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+import de.thjom.java.systemd.types.JobType;
+
+/**
+ * Live table of the pending jobs of a manager with latency statistics of the
+ * completed ones.<p>
+ *
+ * The table is seeded with a single <code>ListJobs</code> call on
+ * {@link #open()} and kept current from the <code>JobNew</code> and
+ * <code>JobRemoved</code> signals afterwards (jobs removed while the listing
+ * is on its way are not seeded); state changes of jobs are taken
+ * from their <code>PropertiesChanged</code> signals. As <code>JobNew</code>
+ * does not carry the job type, the types of new jobs are resolved by another
+ * <code>ListJobs</code> call on the executor, coalesced for bursts of new
+ * jobs and never blocking the signal dispatching. Jobs which are gone before
+ * are accounted as {@link #UNKNOWN_TYPE}.<p>
+ *
+ * Completed jobs are recorded in {@link JobStatistics} per job type (e.g.
+ * <code>start</code>, <code>restart</code>) and per unit and job type. The
+ * per unit statistics of a unit are discarded once systemd unloads it, so
+ * short-lived units such as transient scopes do not accumulate.
+ * Instances are thread-safe.
+ */
+public class JobTable implements Closeable {
+
+    public static final String UNKNOWN_TYPE = "unknown";
+
+    static final String PROPERTY_STATE = "State";
+    static final String STATE_WAITING = "waiting";
+    static final String STATE_RUNNING = "running";
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobTable.class);
+
+    private final Manager manager;
+    private final Executor executor;
+    private final AtomicBoolean resolving = new AtomicBoolean();
+    private final Lock lock = new ReentrantLock();
+    private final ConcurrentMap<Long, Entry> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, JobStatistics> byType = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ConcurrentMap<String, JobStatistics>> byUnit = new ConcurrentHashMap<>();
+
+    private final DBusSigHandler<JobNew> newHandler = this::jobNew;
+    private final DBusSigHandler<JobRemoved> removedHandler = this::jobRemoved;
+    private final DBusSigHandler<PropertiesChanged> stateHandler = this::jobChanged;
+    private final DBusSigHandler<UnitRemoved> unitHandler = this::unitRemoved;
+
+    // Non-null while seeding, collects the identifiers of jobs removed meanwhile
+    private volatile Set<Long> seedRemovals;
+
+    private boolean open;
+
+    public JobTable(final Manager manager) {
+        this(manager, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a table which resolves the types of new jobs on the given
+     * executor.
+     *
+     * @param manager The manager.
+     * @param executor The executor.
+     */
+    public JobTable(final Manager manager, final Executor executor) {
+        this.manager = Objects.requireNonNull(manager);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Registers the signal handlers and seeds the table with the currently
+     * pending jobs.
+     *
+     * @throws DBusException If the signal handlers cannot be registered.
+     */
+    public void open() throws DBusException {
+        lock.lock();
+
+        try {
+            if (open) {
+                return;
+            }
+
+            Set<Long> removals = ConcurrentHashMap.newKeySet();
+            seedRemovals = removals;
+
+            manager.subscribe();
+            manager.addHandler(JobNew.class, newHandler);
+            manager.addHandler(JobRemoved.class, removedHandler);
+            manager.addHandler(PropertiesChanged.class, stateHandler);
+            manager.addHandler(UnitRemoved.class, unitHandler);
+
+            open = true;
+
+            try {
+                // Handlers first, so no job slips through between listing and subscription
+                for (JobType job : manager.listJobs()) {
+                    if (!removals.contains(job.getId())) {
+                        jobs.putIfAbsent(job.getId(), new Entry(job.getId(), job.getUnitName(), job.getJobObjectPath(), job.getJobType(), job.getState(), -1L));
+                    }
+                }
+            }
+            finally {
+                seedRemovals = null;
+
+                // Jobs removed while the listing was on its way must not become phantoms
+                removals.forEach(jobs::remove);
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the signal handlers and clears the table. The statistics are
+     * kept.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            if (open) {
+                open = false;
+
+                try {
+                    manager.removeHandler(JobNew.class, newHandler);
+                    manager.removeHandler(JobRemoved.class, removedHandler);
+                    manager.removeHandler(PropertiesChanged.class, stateHandler);
+                    manager.removeHandler(UnitRemoved.class, unitHandler);
+                }
+                catch (final DBusException e) {
+                    LOG.warn("Unable to remove job signal handlers", e);
+                }
+
+                jobs.clear();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    void jobNew(final JobNew signal) {
+        jobs.putIfAbsent(signal.getId(), new Entry(signal.getId(), signal.getUnit(), signal.getJob(), null, STATE_WAITING, System.nanoTime()));
+
+        if (resolving.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::resolveTypes);
+            }
+            catch (final RejectedExecutionException e) {
+                resolving.set(false);
+                LOG.warn("Unable to resolve job types", e);
+            }
+        }
+    }
+
+    private void resolveTypes() {
+        // Jobs arriving from now on need another listing
+        resolving.set(false);
+
+        try {
+            for (JobType job : manager.listJobs()) {
+                Entry entry = jobs.get(job.getId());
+
+                if (entry != null && entry.jobType == null) {
+                    entry.jobType = job.getJobType();
+                }
+            }
+        }
+        catch (final DBusExecutionException e) {
+            LOG.warn(String.format("Unable to list jobs: %s", e.getMessage()));
+        }
+    }
+
+    void jobChanged(final PropertiesChanged signal) {
+        if (!Manager.JOB_SERVICE_NAME.equals(signal.getInterfaceName())) {
+            return;
+        }
+
+        Variant<?> state = signal.getPropertiesChanged().get(PROPERTY_STATE);
+        Entry entry = state != null ? jobs.get(parseId(signal.getPath())) : null;
+
+        if (entry != null) {
+            entry.setState(String.valueOf(state.getValue()), System.nanoTime());
+        }
+    }
+
+    void jobRemoved(final JobRemoved signal) {
+        long now = System.nanoTime();
+        Set<Long> removals = seedRemovals;
+
+        if (removals != null) {
+            removals.add(signal.getId());
+        }
+
+        Entry entry = jobs.remove(signal.getId());
+        String jobType = entry != null ? entry.getJobType() : UNKNOWN_TYPE;
+
+        long queue = -1L;
+        long execution = -1L;
+        long total = -1L;
+
+        if (entry != null) {
+            if (entry.createdAt >= 0L) {
+                total = now - entry.createdAt;
+            }
+
+            if (entry.runningAt >= 0L) {
+                execution = now - entry.runningAt;
+
+                if (entry.createdAt >= 0L) {
+                    queue = entry.runningAt - entry.createdAt;
+                }
+            }
+        }
+
+        byType.computeIfAbsent(jobType, k -> new JobStatistics())
+                .record(signal.getResult(), queue, execution, total);
+        byUnit.computeIfAbsent(signal.getUnit(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(jobType, k -> new JobStatistics())
+                .record(signal.getResult(), queue, execution, total);
+    }
+
+    void unitRemoved(final UnitRemoved signal) {
+        byUnit.remove(signal.getId());
+    }
+
+    static long parseId(final String jobObjectPath) {
+        try {
+            return Long.parseLong(jobObjectPath.substring(jobObjectPath.lastIndexOf('/') + 1));
+        }
+        catch (final NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * Returns the pending jobs ordered by identifier.
+     *
+     * @return A snapshot of the pending jobs.
+     */
+    public List<Entry> getJobs() {
+        List<Entry> entries = new ArrayList<>(jobs.values());
+        entries.sort(Comparator.comparingLong(Entry::getId));
+
+        return Collections.unmodifiableList(entries);
+    }
+
+    public Optional<Entry> getJob(final long id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Returns the pending jobs of the given unit.
+     *
+     * @param unitName The full unit name.
+     * @return The pending jobs ordered by identifier.
+     */
+    public List<Entry> getJobs(final String unitName) {
+        List<Entry> entries = new ArrayList<>();
+
+        for (Entry entry : getJobs()) {
+            if (entry.unitName.equals(unitName)) {
+                entries.add(entry);
+            }
+        }
+
+        return Collections.unmodifiableList(entries);
+    }
+
+    public int size() {
+        return jobs.size();
+    }
+
+    public boolean isOpen() {
+        lock.lock();
+
+        try {
+            return open;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public Set<String> getJobTypes() {
+        return Collections.unmodifiableSet(new TreeSet<>(byType.keySet()));
+    }
+
+    public Set<String> getUnitNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(byUnit.keySet()));
+    }
+
+    /**
+     * Returns the statistics of completed jobs of the given type.
+     *
+     * @param jobType The job type, e.g. <code>restart</code>.
+     * @return The statistics, empty if no such job has been completed.
+     */
+    public Optional<JobStatistics> getStatistics(final String jobType) {
+        return Optional.ofNullable(byType.get(jobType));
+    }
+
+    /**
+     * Returns the statistics of completed jobs of the given type and unit.
+     * They are discarded when the unit is unloaded.
+     *
+     * @param unitName The full unit name.
+     * @param jobType The job type, e.g. <code>restart</code>.
+     * @return The statistics, empty if no such job has been completed.
+     */
+    public Optional<JobStatistics> getStatistics(final String unitName, final String jobType) {
+        Map<String, JobStatistics> statistics = byUnit.get(unitName);
+
+        return statistics != null ? Optional.ofNullable(statistics.get(jobType)) : Optional.empty();
+    }
+
+    /**
+     * A pending job.
+     */
+    public static final class Entry {
+
+        private final long id;
+        private final String unitName;
+        private final DBusPath jobObjectPath;
+        private final long createdAt;
+
+        private volatile String jobType;
+        private volatile String state;
+        private volatile long runningAt = -1L;
+
+        Entry(final long id, final String unitName, final DBusPath jobObjectPath, final String jobType, final String state, final long createdAt) {
+            this.id = id;
+            this.unitName = unitName;
+            this.jobObjectPath = jobObjectPath;
+            this.jobType = jobType;
+            this.state = state;
+            this.createdAt = createdAt;
+        }
+
+        void setState(final String state, final long now) {
+            if (STATE_RUNNING.equals(state) && runningAt < 0L) {
+                runningAt = now;
+            }
+
+            this.state = state;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getUnitName() {
+            return unitName;
+        }
+
+        public DBusPath getJobObjectPath() {
+            return jobObjectPath;
+        }
+
+        /**
+         * Returns the type of the job, e.g. <code>start</code>.
+         *
+         * @return The job type, {@link #UNKNOWN_TYPE} if not resolved (yet).
+         */
+        public String getJobType() {
+            String type = jobType;
+
+            return type != null ? type : UNKNOWN_TYPE;
+        }
+
+        /**
+         * Returns the last known state of the job, i.e. <code>waiting</code>
+         * or <code>running</code>.
+         *
+         * @return The job state.
+         */
+        public String getState() {
+            return state;
+        }
+
+        /**
+         * Returns whether the creation of the job has been observed, i.e. it
+         * was created after the table has been opened.
+         *
+         * @return <code>true</code> if the creation time is known.
+         */
+        public boolean isTracked() {
+            return createdAt >= 0L;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Entry [id=%d, unitName=%s, jobType=%s, state=%s]", id, unitName, jobType, state);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+/**
+ * Token bucket rate limiter. The bucket holds up to <code>burst</code> tokens
+ * and is refilled continuously at the given rate. Not thread-safe; the clock
+ * (in nanoseconds) is supplied by the caller.
+ */
+final class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final double rate;
+    private final int burst;
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(final double rate, final int burst, final long now) {
+        if (!(rate > 0d)) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must be positive");
+        }
+
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = now;
+    }
+
+    /**
+     * Takes a token if available.
+     *
+     * @param now The current time in nanoseconds.
+     * @return Zero if a token has been taken, otherwise the time in nanoseconds
+     *         until the next token is available.
+     */
+    long tryAcquire(final long now) {
+        if (Double.isInfinite(rate)) {
+            return 0L;
+        }
+
+        tokens = Math.min(burst, tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        lastRefill = now;
+
+        if (tokens >= 1d) {
+            tokens -= 1d;
+
+            return 0L;
+        }
+
+        return Math.max(1L, (long) Math.ceil((1d - tokens) / rate * NANOS_PER_SECOND));
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    int getBurst() {
+        return burst;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.launch;
+
+import java.util.List;
+
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+
+import de.thjom.java.systemd.features.CpuAccounting;
+import de.thjom.java.systemd.features.MemoryAccounting;
+import de.thjom.java.systemd.features.TasksAccounting;
+import de.thjom.java.systemd.types.UnitProperty;
+
+/**
+ * Resource limits of a transient scope. Limits which are not set are
+ * inherited from the slice and the manager defaults.
+ */
+public final class ScopeLimits {
+
+    public static final long NOT_SET = -1L;
+
+    private static final long USEC_PER_PERCENT = 10_000L;
+
+    private long memoryMax = NOT_SET;
+    private long cpuQuota = NOT_SET;
+    private long tasksMax = NOT_SET;
+
+    public long getMemoryMax() {
+        return memoryMax;
+    }
+
+    /**
+     * Sets the hard memory limit (<code>MemoryMax</code>).
+     *
+     * @param memoryMax The limit in bytes or {@link #NOT_SET}.
+     */
+    public void setMemoryMax(final long memoryMax) {
+        this.memoryMax = checkLimit(memoryMax, "Memory limit");
+    }
+
+    /**
+     * Returns the CPU quota in percent of a single CPU.
+     *
+     * @return The CPU quota or {@link #NOT_SET}.
+     */
+    public long getCpuQuota() {
+        return cpuQuota;
+    }
+
+    /**
+     * Sets the CPU quota (<code>CPUQuotaPerSecUSec</code>), e.g. 200 for two
+     * CPUs.
+     *
+     * @param cpuQuota The quota in percent of a single CPU or {@link #NOT_SET}.
+     */
+    public void setCpuQuota(final long cpuQuota) {
+        this.cpuQuota = checkLimit(cpuQuota, "CPU quota");
+    }
+
+    public long getTasksMax() {
+        return tasksMax;
+    }
+
+    /**
+     * Sets the maximum number of tasks (<code>TasksMax</code>).
+     *
+     * @param tasksMax The number of tasks or {@link #NOT_SET}.
+     */
+    public void setTasksMax(final long tasksMax) {
+        this.tasksMax = checkLimit(tasksMax, "Task limit");
+    }
+
+    private static long checkLimit(final long value, final String description) {
+        if (value < 0L && value != NOT_SET) {
+            throw new IllegalArgumentException(description + " must not be negative");
+        }
+
+        return value;
+    }
+
+    void addTo(final List<UnitProperty> properties) {
+        if (memoryMax != NOT_SET) {
+            properties.add(new UnitProperty(MemoryAccounting.Property.MEMORY_MAX, new Variant<>(new UInt64(memoryMax))));
+        }
+
+        if (cpuQuota != NOT_SET) {
+            properties.add(new UnitProperty(CpuAccounting.Property.CPU_QUOTA_PER_SEC_USEC, new Variant<>(new UInt64(cpuQuota * USEC_PER_PERCENT))));
+        }
+
+        if (tasksMax != NOT_SET) {
+            properties.add(new UnitProperty(TasksAccounting.Property.TASKS_MAX, new Variant<>(new UInt64(tasksMax))));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScopeLimits [memoryMax=%d, cpuQuota=%d, tasksMax=%d]", memoryMax, cpuQuota, tasksMax);
+    }
+
+}
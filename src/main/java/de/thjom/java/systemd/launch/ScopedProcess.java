@@ -0,0 +1,57 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.launch;
+
+import org.freedesktop.dbus.DBusPath;
+
+/**
+ * Process which has been placed into a transient scope.
+ */
+public final class ScopedProcess {
+
+    private final Process process;
+    private final String scopeName;
+    private final DBusPath job;
+
+    ScopedProcess(final Process process, final String scopeName, final DBusPath job) {
+        this.process = process;
+        this.scopeName = scopeName;
+        this.job = job;
+    }
+
+    public Process getProcess() {
+        return process;
+    }
+
+    public long getPid() {
+        return process.pid();
+    }
+
+    public String getScopeName() {
+        return scopeName;
+    }
+
+    /**
+     * Returns the path of the job which started the scope.
+     *
+     * @return The job path.
+     */
+    public DBusPath getJob() {
+        return job;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScopedProcess [pid=%d, scopeName=%s]", process.pid(), scopeName);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.launch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Scope;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.Unit.Mode;
+import de.thjom.java.systemd.types.UnitProperty;
+
+/**
+ * Launches processes and places each of them into a transient scope of its
+ * own (<code>StartTransientUnit</code> with the <code>PIDs</code> property),
+ * so that a runaway child hits its own limits instead of those of the
+ * launching service.<p>
+ *
+ * The process is started first and moved into the scope as soon as the
+ * manager has processed the call; until then it runs in the control group of
+ * the caller. Calls are not awaited by {@link #launch(ProcessBuilder, ScopeLimits)},
+ * hence many launches are pipelined on the bus connection and each adds little
+ * more than the fork itself. Scopes are named <code>&lt;prefix&gt;-&lt;pid&gt;.scope</code>
+ * and garbage-collected by the manager after their processes exited, even if
+ * they failed (<code>CollectMode=inactive-or-failed</code>).
+ */
+public class ScopedProcessLauncher {
+
+    public static final String DEFAULT_PREFIX = "java-worker";
+
+    private static final String PROPERTY_PIDS = "PIDs";
+    private static final String COLLECT_INACTIVE_OR_FAILED = "inactive-or-failed";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ScopedProcessLauncher.class);
+
+    private final Manager manager;
+    private final LongAdder launched = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile String prefix = DEFAULT_PREFIX;
+    private volatile String slice;
+    private volatile boolean destroyOnFailure = true;
+
+    public ScopedProcessLauncher(final Manager manager) {
+        this.manager = Objects.requireNonNull(manager);
+    }
+
+    public CompletableFuture<ScopedProcess> launch(final ProcessBuilder builder) throws IOException {
+        return launch(builder, new ScopeLimits());
+    }
+
+    /**
+     * Starts a process and requests its transient scope without waiting for
+     * the reply.
+     *
+     * @param builder The builder of the process.
+     * @param limits The resource limits of the scope.
+     * @return A future which completes when the scope has been created, or
+     *         exceptionally if the call fails (the process is destroyed then,
+     *         unless disabled by {@link #setDestroyOnFailure(boolean)}).
+     * @throws IOException If the process cannot be started.
+     */
+    public CompletableFuture<ScopedProcess> launch(final ProcessBuilder builder, final ScopeLimits limits) throws IOException {
+        Objects.requireNonNull(limits);
+
+        Process process = builder.start();
+        String scopeName = String.format("%s-%d%s", prefix, process.pid(), Scope.UNIT_SUFFIX);
+
+        List<UnitProperty> properties = new ArrayList<>(8);
+        properties.add(new UnitProperty(PROPERTY_PIDS, new Variant<>(List.of(new UInt32(process.pid())), "au")));
+        properties.add(new UnitProperty(Unit.Property.DESCRIPTION, new Variant<>(String.join(" ", builder.command()))));
+        properties.add(new UnitProperty(Unit.Property.COLLECT_MODE, new Variant<>(COLLECT_INACTIVE_OR_FAILED)));
+
+        String parent = slice;
+
+        if (parent != null) {
+            properties.add(new UnitProperty(Scope.Property.SLICE, new Variant<>(parent)));
+        }
+
+        limits.addTo(properties);
+        launched.increment();
+
+        return manager.startTransientUnitAsync(scopeName, Mode.FAIL, properties).handle((job, error) -> {
+            if (error == null) {
+                return new ScopedProcess(process, scopeName, job);
+            }
+
+            failed.increment();
+
+            LOG.error(String.format("Unable to create scope %s for process %d", scopeName, process.pid()), error);
+
+            if (destroyOnFailure) {
+                process.destroyForcibly();
+            }
+
+            throw new CompletionException(error);
+        });
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Sets the prefix of scope names. It must consist of characters which are
+     * valid in unit names.
+     *
+     * @param prefix The prefix.
+     */
+    public void setPrefix(final String prefix) {
+        if (prefix.isEmpty()) {
+            throw new IllegalArgumentException("Prefix must not be empty");
+        }
+
+        this.prefix = prefix;
+    }
+
+    public String getSlice() {
+        return slice;
+    }
+
+    /**
+     * Sets the slice of the scopes, by default the manager chooses the slice
+     * (<code>system.slice</code> for the system manager).
+     *
+     * @param slice The name of the slice or <code>null</code>.
+     */
+    public void setSlice(final String slice) {
+        this.slice = slice;
+    }
+
+    public boolean isDestroyOnFailure() {
+        return destroyOnFailure;
+    }
+
+    public void setDestroyOnFailure(final boolean destroyOnFailure) {
+        this.destroyOnFailure = destroyOnFailure;
+    }
+
+    public long getLaunchCount() {
+        return launched.sum();
+    }
+
+    /**
+     * Returns the number of launches whose scope could not be created.
+     *
+     * @return The number of failures.
+     */
+    public long getFailureCount() {
+        return failed.sum();
+    }
+
+}
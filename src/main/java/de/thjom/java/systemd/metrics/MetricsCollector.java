@@ -0,0 +1,373 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Mount;
+import de.thjom.java.systemd.Scope;
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.Slice;
+import de.thjom.java.systemd.Socket;
+import de.thjom.java.systemd.Swap;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.features.CpuAccounting;
+import de.thjom.java.systemd.features.IoAccounting;
+import de.thjom.java.systemd.features.IpAccounting;
+import de.thjom.java.systemd.features.MemoryAccounting;
+import de.thjom.java.systemd.features.TasksAccounting;
+import de.thjom.java.systemd.types.UnitType;
+
+/**
+ * Cache of unit states and accounting counters which serves as source for
+ * metric exports.<p>
+ *
+ * Unit states are kept up to date by <code>PropertiesChanged</code> signals.
+ * Accounting counters are not announced by signals, hence they (and the manager
+ * gauges) are refreshed periodically in the background by {@link #refresh()}.
+ * Reading the cache never causes bus traffic. The number of units (and thus of
+ * label values) is limited; units beyond the limit are counted as dropped.
+ */
+public class MetricsCollector {
+
+    public static final int DEFAULT_MAX_UNITS = 1000;
+
+    /** Value used by "systemd" for counters which are not available. */
+    static final long NOT_SET = -1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(MetricsCollector.class);
+
+    private static final String[][] ACCOUNTING_INTERFACES = {
+            { Service.UNIT_SUFFIX, Service.SERVICE_NAME },
+            { Scope.UNIT_SUFFIX, Scope.SERVICE_NAME },
+            { Slice.UNIT_SUFFIX, Slice.SERVICE_NAME },
+            { Socket.UNIT_SUFFIX, Socket.SERVICE_NAME },
+            { Mount.UNIT_SUFFIX, Mount.SERVICE_NAME },
+            { Swap.UNIT_SUFFIX, Swap.SERVICE_NAME }
+    };
+
+    private final Manager manager;
+    private final int maxUnits;
+    private final Predicate<String> unitFilter;
+    private final ConcurrentMap<String, UnitMetrics> units = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+
+    private volatile long failedUnits;
+    private volatile long jobs;
+    private volatile long droppedUnits;
+
+    private DBusSigHandler<PropertiesChanged> stateHandler;
+    private Timer refreshTimer;
+
+    public MetricsCollector(final Manager manager) {
+        this(manager, DEFAULT_MAX_UNITS, unitName -> true);
+    }
+
+    public MetricsCollector(final Manager manager, final int maxUnits, final Predicate<String> unitFilter) {
+        if (maxUnits < 1) {
+            throw new IllegalArgumentException("Maximum number of units must be positive");
+        }
+
+        this.manager = Objects.requireNonNull(manager);
+        this.maxUnits = maxUnits;
+        this.unitFilter = Objects.requireNonNull(unitFilter);
+    }
+
+    /**
+     * Registers the signal handler for state changes and starts the periodic
+     * refresh of counters.
+     *
+     * @param period The refresh period in milliseconds.
+     * @throws DBusException If the signal handler cannot be registered.
+     */
+    public void start(final long period) throws DBusException {
+        lock.lock();
+
+        try {
+            if (stateHandler == null) {
+                stateHandler = this::handleSignal;
+
+                manager.subscribe();
+                manager.addHandler(PropertiesChanged.class, stateHandler);
+            }
+
+            TimerTask task = new TimerTask() {
+
+                @Override
+                public void run() {
+                    try {
+                        refresh();
+                    }
+                    catch (final DBusException | DBusExecutionException e) {
+                        LOG.error("Unable to refresh metrics", e);
+                    }
+                }
+
+            };
+
+            if (refreshTimer != null) {
+                refreshTimer.cancel();
+            }
+
+            refreshTimer = new Timer(getClass().getSimpleName() + "-refreshTimer", true);
+            refreshTimer.schedule(task, 0L, period);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() throws DBusException {
+        lock.lock();
+
+        try {
+            if (refreshTimer != null) {
+                refreshTimer.cancel();
+                refreshTimer = null;
+            }
+
+            if (stateHandler != null) {
+                manager.removeHandler(PropertiesChanged.class, stateHandler);
+                stateHandler = null;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reloads the unit list, the manager gauges and the accounting counters
+     * of all (accepted) units.
+     *
+     * @throws DBusException If a property adapter cannot be created.
+     */
+    public void refresh() throws DBusException {
+        Map<String, Variant<?>> managerProperties = manager.getProperties().getAll();
+
+        failedUnits = longValue(managerProperties, Manager.Property.NFAILED_UNITS);
+        jobs = longValue(managerProperties, Manager.Property.NJOBS);
+
+        List<UnitType> unitTypes = manager.listUnits();
+        Set<String> seen = new HashSet<>(unitTypes.size() * 2);
+        long dropped = 0L;
+
+        for (UnitType unitType : unitTypes) {
+            String unitName = unitType.getUnitName();
+
+            if (!unitFilter.test(unitName)) {
+                continue;
+            }
+
+            UnitMetrics metrics = units.get(unitName);
+
+            if (metrics == null) {
+                if (units.size() >= maxUnits) {
+                    dropped++;
+
+                    continue;
+                }
+
+                metrics = new UnitMetrics(unitName);
+                units.put(unitName, metrics);
+            }
+
+            seen.add(unitName);
+            metrics.state = Unit.StateTuple.of(unitType);
+
+            String interfaceName = accountingInterface(unitName);
+
+            if (interfaceName != null) {
+                fetchCounters(metrics, unitType.getUnitObjectPath().getPath(), interfaceName);
+            }
+        }
+
+        units.keySet().retainAll(seen);
+        droppedUnits = dropped;
+    }
+
+    private void fetchCounters(final UnitMetrics metrics, final String objectPath, final String interfaceName) throws DBusException {
+        try {
+            Map<String, Variant<?>> properties = manager.getProperties(objectPath, interfaceName).getAll();
+
+            metrics.cpuUsageNSec = longValue(properties, CpuAccounting.Property.CPU_USAGE_NSEC);
+            metrics.memoryCurrent = longValue(properties, MemoryAccounting.Property.MEMORY_CURRENT);
+            metrics.tasksCurrent = longValue(properties, TasksAccounting.Property.TASKS_CURRENT);
+            metrics.ioReadBytes = longValue(properties, IoAccounting.Property.IO_READ_BYTES);
+            metrics.ioWriteBytes = longValue(properties, IoAccounting.Property.IO_WRITE_BYTES);
+            metrics.ipIngressBytes = longValue(properties, IpAccounting.Property.IP_INGRESS_BYTES);
+            metrics.ipEgressBytes = longValue(properties, IpAccounting.Property.IP_EGRESS_BYTES);
+        }
+        catch (final DBusExecutionException e) {
+            // Unit may have been garbage-collected between listing and fetching
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Unable to fetch counters of unit %s: %s", metrics.unitName, e.getMessage()));
+            }
+        }
+    }
+
+    void handleSignal(final PropertiesChanged signal) {
+        if (!Unit.SERVICE_NAME.equals(signal.getInterfaceName())) {
+            return;
+        }
+
+        UnitMetrics metrics = units.get(Systemd.unescapePath(Unit.extractName(signal.getPath())));
+
+        if (metrics != null) {
+            Map<String, Variant<?>> properties = signal.getPropertiesChanged();
+            Unit.StateTuple current = metrics.state;
+
+            metrics.state = Unit.StateTuple.intern(
+                    stringValue(properties, Unit.Property.LOAD_STATE, current.getLoadState()),
+                    stringValue(properties, Unit.Property.ACTIVE_STATE, current.getActiveState()),
+                    stringValue(properties, Unit.Property.SUB_STATE, current.getSubState()));
+        }
+    }
+
+    static String accountingInterface(final String unitName) {
+        for (String[] entry : ACCOUNTING_INTERFACES) {
+            if (unitName.endsWith(entry[0])) {
+                return entry[1];
+            }
+        }
+
+        return null;
+    }
+
+    static long longValue(final Map<String, Variant<?>> properties, final String propertyName) {
+        Variant<?> variant = properties.get(propertyName);
+
+        if (variant != null && variant.getValue() instanceof Number) {
+            // UINT64_MAX ("[not set]") maps to -1
+            long value = ((Number) variant.getValue()).longValue();
+
+            return value < 0L ? NOT_SET : value;
+        }
+
+        return NOT_SET;
+    }
+
+    private static String stringValue(final Map<String, Variant<?>> properties, final String propertyName, final String defaultValue) {
+        Variant<?> variant = properties.get(propertyName);
+
+        return variant != null ? String.valueOf(variant.getValue()) : defaultValue;
+    }
+
+    public Collection<UnitMetrics> getUnits() {
+        return Collections.unmodifiableCollection(units.values());
+    }
+
+    public long getFailedUnits() {
+        return failedUnits;
+    }
+
+    public long getJobs() {
+        return jobs;
+    }
+
+    /**
+     * Returns the number of units which have been ignored at the last refresh
+     * due to the label cardinality limit.
+     *
+     * @return The number of dropped units.
+     */
+    public long getDroppedUnits() {
+        return droppedUnits;
+    }
+
+    public int getMaxUnits() {
+        return maxUnits;
+    }
+
+    /**
+     * Cached metrics of a single unit. Counters which are not available are
+     * reported as <code>-1</code>.
+     */
+    public static final class UnitMetrics {
+
+        private final String unitName;
+
+        private volatile Unit.StateTuple state;
+        private volatile long cpuUsageNSec = NOT_SET;
+        private volatile long memoryCurrent = NOT_SET;
+        private volatile long tasksCurrent = NOT_SET;
+        private volatile long ioReadBytes = NOT_SET;
+        private volatile long ioWriteBytes = NOT_SET;
+        private volatile long ipIngressBytes = NOT_SET;
+        private volatile long ipEgressBytes = NOT_SET;
+
+        UnitMetrics(final String unitName) {
+            this.unitName = unitName;
+        }
+
+        public String getUnitName() {
+            return unitName;
+        }
+
+        public Unit.StateTuple getState() {
+            return state;
+        }
+
+        public long getCPUUsageNSec() {
+            return cpuUsageNSec;
+        }
+
+        public long getMemoryCurrent() {
+            return memoryCurrent;
+        }
+
+        public long getTasksCurrent() {
+            return tasksCurrent;
+        }
+
+        public long getIOReadBytes() {
+            return ioReadBytes;
+        }
+
+        public long getIOWriteBytes() {
+            return ioWriteBytes;
+        }
+
+        public long getIPIngressBytes() {
+            return ipIngressBytes;
+        }
+
+        public long getIPEgressBytes() {
+            return ipEgressBytes;
+        }
+
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.thjom.java.systemd.Unit;
+
+/**
+ * Serves the contents of a {@link MetricsCollector} in the OpenMetrics text
+ * format via the HTTP server of the JDK (module <code>jdk.httpserver</code>).<p>
+ *
+ * Output is rendered into a text and a byte buffer which are reused across
+ * scrapes, hence a scrape neither touches the bus nor allocates proportionally
+ * to the number of units. Scrapes are serialized.
+ */
+public class OpenMetricsExporter implements Closeable {
+
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    public static final String DEFAULT_PATH = "/metrics";
+
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final MetricsCollector collector;
+    private final StringBuilder text = new StringBuilder(INITIAL_BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final Lock lock = new ReentrantLock();
+
+    private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private HttpServer server;
+
+    public OpenMetricsExporter(final MetricsCollector collector) {
+        this.collector = Objects.requireNonNull(collector);
+    }
+
+    public void start(final InetSocketAddress address) throws IOException {
+        lock.lock();
+
+        try {
+            if (server != null) {
+                throw new IllegalStateException("Exporter already started");
+            }
+
+            server = HttpServer.create(address, 0);
+            server.createContext(DEFAULT_PATH, this::handle);
+            server.start();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void stop() {
+        lock.lock();
+
+        try {
+            if (server != null) {
+                server.stop(0);
+                server = null;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public InetSocketAddress getAddress() {
+        lock.lock();
+
+        try {
+            return server != null ? server.getAddress() : null;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    public void writeTo(final OutputStream out) throws IOException {
+        lock.lock();
+
+        try {
+            int length = render();
+
+            out.write(bytes.array(), 0, length);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+
+            lock.lock();
+
+            try {
+                int length = render();
+
+                if ("HEAD".equals(exchange.getRequestMethod())) {
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                else {
+                    exchange.sendResponseHeaders(200, length);
+                    exchange.getResponseBody().write(bytes.array(), 0, length);
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+        finally {
+            exchange.close();
+        }
+    }
+
+    int render() {
+        text.setLength(0);
+
+        appendGauge("systemd_units", "Number of exported units.", collector.getUnits().size());
+        appendGauge("systemd_failed_units", "Number of units in failed state.", collector.getFailedUnits());
+        appendGauge("systemd_jobs", "Number of queued jobs.", collector.getJobs());
+        appendGauge("systemd_exporter_dropped_units", "Number of units omitted due to the label limit.", collector.getDroppedUnits());
+
+        appendStates();
+
+        appendUnitFamily("systemd_unit_cpu_seconds", "counter", "CPU time consumed by the unit.", MetricsCollector.UnitMetrics::getCPUUsageNSec, true);
+        appendUnitFamily("systemd_unit_memory_bytes", "gauge", "Memory currently used by the unit.", MetricsCollector.UnitMetrics::getMemoryCurrent, false);
+        appendUnitFamily("systemd_unit_tasks", "gauge", "Number of tasks of the unit.", MetricsCollector.UnitMetrics::getTasksCurrent, false);
+        appendUnitFamily("systemd_unit_io_read_bytes", "counter", "Bytes read by the unit.", MetricsCollector.UnitMetrics::getIOReadBytes, false);
+        appendUnitFamily("systemd_unit_io_write_bytes", "counter", "Bytes written by the unit.", MetricsCollector.UnitMetrics::getIOWriteBytes, false);
+        appendUnitFamily("systemd_unit_ip_ingress_bytes", "counter", "IP bytes received by the unit.", MetricsCollector.UnitMetrics::getIPIngressBytes, false);
+        appendUnitFamily("systemd_unit_ip_egress_bytes", "counter", "IP bytes sent by the unit.", MetricsCollector.UnitMetrics::getIPEgressBytes, false);
+
+        text.append("# EOF\n");
+
+        return encode();
+    }
+
+    private void appendHeader(final String name, final String type, final String help) {
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    }
+
+    private void appendGauge(final String name, final String help, final long value) {
+        appendHeader(name, "gauge", help);
+        text.append(name).append(' ').append(value).append('\n');
+    }
+
+    private void appendStates() {
+        appendHeader("systemd_unit_state", "stateset", "Active state of the unit.");
+
+        for (MetricsCollector.UnitMetrics metrics : collector.getUnits()) {
+            Unit.ActiveState current = metrics.getState() != null ? metrics.getState().getActive() : Unit.ActiveState.UNKNOWN;
+
+            for (Unit.ActiveState state : Unit.ActiveState.values()) {
+                if (state != Unit.ActiveState.UNKNOWN) {
+                    text.append("systemd_unit_state{unit=\"");
+                    appendEscaped(metrics.getUnitName());
+                    text.append("\",systemd_unit_state=\"").append(state.getValue()).append("\"} ").append(state == current ? '1' : '0').append('\n');
+                }
+            }
+        }
+    }
+
+    private void appendUnitFamily(final String name, final String type, final String help, final ToLongFunction<MetricsCollector.UnitMetrics> getter, final boolean nanos) {
+        appendHeader(name, type, help);
+
+        String sampleName = "counter".equals(type) ? name + "_total" : name;
+
+        for (MetricsCollector.UnitMetrics metrics : collector.getUnits()) {
+            long value = getter.applyAsLong(metrics);
+
+            if (value != MetricsCollector.NOT_SET) {
+                text.append(sampleName).append("{unit=\"");
+                appendEscaped(metrics.getUnitName());
+                text.append("\"} ");
+
+                if (nanos) {
+                    text.append(value / NANOS_PER_SECOND);
+                }
+                else {
+                    text.append(value);
+                }
+
+                text.append('\n');
+            }
+        }
+    }
+
+    private void appendEscaped(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '\\':
+                    text.append("\\\\");
+                    break;
+                case '"':
+                    text.append("\\\"");
+                    break;
+                case '\n':
+                    text.append("\\n");
+                    break;
+                default:
+                    text.append(c);
+                    break;
+            }
+        }
+    }
+
+    private int encode() {
+        CharBuffer chars = CharBuffer.wrap(text);
+
+        while (true) {
+            bytes.clear();
+            encoder.reset();
+
+            CoderResult result = encoder.encode(chars, bytes, true);
+
+            if (!result.isOverflow()) {
+                encoder.flush(bytes);
+
+                return bytes.position();
+            }
+
+            bytes = ByteBuffer.allocate(bytes.capacity() * 2);
+            chars.rewind();
+        }
+    }
+
+}
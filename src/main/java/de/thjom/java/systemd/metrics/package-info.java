@@ -0,0 +1,19 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+/**
+ * This package contains the export of unit states and accounting counters
+ * to monitoring systems. The HTTP endpoint requires the optional module
+ * <code>jdk.httpserver</code>.
+ *
+ */
+
+package de.thjom.java.systemd.metrics;
@@ -0,0 +1,368 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of snapshots.<p>
+ *
+ * The stream starts with magic number, version, timestamp and the manager
+ * properties, followed by one record per unit and an end marker. Values are
+ * tagged; integers and lengths are variable-length (zig-zag for values),
+ * integers beyond the range of <code>long</code> are written as two's-complement
+ * bytes.
+ * Strings are written once and referenced by their index afterwards; the
+ * dictionary is shared by the whole stream and bounded, strings beyond the
+ * bound are always written in full.
+ */
+final class BinaryCodec {
+
+    static final int MAGIC = 0x534e5053;
+    static final int VERSION = 1;
+
+    static final int MAX_DICTIONARY_SIZE = 64 * 1024;
+
+    static final byte RECORD_END = 0;
+    static final byte RECORD_UNIT = 1;
+
+    static final byte TAG_NULL = 0;
+    static final byte TAG_FALSE = 1;
+    static final byte TAG_TRUE = 2;
+    static final byte TAG_LONG = 3;
+    static final byte TAG_DOUBLE = 4;
+    static final byte TAG_STRING = 5;
+    static final byte TAG_LIST = 6;
+    static final byte TAG_MAP = 7;
+    static final byte TAG_BIG_INTEGER = 8;
+
+    private BinaryCodec() {
+        super();
+    }
+
+    static final class Encoder implements SnapshotEncoder {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+
+        Encoder(final OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        }
+
+        @Override
+        public void writeHeader(final long timestamp, final Map<String, Object> managerProperties) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(timestamp);
+
+            writeValue(managerProperties);
+        }
+
+        @Override
+        public void writeUnit(final UnitSnapshot unit) throws IOException {
+            out.writeByte(RECORD_UNIT);
+
+            writeString(unit.getName());
+            writeValue(unit.getInterfaces());
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.writeByte(RECORD_END);
+            out.flush();
+        }
+
+        void writeValue(final Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(TAG_NULL);
+            }
+            else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? TAG_TRUE : TAG_FALSE);
+            }
+            else if (value instanceof Long) {
+                long number = (Long) value;
+
+                out.writeByte(TAG_LONG);
+                writeVarLong((number << 1) ^ (number >> 63));
+            }
+            else if (value instanceof BigInteger) {
+                byte[] bytes = ((BigInteger) value).toByteArray();
+
+                out.writeByte(TAG_BIG_INTEGER);
+                writeVarLong(bytes.length);
+                out.write(bytes);
+            }
+            else if (value instanceof Double) {
+                out.writeByte(TAG_DOUBLE);
+                out.writeDouble((Double) value);
+            }
+            else if (value instanceof String) {
+                out.writeByte(TAG_STRING);
+                writeString((String) value);
+            }
+            else if (value instanceof Collection) {
+                Collection<?> list = (Collection<?>) value;
+
+                out.writeByte(TAG_LIST);
+                writeVarLong(list.size());
+
+                for (Object element : list) {
+                    writeValue(element);
+                }
+            }
+            else if (value instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) value;
+
+                out.writeByte(TAG_MAP);
+                writeVarLong(map.size());
+
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeString(String.valueOf(entry.getKey()));
+                    writeValue(entry.getValue());
+                }
+            }
+            else {
+                throw new IllegalArgumentException("Unsupported snapshot value: " + value.getClass().getName());
+            }
+        }
+
+        /**
+         * Writes the index (plus one) of a known string, otherwise zero and the
+         * UTF-8 encoded string.
+         */
+        private void writeString(final String value) throws IOException {
+            Integer index = dictionary.get(value);
+
+            if (index != null) {
+                writeVarLong(index + 1L);
+
+                return;
+            }
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            writeVarLong(0L);
+            writeVarLong(bytes.length);
+            out.write(bytes);
+
+            if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+                dictionary.put(value, dictionary.size());
+            }
+        }
+
+        private void writeVarLong(final long value) throws IOException {
+            long remaining = value;
+
+            while ((remaining & ~0x7fL) != 0L) {
+                out.writeByte((int) ((remaining & 0x7fL) | 0x80L));
+                remaining >>>= 7;
+            }
+
+            out.writeByte((int) remaining);
+        }
+
+    }
+
+    static final class Decoder implements SnapshotDecoder {
+
+        private final DataInputStream in;
+        private final List<String> dictionary = new ArrayList<>();
+
+        Decoder(final InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        }
+
+        @Override
+        public void readHeader(final HeaderConsumer consumer) throws IOException {
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a snapshot");
+                }
+
+                int version = in.readInt();
+
+                if (version != VERSION) {
+                    throw new IOException("Unsupported snapshot version: " + version);
+                }
+
+                long timestamp = in.readLong();
+
+                consumer.accept(timestamp, readMap());
+            }
+            catch (final EOFException e) {
+                throw new IOException("Truncated snapshot", e);
+            }
+        }
+
+        @Override
+        public UnitSnapshot readUnit() throws IOException {
+            try {
+                byte record = in.readByte();
+
+                if (record == RECORD_END) {
+                    return null;
+                }
+
+                if (record != RECORD_UNIT) {
+                    throw new IOException("Invalid snapshot record: " + record);
+                }
+
+                String name = readString();
+                Map<String, Map<String, Object>> interfaces = new LinkedHashMap<>();
+
+                readMap().forEach((interfaceName, properties) -> {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> map = properties instanceof Map ? (Map<String, Object>) properties : new LinkedHashMap<>();
+
+                    interfaces.put(interfaceName, map);
+                });
+
+                return new UnitSnapshot(name, interfaces);
+            }
+            catch (final EOFException e) {
+                throw new IOException("Truncated snapshot", e);
+            }
+        }
+
+        private Map<String, Object> readMap() throws IOException {
+            Object value = readValue();
+
+            if (!(value instanceof Map)) {
+                throw new IOException("Snapshot record is not a map");
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+
+            return map;
+        }
+
+        Object readValue() throws IOException {
+            byte tag = in.readByte();
+
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_FALSE:
+                    return Boolean.FALSE;
+                case TAG_TRUE:
+                    return Boolean.TRUE;
+                case TAG_LONG:
+                    long zigZag = readVarLong();
+
+                    return (zigZag >>> 1) ^ -(zigZag & 1L);
+                case TAG_BIG_INTEGER:
+                    byte[] bytes = new byte[readLength()];
+
+                    if (bytes.length == 0) {
+                        throw new IOException("Invalid snapshot integer length: 0");
+                    }
+
+                    in.readFully(bytes);
+
+                    return new BigInteger(bytes);
+                case TAG_DOUBLE:
+                    return in.readDouble();
+                case TAG_STRING:
+                    return readString();
+                case TAG_LIST:
+                    int size = readLength();
+                    List<Object> list = new ArrayList<>(Math.min(size, 1024));
+
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue());
+                    }
+
+                    return list;
+                case TAG_MAP:
+                    int entries = readLength();
+                    Map<String, Object> map = new LinkedHashMap<>(Math.min(entries, 1024) * 2);
+
+                    for (int i = 0; i < entries; i++) {
+                        String key = readString();
+
+                        map.put(key, readValue());
+                    }
+
+                    return map;
+                default:
+                    throw new IOException("Invalid snapshot value tag: " + tag);
+            }
+        }
+
+        private String readString() throws IOException {
+            long reference = readVarLong();
+
+            if (reference > 0L) {
+                if (reference > dictionary.size()) {
+                    throw new IOException("Invalid snapshot string reference: " + reference);
+                }
+
+                return dictionary.get((int) (reference - 1L));
+            }
+
+            byte[] bytes = new byte[readLength()];
+            in.readFully(bytes);
+
+            String value = new String(bytes, StandardCharsets.UTF_8);
+
+            if (dictionary.size() < MAX_DICTIONARY_SIZE) {
+                dictionary.add(value);
+            }
+
+            return value;
+        }
+
+        private int readLength() throws IOException {
+            long length = readVarLong();
+
+            if (length < 0L || length > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot length: " + length);
+            }
+
+            return (int) length;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0L;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+
+                value |= (long) (b & 0x7f) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IOException("Malformed variable-length integer in snapshot");
+        }
+
+    }
+
+}
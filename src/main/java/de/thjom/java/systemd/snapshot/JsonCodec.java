@@ -0,0 +1,553 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON lines encoding of snapshots. The first line is the header object
+ * (<code>format</code>, <code>version</code>, <code>timestamp</code>,
+ * <code>manager</code>), each further line is a unit object (<code>name</code>,
+ * <code>interfaces</code>). Integers are written without fraction and exponent,
+ * floating point values always with, which keeps the types apart on reading.
+ * Integers beyond the range of <code>long</code> are read as
+ * {@link BigInteger}s.
+ */
+final class JsonCodec {
+
+    static final String FORMAT = "systemd-snapshot";
+    static final int VERSION = 1;
+
+    private static final String KEY_FORMAT = "format";
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_TIMESTAMP = "timestamp";
+    private static final String KEY_MANAGER = "manager";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_INTERFACES = "interfaces";
+
+    private JsonCodec() {
+        super();
+    }
+
+    static void append(final StringBuilder json, final Object value) {
+        if (value == null) {
+            json.append("null");
+        }
+        else if (value instanceof String) {
+            appendString(json, (String) value);
+        }
+        else if (value instanceof Double) {
+            double number = (Double) value;
+
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                json.append("null");
+            }
+            else {
+                json.append(number);
+            }
+        }
+        else if (value instanceof Long || value instanceof BigInteger || value instanceof Boolean) {
+            json.append(value);
+        }
+        else if (value instanceof Map) {
+            json.append('{');
+
+            boolean first = true;
+
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+
+                appendString(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                append(json, entry.getValue());
+
+                first = false;
+            }
+
+            json.append('}');
+        }
+        else if (value instanceof Collection) {
+            json.append('[');
+
+            boolean first = true;
+
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    json.append(',');
+                }
+
+                append(json, element);
+
+                first = false;
+            }
+
+            json.append(']');
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported snapshot value: " + value.getClass().getName());
+        }
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        json.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+
+        json.append('"');
+    }
+
+    static Object parse(final String json) throws IOException {
+        Parser parser = new Parser(json);
+        Object value = parser.value();
+
+        parser.skipWhitespace();
+
+        if (parser.pos != json.length()) {
+            throw parser.error("Trailing characters");
+        }
+
+        return value;
+    }
+
+    static final class Encoder implements SnapshotEncoder {
+
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(4096);
+
+        Encoder(final OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public void writeHeader(final long timestamp, final Map<String, Object> managerProperties) throws IOException {
+            Map<String, Object> header = new LinkedHashMap<>();
+            header.put(KEY_FORMAT, FORMAT);
+            header.put(KEY_VERSION, (long) VERSION);
+            header.put(KEY_TIMESTAMP, timestamp);
+            header.put(KEY_MANAGER, managerProperties);
+
+            writeLine(header);
+        }
+
+        @Override
+        public void writeUnit(final UnitSnapshot unit) throws IOException {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put(KEY_NAME, unit.getName());
+            record.put(KEY_INTERFACES, unit.getInterfaces());
+
+            writeLine(record);
+        }
+
+        private void writeLine(final Map<String, Object> record) throws IOException {
+            line.setLength(0);
+            append(line, record);
+            line.append('\n');
+
+            writer.append(line);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+    }
+
+    static final class Decoder implements SnapshotDecoder {
+
+        private final BufferedReader reader;
+
+        Decoder(final InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        @Override
+        public void readHeader(final HeaderConsumer consumer) throws IOException {
+            Map<String, Object> header = readRecord();
+
+            if (header == null || !FORMAT.equals(header.get(KEY_FORMAT))) {
+                throw new IOException("Not a snapshot");
+            }
+
+            Object version = header.get(KEY_VERSION);
+
+            if (!(version instanceof Long) || (Long) version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+
+            consumer.accept(longValue(header, KEY_TIMESTAMP), mapValue(header, KEY_MANAGER));
+        }
+
+        @Override
+        public UnitSnapshot readUnit() throws IOException {
+            Map<String, Object> record = readRecord();
+
+            if (record == null) {
+                return null;
+            }
+
+            Object name = record.get(KEY_NAME);
+
+            if (!(name instanceof String)) {
+                throw new IOException("Unit record without name");
+            }
+
+            Map<String, Map<String, Object>> interfaces = new LinkedHashMap<>();
+
+            mapValue(record, KEY_INTERFACES).forEach((interfaceName, properties) -> {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> map = properties instanceof Map ? (Map<String, Object>) properties : new LinkedHashMap<>();
+
+                interfaces.put(interfaceName, map);
+            });
+
+            return new UnitSnapshot((String) name, interfaces);
+        }
+
+        private Map<String, Object> readRecord() throws IOException {
+            String line = reader.readLine();
+
+            while (line != null && line.isBlank()) {
+                line = reader.readLine();
+            }
+
+            if (line == null) {
+                return null;
+            }
+
+            Object record = parse(line);
+
+            if (!(record instanceof Map)) {
+                throw new IOException("Snapshot record is not an object");
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) record;
+
+            return map;
+        }
+
+        private static long longValue(final Map<String, Object> record, final String key) throws IOException {
+            Object value = record.get(key);
+
+            if (!(value instanceof Long)) {
+                throw new IOException("Missing " + key);
+            }
+
+            return (Long) value;
+        }
+
+        private static Map<String, Object> mapValue(final Map<String, Object> record, final String key) throws IOException {
+            Object value = record.get(key);
+
+            if (!(value instanceof Map)) {
+                throw new IOException("Missing " + key);
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> map = (Map<String, Object>) value;
+
+            return map;
+        }
+
+    }
+
+    /**
+     * Recursive descent parser of the JSON subset written by the encoder
+     * (which is complete apart from number formats).
+     */
+    private static final class Parser {
+
+        private final String json;
+
+        private int pos;
+
+        Parser(final String json) {
+            this.json = json;
+        }
+
+        Object value() throws IOException {
+            skipWhitespace();
+
+            if (pos >= json.length()) {
+                throw error("Unexpected end");
+            }
+
+            char c = json.charAt(pos);
+
+            switch (c) {
+                case '{':
+                    return object();
+                case '[':
+                    return array();
+                case '"':
+                    return string();
+                case 't':
+                    return literal("true", Boolean.TRUE);
+                case 'f':
+                    return literal("false", Boolean.FALSE);
+                case 'n':
+                    return literal("null", null);
+                default:
+                    return number();
+            }
+        }
+
+        private Map<String, Object> object() throws IOException {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+
+            skipWhitespace();
+
+            if (peek() == '}') {
+                pos++;
+
+                return map;
+            }
+
+            while (true) {
+                skipWhitespace();
+
+                if (peek() != '"') {
+                    throw error("Expected key");
+                }
+
+                String key = string();
+
+                skipWhitespace();
+                expect(':');
+
+                map.put(key, value());
+
+                skipWhitespace();
+
+                if (peek() == ',') {
+                    pos++;
+                }
+                else {
+                    expect('}');
+
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> array() throws IOException {
+            List<Object> list = new ArrayList<>();
+            pos++;
+
+            skipWhitespace();
+
+            if (peek() == ']') {
+                pos++;
+
+                return list;
+            }
+
+            while (true) {
+                list.add(value());
+
+                skipWhitespace();
+
+                if (peek() == ',') {
+                    pos++;
+                }
+                else {
+                    expect(']');
+
+                    return list;
+                }
+            }
+        }
+
+        private String string() throws IOException {
+            StringBuilder value = new StringBuilder();
+            pos++;
+
+            while (pos < json.length()) {
+                char c = json.charAt(pos++);
+
+                if (c == '"') {
+                    return value.toString();
+                }
+
+                if (c != '\\') {
+                    value.append(c);
+
+                    continue;
+                }
+
+                if (pos >= json.length()) {
+                    break;
+                }
+
+                char escaped = json.charAt(pos++);
+
+                switch (escaped) {
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > json.length()) {
+                            throw error("Invalid escape");
+                        }
+
+                        try {
+                            value.append((char) Integer.parseInt(json.substring(pos, pos + 4), 16));
+                        }
+                        catch (final NumberFormatException e) {
+                            throw error("Invalid escape");
+                        }
+
+                        pos += 4;
+                        break;
+                    default:
+                        value.append(escaped);
+                        break;
+                }
+            }
+
+            throw error("Unterminated string");
+        }
+
+        private Object number() throws IOException {
+            int start = pos;
+            boolean floating = false;
+
+            while (pos < json.length()) {
+                char c = json.charAt(pos);
+
+                if (c == '.' || c == 'e' || c == 'E') {
+                    floating = true;
+                }
+                else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+
+                pos++;
+            }
+
+            String text = json.substring(start, pos);
+
+            try {
+                if (floating) {
+                    return Double.valueOf(text);
+                }
+
+                try {
+                    return Long.valueOf(text);
+                }
+                catch (final NumberFormatException e) {
+                    // Unsigned 64-bit values beyond the signed range
+                    return new BigInteger(text);
+                }
+            }
+            catch (final NumberFormatException e) {
+                throw error("Invalid value");
+            }
+        }
+
+        private Object literal(final String text, final Object value) throws IOException {
+            if (!json.startsWith(text, pos)) {
+                throw error("Invalid value");
+            }
+
+            pos += text.length();
+
+            return value;
+        }
+
+        private char peek() throws IOException {
+            if (pos >= json.length()) {
+                throw error("Unexpected end");
+            }
+
+            return json.charAt(pos);
+        }
+
+        private void expect(final char c) throws IOException {
+            if (peek() != c) {
+                throw error("Expected '" + c + "'");
+            }
+
+            pos++;
+        }
+
+        void skipWhitespace() {
+            while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        IOException error(final String message) {
+            return new IOException(String.format("%s at position %d of snapshot record", message, pos));
+        }
+
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reads the records of a snapshot in a particular {@link SnapshotFormat}.
+ */
+interface SnapshotDecoder {
+
+    /**
+     * Reads the header, which precedes all units.
+     *
+     * @param consumer Receives the timestamp and the manager properties.
+     * @throws IOException If the header is missing or malformed.
+     */
+    void readHeader(HeaderConsumer consumer) throws IOException;
+
+    /**
+     * Reads the next unit.
+     *
+     * @return The unit or <code>null</code> at the end of the snapshot.
+     * @throws IOException If reading fails or the snapshot is truncated.
+     */
+    UnitSnapshot readUnit() throws IOException;
+
+    @FunctionalInterface
+    interface HeaderConsumer {
+
+        void accept(long timestamp, Map<String, Object> managerProperties);
+
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes the records of a snapshot in a particular {@link SnapshotFormat}.
+ */
+interface SnapshotEncoder {
+
+    void writeHeader(long timestamp, Map<String, Object> managerProperties) throws IOException;
+
+    void writeUnit(UnitSnapshot unit) throws IOException;
+
+    /**
+     * Terminates the snapshot and flushes buffered output. The underlying
+     * stream is not closed.
+     *
+     * @throws IOException If writing fails.
+     */
+    void finish() throws IOException;
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Automount;
+import de.thjom.java.systemd.Device;
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Mount;
+import de.thjom.java.systemd.Path;
+import de.thjom.java.systemd.Scope;
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.Slice;
+import de.thjom.java.systemd.Socket;
+import de.thjom.java.systemd.Swap;
+import de.thjom.java.systemd.Target;
+import de.thjom.java.systemd.Timer;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.types.UnitType;
+
+/**
+ * Exports the properties of all (loaded) units of a host, i.e. states,
+ * dependencies, accounting counters and execution information, as a stream.<p>
+ *
+ * The manager properties are read with one <code>GetAll</code> call; each unit
+ * is read with one <code>GetAll</code> call for the unit interface and one for
+ * the interface of its type. These calls are issued concurrently on the shared
+ * bus connection, while the units are written in order of their names as soon
+ * as they are complete. At most twice the parallelism of units are held in
+ * memory at any time, independent of the number of units of the host. Units
+ * which disappear during the export are skipped.<p>
+ *
+ * The stream is read by {@link SnapshotReader}.
+ */
+public class SnapshotExporter {
+
+    public static final int DEFAULT_PARALLELISM = 16;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotExporter.class);
+
+    private static final String[][] TYPE_INTERFACES = {
+            { Service.UNIT_SUFFIX, Service.SERVICE_NAME },
+            { Socket.UNIT_SUFFIX, Socket.SERVICE_NAME },
+            { Target.UNIT_SUFFIX, Target.SERVICE_NAME },
+            { Device.UNIT_SUFFIX, Device.SERVICE_NAME },
+            { Mount.UNIT_SUFFIX, Mount.SERVICE_NAME },
+            { Automount.UNIT_SUFFIX, Automount.SERVICE_NAME },
+            { Swap.UNIT_SUFFIX, Swap.SERVICE_NAME },
+            { Timer.UNIT_SUFFIX, Timer.SERVICE_NAME },
+            { Path.UNIT_SUFFIX, Path.SERVICE_NAME },
+            { Slice.UNIT_SUFFIX, Slice.SERVICE_NAME },
+            { Scope.UNIT_SUFFIX, Scope.SERVICE_NAME }
+    };
+
+    private final Manager manager;
+    private final int parallelism;
+
+    private volatile Predicate<String> unitFilter = unitName -> true;
+
+    public SnapshotExporter(final Manager manager) {
+        this(manager, DEFAULT_PARALLELISM);
+    }
+
+    public SnapshotExporter(final Manager manager, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+
+        this.manager = Objects.requireNonNull(manager);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Writes a snapshot to the given stream, which is flushed but not closed.
+     *
+     * @param out The stream.
+     * @param format The format.
+     * @return The number of exported units.
+     * @throws DBusException If a property adapter cannot be created.
+     * @throws IOException If writing fails.
+     */
+    public long export(final OutputStream out, final SnapshotFormat format) throws DBusException, IOException {
+        SnapshotEncoder encoder = format == SnapshotFormat.JSONL ? new JsonCodec.Encoder(out) : new BinaryCodec.Encoder(out);
+        Predicate<String> filter = unitFilter;
+
+        Map<String, Object> managerProperties = SnapshotValues.of(manager.getProperties().getAll());
+        List<UnitType> units = manager.listUnits().stream()
+                .filter(u -> filter.test(u.getUnitName()))
+                .sorted(Comparator.comparing(UnitType::getUnitName))
+                .collect(Collectors.toList());
+
+        encoder.writeHeader(ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now()), managerProperties);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, units.size())), new FetchThreadFactory());
+        Deque<CompletableFuture<Optional<UnitSnapshot>>> window = new ArrayDeque<>(parallelism * 2);
+        Iterator<UnitType> pending = units.iterator();
+        long count = 0L;
+
+        try {
+            while (pending.hasNext() || !window.isEmpty()) {
+                while (pending.hasNext() && window.size() < parallelism * 2) {
+                    UnitType unit = pending.next();
+
+                    window.add(CompletableFuture.supplyAsync(() -> fetch(unit), executor));
+                }
+
+                Optional<UnitSnapshot> snapshot = window.poll().join();
+
+                if (snapshot.isPresent()) {
+                    encoder.writeUnit(snapshot.get());
+                    count++;
+                }
+            }
+
+            encoder.finish();
+        }
+        catch (final CompletionException e) {
+            if (e.getCause() instanceof UncheckedDBusException) {
+                throw ((UncheckedDBusException) e.getCause()).getCause();
+            }
+
+            throw e;
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        return count;
+    }
+
+    private Optional<UnitSnapshot> fetch(final UnitType unit) {
+        String unitName = unit.getUnitName();
+        String objectPath = unit.getUnitObjectPath().getPath();
+
+        try {
+            Map<String, Map<String, Object>> interfaces = new LinkedHashMap<>();
+            interfaces.put(Unit.SERVICE_NAME, SnapshotValues.of(manager.getProperties(objectPath, Unit.SERVICE_NAME).getAll()));
+
+            String typeInterface = typeInterface(unitName);
+
+            if (typeInterface != null) {
+                interfaces.put(typeInterface, SnapshotValues.of(manager.getProperties(objectPath, typeInterface).getAll()));
+            }
+
+            return Optional.of(new UnitSnapshot(unitName, interfaces));
+        }
+        catch (final DBusException e) {
+            throw new UncheckedDBusException(e);
+        }
+        catch (final DBusExecutionException e) {
+            // Unit may have been garbage-collected between listing and fetching
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Unable to fetch properties of unit %s: %s", unitName, e.getMessage()));
+            }
+
+            return Optional.empty();
+        }
+    }
+
+    static String typeInterface(final String unitName) {
+        for (String[] entry : TYPE_INTERFACES) {
+            if (unitName.endsWith(entry[0])) {
+                return entry[1];
+            }
+        }
+
+        return null;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public Predicate<String> getUnitFilter() {
+        return unitFilter;
+    }
+
+    /**
+     * Restricts later exports to the units whose names are accepted by the
+     * given filter.
+     *
+     * @param unitFilter The filter.
+     */
+    public void setUnitFilter(final Predicate<String> unitFilter) {
+        this.unitFilter = Objects.requireNonNull(unitFilter);
+    }
+
+    private static final class UncheckedDBusException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        UncheckedDBusException(final DBusException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized DBusException getCause() {
+            return (DBusException) super.getCause();
+        }
+
+    }
+
+    private static final class FetchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, SnapshotExporter.class.getSimpleName() + "-fetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+
+            return thread;
+        }
+
+    }
+
+}
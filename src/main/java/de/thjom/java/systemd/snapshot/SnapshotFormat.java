@@ -0,0 +1,30 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+/**
+ * Encodings of snapshot streams.
+ */
+public enum SnapshotFormat {
+
+    /**
+     * One JSON object per line: a header followed by one line per unit.
+     */
+    JSONL,
+
+    /**
+     * Compact binary encoding with variable-length integers and a dictionary
+     * of repeated strings (property names, states).
+     */
+    BINARY
+
+}
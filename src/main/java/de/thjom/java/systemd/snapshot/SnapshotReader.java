@@ -0,0 +1,144 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads snapshots written by the {@link SnapshotExporter} unit by unit, hence
+ * the memory use does not depend on the size of the snapshot. The format is
+ * detected from the first byte of the stream.
+ */
+public class SnapshotReader implements Closeable {
+
+    private final InputStream in;
+    private final SnapshotFormat format;
+    private final SnapshotDecoder decoder;
+
+    private long timestamp;
+    private Map<String, Object> managerProperties;
+
+    /**
+     * Opens a snapshot and reads its header.
+     *
+     * @param in The stream, which is closed by {@link #close()}.
+     * @throws IOException If the stream does not start with a snapshot header.
+     */
+    public SnapshotReader(final InputStream in) throws IOException {
+        this.in = new BufferedInputStream(in);
+
+        this.in.mark(1);
+        int first = this.in.read();
+        this.in.reset();
+
+        if (first < 0) {
+            throw new IOException("Empty snapshot");
+        }
+
+        this.format = first == '{' ? SnapshotFormat.JSONL : SnapshotFormat.BINARY;
+        this.decoder = format == SnapshotFormat.JSONL ? new JsonCodec.Decoder(this.in) : new BinaryCodec.Decoder(this.in);
+
+        decoder.readHeader((t, p) -> {
+            timestamp = t;
+            managerProperties = Collections.unmodifiableMap(p);
+        });
+    }
+
+    /**
+     * Reads the next unit.
+     *
+     * @return The unit or <code>null</code> after the last unit.
+     * @throws IOException If reading fails or the snapshot is truncated.
+     */
+    public UnitSnapshot read() throws IOException {
+        return decoder.readUnit();
+    }
+
+    /**
+     * Returns a sequential stream of the remaining units. Read errors are
+     * thrown as {@link UncheckedIOException}.
+     *
+     * @return The stream of units.
+     */
+    public Stream<UnitSnapshot> stream() {
+        Iterator<UnitSnapshot> iterator = new Iterator<UnitSnapshot>() {
+
+            private UnitSnapshot next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    try {
+                        next = read();
+                        done = next == null;
+                    }
+                    catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                return next != null;
+            }
+
+            @Override
+            public UnitSnapshot next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                UnitSnapshot unit = next;
+                next = null;
+
+                return unit;
+            }
+
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    public SnapshotFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the time at which the snapshot was taken.
+     *
+     * @return The timestamp in microseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public Map<String, Object> getManagerProperties() {
+        return managerProperties;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.lang.reflect.Array;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.Struct;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+
+/**
+ * Conversion of bus values into the plain values of snapshots (see
+ * {@link UnitSnapshot}).
+ */
+final class SnapshotValues {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private SnapshotValues() {
+        super();
+    }
+
+    static Map<String, Object> of(final Map<String, Variant<?>> properties) {
+        Map<String, Object> values = new TreeMap<>();
+
+        properties.forEach((name, value) -> values.put(name, of(value)));
+
+        return values;
+    }
+
+    static Object of(final Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean) {
+            return value;
+        }
+        else if (value instanceof Variant) {
+            return of(((Variant<?>) value).getValue());
+        }
+        else if (value instanceof Double || value instanceof Float) {
+            return ((Number) value).doubleValue();
+        }
+        else if (value instanceof Byte) {
+            // D-Bus bytes are unsigned
+            return Byte.toUnsignedLong((Byte) value);
+        }
+        else if (value instanceof UInt64) {
+            return of(((UInt64) value).value());
+        }
+        else if (value instanceof BigInteger) {
+            BigInteger number = (BigInteger) value;
+
+            return number.bitLength() < Long.SIZE ? (Object) number.longValue() : number;
+        }
+        else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        else if (value instanceof byte[]) {
+            return hex((byte[]) value);
+        }
+        else if (value instanceof DBusPath) {
+            return ((DBusPath) value).getPath();
+        }
+        else if (value instanceof Struct) {
+            return listOf(((Struct) value).getParameters());
+        }
+        else if (value instanceof Map) {
+            Map<String, Object> map = new TreeMap<>();
+
+            ((Map<?, ?>) value).forEach((k, v) -> map.put(String.valueOf(of(k)), of(v)));
+
+            return map;
+        }
+        else if (value instanceof Collection) {
+            if (isByteSequence((Collection<?>) value)) {
+                return hex((Collection<?>) value);
+            }
+
+            List<Object> list = new ArrayList<>(((Collection<?>) value).size());
+
+            for (Object element : (Collection<?>) value) {
+                list.add(of(element));
+            }
+
+            return list;
+        }
+        else if (value instanceof Byte[]) {
+            return of(Arrays.asList((Byte[]) value));
+        }
+        else if (value.getClass().isArray()) {
+            return listOf(value);
+        }
+
+        return String.valueOf(value);
+    }
+
+    private static boolean isByteSequence(final Collection<?> values) {
+        if (values.isEmpty()) {
+            return false;
+        }
+
+        for (Object element : values) {
+            if (!(element instanceof Byte)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String hex(final byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            chars[2 * i + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+
+        return new String(chars);
+    }
+
+    private static String hex(final Collection<?> bytes) {
+        byte[] array = new byte[bytes.size()];
+        int i = 0;
+
+        for (Object element : bytes) {
+            array[i++] = (Byte) element;
+        }
+
+        return hex(array);
+    }
+
+    private static List<Object> listOf(final Object array) {
+        int length = Array.getLength(array);
+        List<Object> list = new ArrayList<>(length);
+
+        for (int i = 0; i < length; i++) {
+            list.add(of(Array.get(array, i)));
+        }
+
+        return list;
+    }
+
+}
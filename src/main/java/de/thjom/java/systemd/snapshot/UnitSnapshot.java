@@ -0,0 +1,97 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+import de.thjom.java.systemd.Unit;
+
+/**
+ * Properties of a single unit at the time of a snapshot, by interface (the
+ * generic unit interface and the interface of the unit type, e.g. service).<p>
+ *
+ * Property values are decoupled from the bus types: integers of all widths are
+ * {@link Long}s, except for unsigned 64-bit values beyond the signed range
+ * (e.g. "infinity"), which are {@link java.math.BigInteger}s. Floating point
+ * values are {@link Double}s, object paths are {@link String}s, byte arrays (e.g.
+ * the invocation ID) are lowercase hexadecimal {@link String}s, other arrays and
+ * structs are {@link java.util.List}s and dictionaries are {@link Map}s with
+ * string keys.
+ */
+public final class UnitSnapshot {
+
+    private final String name;
+    private final Map<String, Map<String, Object>> interfaces;
+
+    UnitSnapshot(final String name, final Map<String, Map<String, Object>> interfaces) {
+        this.name = Objects.requireNonNull(name);
+        this.interfaces = Collections.unmodifiableMap(interfaces);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Map<String, Object>> getInterfaces() {
+        return interfaces;
+    }
+
+    public Map<String, Object> getProperties(final String interfaceName) {
+        Map<String, Object> properties = interfaces.get(interfaceName);
+
+        return properties != null ? Collections.unmodifiableMap(properties) : Collections.emptyMap();
+    }
+
+    public Object getProperty(final String interfaceName, final String propertyName) {
+        return getProperties(interfaceName).get(propertyName);
+    }
+
+    public String getLoadState() {
+        return (String) getProperty(Unit.SERVICE_NAME, Unit.Property.LOAD_STATE);
+    }
+
+    public String getActiveState() {
+        return (String) getProperty(Unit.SERVICE_NAME, Unit.Property.ACTIVE_STATE);
+    }
+
+    public String getSubState() {
+        return (String) getProperty(Unit.SERVICE_NAME, Unit.Property.SUB_STATE);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (!(obj instanceof UnitSnapshot)) {
+            return false;
+        }
+
+        UnitSnapshot other = (UnitSnapshot) obj;
+
+        return name.equals(other.name) && interfaces.equals(other.interfaces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, interfaces);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UnitSnapshot [name=%s, interfaces=%s]", name, interfaces.keySet());
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.types;
+
+import java.util.List;
+
+import org.freedesktop.dbus.Struct;
+import org.freedesktop.dbus.annotations.Position;
+
+/**
+ * Auxiliary unit (<code>(sa(sv))</code>) which is created together with a
+ * transient unit.
+ */
+public class AuxiliaryUnit extends Struct {
+
+    @Position(0)
+    private final String name;
+
+    @Position(1)
+    private final List<UnitProperty> properties;
+
+    public AuxiliaryUnit(final String name, final List<UnitProperty> properties) {
+        super();
+
+        this.name = name;
+        this.properties = properties;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<UnitProperty> getProperties() {
+        return properties;
+    }
+
+}
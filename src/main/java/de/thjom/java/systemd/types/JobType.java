@@ -0,0 +1,88 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.types;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.annotations.Position;
+import org.freedesktop.dbus.types.UInt32;
+
+public class JobType extends UnitBase implements Comparable<JobType> {
+
+    @Position(0)
+    private final UInt32 id;
+
+    @Position(1)
+    private final String unitName;
+
+    @Position(2)
+    private final String jobType;
+
+    @Position(3)
+    private final String state;
+
+    @Position(4)
+    private final DBusPath jobObjectPath;
+
+    @Position(5)
+    private final DBusPath unitObjectPath;
+
+    public JobType(final UInt32 id, final String unitName, final String jobType, final String state,
+            final DBusPath jobObjectPath, final DBusPath unitObjectPath) {
+        super(unitName);
+
+        this.id = id;
+        this.unitName = unitName;
+        this.jobType = jobType;
+        this.state = state;
+        this.jobObjectPath = jobObjectPath;
+        this.unitObjectPath = unitObjectPath;
+    }
+
+    public long getId() {
+        return id.longValue();
+    }
+
+    public String getUnitName() {
+        return unitName;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public DBusPath getJobObjectPath() {
+        return jobObjectPath;
+    }
+
+    public DBusPath getUnitObjectPath() {
+        return unitObjectPath;
+    }
+
+    public String toFormattedString() {
+        return String.format("%d %s %s %s", id.longValue(), unitName, jobType, state);
+    }
+
+    @Override
+    public int compareTo(final JobType other) {
+        if (other == null) {
+            return Integer.MAX_VALUE;
+        }
+        else {
+            return Long.compare(id.longValue(), other.id.longValue());
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.types;
+
+import org.freedesktop.dbus.Struct;
+import org.freedesktop.dbus.annotations.Position;
+import org.freedesktop.dbus.types.Variant;
+
+/**
+ * Property assignment (<code>(sv)</code>) as passed to
+ * <code>StartTransientUnit</code> and <code>SetUnitProperties</code>.
+ */
+public class UnitProperty extends Struct {
+
+    @Position(0)
+    private final String name;
+
+    @Position(1)
+    private final Variant<?> value;
+
+    public UnitProperty(final String name, final Variant<?> value) {
+        super();
+
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Variant<?> getValue() {
+        return value;
+    }
+
+    public String toFormattedString() {
+        return String.format("%s=%s", name, value.getValue());
+    }
+
+}
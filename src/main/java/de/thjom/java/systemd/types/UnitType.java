@@ -15,6 +15,10 @@ import org.freedesktop.dbus.DBusPath;
 import org.freedesktop.dbus.annotations.Position;
 import org.freedesktop.dbus.types.UInt32;
 
+import de.thjom.java.systemd.Unit.ActiveState;
+import de.thjom.java.systemd.Unit.LoadState;
+import de.thjom.java.systemd.Unit.SubState;
+
 
 public class UnitType extends UnitBase implements Comparable<UnitType> {
 
@@ -77,14 +81,26 @@ public class UnitType extends UnitBase implements Comparable<UnitType> {
         return loadState;
     }
 
+    public LoadState getLoadStateValue() {
+        return LoadState.of(loadState);
+    }
+
     public String getActiveState() {
         return activeState;
     }
 
+    public ActiveState getActiveStateValue() {
+        return ActiveState.of(activeState);
+    }
+
     public String getSubState() {
         return subState;
     }
 
+    public SubState getSubStateValue() {
+        return SubState.of(subState);
+    }
+
     public String getFollowingUnit() {
         return followingUnit;
     }
@@ -0,0 +1,127 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.unitfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.thjom.java.systemd.types.UnitFileChange;
+import de.thjom.java.systemd.unitfiles.UnitFileReconciler.Operation;
+
+/**
+ * Outcome of a {@link UnitFileReconciler} run: the operations per unit, the
+ * units which already were in their desired state, failures and the unit file
+ * changes reported by "systemd".
+ */
+public final class ReconcileReport {
+
+    private final boolean applied;
+    private final Map<String, Set<Operation>> operations = new LinkedHashMap<>();
+    private final Set<String> unchanged = new LinkedHashSet<>();
+    private final Map<String, String> failures = new LinkedHashMap<>();
+    private final List<UnitFileChange> changes = new ArrayList<>();
+
+    private int calls;
+    private boolean reloaded;
+
+    ReconcileReport(final boolean applied) {
+        this.applied = applied;
+    }
+
+    void addOperation(final String name, final Operation operation) {
+        operations.computeIfAbsent(name, k -> EnumSet.noneOf(Operation.class)).add(operation);
+    }
+
+    void addUnchanged(final String name) {
+        unchanged.add(name);
+    }
+
+    void addFailure(final String name, final String reason) {
+        failures.putIfAbsent(name, reason);
+    }
+
+    void addChanges(final List<UnitFileChange> changes) {
+        if (changes != null) {
+            this.changes.addAll(changes);
+        }
+    }
+
+    void addCall() {
+        calls++;
+    }
+
+    void setReloaded() {
+        reloaded = true;
+    }
+
+    /**
+     * Returns whether the operations have been applied or only planned.
+     *
+     * @return <code>false</code> for a plan (dry run).
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    public Map<String, Set<Operation>> getOperations() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    public Set<String> getUnchanged() {
+        return Collections.unmodifiableSet(unchanged);
+    }
+
+    /**
+     * Returns the units which could not be converged together with the reason,
+     * e.g. missing unit files, unreachable states or failed bus calls.
+     *
+     * @return The failure reasons keyed by unit name.
+     */
+    public Map<String, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public List<UnitFileChange> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    /**
+     * Returns the number of bus calls issued, including the listing of unit
+     * files and the reload.
+     *
+     * @return The number of bus calls.
+     */
+    public int getCallCount() {
+        return calls;
+    }
+
+    public boolean isReloaded() {
+        return reloaded;
+    }
+
+    public boolean isConverged() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[applied=%s, operations=%d, unchanged=%d, failures=%d, changes=%d, calls=%d, reloaded=%s]",
+                getClass().getSimpleName(), applied, operations.size(), unchanged.size(), failures.size(), changes.size(), calls, reloaded);
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.unitfiles;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.interfaces.ManagerInterface.Reloading;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitFilesChanged;
+import de.thjom.java.systemd.types.UnitFileType;
+
+/**
+ * Cached index of all unit files by unit name.<p>
+ *
+ * The index is loaded with a single <code>ListUnitFiles</code> call on first
+ * access and answers lookups from a hash map afterwards. After {@link #open()}
+ * it invalidates itself on the <code>UnitFilesChanged</code> and <code>Reloading</code>
+ * signals of the manager and is reloaded lazily on the next access. Parts of
+ * the index can be refreshed with pattern queries ({@link #query(List, List)}),
+ * which only transfer the matching unit files.<p>
+ *
+ * Instances are thread-safe; lookups do not block while the index is valid.
+ */
+public class UnitFileIndex implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(UnitFileIndex.class);
+
+    private final Manager manager;
+    private final Lock lock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    private final DBusSigHandler<UnitFilesChanged> changedHandler = s -> invalidate();
+    private final DBusSigHandler<Reloading> reloadingHandler = s -> invalidate();
+
+    // Immutable snapshots, replaced as a whole
+    private volatile Map<String, Entry> entries = Collections.emptyMap();
+    private volatile long loadedGeneration = -1L;
+
+    private boolean open;
+
+    public UnitFileIndex(final Manager manager) {
+        this.manager = Objects.requireNonNull(manager);
+    }
+
+    /**
+     * Registers the signal handlers which invalidate the index.
+     *
+     * @throws DBusException If the signal handlers cannot be registered.
+     */
+    public void open() throws DBusException {
+        lock.lock();
+
+        try {
+            if (!open) {
+                manager.subscribe();
+                manager.addHandler(UnitFilesChanged.class, changedHandler);
+                manager.addHandler(Reloading.class, reloadingHandler);
+
+                open = true;
+
+                // Changes before registration might have been missed
+                invalidate();
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+
+        try {
+            if (open) {
+                open = false;
+
+                manager.removeHandler(UnitFilesChanged.class, changedHandler);
+                manager.removeHandler(Reloading.class, reloadingHandler);
+            }
+        }
+        catch (final DBusException e) {
+            LOG.warn("Unable to remove signal handlers", e);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the index as stale; it is reloaded on the next access.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    public boolean isValid() {
+        return loadedGeneration == generation.get();
+    }
+
+    /**
+     * Returns the unit file of the given unit. Template instances such as
+     * <code>getty@tty2.service</code> are not listed by systemd and hence are
+     * not found; use {@link Manager#getUnitFileState(String)} for them.
+     *
+     * @param unitName The name of the unit.
+     * @return The unit file, empty if there is no such unit file.
+     */
+    public Optional<Entry> get(final String unitName) {
+        return Optional.ofNullable(current().get(unitName));
+    }
+
+    /**
+     * Returns the state of the given unit file.
+     *
+     * @param unitName The name of the unit.
+     * @return The state or {@link UnitFileState#UNKNOWN} if there is no such
+     *         unit file, which includes template instances (see {@link #get(String)}).
+     */
+    public UnitFileState getState(final String unitName) {
+        Entry entry = current().get(unitName);
+
+        return entry != null ? entry.getState() : UnitFileState.UNKNOWN;
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(current().values());
+    }
+
+    public int size() {
+        return current().size();
+    }
+
+    /**
+     * Fetches the unit files matching the given states and name patterns via
+     * <code>ListUnitFilesByPatterns</code> and updates the matching part of the
+     * index. Entries matching the patterns which have not been returned (and
+     * hence have been removed) are dropped from the index.
+     *
+     * @param states The unit file states, all states if empty.
+     * @param patterns The shell-style name patterns, all names if empty.
+     * @return The matching unit files.
+     */
+    public List<Entry> query(final List<UnitFileState> states, final List<String> patterns) {
+        List<String> stateValues = new ArrayList<>(states.size());
+        states.forEach(state -> stateValues.add(state.getValue()));
+
+        List<Entry> result = new ArrayList<>();
+
+        for (UnitFileType unitFile : manager.listUnitFilesByPatterns(stateValues, patterns)) {
+            result.add(Entry.of(unitFile));
+        }
+
+        lock.lock();
+
+        try {
+            if (isValid()) {
+                List<Pattern> regexes = new ArrayList<>(patterns.size());
+                patterns.forEach(pattern -> regexes.add(glob(pattern)));
+
+                Map<String, Entry> updated = new HashMap<>(entries);
+
+                if (states.isEmpty()) {
+                    updated.values().removeIf(entry -> matches(regexes, entry.getName()));
+                }
+
+                result.forEach(entry -> updated.put(entry.getName(), entry));
+
+                entries = updated;
+            }
+        }
+        finally {
+            lock.unlock();
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of complete loads of the index.
+     *
+     * @return The number of <code>ListUnitFiles</code> calls.
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    private Map<String, Entry> current() {
+        if (isValid()) {
+            return entries;
+        }
+
+        lock.lock();
+
+        try {
+            if (!isValid()) {
+                load();
+            }
+
+            return entries;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private void load() {
+        long expected = generation.get();
+        List<UnitFileType> unitFiles = manager.listUnitFiles();
+        Map<String, Entry> loaded = new HashMap<>(unitFiles.size() * 2);
+
+        for (UnitFileType unitFile : unitFiles) {
+            Entry entry = Entry.of(unitFile);
+            loaded.putIfAbsent(entry.getName(), entry);
+        }
+
+        loads.incrementAndGet();
+        entries = loaded;
+
+        // Stays stale if invalidated while loading
+        loadedGeneration = expected;
+    }
+
+    private static boolean matches(final List<Pattern> patterns, final String name) {
+        if (patterns.isEmpty()) {
+            return true;
+        }
+
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(name).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static Pattern glob(final String pattern) {
+        StringBuilder regex = new StringBuilder(pattern.length() + 8);
+        int i = 0;
+
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i++);
+
+            switch (c) {
+                case '*':
+                    regex.append(".*");
+                    break;
+                case '?':
+                    regex.append('.');
+                    break;
+                case '[':
+                    int end = pattern.indexOf(']', i + 1);
+
+                    if (end < 0) {
+                        regex.append("\\[");
+                    }
+                    else {
+                        String set = pattern.substring(i, end);
+
+                        regex.append('[');
+                        regex.append(set.startsWith("!") ? "^" + set.substring(1).replace("\\", "\\\\") : set.replace("\\", "\\\\"));
+                        regex.append(']');
+
+                        i = end + 1;
+                    }
+                    break;
+                default:
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                    break;
+            }
+        }
+
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Unit file of the index.
+     */
+    public static final class Entry {
+
+        private final String name;
+        private final String path;
+        private final UnitFileState state;
+
+        private Entry(final String name, final String path, final UnitFileState state) {
+            this.name = name;
+            this.path = path;
+            this.state = state;
+        }
+
+        static Entry of(final UnitFileType unitFile) {
+            String path = unitFile.getPath();
+
+            return new Entry(path.substring(path.lastIndexOf('/') + 1), path, UnitFileState.of(unitFile.getStatus()));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public UnitFileState getState() {
+            return state;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s %s", path, state);
+        }
+
+    }
+
+}
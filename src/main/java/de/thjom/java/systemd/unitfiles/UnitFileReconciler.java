@@ -0,0 +1,314 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.unitfiles;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.types.UnitFileChange;
+import de.thjom.java.systemd.types.UnitFileType;
+
+/**
+ * Converges the unit file states of a set of units to a desired state with a
+ * minimal number of bus calls.<p>
+ *
+ * The current states are read with a single <code>ListUnitFiles</code> call.
+ * Template instances (e.g. <code>getty@tty2.service</code>) are not listed
+ * there, so their states are read with one <code>GetUnitFileState</code> call
+ * each. Units which already are in the desired state are left alone; all others are
+ * changed by grouped <code>UnmaskUnitFiles</code>, <code>DisableUnitFiles</code>,
+ * <code>EnableUnitFiles</code> and <code>MaskUnitFiles</code> calls (in this
+ * order, each split into batches of {@link #getBatchSize()} units). The
+ * manager is reloaded once at the end if any unit file has been changed.
+ */
+public class UnitFileReconciler {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final Logger LOG = LoggerFactory.getLogger(UnitFileReconciler.class);
+
+    /**
+     * Unit file states which can be requested.
+     */
+    public enum DesiredState {
+        ENABLED,
+        DISABLED,
+        MASKED,
+
+        /**
+         * The unit file has no install section; it is unmasked if necessary
+         * but otherwise cannot be changed.
+         */
+        STATIC
+    }
+
+    /**
+     * Operations in the order of their application.
+     */
+    public enum Operation {
+        UNMASK,
+        DISABLE,
+        ENABLE,
+        MASK
+    }
+
+    private final Manager manager;
+
+    private boolean runtime;
+    private boolean force;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public UnitFileReconciler(final Manager manager) {
+        this.manager = Objects.requireNonNull(manager);
+    }
+
+    /**
+     * Computes the operations required to reach the desired states without
+     * applying them.
+     *
+     * @param desired The desired states keyed by unit name.
+     * @return The report of the planned operations.
+     */
+    public ReconcileReport plan(final Map<String, DesiredState> desired) {
+        ReconcileReport report = new ReconcileReport(false);
+        plan(desired, currentStates(desired.keySet(), report), report);
+
+        return report;
+    }
+
+    /**
+     * Converges the unit files to the desired states.
+     *
+     * @param desired The desired states keyed by unit name.
+     * @return The report of the applied operations and their outcome.
+     */
+    public ReconcileReport reconcile(final Map<String, DesiredState> desired) {
+        ReconcileReport report = new ReconcileReport(true);
+        Map<Operation, List<String>> operations = plan(desired, currentStates(desired.keySet(), report), report);
+
+        for (Map.Entry<Operation, List<String>> entry : operations.entrySet()) {
+            List<String> names = new ArrayList<>(entry.getValue());
+
+            // Skip units for which a preceding operation has failed already
+            names.removeIf(report.getFailures()::containsKey);
+
+            for (int i = 0; i < names.size(); i += batchSize) {
+                List<String> batch = names.subList(i, Math.min(i + batchSize, names.size()));
+
+                try {
+                    report.addChanges(apply(entry.getKey(), batch));
+                }
+                catch (final DBusExecutionException e) {
+                    LOG.warn(String.format("Unable to %s %d unit file(s)", entry.getKey().name().toLowerCase(), batch.size()), e);
+
+                    batch.forEach(name -> report.addFailure(name, e.getMessage()));
+                }
+                finally {
+                    report.addCall();
+                }
+            }
+        }
+
+        if (!report.getChanges().isEmpty()) {
+            manager.reload();
+
+            report.addCall();
+            report.setReloaded();
+        }
+
+        return report;
+    }
+
+    private Map<String, UnitFileState> currentStates(final Set<String> names, final ReconcileReport report) {
+        List<UnitFileType> unitFiles = manager.listUnitFiles();
+        Map<String, UnitFileState> states = new HashMap<>(unitFiles.size() * 2);
+
+        for (UnitFileType unitFile : unitFiles) {
+            String path = unitFile.getPath();
+
+            states.putIfAbsent(path.substring(path.lastIndexOf('/') + 1), UnitFileState.of(unitFile.getStatus()));
+        }
+
+        report.addCall();
+
+        for (String name : names) {
+            if (!states.containsKey(name)) {
+                String state = unitFileState(name);
+
+                if (state != null) {
+                    states.put(name, UnitFileState.of(state));
+                }
+
+                report.addCall();
+            }
+        }
+
+        return states;
+    }
+
+    private String unitFileState(final String name) {
+        try {
+            return manager.getUnitFileState(name);
+        }
+        catch (final DBusExecutionException e) {
+            // Unit file does not exist
+            return null;
+        }
+    }
+
+    private Map<Operation, List<String>> plan(final Map<String, DesiredState> desired, final Map<String, UnitFileState> current, final ReconcileReport report) {
+        Map<Operation, List<String>> operations = new EnumMap<>(Operation.class);
+
+        for (Map.Entry<String, DesiredState> entry : desired.entrySet()) {
+            String name = entry.getKey();
+            UnitFileState state = current.get(name);
+
+            if (state == null) {
+                report.addFailure(name, "Unit file not found");
+
+                continue;
+            }
+
+            Set<Operation> required = new HashSet<>();
+            String failure = transition(state, entry.getValue(), required);
+
+            if (failure != null) {
+                report.addFailure(name, failure);
+            }
+            else if (required.isEmpty()) {
+                report.addUnchanged(name);
+            }
+            else {
+                for (Operation operation : Operation.values()) {
+                    if (required.contains(operation)) {
+                        operations.computeIfAbsent(operation, k -> new ArrayList<>()).add(name);
+                        report.addOperation(name, operation);
+                    }
+                }
+            }
+        }
+
+        return operations;
+    }
+
+    private String transition(final UnitFileState state, final DesiredState desired, final Set<Operation> required) {
+        switch (desired) {
+            case ENABLED:
+                if (state == UnitFileState.ENABLED || runtime && state == UnitFileState.ENABLED_RUNTIME) {
+                    return null;
+                }
+
+                if (state == UnitFileState.STATIC || state == UnitFileState.GENERATED || state == UnitFileState.TRANSIENT || state == UnitFileState.BAD || state == UnitFileState.INVALID) {
+                    return String.format("Unit file in state '%s' cannot be enabled", state);
+                }
+
+                if (state.isMasked()) {
+                    required.add(Operation.UNMASK);
+                }
+
+                required.add(Operation.ENABLE);
+
+                return null;
+            case DISABLED:
+                if (state.isMasked()) {
+                    // Enablement links might still exist behind the mask
+                    required.add(Operation.UNMASK);
+                    required.add(Operation.DISABLE);
+                }
+                else if (state.isEnabled() || state == UnitFileState.LINKED || state == UnitFileState.LINKED_RUNTIME || state == UnitFileState.ALIAS) {
+                    required.add(Operation.DISABLE);
+                }
+
+                return null;
+            case MASKED:
+                if (!(state == UnitFileState.MASKED || runtime && state == UnitFileState.MASKED_RUNTIME)) {
+                    required.add(Operation.MASK);
+                }
+
+                return null;
+            case STATIC:
+            default:
+                if (state.isMasked()) {
+                    required.add(Operation.UNMASK);
+                }
+                else if (state != UnitFileState.STATIC) {
+                    return String.format("Unit file in state '%s' is not static", state);
+                }
+
+                return null;
+        }
+    }
+
+    private List<UnitFileChange> apply(final Operation operation, final List<String> names) {
+        switch (operation) {
+            case UNMASK:
+                return manager.unmaskUnitFiles(names, runtime);
+            case DISABLE:
+                return manager.disableUnitFiles(names, runtime);
+            case ENABLE:
+                return manager.enableUnitFiles(names, runtime, force);
+            case MASK:
+            default:
+                return manager.maskUnitFiles(names, runtime, force);
+        }
+    }
+
+    public boolean isRuntime() {
+        return runtime;
+    }
+
+    /**
+     * Sets whether changes are applied to the runtime (<code>/run</code>) only.
+     *
+     * @param runtime <code>true</code> for runtime changes, default is <code>false</code>.
+     */
+    public void setRuntime(final boolean runtime) {
+        this.runtime = runtime;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    /**
+     * Sets whether existing symlinks are replaced when enabling or masking.
+     *
+     * @param force <code>true</code> to replace symlinks, default is <code>false</code>.
+     */
+    public void setForce(final boolean force) {
+        this.force = force;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.batchSize = batchSize;
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.unitfiles;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Values of the unit file state as reported by <code>ListUnitFiles</code> and
+ * <code>GetUnitFileState</code>.
+ */
+public enum UnitFileState {
+    ENABLED("enabled"),
+    ENABLED_RUNTIME("enabled-runtime"),
+    LINKED("linked"),
+    LINKED_RUNTIME("linked-runtime"),
+    ALIAS("alias"),
+    MASKED("masked"),
+    MASKED_RUNTIME("masked-runtime"),
+    STATIC("static"),
+    DISABLED("disabled"),
+    INDIRECT("indirect"),
+    GENERATED("generated"),
+    TRANSIENT("transient"),
+    BAD("bad"),
+    INVALID("invalid"),
+    UNKNOWN("unknown");
+
+    private static final Map<String, UnitFileState> VALUES = new HashMap<>();
+
+    static {
+        for (UnitFileState state : values()) {
+            VALUES.put(state.value, state);
+        }
+    }
+
+    private final String value;
+
+    UnitFileState(final String value) {
+        this.value = value;
+    }
+
+    public static UnitFileState of(final String value) {
+        return value != null ? VALUES.getOrDefault(value, UNKNOWN) : UNKNOWN;
+    }
+
+    public final String getValue() {
+        return value;
+    }
+
+    public final boolean isEnabled() {
+        return this == ENABLED || this == ENABLED_RUNTIME;
+    }
+
+    public final boolean isMasked() {
+        return this == MASKED || this == MASKED_RUNTIME;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+}
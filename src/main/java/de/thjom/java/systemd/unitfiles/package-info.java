@@ -0,0 +1,18 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+/**
+ * This package contains bulk operations on unit files which avoid per-unit bus
+ * round trips.
+ *
+ */
+
+package de.thjom.java.systemd.unitfiles;
@@ -1,9 +1,23 @@
 module de.thjom.java.systemd {
 	requires transitive org.freedesktop.dbus;
 	requires transitive java.xml.bind;
+	requires java.management;
+	requires java.xml;
+	requires static jdk.httpserver;
+	requires static jdk.jfr;
 	exports de.thjom.java.systemd;
+	exports de.thjom.java.systemd.cgroup;
 	exports de.thjom.java.systemd.features;
+	exports de.thjom.java.systemd.fleet;
+	exports de.thjom.java.systemd.flow;
+	exports de.thjom.java.systemd.history;
+	exports de.thjom.java.systemd.instrumentation;
 	exports de.thjom.java.systemd.interfaces;
+	exports de.thjom.java.systemd.jobs;
+	exports de.thjom.java.systemd.launch;
+	exports de.thjom.java.systemd.metrics;
+	exports de.thjom.java.systemd.snapshot;
 	exports de.thjom.java.systemd.types;
+	exports de.thjom.java.systemd.unitfiles;
 	opens de.thjom.java.systemd.types to org.freedesktop.dbus;
 }
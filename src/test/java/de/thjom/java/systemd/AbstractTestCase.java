@@ -33,7 +33,7 @@ import org.testng.Assert;
 import de.thjom.java.systemd.interfaces.ManagerInterface;
 import de.thjom.java.systemd.interfaces.PropertyInterface;
 
-abstract class AbstractTestCase {
+public abstract class AbstractTestCase {
 
     @Mock
     protected DBusConnection dbus;
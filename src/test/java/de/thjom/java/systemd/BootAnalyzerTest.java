@@ -0,0 +1,154 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.interfaces.PropertyInterface;
+import de.thjom.java.systemd.types.UnitType;
+
+public class BootAnalyzerTest extends AbstractTestCase {
+
+    private final List<UnitType> units = new ArrayList<>();
+
+    @Override
+    @BeforeClass
+    public void setup() {
+        super.setup();
+
+        Map<String, Variant<?>> managerProperties = new HashMap<>();
+        managerProperties.put(Manager.Property.FIRMWARE_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(3_000_000L)));
+        managerProperties.put(Manager.Property.LOADER_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(1_000_000L)));
+        managerProperties.put(Manager.Property.KERNEL_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(0L)));
+        managerProperties.put(Manager.Property.INIT_RD_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(1_500_000L)));
+        managerProperties.put(Manager.Property.USERSPACE_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(4_000_000L)));
+        managerProperties.put(Manager.Property.FINISH_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(10_000_000L)));
+
+        Mockito.when(piface.getAllProperties(Manager.SERVICE_NAME)).thenReturn(managerProperties);
+        Mockito.when(miface.getDefaultTarget()).thenReturn("graphical.target");
+
+        mockUnit("graphical.target", 0L, 9_000_000L, "multi-user.target");
+        mockUnit("multi-user.target", 0L, 8_900_000L, "slow.service", "fast.service", "late.service");
+        mockUnit("slow.service", 5_000_000L, 8_800_000L, "basic.target");
+        mockUnit("fast.service", 5_000_000L, 5_100_000L, "basic.target");
+        mockUnit("late.service", 9_500_000L, 9_600_000L, "basic.target");
+        mockUnit("basic.target", 0L, 4_900_000L);
+
+        Mockito.when(miface.listUnits()).thenReturn(units);
+    }
+
+    private void mockUnit(final String name, final long activating, final long activated, final String... after) {
+        String objectPath = Unit.OBJECT_PATH + Systemd.escapePath(name);
+
+        Map<String, Variant<?>> properties = new HashMap<>();
+        properties.put(Unit.Property.INACTIVE_EXIT_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(activating)));
+        properties.put(Unit.Property.ACTIVE_ENTER_TIMESTAMP_MONOTONIC, new Variant<>(new UInt64(activated)));
+        properties.put(Unit.Property.AFTER, new Variant<>(Arrays.asList(after), "as"));
+
+        PropertyInterface unitProperties = Mockito.mock(PropertyInterface.class);
+        Mockito.when(unitProperties.getAllProperties(Unit.SERVICE_NAME)).thenReturn(properties);
+
+        try {
+            Mockito.when(dbus.getRemoteObject(Systemd.SERVICE_NAME, objectPath, PropertyInterface.class)).thenReturn(unitProperties);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        units.add(new UnitType(name, name, "loaded", "active", "running", "", new DBusPath(objectPath), new UInt32(0L), "", new DBusPath("/")));
+    }
+
+    @Test(description="Tests boot phase breakdown.")
+    public void testPhases() {
+        BootAnalyzer.Report report = null;
+
+        try {
+            report = new BootAnalyzer(systemd.getManager(), 4).analyze();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        BootAnalyzer.Phases phases = report.getPhases();
+
+        Assert.assertTrue(phases.isFinished());
+        Assert.assertEquals(phases.getFirmware(), Duration.ofSeconds(2L));
+        Assert.assertEquals(phases.getLoader(), Duration.ofSeconds(1L));
+        Assert.assertEquals(phases.getKernel(), Duration.ofMillis(1500L));
+        Assert.assertEquals(phases.getInitRD(), Duration.ofMillis(2500L));
+        Assert.assertEquals(phases.getUserspace(), Duration.ofSeconds(6L));
+        Assert.assertEquals(phases.getTotal(), Duration.ofSeconds(13L));
+    }
+
+    @Test(description="Tests per-unit activation durations.")
+    public void testBlame() {
+        BootAnalyzer.Report report = null;
+
+        try {
+            report = new BootAnalyzer(systemd.getManager()).analyze();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertEquals(report.getUnitTimings().size(), 6);
+
+        List<BootAnalyzer.UnitTiming> blame = report.getBlame();
+
+        Assert.assertEquals(blame.size(), 3);
+        Assert.assertEquals(blame.get(0).getUnitName(), "slow.service");
+        Assert.assertEquals(blame.get(0).getActivationTime(), Duration.ofMillis(3800L));
+        Assert.assertEquals(blame.get(1).getActivationTime(), Duration.ofMillis(100L));
+        Assert.assertEquals(blame.get(2).getActivationTime(), Duration.ofMillis(100L));
+    }
+
+    @Test(description="Tests critical chain computation along After= edges.")
+    public void testCriticalChain() {
+        BootAnalyzer.Report report = null;
+
+        try {
+            report = new BootAnalyzer(systemd.getManager()).analyze();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertEquals(report.getDefaultTarget(), "graphical.target");
+
+        List<BootAnalyzer.ChainLink> chain = report.getCriticalChain();
+
+        Assert.assertEquals(chain.size(), 4);
+        Assert.assertEquals(chain.get(0).getUnitName(), "graphical.target");
+        Assert.assertEquals(chain.get(1).getUnitName(), "multi-user.target");
+        Assert.assertEquals(chain.get(2).getUnitName(), "slow.service");
+        Assert.assertEquals(chain.get(2).getActivatedAt(), Duration.ofMillis(4800L));
+        Assert.assertEquals(chain.get(3).getUnitName(), "basic.target");
+
+        Assert.assertTrue(report.getCriticalChain("unknown.service").isEmpty());
+    }
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Introspectable;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.Variant;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.types.UnitType;
+
+public class CapabilitiesTest extends AbstractTestCase {
+
+    private static final String DOCTYPE = "<!DOCTYPE node PUBLIC \"-//freedesktop//DTD D-BUS Object Introspection 1.0//EN\" \"http://www.freedesktop.org/standards/dbus/1.0/introspect.dtd\">\n";
+
+    private static final String MANAGER_XML = DOCTYPE
+            + "<node>\n"
+            + " <interface name=\"org.freedesktop.DBus.Peer\">\n"
+            + "  <method name=\"Ping\"/>\n"
+            + " </interface>\n"
+            + " <interface name=\"org.freedesktop.systemd1.Manager\">\n"
+            + "  <property name=\"Version\" type=\"s\" access=\"read\"/>\n"
+            + "  <property name=\"NJobs\" type=\"u\" access=\"read\"/>\n"
+            + "  <method name=\"StartUnit\">\n"
+            + "   <arg type=\"s\" direction=\"in\"/>\n"
+            + "  </method>\n"
+            + "  <method name=\"Dump\"/>\n"
+            + " </interface>\n"
+            + " <node name=\"unit\"/>\n"
+            + "</node>\n";
+
+    private static final String SERVICE_XML = DOCTYPE
+            + "<node>\n"
+            + " <interface name=\"org.freedesktop.systemd1.Unit\">\n"
+            + "  <property name=\"Id\" type=\"s\" access=\"read\"/>\n"
+            + "  <property name=\"ActiveState\" type=\"s\" access=\"read\"/>\n"
+            + " </interface>\n"
+            + " <interface name=\"org.freedesktop.systemd1.Service\">\n"
+            + "  <property name=\"MainPID\" type=\"u\" access=\"read\"/>\n"
+            + " </interface>\n"
+            + "</node>\n";
+
+    @Override
+    @BeforeMethod
+    public void setup() {
+        super.setup();
+
+        Capabilities.clearCache();
+    }
+
+    @AfterMethod
+    public void teardown() {
+        Capabilities.unregister(dbus);
+    }
+
+    @Test(description="Tests parsing of introspection data.")
+    public void testParse() {
+        Capabilities capabilities = Capabilities.parse("245", Arrays.asList(MANAGER_XML, SERVICE_XML));
+
+        Assert.assertEquals(capabilities.getVersion(), "245");
+        Assert.assertTrue(capabilities.isKnown(Manager.SERVICE_NAME));
+        Assert.assertTrue(capabilities.isKnown(Service.SERVICE_NAME));
+        Assert.assertFalse(capabilities.isKnown(Socket.SERVICE_NAME));
+
+        Assert.assertEquals(capabilities.getProperties(Manager.SERVICE_NAME).size(), 2);
+        Assert.assertTrue(capabilities.supportsProperty(Manager.SERVICE_NAME, Manager.Property.NJOBS));
+        Assert.assertFalse(capabilities.supportsProperty(Manager.SERVICE_NAME, Manager.Property.NNAMES));
+        Assert.assertTrue(capabilities.supportsMethod(Manager.SERVICE_NAME, "StartUnit"));
+        Assert.assertFalse(capabilities.supportsMethod(Manager.SERVICE_NAME, "FreezeUnit"));
+        Assert.assertTrue(capabilities.supportsMethod("org.freedesktop.DBus.Peer", "Ping"));
+
+        // Unknown interfaces are permissive
+        Assert.assertTrue(capabilities.supportsProperty(Socket.SERVICE_NAME, Socket.Property.BACKLOG));
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> Capabilities.parse("245", Collections.singletonList("<node>")));
+    }
+
+    @Test(description="Tests restriction of descriptor tables to supported properties.")
+    public void testFilter() {
+        Capabilities capabilities = Capabilities.parse("245", Arrays.asList(MANAGER_XML, SERVICE_XML));
+
+        PropertyTable unit = capabilities.filter(Unit.SERVICE_NAME, Unit.Property.getDescriptors());
+        Assert.assertEquals(unit.getNames(), Arrays.asList(Unit.Property.ACTIVE_STATE, Unit.Property.ID));
+
+        PropertyTable socket = capabilities.filter(Socket.SERVICE_NAME, Socket.Property.getDescriptors());
+        Assert.assertSame(socket, Socket.Property.getDescriptors());
+    }
+
+    @Test(description="Tests that unsupported members fail without a bus call once capabilities are registered.")
+    public void testFailFast() {
+        try {
+            Properties properties = Properties.create(dbus, Systemd.OBJECT_PATH, Manager.SERVICE_NAME);
+            Mockito.doReturn(new Variant<>(new UInt32(3L))).when(piface).getProperty(Manager.SERVICE_NAME, Manager.Property.NJOBS);
+
+            Capabilities.register(dbus, Capabilities.parse("245", Collections.singletonList(MANAGER_XML)));
+
+            Assert.assertEquals(properties.getLong(Manager.Property.NJOBS), 3L);
+
+            try {
+                properties.getLong(Manager.Property.NNAMES);
+                Assert.fail("Unsupported property not detected");
+            }
+            catch (UnsupportedCapabilityException e) {
+                Assert.assertEquals(e.getType(), UnsupportedCapabilityException.UNKNOWN_PROPERTY);
+                Assert.assertEquals(e.getInterfaceName(), Manager.SERVICE_NAME);
+                Assert.assertEquals(e.getMember(), Manager.Property.NNAMES);
+            }
+
+            Mockito.verify(piface, Mockito.never()).getProperty(Manager.SERVICE_NAME, Manager.Property.NNAMES);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests loading of capabilities via a manager and caching by version.")
+    public void testLoad() {
+        try {
+            Introspectable managerIntro = Mockito.mock(Introspectable.class);
+            Introspectable serviceIntro = Mockito.mock(Introspectable.class);
+            Mockito.when(managerIntro.Introspect()).thenReturn(MANAGER_XML);
+            Mockito.when(serviceIntro.Introspect()).thenReturn(SERVICE_XML);
+            Mockito.when(dbus.getRemoteObject(Systemd.SERVICE_NAME, Systemd.OBJECT_PATH, Introspectable.class)).thenReturn(managerIntro);
+            Mockito.when(dbus.getRemoteObject(Systemd.SERVICE_NAME, "/org/freedesktop/systemd1/unit/a_2eservice", Introspectable.class)).thenReturn(serviceIntro);
+            Mockito.doReturn(new Variant<>("245")).when(piface).getProperty(Manager.SERVICE_NAME, Manager.Property.VERSION);
+            Mockito.when(miface.listUnits()).thenReturn(Arrays.asList(
+                    unit("a.service"),
+                    unit("b.service")
+            ));
+
+            Manager manager = systemd.getManager();
+            Capabilities capabilities = manager.getCapabilities();
+
+            Assert.assertTrue(capabilities.isKnown(Service.SERVICE_NAME));
+            Assert.assertSame(manager.getCapabilities(), capabilities);
+            Assert.assertTrue(Capabilities.forConnection(dbus).isPresent());
+
+            // Only one unit per type is introspected
+            Mockito.verify(serviceIntro, Mockito.times(1)).Introspect();
+
+            try {
+                manager.freezeUnit("a.service");
+                Assert.fail("Unsupported method not detected");
+            }
+            catch (UnsupportedCapabilityException e) {
+                Assert.assertEquals(e.getType(), UnsupportedCapabilityException.UNKNOWN_METHOD);
+            }
+
+            Mockito.verify(miface, Mockito.never()).freezeUnit(Mockito.anyString());
+
+            // Same version, served from cache
+            Assert.assertSame(Capabilities.load(manager), capabilities);
+            Mockito.verify(managerIntro, Mockito.times(1)).Introspect();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private static UnitType unit(final String name) {
+        String path = "/org/freedesktop/systemd1/unit/" + Systemd.escapePath(name);
+
+        return new UnitType(name, name, "loaded", "active", "running", "", new DBusPath(path), new UInt32(0L), "", new DBusPath("/"));
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class DumpParserTest extends AbstractTestCase {
+
+    private static final String DUMP = String.join("\n",
+            "Timestamp firmware: 2.036s",
+            "Timestamp kernel: Mon 2021-03-22 08:00:00 CET",
+            "-> Unit sshd.service:",
+            "\tDescription: OpenSSH Daemon",
+            "\tInstance: n/a",
+            "\tUnit Load State: loaded",
+            "\tAfter: network.target (origin-file)",
+            "\tAfter: sshdgenkeys.service (origin-file)",
+            "\t\tCommand Line: /usr/bin/sshd -D",
+            "",
+            "-> Job 42:",
+            "\tAction: sshd.service -> start",
+            "-> Unit empty.target:",
+            "");
+
+    @Override
+    @BeforeClass
+    public void setup() {
+        super.setup();
+    }
+
+    @Test(description="Tests incremental parsing of a state dump.")
+    public void testParsing() {
+        List<DumpParser.Record> records = new ArrayList<>();
+
+        try (DumpParser parser = new DumpParser(new StringReader(DUMP))) {
+            parser.forEach(records::add);
+
+            Assert.assertNull(parser.next());
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertEquals(records.size(), 4);
+
+        DumpParser.Record manager = records.get(0);
+        Assert.assertEquals(manager.getKind(), DumpParser.KIND_MANAGER);
+        Assert.assertEquals(manager.getValue("Timestamp firmware").orElse(null), "2.036s");
+
+        DumpParser.Record sshd = records.get(1);
+        Assert.assertTrue(sshd.isUnit());
+        Assert.assertEquals(sshd.getName(), "sshd.service");
+        Assert.assertEquals(sshd.getValue("Description").orElse(null), "OpenSSH Daemon");
+        Assert.assertEquals(sshd.getValues("After"), Arrays.asList("network.target (origin-file)", "sshdgenkeys.service (origin-file)"));
+        Assert.assertEquals(sshd.getEntries().get(sshd.getEntries().size() - 1).getDepth(), 2);
+        Assert.assertFalse(sshd.getValue("Missing").isPresent());
+
+        DumpParser.Record job = records.get(2);
+        Assert.assertEquals(job.getKind(), DumpParser.KIND_JOB);
+        Assert.assertEquals(job.getName(), "42");
+        Assert.assertEquals(job.getValue("Action").orElse(null), "sshd.service -> start");
+
+        DumpParser.Record empty = records.get(3);
+        Assert.assertEquals(empty.getName(), "empty.target");
+        Assert.assertTrue(empty.getEntries().isEmpty());
+    }
+
+    @Test(description="Tests parsing of a dump without manager preamble.")
+    public void testWithoutPreamble() {
+        try (DumpParser parser = new DumpParser(new StringReader("-> Unit a.service:\n\tId: a.service\n"))) {
+            DumpParser.Record record = parser.next();
+
+            Assert.assertEquals(record.getName(), "a.service");
+            Assert.assertNull(parser.next());
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests fallback to string based dump if file descriptors are unsupported.")
+    public void testOpenDumpFallback() {
+        Mockito.when(miface.dumpByFileDescriptor()).thenThrow(new DBusExecutionException("Unknown method"));
+        Mockito.when(miface.dump()).thenReturn(DUMP);
+
+        try (Reader reader = systemd.getManager().openDump(); DumpParser parser = new DumpParser(reader)) {
+            Assert.assertEquals(parser.next().getKind(), DumpParser.KIND_MANAGER);
+            Assert.assertEquals(parser.next().getName(), "sshd.service");
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.features.CpuAccounting;
+import de.thjom.java.systemd.features.DynamicUserAccounting;
+import de.thjom.java.systemd.features.ExtendedCpuAccounting;
+import de.thjom.java.systemd.features.ExtendedMemoryAccounting;
+import de.thjom.java.systemd.features.IoAccounting;
+import de.thjom.java.systemd.features.IpAccounting;
+import de.thjom.java.systemd.features.MemoryAccounting;
+import de.thjom.java.systemd.features.ResourceControl;
+import de.thjom.java.systemd.features.TasksAccounting;
+import de.thjom.java.systemd.features.Ulimit;
+
+public class PropertyTableTest {
+
+    private static final Map<Class<?>, PropertyTable> OWN_TABLES = new HashMap<>();
+
+    static {
+        OWN_TABLES.put(Automount.Property.class, Automount.Property.getDescriptors());
+        OWN_TABLES.put(BusName.Property.class, BusName.Property.getDescriptors());
+        OWN_TABLES.put(Device.Property.class, Device.Property.getDescriptors());
+        OWN_TABLES.put(Manager.Property.class, Manager.Property.getDescriptors());
+        OWN_TABLES.put(Path.Property.class, Path.Property.getDescriptors());
+        OWN_TABLES.put(Target.Property.class, Target.Property.getDescriptors());
+        OWN_TABLES.put(Timer.Property.class, Timer.Property.getDescriptors());
+        OWN_TABLES.put(Unit.Property.class, Unit.Property.getDescriptors());
+        OWN_TABLES.put(CpuAccounting.Property.class, CpuAccounting.Property.getDescriptors());
+        OWN_TABLES.put(DynamicUserAccounting.Property.class, DynamicUserAccounting.Property.getDescriptors());
+        OWN_TABLES.put(ExtendedCpuAccounting.Property.class, ExtendedCpuAccounting.Property.getDescriptors());
+        OWN_TABLES.put(ExtendedMemoryAccounting.Property.class, ExtendedMemoryAccounting.Property.getDescriptors());
+        OWN_TABLES.put(IoAccounting.Property.class, IoAccounting.Property.getDescriptors());
+        OWN_TABLES.put(IpAccounting.Property.class, IpAccounting.Property.getDescriptors());
+        OWN_TABLES.put(MemoryAccounting.Property.class, MemoryAccounting.Property.getDescriptors());
+        OWN_TABLES.put(ResourceControl.Property.class, ResourceControl.Property.getDescriptors());
+        OWN_TABLES.put(TasksAccounting.Property.class, TasksAccounting.Property.getDescriptors());
+        OWN_TABLES.put(Ulimit.Property.class, Ulimit.Property.getDescriptors());
+    }
+
+    @Test(description="Tests that each descriptor table describes exactly the declared property names.")
+    public void testTablesMatchDeclarations() {
+        for (Map.Entry<Class<?>, PropertyTable> entry : OWN_TABLES.entrySet()) {
+            Assert.assertEquals(entry.getValue().getNames(), declaredNames(entry.getKey()), entry.getKey().getName());
+        }
+    }
+
+    @Test(description="Tests that combined tables include the properties of all features.")
+    public void testCombinedTables() {
+        List<String> expected = new ArrayList<>(declaredNames(Service.Property.class));
+
+        for (Class<?> type : Arrays.asList(ExtendedCpuAccounting.Property.class, DynamicUserAccounting.Property.class, IoAccounting.Property.class)) {
+            for (String name : declaredNames(type)) {
+                Assert.assertTrue(Service.Property.getDescriptors().contains(name), name);
+            }
+        }
+
+        Assert.assertEquals(Service.Property.getAllNames().subList(0, expected.size()), expected);
+        Assert.assertEquals(Service.Property.getAllNames().stream().distinct().count(), Service.Property.getAllNames().size());
+    }
+
+    @Test(description="Tests descriptor metadata and decoding of raw values.")
+    public void testDescriptors() {
+        PropertyDescriptor<?> activeState = Unit.Property.getDescriptors().get(Unit.Property.ACTIVE_STATE).orElseThrow();
+        Assert.assertEquals(activeState.getSignature(), "s");
+        Assert.assertEquals(activeState.getType(), String.class);
+        Assert.assertEquals(activeState.decode("active"), "active");
+
+        PropertyDescriptor<?> nJobs = Manager.Property.getDescriptors().get(Manager.Property.NJOBS).orElseThrow();
+        Assert.assertEquals(nJobs.getSignature(), "u");
+        Assert.assertEquals(nJobs.decode(new UInt32(42L)), 42L);
+
+        PropertyDescriptor<?> memory = MemoryAccounting.Property.getDescriptors().get(MemoryAccounting.Property.MEMORY_CURRENT).orElseThrow();
+        Assert.assertEquals(memory.getSignature(), "t");
+        Assert.assertEquals(memory.decode(new UInt64(4096L)), BigInteger.valueOf(4096L));
+
+        Assert.assertNull(memory.decode((Object) null));
+        Assert.assertFalse(Unit.Property.getDescriptors().get("Foo").isPresent());
+        Assert.assertThrows(IllegalArgumentException.class, () -> PropertyDescriptor.ofList("Foo", "s"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> PropertyTable.of(PropertyDescriptor.ofString("Foo"), PropertyDescriptor.ofBoolean("Foo")));
+    }
+
+    @Test(description="Tests bulk decoding of property values.")
+    public void testDecode() {
+        Map<String, Variant<?>> values = new HashMap<>();
+        values.put(Unit.Property.ID, new Variant<>("foo.service"));
+        values.put(Unit.Property.CAN_START, new Variant<>(Boolean.TRUE));
+        values.put(Unit.Property.ACTIVE_ENTER_TIMESTAMP, new Variant<>(new UInt64(1234L)));
+        values.put("Unknown", new Variant<>("bar"));
+
+        Map<String, Object> decoded = Unit.Property.getDescriptors().decode(values);
+
+        Assert.assertEquals(decoded.size(), 3);
+        Assert.assertEquals(decoded.get(Unit.Property.ID), "foo.service");
+        Assert.assertEquals(decoded.get(Unit.Property.CAN_START), Boolean.TRUE);
+        Assert.assertEquals(decoded.get(Unit.Property.ACTIVE_ENTER_TIMESTAMP), 1234L);
+        Assert.assertFalse(decoded.containsKey("Unknown"));
+    }
+
+    private static List<String> declaredNames(final Class<?> type) {
+        List<String> names = new ArrayList<>();
+
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getType() == String.class && Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+                try {
+                    names.add((String) field.get(null));
+                }
+                catch (final IllegalAccessException e) {
+                    Assert.fail(e.getMessage(), e);
+                }
+            }
+        }
+
+        return names;
+    }
+
+}
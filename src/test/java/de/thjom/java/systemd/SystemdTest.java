@@ -32,6 +32,15 @@ public class SystemdTest {
         Assert.assertEquals(Systemd.escapePath(null), "");
     }
 
+    @Test(description="Tests object path unescape function.")
+    public void testPathUnescaping() {
+        Assert.assertEquals(Systemd.unescapePath("systemd_2dbacklight_40leds_3atpacpi_3a_3akbd_5fbacklight_2eservice"),
+                "systemd-backlight@leds:tpacpi::kbd_backlight.service");
+        Assert.assertEquals(Systemd.unescapePath(Systemd.escapePath("user@1000.service")), "user@1000.service");
+        Assert.assertEquals(Systemd.unescapePath("trailing_2"), "trailing_2");
+        Assert.assertEquals(Systemd.unescapePath(null), "");
+    }
+
     @Test(description="Tests micro-timestamp conversion to java.time.Instant object.")
     public void testTimestampConversion() {
         long usecTimestamp = System.currentTimeMillis() * 1000 + 987;
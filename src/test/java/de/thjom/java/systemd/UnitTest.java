@@ -11,11 +11,19 @@
 
 package de.thjom.java.systemd;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -98,6 +106,89 @@ public class UnitTest extends AbstractTestCase {
         Assert.assertNotEquals(foo1.hashCode(), bar.hashCode());
     }
 
+    @Test(description="Tests mapping of state strings to enums.")
+    public void testStateEnums() {
+        Assert.assertEquals(Unit.ActiveState.of("active"), Unit.ActiveState.ACTIVE);
+        Assert.assertEquals(Unit.ActiveState.of("some-future-state"), Unit.ActiveState.UNKNOWN);
+        Assert.assertEquals(Unit.ActiveState.of(null), Unit.ActiveState.UNKNOWN);
+        Assert.assertEquals(Unit.LoadState.of("not-found"), Unit.LoadState.NOT_FOUND);
+        Assert.assertEquals(Unit.SubState.of("stop-sigterm"), Unit.SubState.STOP_SIGTERM);
+        Assert.assertEquals(Unit.FreezerState.of("frozen"), Unit.FreezerState.FROZEN);
+        Assert.assertEquals(Unit.SubState.AUTO_RESTART.getValue(), "auto-restart");
+    }
+
+    @Test(description="Tests the enum accessors of the state properties.")
+    public void testStateValues() throws DBusException {
+        TestUnit foo = TestUnit.create(systemd.getManager(), "foo.service");
+
+        Assert.assertEquals(foo.getActiveStateValue(), Unit.ActiveState.of(foo.getActiveState()));
+        Assert.assertEquals(foo.getLoadStateValue(), Unit.LoadState.of(foo.getLoadState()));
+        Assert.assertEquals(foo.getSubStateValue(), Unit.SubState.of(foo.getSubState()));
+    }
+
+    @Test(description="Tests interning of state tuples.")
+    public void testStateTupleInterning() {
+        Map<String, Variant<?>> properties = new HashMap<>();
+        properties.put(Unit.Property.LOAD_STATE, new Variant<>("loaded"));
+        properties.put(Unit.Property.ACTIVE_STATE, new Variant<>("failed"));
+        properties.put(Unit.Property.SUB_STATE, new Variant<>("failed"));
+
+        Unit.StateTuple state = Unit.StateTuple.of(properties);
+
+        Assert.assertSame(Unit.StateTuple.intern("loaded", "failed", "failed"), state);
+        Assert.assertEquals(new Unit.StateTuple("loaded", "failed", "failed"), state);
+        Assert.assertEquals(state.getActive(), Unit.ActiveState.FAILED);
+        Assert.assertEquals(state.getSub(), Unit.SubState.FAILED);
+
+        Unit.StateTuple partial = Unit.StateTuple.of(Collections.singletonMap(Unit.Property.ACTIVE_STATE, new Variant<>("active")));
+
+        Assert.assertEquals(partial.getLoadState(), "-");
+        Assert.assertEquals(partial.getLoad(), Unit.LoadState.UNKNOWN);
+        Assert.assertEquals(partial.getActive(), Unit.ActiveState.ACTIVE);
+    }
+
+    @Test(description="Tests dispatch to property listeners by interest set.")
+    public void testPropertyListeners() throws DBusException {
+        TestUnit unit = TestUnit.create(systemd.getManager(), "listened.service");
+
+        List<ChangedProperties> memoryChanges = new ArrayList<>();
+        List<Map<String, Variant<?>>> stateChanges = new ArrayList<>();
+
+        UnitPropertyListener memoryListener = (u, p) -> memoryChanges.add(p);
+
+        unit.addPropertyListener(memoryListener, "MemoryCurrent", Unit.Property.ACTIVE_STATE);
+        unit.addListener((u, p) -> stateChanges.add(p));
+
+        Map<String, Variant<?>> properties = new HashMap<>();
+        properties.put("MemoryCurrent", new Variant<>(new UInt64(4096L)));
+        properties.put("CPUUsageNSec", new Variant<>(new UInt64(1L)));
+
+        unit.notifyListeners(unit, properties);
+        unit.notifyListeners(unit, Collections.singletonMap(Unit.Property.DESCRIPTION, new Variant<>("foo")));
+
+        Assert.assertEquals(memoryChanges.size(), 1);
+        Assert.assertTrue(stateChanges.isEmpty());
+
+        ChangedProperties changed = memoryChanges.get(0);
+
+        Assert.assertEquals(changed.getNames(), Collections.singletonList("MemoryCurrent"));
+        Assert.assertEquals(changed.getLong("MemoryCurrent"), 4096L);
+        Assert.assertEquals(changed.getBigInteger("MemoryCurrent"), BigInteger.valueOf(4096L));
+        Assert.assertFalse(changed.contains("CPUUsageNSec"));
+        Assert.assertNull(changed.getValue("CPUUsageNSec"));
+
+        unit.notifyListeners(unit, Collections.singletonMap(Unit.Property.ACTIVE_STATE, new Variant<>("active")));
+
+        Assert.assertEquals(memoryChanges.size(), 2);
+        Assert.assertEquals(memoryChanges.get(1).getString(Unit.Property.ACTIVE_STATE), "active");
+        Assert.assertEquals(stateChanges.size(), 1);
+
+        unit.removePropertyListener(memoryListener);
+        unit.notifyListeners(unit, properties);
+
+        Assert.assertEquals(memoryChanges.size(), 2);
+    }
+
     // This method is called from derived test classes hence no need for annotation
     public void testUnitProperties(final Unit unit, final Collection<String> propertyNames) {
         for (String propertyName : Unit.Property.getAllNames()) {
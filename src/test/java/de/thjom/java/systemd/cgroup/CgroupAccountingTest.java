@@ -0,0 +1,145 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Service;
+
+public class CgroupAccountingTest {
+
+    private Path cgroupRoot;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            cgroupRoot = Files.createTempDirectory("cgroup");
+
+            Path dir = Files.createDirectories(cgroupRoot.resolve("system.slice/sshd.service"));
+
+            write(dir, CgroupAccounting.MEMORY_CURRENT, "5353472\n");
+            write(dir, CgroupAccounting.MEMORY_STAT, "anon 1048576\nfile 3145728\nkernel_stack 16384\nanon_thp 0\n");
+            write(dir, CgroupAccounting.CPU_STAT, "usage_usec 123456\nuser_usec 100000\nsystem_usec 23456\nnr_periods 0\n");
+            write(dir, CgroupAccounting.IO_STAT, "8:0 rbytes=1000 wbytes=2000 rios=10 wios=20 dbytes=0 dios=0\n"
+                    + "253:0 rbytes=500 wbytes=0 rios=5 wios=0 dbytes=0 dios=0\n");
+            write(dir, CgroupAccounting.PIDS_CURRENT, "3\n");
+
+            Files.createDirectories(cgroupRoot.resolve("system.slice/empty.service"));
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private static void write(final Path dir, final String fileName, final String content) throws IOException {
+        Files.write(dir.resolve(fileName), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test(description="Tests reading of single counters.")
+    public void testCounters() {
+        CgroupAccounting accounting = new CgroupAccounting(cgroupRoot, "/system.slice/sshd.service");
+
+        try {
+            Assert.assertEquals(accounting.getMemoryCurrent(), 5353472L);
+            Assert.assertEquals(accounting.getMemoryStat("file"), 3145728L);
+            Assert.assertEquals(accounting.getMemoryStat("anon"), 1048576L);
+            Assert.assertEquals(accounting.getMemoryStat("anon_thp"), 0L);
+            Assert.assertEquals(accounting.getMemoryStat("missing"), CgroupAccounting.UNAVAILABLE);
+            Assert.assertEquals(accounting.getCPUUsageNSec(), 123456000L);
+            Assert.assertEquals(accounting.getIOReadBytes(), 1500L);
+            Assert.assertEquals(accounting.getIOWriteBytes(), 2000L);
+            Assert.assertEquals(accounting.getIOReadOperations(), 15L);
+            Assert.assertEquals(accounting.getIOWriteOperations(), 20L);
+            Assert.assertEquals(accounting.getTasksCurrent(), 3L);
+
+            Map<String, Long> stat = accounting.getMemoryStat(new HashMap<>());
+
+            Assert.assertEquals(stat.size(), 4);
+            Assert.assertEquals(stat.get("kernel_stack"), Long.valueOf(16384L));
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests sampling into a reused holder and missing controllers.")
+    public void testSampling() {
+        CgroupAccounting accounting = new CgroupAccounting(cgroupRoot, "/system.slice/sshd.service");
+        CgroupAccounting empty = new CgroupAccounting(cgroupRoot, "/system.slice/empty.service");
+        CgroupAccounting.Sample sample = new CgroupAccounting.Sample();
+
+        try {
+            Assert.assertSame(accounting.sample(sample), sample);
+            Assert.assertEquals(sample.getCPUUserUSec(), 100000L);
+            Assert.assertEquals(sample.getCPUSystemUSec(), 23456L);
+            Assert.assertEquals(sample.getIOReadBytes(), 1500L);
+            Assert.assertEquals(sample.getTasksCurrent(), 3L);
+
+            empty.sample(sample);
+
+            Assert.assertEquals(sample.getMemoryCurrent(), CgroupAccounting.UNAVAILABLE);
+            Assert.assertEquals(sample.getCPUUsageUSec(), CgroupAccounting.UNAVAILABLE);
+            Assert.assertEquals(sample.getIOWriteBytes(), CgroupAccounting.UNAVAILABLE);
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests growth of the read buffer for large files.")
+    public void testBufferGrowth() {
+        try {
+            Path dir = Files.createDirectories(cgroupRoot.resolve("system.slice/big.service"));
+            StringBuilder content = new StringBuilder();
+
+            for (int i = 0; i < 500; i++) {
+                content.append("counter_").append(i).append(' ').append(i).append('\n');
+            }
+
+            write(dir, CgroupAccounting.MEMORY_STAT, content.toString());
+
+            CgroupAccounting accounting = new CgroupAccounting(cgroupRoot, "/system.slice/big.service");
+
+            Assert.assertEquals(accounting.getMemoryStat("counter_499"), 499L);
+            Assert.assertTrue(accounting.getBuffer().capacity() >= content.length());
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests resolution of the control group from a unit.")
+    public void testOfUnit() {
+        Service service = Mockito.mock(Service.class);
+        Mockito.when(service.getControlGroup()).thenReturn("/system.slice/sshd.service");
+
+        CgroupAccounting accounting = CgroupAccounting.of(service, cgroupRoot);
+
+        Assert.assertEquals(accounting.getDirectory(), cgroupRoot.resolve("system.slice/sshd.service"));
+
+        Service unbound = Mockito.mock(Service.class);
+        Mockito.when(unbound.getControlGroup()).thenReturn("");
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> CgroupAccounting.of(unbound, cgroupRoot));
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.AbstractTestCase;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+
+public class PidUnitResolverTest extends AbstractTestCase {
+
+    private Path procRoot;
+
+    @Override
+    @BeforeClass
+    public void setup() {
+        super.setup();
+
+        try {
+            procRoot = Files.createTempDirectory("proc");
+
+            writeProcess(100, 4711L, "0::/system.slice/sshd.service");
+            writeProcess(101, 4712L, "0::/system.slice/sshd.service/worker");
+            writeProcess(200, 5000L, "12:pids:/\n1:name=systemd:/user.slice/user-1000.slice/session-2.scope");
+            writeProcess(300, 6000L, "0::/system.slice/cron.service");
+            writeProcess(400, 7000L, "0::/system.slice/new.service");
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Mockito.when(miface.getUnitByPID(300)).thenReturn(new DBusPath(Unit.OBJECT_PATH + Systemd.escapePath("cron.service")));
+        Mockito.when(miface.getUnitByPID(400)).thenReturn(new DBusPath(Unit.OBJECT_PATH + Systemd.escapePath("new.service")));
+    }
+
+    private void writeProcess(final int pid, final long startTime, final String cgroup) throws IOException {
+        Path dir = Files.createDirectories(procRoot.resolve(Integer.toString(pid)));
+
+        String stat = pid + " (my (odd) comm) S 1 " + pid + " " + pid + " 0 -1 4194560 100 0 0 0 1 2 0 0 20 0 1 0 " + startTime + " 1000 100 18446744073709551615";
+
+        Files.write(dir.resolve("stat"), stat.getBytes(StandardCharsets.UTF_8));
+        Files.write(dir.resolve("cgroup"), cgroup.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test(description="Tests parsing of process start time.")
+    public void testStartTimeParsing() {
+        Assert.assertEquals(ControlGroups.parseStartTime("1 (systemd) S 0 1 1 0 -1 4194560 1 2 3 4 5 6 7 8 20 0 1 0 42 1000"), 42L);
+        Assert.assertEquals(ControlGroups.parseStartTime("garbage"), -1L);
+    }
+
+    @Test(description="Tests local resolution via registered control groups.")
+    public void testLocalResolution() {
+        PidUnitResolver resolver = null;
+
+        try {
+            resolver = new PidUnitResolver(systemd.getManager(), procRoot, 16);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        resolver.registerControlGroup("/system.slice/sshd.service", "sshd.service");
+        resolver.registerControlGroup("/user.slice/user-1000.slice/session-2.scope", "session-2.scope");
+
+        Assert.assertEquals(resolver.resolve(100), Optional.of("sshd.service"));
+        Assert.assertEquals(resolver.resolve(101), Optional.of("sshd.service"));
+        Assert.assertEquals(resolver.resolve(200), Optional.of("session-2.scope"));
+        Assert.assertFalse(resolver.resolve(999).isPresent());
+
+        Assert.assertEquals(resolver.resolve(100), Optional.of("sshd.service"));
+        Assert.assertEquals(resolver.getCacheHits(), 1L);
+        Assert.assertEquals(resolver.getCacheSize(), 3);
+
+        Mockito.verify(miface, Mockito.never()).getUnitByPID(100);
+    }
+
+    @Test(description="Tests bus fallback and batch resolution.")
+    public void testBusFallback() {
+        PidUnitResolver resolver = null;
+
+        try {
+            resolver = new PidUnitResolver(systemd.getManager(), procRoot, 2);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        resolver.registerControlGroup("/system.slice/sshd.service", "sshd.service");
+
+        Map<Integer, String> units = resolver.resolveAll(Arrays.asList(100, 300, 999));
+
+        Assert.assertEquals(units.size(), 2);
+        Assert.assertEquals(units.get(300), "cron.service");
+
+        // Control group learned from bus fallback serves subsequent lookups
+        resolver.invalidate();
+
+        Assert.assertEquals(resolver.resolve(300), Optional.of("cron.service"));
+        Assert.assertEquals(resolver.getCacheSize(), 1);
+
+        Mockito.verify(miface, Mockito.times(1)).getUnitByPID(300);
+    }
+
+    @Test(description="Tests that indexed slices do not swallow processes of unknown units.")
+    public void testSliceBoundary() {
+        PidUnitResolver resolver = null;
+
+        try {
+            resolver = new PidUnitResolver(systemd.getManager(), procRoot, 16);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        resolver.registerControlGroup("/", "-.slice");
+        resolver.registerControlGroup("/system.slice", "system.slice");
+
+        Assert.assertEquals(resolver.resolve(400), Optional.of("new.service"));
+
+        Mockito.verify(miface, Mockito.times(1)).getUnitByPID(400);
+    }
+
+}
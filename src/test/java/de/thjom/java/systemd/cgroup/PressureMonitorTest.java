@@ -0,0 +1,124 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.cgroup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class PressureMonitorTest {
+
+    private static final String SERVICE = "/system.slice/db.service";
+
+    private Path cgroupRoot;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            cgroupRoot = Files.createTempDirectory("cgroup");
+
+            Files.createDirectories(cgroupRoot.resolve("system.slice/db.service"));
+
+            writePressure("system.slice", Pressure.Resource.MEMORY, 5000L, 1000L);
+            writePressure("system.slice/db.service", Pressure.Resource.MEMORY, 0L, 0L);
+            Files.write(cgroupRoot.resolve("system.slice/db.service").resolve(Pressure.Resource.CPU.getFileName()),
+                    "some avg10=1.50 avg60=0.75 avg300=0.10 total=42\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private void writePressure(final String group, final Pressure.Resource resource, final long someTotal, final long fullTotal) throws IOException {
+        String content = "some avg10=20.00 avg60=10.50 avg300=2.25 total=" + someTotal + "\n"
+                + "full avg10=5.00 avg60=1.00 avg300=0.00 total=" + fullTotal + "\n";
+
+        Files.write(cgroupRoot.resolve(group).resolve(resource.getFileName()), content.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test(description="Tests reading of pressure information including parent slices.")
+    public void testRead() {
+        PressureMonitor monitor = new PressureMonitor(cgroupRoot);
+
+        try {
+            Pressure cpu = monitor.read(SERVICE, Pressure.Resource.CPU).get();
+
+            Assert.assertEquals(cpu.getSome().getAvg10(), 1.5d);
+            Assert.assertEquals(cpu.getSome().getAvg60(), 0.75d);
+            Assert.assertEquals(cpu.getSome().getTotal(), 42L);
+            Assert.assertFalse(cpu.getFull().isPresent());
+
+            List<Pressure> hierarchy = monitor.readHierarchy(SERVICE, Pressure.Resource.MEMORY);
+
+            Assert.assertEquals(hierarchy.size(), 2);
+            Assert.assertEquals(hierarchy.get(1).getControlGroup(), "/system.slice");
+            Assert.assertEquals(hierarchy.get(1).getSome().getAvg10(), 20d);
+            Assert.assertEquals(hierarchy.get(1).getFull().get().getTotal(), 1000L);
+
+            Assert.assertFalse(monitor.read(SERVICE, Pressure.Resource.IO).isPresent());
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests delta based threshold events.")
+    public void testThresholds() {
+        PressureMonitor monitor = new PressureMonitor(cgroupRoot);
+        List<PressureMonitor.Event> events = new ArrayList<>();
+
+        // A failing listener must neither affect others nor abort polling
+        monitor.addListener(e -> {
+            throw new IllegalStateException("Listener failure (test case)");
+        });
+        monitor.addListener(events::add);
+        monitor.addThreshold(SERVICE, Pressure.Resource.MEMORY, Pressure.Kind.SOME, 0.2d);
+
+        try {
+            monitor.poll(0L);
+            Assert.assertTrue(events.isEmpty());
+
+            // 300ms stalled within one second
+            writePressure("system.slice/db.service", Pressure.Resource.MEMORY, 300_000L, 0L);
+            monitor.poll(1_000_000_000L);
+
+            Assert.assertEquals(events.size(), 1);
+            Assert.assertTrue(events.get(0).isExceeded());
+            Assert.assertEquals(events.get(0).getRatio(), 0.3d, 0.0001d);
+
+            // Still above threshold, no further event
+            writePressure("system.slice/db.service", Pressure.Resource.MEMORY, 600_000L, 0L);
+            monitor.poll(2_000_000_000L);
+
+            Assert.assertEquals(events.size(), 1);
+
+            writePressure("system.slice/db.service", Pressure.Resource.MEMORY, 610_000L, 0L);
+            monitor.poll(3_000_000_000L);
+
+            Assert.assertEquals(events.size(), 2);
+            Assert.assertFalse(events.get(1).isExceeded());
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> monitor.addThreshold(SERVICE, Pressure.Resource.IO, Pressure.Kind.FULL, 1.5d));
+    }
+
+}
@@ -0,0 +1,273 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.fleet;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.types.UnitType;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+
+public class SystemdFleetTest {
+
+    private static final int MEMBERS = 3;
+
+    private final List<FakeSystemd> fakes = new ArrayList<>();
+
+    private SystemdFleet fleet;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            for (int i = 0; i < MEMBERS; i++) {
+                FakeSystemd fake = FakeSystemd.start();
+                fake.addUnits("m" + i + "-", ".service", 5);
+                fakes.add(fake);
+            }
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        fakes.forEach(FakeSystemd::close);
+    }
+
+    @BeforeMethod
+    public void connect() {
+        fleet = new SystemdFleet();
+
+        Map<String, String> addresses = new LinkedHashMap<>();
+
+        for (int i = 0; i < MEMBERS; i++) {
+            addresses.put("member-" + i, fakes.get(i).getAddress());
+        }
+
+        FleetResult<FleetMember> result = fleet.connectAll(addresses);
+
+        Assert.assertTrue(result.isComplete(), result.getFailures().toString());
+        Assert.assertEquals(fleet.size(), MEMBERS);
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void disconnect() {
+        fleet.close();
+    }
+
+    @Test(description="Tests parallel queries of failed units across members.")
+    public void testListFailedUnits() {
+        fakes.get(0).getUnit("m0-1.service").get().setState("failed", "failed");
+        fakes.get(2).getUnit("m2-3.service").get().setState("failed", "failed");
+
+        try {
+            FleetResult<List<UnitType>> result = fleet.listFailedUnits();
+
+            Assert.assertTrue(result.isComplete());
+            Assert.assertEquals(result.getValues().size(), MEMBERS);
+            Assert.assertEquals(names(result.getValues().get("member-0")), List.of("m0-1.service"));
+            Assert.assertEquals(names(result.getValues().get("member-1")), List.of());
+            Assert.assertEquals(names(result.getValues().get("member-2")), List.of("m2-3.service"));
+
+            FleetResult<Long> counts = fleet.query(manager -> (long) manager.listUnits().size());
+
+            Assert.assertEquals(counts.getValues(), Map.of("member-0", 5L, "member-1", 5L, "member-2", 5L));
+        }
+        finally {
+            fakes.get(0).getUnit("m0-1.service").get().setState("active", "running");
+            fakes.get(2).getUnit("m2-3.service").get().setState("active", "running");
+        }
+    }
+
+    @Test(description="Tests that failing and slow members are reported without failing the query.")
+    public void testPartialFailure() {
+        FleetResult<String> result = fleet.query(manager -> {
+            String version = manager.getVersion();
+
+            if (manager == fleet.getMember("member-1").get().getManager()) {
+                throw new DBusException("Simulated failure");
+            }
+
+            return version;
+        });
+
+        Assert.assertFalse(result.isComplete());
+        Assert.assertEquals(result.getValues().keySet(), List.of("member-0", "member-2").stream().collect(Collectors.toSet()));
+        Assert.assertTrue(result.getFailures().get("member-1") instanceof DBusException);
+
+        FleetResult<Object> slow = fleet.query(manager -> {
+            try {
+                Thread.sleep(1_000L);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return null;
+        }, 100L, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(slow.getFailures().size(), MEMBERS);
+        Assert.assertTrue(slow.getFailures().values().stream().allMatch(TimeoutException.class::isInstance));
+    }
+
+    @Test(description="Tests that members which do not answer do not starve later queries.")
+    public void testHungMembers() {
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // More blocked calls than event delivery threads
+            for (int i = 0; i < SystemdFleet.DEFAULT_THREAD_POOL_SIZE; i++) {
+                FleetResult<Object> hung = fleet.query(manager -> {
+                    try {
+                        release.await();
+                    }
+                    catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    return null;
+                }, 10L, TimeUnit.MILLISECONDS);
+
+                Assert.assertEquals(hung.getFailures().size(), MEMBERS);
+            }
+
+            FleetResult<String> result = fleet.query(Manager::getVersion, 5L, TimeUnit.SECONDS);
+
+            Assert.assertTrue(result.isComplete(), result.getFailures().toString());
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    @Test(description="Tests connection failures and duplicate members.")
+    public void testConnect() {
+        try {
+            String unreachable;
+
+            try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                unreachable = String.format("tcp:host=%s,port=%d", socket.getInetAddress().getHostAddress(), socket.getLocalPort());
+            }
+
+            FleetResult<FleetMember> result = fleet.connectAll(Map.of("unreachable", unreachable));
+
+            Assert.assertTrue(result.getFailures().get("unreachable") instanceof DBusException);
+            Assert.assertEquals(fleet.size(), MEMBERS);
+
+            Assert.assertThrows(IllegalArgumentException.class, () -> fleet.connect("member-0", fakes.get(0).getAddress()));
+
+            Assert.assertTrue(fleet.disconnect("member-0"));
+            Assert.assertFalse(fleet.disconnect("member-0"));
+            Assert.assertEquals(fleet.size(), MEMBERS - 1);
+
+            fleet.close();
+
+            Assert.assertEquals(fleet.size(), 0);
+            Assert.assertThrows(IllegalStateException.class, () -> fleet.connect("member-0", fakes.get(0).getAddress()));
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests merged unit events tagged with their source, including members connected later on.")
+    public void testEvents() {
+        List<FleetEvent> events = new CopyOnWriteArrayList<>();
+        List<Flow.Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        fleet.disconnect("member-2");
+        fleet.getEvents().subscribe(new Flow.Subscriber<FleetEvent>() {
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscriptions.add(subscription);
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(final FleetEvent item) {
+                events.add(item);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+
+        });
+
+        try {
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> !subscriptions.isEmpty());
+
+            fleet.connect("member-2", fakes.get(2).getAddress());
+
+            fakes.get(0).getUnit("m0-0.service").get().setState("deactivating", "stop");
+            fakes.get(1).getUnit("m1-0.service").get().setState("deactivating", "stop");
+            fakes.get(2).getUnit("m2-0.service").get().setState("deactivating", "stop");
+            fakes.get(2).addUnit("extra.service");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> events.size() >= 4);
+
+            Map<String, List<FleetEvent>> bySource = events.stream().collect(Collectors.groupingBy(FleetEvent::getSource));
+
+            Assert.assertEquals(bySource.keySet(), List.of("member-0", "member-1", "member-2").stream().collect(Collectors.toSet()));
+            Assert.assertEquals(bySource.get("member-0").get(0).getType(), FleetEvent.Type.STATE_CHANGED);
+            Assert.assertEquals(bySource.get("member-0").get(0).getUnitName(), "m0-0.service");
+            Assert.assertEquals(bySource.get("member-1").get(0).getChangedProperties().get("ActiveState").getValue(), "deactivating");
+            Assert.assertTrue(bySource.get("member-2").stream().anyMatch(e -> e.getType() == FleetEvent.Type.UNIT_NEW && "extra.service".equals(e.getUnitName())));
+
+            subscriptions.get(0).cancel();
+
+            Assert.assertEquals(fleet.getEvents().getSubscriberCount(), 0);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        finally {
+            fakes.get(0).getUnit("m0-0.service").get().setState("active", "running");
+            fakes.get(1).getUnit("m1-0.service").get().setState("active", "running");
+            fakes.get(2).getUnit("m2-0.service").get().setState("active", "running");
+            fakes.get(2).removeUnit("extra.service");
+        }
+    }
+
+    private static List<String> names(final List<UnitType> units) {
+        return units.stream().map(UnitType::getUnitName).sorted().collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class EventPublisherTest {
+
+    private static final class TestPublisher extends EventPublisher<Integer> {
+
+        private final AtomicInteger activations = new AtomicInteger();
+        private final AtomicInteger deactivations = new AtomicInteger();
+
+        TestPublisher(final int bufferCapacity, final OverflowStrategy overflowStrategy) {
+            super(Runnable::run, bufferCapacity, overflowStrategy);
+        }
+
+        TestPublisher() {
+            super();
+        }
+
+        @Override
+        protected void activate() {
+            activations.incrementAndGet();
+        }
+
+        @Override
+        protected void deactivate() {
+            deactivations.incrementAndGet();
+        }
+
+        void publishRange(final int from, final int to) {
+            for (int i = from; i <= to; i++) {
+                publish(i);
+            }
+        }
+
+    }
+
+    @Test(description="Tests that events are delivered according to the requested demand.")
+    public void testDemand() {
+        TestPublisher publisher = new TestPublisher(16, OverflowStrategy.ERROR);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<>(2L);
+
+        publisher.subscribe(subscriber);
+        publisher.publishRange(1, 5);
+
+        Assert.assertEquals(subscriber.events, List.of(1, 2));
+
+        subscriber.subscription.request(2L);
+
+        Assert.assertEquals(subscriber.events, List.of(1, 2, 3, 4));
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        publisher.publishRange(6, 7);
+
+        Assert.assertEquals(subscriber.events, List.of(1, 2, 3, 4, 5, 6, 7));
+        Assert.assertNull(subscriber.error);
+        Assert.assertEquals(publisher.getDroppedCount(), 0L);
+    }
+
+    @Test(description="Tests the overflow strategies of subscriptions without demand.")
+    public void testOverflowStrategies() {
+        TestPublisher dropOldest = new TestPublisher(3, OverflowStrategy.DROP_OLDEST);
+        TestSubscriber<Integer> oldestSubscriber = new TestSubscriber<>(0L);
+        dropOldest.subscribe(oldestSubscriber);
+        dropOldest.publishRange(1, 5);
+        oldestSubscriber.subscription.request(10L);
+
+        Assert.assertEquals(oldestSubscriber.events, List.of(3, 4, 5));
+        Assert.assertEquals(dropOldest.getDroppedCount(), 2L);
+
+        TestPublisher dropLatest = new TestPublisher(3, OverflowStrategy.DROP_LATEST);
+        TestSubscriber<Integer> latestSubscriber = new TestSubscriber<>(0L);
+        dropLatest.subscribe(latestSubscriber);
+        dropLatest.publishRange(1, 5);
+        latestSubscriber.subscription.request(10L);
+
+        Assert.assertEquals(latestSubscriber.events, List.of(1, 2, 3));
+        Assert.assertEquals(dropLatest.getDroppedCount(), 2L);
+
+        TestPublisher error = new TestPublisher(3, OverflowStrategy.ERROR);
+        TestSubscriber<Integer> errorSubscriber = new TestSubscriber<>(1L);
+        error.subscribe(errorSubscriber);
+        error.publishRange(1, 5);
+
+        Assert.assertEquals(errorSubscriber.events, List.of(1));
+        Assert.assertTrue(errorSubscriber.error instanceof MissingDemandException);
+        Assert.assertEquals(error.getSubscriberCount(), 0);
+        Assert.assertEquals(error.deactivations.get(), 1);
+    }
+
+    @Test(description="Tests activation of the event source and termination of subscriptions.")
+    public void testLifecycle() {
+        TestPublisher publisher = new TestPublisher(4, OverflowStrategy.DROP_OLDEST);
+        TestSubscriber<Integer> first = new TestSubscriber<>(Long.MAX_VALUE);
+        TestSubscriber<Integer> second = new TestSubscriber<>(Long.MAX_VALUE);
+
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        Assert.assertEquals(publisher.activations.get(), 1);
+        Assert.assertEquals(publisher.getSubscriberCount(), 2);
+
+        first.subscription.cancel();
+        publisher.publish(1);
+
+        Assert.assertTrue(first.events.isEmpty());
+        Assert.assertEquals(second.events, List.of(1));
+        Assert.assertEquals(publisher.deactivations.get(), 0);
+
+        TestSubscriber<Integer> invalid = new TestSubscriber<>(0L);
+        publisher.subscribe(invalid);
+        invalid.subscription.request(0L);
+
+        Assert.assertTrue(invalid.error instanceof IllegalArgumentException);
+
+        publisher.close();
+
+        Assert.assertEquals(second.completions.get(), 1);
+        Assert.assertEquals(publisher.getSubscriberCount(), 0);
+        Assert.assertEquals(publisher.deactivations.get(), 1);
+
+        TestSubscriber<Integer> late = new TestSubscriber<>(1L);
+        publisher.subscribe(late);
+
+        Assert.assertEquals(late.completions.get(), 1);
+        Assert.assertEquals(publisher.activations.get(), 1);
+    }
+
+    @Test(description="Tests serialized delivery to a slow subscriber with concurrent publishers.")
+    public void testConcurrentDelivery() {
+        TestPublisher publisher = new TestPublisher();
+        ExecutorService producers = Executors.newFixedThreadPool(2);
+
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>(1L) {
+
+            @Override
+            public void onNext(final Integer item) {
+                super.onNext(item);
+                subscription.request(1L);
+            }
+
+        };
+
+        try {
+            publisher.subscribe(subscriber);
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.subscription != null);
+
+            producers.execute(() -> publisher.publishRange(1, 100));
+            producers.execute(() -> publisher.publishRange(101, 200));
+            producers.shutdown();
+
+            Assert.assertTrue(producers.awaitTermination(5L, TimeUnit.SECONDS));
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.events.size() == 200);
+
+            Assert.assertFalse(subscriber.overlapped.get());
+            Assert.assertEquals(publisher.getBufferCapacity(), Flow.defaultBufferSize());
+            Assert.assertEquals(publisher.getOverflowStrategy(), EventPublisher.DEFAULT_OVERFLOW_STRATEGY);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
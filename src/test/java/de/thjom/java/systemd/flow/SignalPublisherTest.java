@@ -0,0 +1,108 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Signal;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.JobScript;
+
+public class SignalPublisherTest {
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.setJobScript(JobScript.standard(5L));
+            fake.addUnit("idle.service", "inactive", "dead");
+
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test(description="Tests publishing of job signals.")
+    public void testJobs() {
+        try (SignalPublisher<Signal> publisher = SignalPublisher.jobs(manager)) {
+            TestSubscriber<Signal> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.subscription != null);
+
+            manager.startUnit("idle.service", "replace");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.events.size() >= 2);
+
+            Assert.assertTrue(subscriber.events.get(0) instanceof JobNew);
+            Assert.assertTrue(subscriber.events.get(1) instanceof JobRemoved);
+            Assert.assertEquals(((JobRemoved) subscriber.events.get(1)).getUnit(), "idle.service");
+
+            subscriber.subscription.cancel();
+
+            Assert.assertEquals(publisher.getSubscriberCount(), 0);
+        }
+    }
+
+    @Test(description="Tests publishing of the unit lifecycle with bounded demand.")
+    public void testUnitLifecycle() {
+        try (SignalPublisher<Signal> publisher = SignalPublisher.unitLifecycle(manager)) {
+            TestSubscriber<Signal> subscriber = new TestSubscriber<>(1L);
+            publisher.subscribe(subscriber);
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.subscription != null);
+
+            fake.addUnit("extra.service");
+            fake.removeUnit("extra.service");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.events.size() == 1);
+
+            Assert.assertTrue(subscriber.events.get(0) instanceof UnitNew);
+
+            subscriber.subscription.request(1L);
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.events.size() == 2);
+
+            Assert.assertTrue(subscriber.events.get(1) instanceof UnitRemoved);
+
+            publisher.close();
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.completions.get() == 1);
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subscriber which records all signals and checks that they never overlap.
+ */
+class TestSubscriber<T> implements Flow.Subscriber<T> {
+
+    final List<T> events = new CopyOnWriteArrayList<>();
+    final AtomicInteger completions = new AtomicInteger();
+    final AtomicBoolean overlapped = new AtomicBoolean();
+
+    volatile Flow.Subscription subscription;
+    volatile Throwable error;
+
+    private final long initialRequest;
+    private final AtomicBoolean busy = new AtomicBoolean();
+
+    TestSubscriber(final long initialRequest) {
+        this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        enter();
+
+        this.subscription = subscription;
+
+        if (initialRequest > 0L) {
+            subscription.request(initialRequest);
+        }
+
+        leave();
+    }
+
+    @Override
+    public void onNext(final T item) {
+        enter();
+        events.add(item);
+        leave();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        enter();
+        error = throwable;
+        leave();
+    }
+
+    @Override
+    public void onComplete() {
+        enter();
+        completions.incrementAndGet();
+        leave();
+    }
+
+    boolean isTerminated() {
+        return error != null || completions.get() > 0;
+    }
+
+    private void enter() {
+        if (!busy.compareAndSet(false, true)) {
+            overlapped.set(true);
+        }
+    }
+
+    private void leave() {
+        busy.set(false);
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.flow;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.UnitNameMonitor;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.FakeUnit;
+
+public class UnitStatePublisherTest {
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.addUnits("unit-", ".service", 10);
+
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test(description="Tests publishing of state changes of monitored units.")
+    public void testUnitStates() {
+        try {
+            UnitNameMonitor monitor = new UnitNameMonitor(manager);
+            monitor.addUnits("unit-1.service", "unit-2.service");
+
+            try (UnitStatePublisher publisher = new UnitStatePublisher(monitor)) {
+                TestSubscriber<UnitStateEvent> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+                publisher.subscribe(subscriber);
+
+                Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.subscription != null);
+
+                FakeUnit unit = fake.getUnit("unit-2.service").orElseThrow();
+                unit.setState("failed", "failed");
+                fake.getUnit("unit-3.service").orElseThrow().setState("failed", "failed");
+
+                Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.events.size() == 1);
+
+                UnitStateEvent event = subscriber.events.get(0);
+
+                Assert.assertEquals(event.getUnit().getId(), "unit-2.service");
+                Assert.assertEquals(event.getChangedProperties().get(Unit.Property.ACTIVE_STATE).getValue(), "failed");
+
+                subscriber.subscription.cancel();
+                unit.setState("active", "running");
+
+                Assert.assertEquals(subscriber.events.size(), 1);
+            }
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests publishing of monitor refreshes.")
+    public void testMonitorRefreshes() {
+        try {
+            UnitNameMonitor monitor = new UnitNameMonitor(manager);
+            monitor.addUnits("unit-4.service");
+
+            try (MonitorRefreshPublisher publisher = new MonitorRefreshPublisher(monitor)) {
+                TestSubscriber<Collection<Unit>> subscriber = new TestSubscriber<>(Long.MAX_VALUE);
+                publisher.subscribe(subscriber);
+
+                Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.subscription != null);
+
+                monitor.addUnits("unit-5.service");
+                monitor.refresh();
+
+                Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> subscriber.events.size() == 1);
+
+                Assert.assertEquals(subscriber.events.get(0).size(), 2);
+                Assert.assertThrows(UnsupportedOperationException.class, () -> subscriber.events.get(0).clear());
+            }
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.history;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Unit.ActiveState;
+import de.thjom.java.systemd.Unit.SubState;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.FakeUnit;
+
+public class FlapDetectorTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test(description="Tests counting of cycles within the window and the hysteresis of the flag.")
+    public void testHysteresis() {
+        List<String> changes = new CopyOnWriteArrayList<>();
+
+        try (FlapDetector detector = new FlapDetector(manager, 3, 10_000L)) {
+            detector.setClearThreshold(1);
+            detector.addListener((unitName, flapping, cycles) -> changes.add(unitName + '=' + flapping));
+
+            long start = System.nanoTime();
+
+            // Terminations without preceding activation are no cycles
+            detector.transition("a.service", ActiveState.FAILED, SubState.FAILED, start);
+            Assert.assertEquals(detector.getUnitCount(), 0);
+
+            cycle(detector, "a.service", start);
+            cycle(detector, "a.service", start + SECOND);
+
+            // Activation via active state
+            detector.transition("a.service", ActiveState.ACTIVATING, SubState.START, start + 2 * SECOND);
+            detector.transition("a.service", ActiveState.ACTIVE, SubState.RUNNING, start + 2 * SECOND);
+            detector.transition("a.service", ActiveState.INACTIVE, SubState.DEAD, start + 2 * SECOND);
+            Assert.assertTrue(detector.isFlapping("a.service"));
+
+            // Repeated terminations count once
+            detector.transition("a.service", ActiveState.FAILED, SubState.FAILED, start + 3 * SECOND);
+            Assert.assertEquals(detector.getFlapCount(), 1L);
+
+            // One cycle expired, two remain
+            detector.evaluate("a.service", start + 10 * SECOND + SECOND / 2);
+            Assert.assertTrue(detector.isFlapping("a.service"));
+
+            // Two cycles expired, one remains
+            detector.evaluate("a.service", start + 11 * SECOND + SECOND / 2);
+            Assert.assertFalse(detector.isFlapping("a.service"));
+
+            // Re-flagged after new cycles only when reaching the threshold again
+            cycle(detector, "a.service", start + 12 * SECOND);
+            Assert.assertFalse(detector.isFlapping("a.service"));
+            cycle(detector, "a.service", start + 12 * SECOND);
+            Assert.assertTrue(detector.isFlapping("a.service"));
+
+            Assert.assertEquals(changes, List.of("a.service=true", "a.service=false", "a.service=true"));
+            Assert.assertEquals(detector.getFlappingUnits(), Set.of("a.service"));
+        }
+    }
+
+    @Test(description="Tests that the sub state auto-restart ends a cycle.")
+    public void testAutoRestart() {
+        try (FlapDetector detector = new FlapDetector(manager, 2, 10_000L)) {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < 2; i++) {
+                detector.transition("b.service", ActiveState.ACTIVATING, SubState.START, start + i);
+                detector.transition("b.service", ActiveState.ACTIVE, SubState.RUNNING, start + i);
+                detector.transition("b.service", ActiveState.ACTIVATING, SubState.AUTO_RESTART, start + i);
+            }
+
+            Assert.assertTrue(detector.isFlapping("b.service"));
+            Assert.assertEquals(detector.getCycleCount("b.service"), 2);
+        }
+    }
+
+    @Test(description="Tests a Restart=always loop whose activating/start states are merged away by systemd.")
+    public void testMergedRestartLoop() {
+        try (FlapDetector detector = new FlapDetector(manager, 3, 10_000L)) {
+            detector.open();
+
+            FakeUnit unit = fake.addUnit("merged.service", "active", "running");
+
+            for (int i = 0; i < 3; i++) {
+                unit.setState("active", "running");
+                unit.setState("activating", "auto-restart");
+            }
+
+            unit.setState("active", "running");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> detector.isFlapping("merged.service"));
+            Assert.assertEquals(detector.getCycleCount("merged.service"), 3);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests constant memory per unit with many crash-looping units.")
+    public void testManyUnits() {
+        try (FlapDetector detector = new FlapDetector(manager, 3, 10_000L)) {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < 20; i++) {
+                for (int u = 0; u < 10_000; u++) {
+                    cycle(detector, "many-" + u + ".service", start + i);
+                }
+            }
+
+            Assert.assertEquals(detector.getUnitCount(), 10_000);
+            Assert.assertEquals(detector.getFlappingUnits().size(), 10_000);
+            Assert.assertEquals(detector.getFlapCount(), 10_000L);
+            Assert.assertEquals(detector.getCycleCount("many-0.service"), 3);
+        }
+    }
+
+    @Test(description="Tests detection from signals and clearing by the timer.")
+    public void testSignals() {
+        List<Boolean> changes = new CopyOnWriteArrayList<>();
+
+        try (FlapDetector detector = new FlapDetector(manager, 3, 2000L)) {
+            detector.addListener((unitName, flapping, cycles) -> {
+                if ("loop.service".equals(unitName)) {
+                    changes.add(flapping);
+                }
+            });
+            detector.open();
+
+            FakeUnit unit = fake.addUnit("loop.service", "inactive", "dead");
+
+            for (int i = 0; i < 3; i++) {
+                unit.setState("activating", "start");
+                unit.setState("failed", "failed");
+            }
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> detector.isFlapping("loop.service"));
+
+            // Cleared once all cycles left the window
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> !detector.isFlapping("loop.service"));
+            Assert.assertEquals(changes, List.of(true, false));
+
+            unit.setState("activating", "start");
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> detector.getUnitCount() == 1);
+
+            fake.removeUnit("loop.service");
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> detector.getUnitCount() == 0);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private static void cycle(final FlapDetector detector, final String unitName, final long now) {
+        detector.transition(unitName, ActiveState.ACTIVATING, SubState.START, now);
+        detector.transition(unitName, ActiveState.FAILED, SubState.FAILED, now);
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.history;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Unit;
+
+public class StateHistoryStoreTest {
+
+    private static final Unit.StateTuple ACTIVE = new Unit.StateTuple("loaded", "active", "running");
+    private static final Unit.StateTuple FAILED = new Unit.StateTuple("loaded", "failed", "failed");
+
+    @Test(description="Tests appending and querying of state transitions.")
+    public void testQuery() {
+        try (StateHistoryStore store = new StateHistoryStore(Files.createTempDirectory("history"))) {
+            for (int i = 0; i < 1000; i++) {
+                store.append(1000L + i, i % 2 == 0 ? "a.service" : "b.service", i % 3 == 0 ? FAILED : ACTIVE);
+            }
+
+            // Non-monotonic timestamp is raised to the latest one
+            store.append(5L, "c.service", ACTIVE);
+
+            Assert.assertEquals(store.getEventCount(), 1001L);
+            Assert.assertEquals(store.query(0L, Long.MAX_VALUE).size(), 1001);
+
+            List<StateHistoryStore.Entry> range = store.query(1500L, 1509L);
+
+            Assert.assertEquals(range.size(), 10);
+            Assert.assertEquals(range.get(0).getTimestamp(), 1500L);
+            Assert.assertEquals(range.get(0).getUnitName(), "a.service");
+            Assert.assertEquals(range.get(0).getState().getSubState(), "running");
+            Assert.assertEquals(range.get(1).getState().getActiveState(), "failed");
+
+            Assert.assertEquals(store.query("b.service", 0L, Long.MAX_VALUE).size(), 500);
+            Assert.assertEquals(store.query("b.service", 1990L, 1999L).size(), 5);
+            Assert.assertTrue(store.query("unknown.service", 0L, Long.MAX_VALUE).isEmpty());
+            Assert.assertTrue(store.query("running", 0L, Long.MAX_VALUE).isEmpty());
+
+            List<StateHistoryStore.Entry> last = store.query("c.service", 0L, Long.MAX_VALUE);
+
+            Assert.assertEquals(last.size(), 1);
+            Assert.assertEquals(last.get(0).getTimestamp(), 1999L);
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests that appends are not blocked by a consumer of a running query.")
+    public void testAppendDuringQuery() {
+        try (StateHistoryStore store = new StateHistoryStore(Files.createTempDirectory("history"))) {
+            for (int i = 0; i < 10; i++) {
+                store.append(1000L + i, "a.service", ACTIVE);
+            }
+
+            AtomicInteger seen = new AtomicInteger();
+
+            store.forEach(null, 0L, Long.MAX_VALUE, entry -> {
+                if (seen.getAndIncrement() == 0) {
+                    Thread writer = new Thread(() -> {
+                        try {
+                            store.append(2000L, "b.service", FAILED);
+                        }
+                        catch (IOException e) {
+                            Assert.fail(e.getMessage(), e);
+                        }
+                    });
+
+                    writer.start();
+
+                    try {
+                        writer.join(5_000L);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+
+                    Assert.assertFalse(writer.isAlive(), "Append blocked by query");
+                }
+            });
+
+            // The query sees the transitions as of its start only
+            Assert.assertEquals(seen.get(), 10);
+            Assert.assertEquals(store.query("b.service", 0L, Long.MAX_VALUE).size(), 1);
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests segment rolling, retention and recovery after reopening.")
+    public void testRollingAndRecovery() {
+        try {
+            Path directory = Files.createTempDirectory("history");
+
+            try (StateHistoryStore store = new StateHistoryStore(directory, 4096, 3)) {
+                for (int i = 0; i < 2000; i++) {
+                    store.append(i, "unit-" + (i % 10) + ".service", ACTIVE);
+                }
+
+                Assert.assertEquals(store.getSegmentCount(), 3);
+                Assert.assertTrue(store.getEventCount() < 2000L);
+            }
+
+            try (StateHistoryStore store = new StateHistoryStore(directory, 4096, 3)) {
+                long count = store.getEventCount();
+                List<StateHistoryStore.Entry> entries = store.query(0L, Long.MAX_VALUE);
+
+                Assert.assertEquals(entries.size(), count);
+                Assert.assertEquals(entries.get(entries.size() - 1).getTimestamp(), 1999L);
+                Assert.assertEquals(entries.get(entries.size() - 1).getUnitName(), "unit-9.service");
+
+                store.append(10L, "unit-0.service", FAILED);
+
+                List<StateHistoryStore.Entry> latest = store.query("unit-0.service", 1999L, Long.MAX_VALUE);
+
+                Assert.assertEquals(latest.size(), 1);
+                Assert.assertEquals(latest.get(0).getState().getActiveState(), "failed");
+            }
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+}
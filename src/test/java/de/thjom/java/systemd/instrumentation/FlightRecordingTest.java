@@ -0,0 +1,143 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.AbstractTestCase;
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.UnitNameMonitor;
+import de.thjom.java.systemd.interfaces.ManagerInterface;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecordingTest extends AbstractTestCase {
+
+    @Override
+    @BeforeClass
+    public void setup() {
+        super.setup();
+
+        Mockito.when(miface.listUnits()).thenReturn(Collections.emptyList());
+        Mockito.when(miface.loadUnit("missing.service")).thenThrow(new DBusExecutionException("No such unit"));
+        Mockito.when(miface.getObjectPath()).thenReturn("/org/freedesktop/systemd1");
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        FlightRecording.setCallTracingEnabled(false);
+    }
+
+    private static List<RecordedEvent> record(final String eventName, final Runnable action) throws IOException {
+        Path file = Files.createTempFile("java-systemd", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(eventName).withThreshold(Duration.ZERO);
+            recording.start();
+
+            action.run();
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        try {
+            return RecordingFile.readAllEvents(file);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(description="Tests that call tracing is switched independently of statistics.")
+    public void testCallTracingSwitch() {
+        Assert.assertTrue(FlightRecording.isAvailable());
+        Assert.assertNull(FlightRecording.beginCall());
+        Assert.assertNull(FlightRecording.beginSignal());
+        Assert.assertNull(FlightRecording.beginRefresh());
+
+        FlightRecording.setCallTracingEnabled(true);
+
+        Instrumentation.instrument(miface).listUnits();
+
+        Assert.assertTrue(Instrumentation.getCallStatistics().isEmpty());
+    }
+
+    @Test(description="Tests emission of call events.")
+    public void testCallEvents() {
+        FlightRecording.setCallTracingEnabled(true);
+
+        ManagerInterface instrumented = Instrumentation.instrument(miface);
+
+        try {
+            List<RecordedEvent> events = record(FlightRecording.EVENT_PREFIX + "Call", () -> {
+                instrumented.listUnits();
+
+                try {
+                    instrumented.loadUnit("missing.service");
+                }
+                catch (DBusExecutionException e) {
+                    // Expected (test case)
+                }
+            });
+
+            Assert.assertEquals(events.size(), 2);
+            Assert.assertEquals(events.get(0).getString("interfaceName"), Manager.SERVICE_NAME);
+            Assert.assertEquals(events.get(0).getString("member"), "ListUnits");
+            Assert.assertEquals(events.get(0).getString("objectPath"), "/org/freedesktop/systemd1");
+            Assert.assertFalse(events.get(0).getBoolean("failed"));
+            Assert.assertEquals(events.get(1).getString("member"), "LoadUnit");
+            Assert.assertTrue(events.get(1).getBoolean("failed"));
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests emission of monitor refresh events.")
+    public void testRefreshEvents() {
+        try {
+            UnitNameMonitor monitor = new UnitNameMonitor(systemd.getManager());
+
+            List<RecordedEvent> events = record(FlightRecording.EVENT_PREFIX + "MonitorRefresh", () -> {
+                try {
+                    monitor.refresh();
+                }
+                catch (DBusException e) {
+                    Assert.fail(e.getMessage(), e);
+                }
+            });
+
+            Assert.assertEquals(events.size(), 1);
+            Assert.assertEquals(events.get(0).getString("monitor"), "UnitNameMonitor");
+            Assert.assertEquals(events.get(0).getInt("unitCount"), 0);
+        }
+        catch (DBusException | IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+}
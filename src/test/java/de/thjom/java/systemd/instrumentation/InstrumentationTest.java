@@ -0,0 +1,151 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.AbstractTestCase;
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.interfaces.ManagerInterface;
+
+public class InstrumentationTest extends AbstractTestCase {
+
+    @Override
+    @BeforeClass
+    public void setup() {
+        super.setup();
+
+        Mockito.when(miface.listUnits()).thenReturn(Collections.emptyList());
+        Mockito.when(miface.loadUnit("missing.service")).thenThrow(new DBusExecutionException("No such unit"));
+    }
+
+    @AfterMethod
+    public void cleanup() {
+        Instrumentation.setEnabled(false);
+        Instrumentation.reset();
+    }
+
+    private static CallStatistics find(final String memberName) {
+        return Instrumentation.getCallStatistics().stream().filter(s -> s.getMemberName().equals(memberName)).findFirst().orElse(null);
+    }
+
+    @Test(description="Tests that nothing is recorded while disabled and that enabling affects existing proxies.")
+    public void testDisabled() {
+        ManagerInterface instrumented = Instrumentation.instrument(miface);
+
+        instrumented.listUnits();
+        Instrumentation.recordSignal("PropertiesChanged", 1000L);
+
+        Assert.assertTrue(Instrumentation.getCallStatistics().isEmpty());
+        Assert.assertTrue(Instrumentation.getSignalStatistics().isEmpty());
+
+        // Enabled at runtime: proxy created before starts recording
+        Instrumentation.setEnabled(true);
+        instrumented.listUnits();
+
+        Assert.assertEquals(find("ListUnits").getCount(), 1L);
+    }
+
+    @Test(description="Tests recording of call latencies, errors and JMX registration.")
+    public void testCallRecording() {
+        Instrumentation.setEnabled(true);
+
+        ManagerInterface instrumented = Instrumentation.instrument(miface);
+
+        Assert.assertTrue(Proxy.isProxyClass(instrumented.getClass()));
+        Assert.assertSame(Instrumentation.instrument(instrumented), instrumented);
+
+        instrumented.listUnits();
+        instrumented.listUnits();
+
+        Assert.assertThrows(DBusExecutionException.class, () -> instrumented.loadUnit("missing.service"));
+
+        CallStatistics listUnits = find("ListUnits");
+
+        Assert.assertEquals(listUnits.getInterfaceName(), Manager.SERVICE_NAME);
+        Assert.assertEquals(listUnits.getCount(), 2L);
+        Assert.assertEquals(listUnits.getErrorCount(), 0L);
+        Assert.assertEquals(listUnits.getInFlight(), 0L);
+        Assert.assertEquals(find("LoadUnit").getErrorCount(), 1L);
+
+        try {
+            ObjectName name = new ObjectName(Instrumentation.JMX_DOMAIN + ":type=Call,interface=" + Manager.SERVICE_NAME + ",member=ListUnits");
+
+            Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+            Assert.assertEquals(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Count"), 2L);
+        }
+        catch (JMException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        // Switched off at runtime: proxy forwards without recording
+        Instrumentation.setEnabled(false);
+        instrumented.listUnits();
+
+        Assert.assertEquals(listUnits.getCount(), 2L);
+    }
+
+    @Test(description="Tests recording of signal dispatching.")
+    public void testSignalRecording() {
+        Instrumentation.setEnabled(true);
+
+        Instrumentation.recordSignal("PropertiesChanged", 2_000_000L);
+        Instrumentation.recordSignal("PropertiesChanged", 4_000_000L);
+
+        SignalStatistics statistics = Instrumentation.getSignalStatistics().iterator().next();
+
+        Assert.assertEquals(statistics.getSignalName(), "PropertiesChanged");
+        Assert.assertEquals(statistics.getCount(), 2L);
+        Assert.assertEquals(statistics.getMeanListenerMillis(), 3d, 0.001d);
+        Assert.assertEquals(statistics.getMaxListenerMillis(), 4d, 0.001d);
+        Assert.assertTrue(statistics.getRatePerSecond() > 0d);
+    }
+
+    @Test(description="Tests bucketing and percentile estimation of the histogram.")
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (long i = 1L; i <= 1000L; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        Assert.assertEquals(histogram.getCount(), 1000L);
+        Assert.assertEquals(histogram.getMax(), 1_000_000L);
+
+        long p50 = histogram.getPercentile(50d);
+        long p99 = histogram.getPercentile(99d);
+
+        Assert.assertTrue(p50 >= 500_000L && p50 <= 500_000L * 5 / 4, "p50=" + p50);
+        Assert.assertTrue(p99 >= 990_000L && p99 <= 1_000_000L, "p99=" + p99);
+
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            Assert.assertEquals(LatencyHistogram.indexOf(LatencyHistogram.lowerBound(i)), i);
+        }
+
+        histogram.reset();
+
+        Assert.assertEquals(histogram.getPercentile(99d), 0L);
+    }
+
+}
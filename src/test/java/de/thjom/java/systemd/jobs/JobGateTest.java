@@ -0,0 +1,216 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Unit.Mode;
+import de.thjom.java.systemd.jobs.JobGate.Operation;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.JobScript;
+
+public class JobGateTest {
+
+    private static final int UNITS = 20;
+
+    private FakeSystemd fake;
+    private Manager manager;
+    private JobGate gate;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.setJobScript(JobScript.standard(10L));
+            fake.addUnits("gate-", ".service", UNITS);
+
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @BeforeMethod
+    public void open() {
+        // Jobs of previous tests may still run in the simulation
+        Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> fake.getRunningJobCount() == 0);
+
+        gate = new JobGate(manager);
+        gate.setRateLimit(Double.POSITIVE_INFINITY, 1);
+
+        try {
+            gate.open();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterMethod(alwaysRun=true)
+    public void close() {
+        gate.close();
+    }
+
+    @Test(description="Tests that no more than the configured number of jobs are in flight.")
+    public void testMaxInFlight() {
+        gate.setMaxInFlight(3);
+
+        AtomicInteger peak = new AtomicInteger();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        for (int i = 0; i < UNITS; i++) {
+            futures.add(gate.restartUnit("gate-" + i + ".service", Mode.REPLACE));
+        }
+
+        Awaitility.await().atMost(Duration.ofSeconds(10L)).pollInterval(Duration.ofMillis(1L)).until(() -> {
+            peak.accumulateAndGet(fake.getRunningJobCount(), Math::max);
+
+            return futures.stream().allMatch(CompletableFuture::isDone);
+        });
+
+        Assert.assertTrue(peak.get() <= 3, "Peak of running jobs: " + peak.get());
+        Assert.assertTrue(futures.stream().allMatch(f -> "done".equals(f.join())));
+        Assert.assertEquals(gate.getSubmittedCount(), UNITS);
+        Assert.assertEquals(gate.getCompletedCount(), UNITS);
+        Assert.assertEquals(gate.getInFlightCount(), 0);
+        Assert.assertEquals(gate.getQueuedCount(), 0);
+    }
+
+    @Test(description="Tests that queued jobs are issued by priority.")
+    public void testPriority() {
+        gate.setMaxInFlight(1);
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        futures.add(gate.reloadUnit("gate-0.service", Mode.REPLACE));
+
+        for (int i = 1; i <= 3; i++) {
+            String name = "gate-" + i + ".service";
+
+            futures.add(gate.submit(Operation.RELOAD, name, Mode.REPLACE, i).thenApply(r -> {
+                order.add(name);
+
+                return r;
+            }));
+        }
+
+        try {
+            futures.add(gate.submit(Operation.RELOAD, manager.getUnit("gate-4.service"), Mode.REPLACE, 10).thenApply(r -> {
+                order.add("gate-4.service");
+
+                return r;
+            }));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        Assert.assertEquals(order, List.of("gate-4.service", "gate-3.service", "gate-2.service", "gate-1.service"));
+    }
+
+    @Test(description="Tests the rate limit of job calls.")
+    public void testRateLimit() {
+        gate.setRateLimit(20d, 1);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            futures.add(gate.reloadUnit("gate-" + i + ".service", Mode.REPLACE));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        // Four intervals of 50 ms after the first call
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(190L));
+    }
+
+    @Test(description="Tests failing calls, job timeouts and closing.")
+    public void testFailures() {
+        try {
+            CompletableFuture<String> missing = gate.startUnit("missing.service", Mode.REPLACE);
+
+            ExecutionException e = Assert.expectThrows(ExecutionException.class, () -> missing.get(5L, TimeUnit.SECONDS));
+
+            Assert.assertTrue(e.getCause() instanceof DBusExecutionException);
+            Assert.assertEquals(gate.getFailedCount(), 1L);
+            Assert.assertEquals(gate.getInFlightCount(), 0);
+
+            gate.setMaxInFlight(1);
+            gate.setJobTimeout(50L);
+
+            fake.getUnit("gate-5.service").get().setJobScript(JobScript.standard(500L));
+
+            CompletableFuture<String> slow = gate.restartUnit("gate-5.service", Mode.REPLACE);
+            CompletableFuture<String> next = gate.reloadUnit("gate-6.service", Mode.REPLACE);
+
+            e = Assert.expectThrows(ExecutionException.class, () -> slow.get(5L, TimeUnit.SECONDS));
+
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            Assert.assertEquals(next.get(5L, TimeUnit.SECONDS), "done");
+
+            gate.setJobTimeout(JobGate.DEFAULT_JOB_TIMEOUT);
+
+            CompletableFuture<String> inFlight = gate.restartUnit("gate-5.service", Mode.REPLACE);
+            CompletableFuture<String> queued = gate.reloadUnit("gate-6.service", Mode.REPLACE);
+
+            gate.close();
+
+            Assert.assertThrows(CancellationException.class, inFlight::join);
+            Assert.assertThrows(CancellationException.class, queued::join);
+            Assert.assertThrows(IllegalStateException.class, () -> gate.startUnit("gate-7.service", Mode.REPLACE));
+
+            try (JobGate unopened = new JobGate(manager)) {
+                Assert.assertThrows(IllegalStateException.class, () -> unopened.startUnit("gate-7.service", Mode.REPLACE));
+            }
+        }
+        catch (ExecutionException | InterruptedException | TimeoutException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        finally {
+            fake.getUnit("gate-5.service").get().setJobScript(null);
+        }
+    }
+
+}
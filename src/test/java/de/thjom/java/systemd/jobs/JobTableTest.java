@@ -0,0 +1,219 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.JobScript;
+import de.thjom.java.systemd.types.JobType;
+
+public class JobTableTest {
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            // Jobs need to live long enough for their type to be listed
+            fake.setJobScript(JobScript.standard(100L));
+            fake.addUnits("table-", ".service", 5);
+            fake.addUnit("fail.service", "inactive", "dead").setJobScript(JobScript.failing(300L));
+
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @BeforeMethod
+    public void awaitIdle() {
+        Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> fake.getRunningJobCount() == 0);
+    }
+
+    @Test(description="Tests listing and lookup of pending jobs.")
+    public void testListJobs() {
+        fake.getUnit("table-0.service").get().setJobScript(JobScript.standard(300L));
+
+        try {
+            DBusPath path = manager.restartUnit("table-0.service", "replace");
+            List<JobType> jobs = manager.listJobs();
+
+            Assert.assertEquals(jobs.size(), 1);
+            Assert.assertEquals(jobs.get(0).getUnitName(), "table-0.service");
+            Assert.assertEquals(jobs.get(0).getJobType(), "restart");
+            Assert.assertEquals(jobs.get(0).getJobObjectPath().getPath(), path.getPath());
+            Assert.assertTrue(jobs.get(0).isService());
+            Assert.assertEquals(manager.getJob(jobs.get(0).getId()).getPath(), path.getPath());
+
+            Assert.assertThrows(DBusExecutionException.class, () -> manager.getJob(Integer.MAX_VALUE));
+        }
+        finally {
+            fake.getUnit("table-0.service").get().setJobScript(null);
+        }
+    }
+
+    @Test(description="Tests seeding of the table with jobs pending before opening.")
+    public void testSeed() {
+        fake.getUnit("table-1.service").get().setJobScript(JobScript.standard(300L));
+
+        try (JobTable table = new JobTable(manager)) {
+            manager.restartUnit("table-1.service", "replace");
+
+            table.open();
+
+            Assert.assertEquals(table.size(), 1);
+
+            JobTable.Entry entry = table.getJobs("table-1.service").get(0);
+
+            Assert.assertEquals(entry.getJobType(), "restart");
+            Assert.assertFalse(entry.isTracked());
+            Assert.assertEquals(table.getJob(entry.getId()).get(), entry);
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> table.size() == 0);
+
+            JobStatistics statistics = table.getStatistics("table-1.service", "restart").get();
+
+            Assert.assertEquals(statistics.getResultCount("done"), 1L);
+            Assert.assertEquals(statistics.getTotalLatency().getCount(), 0L);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        finally {
+            fake.getUnit("table-1.service").get().setJobScript(null);
+        }
+    }
+
+    @Test(description="Tests that jobs removed while seeding do not remain in the table.")
+    public void testSeedRace() {
+        fake.getUnit("table-2.service").get().setJobScript(JobScript.standard(300L));
+
+        Manager spy = Mockito.spy(manager);
+
+        try (JobTable table = new JobTable(spy)) {
+            DBusPath path = manager.restartUnit("table-2.service", "replace");
+
+            Mockito.doAnswer(invocation -> {
+                List<JobType> jobs = manager.listJobs();
+
+                // Job completes while the listing is on its way
+                table.jobRemoved(new JobRemoved(Systemd.OBJECT_PATH, jobs.get(0).getId(), path, "table-2.service", "done"));
+
+                return jobs;
+            }).when(spy).listJobs();
+
+            table.open();
+
+            Assert.assertEquals(table.size(), 0);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        finally {
+            fake.getUnit("table-2.service").get().setJobScript(null);
+        }
+    }
+
+    @Test(description="Tests latencies and result counts of jobs created after opening.")
+    public void testStatistics() {
+        try (JobTable table = new JobTable(manager)) {
+            table.open();
+
+            for (int i = 2; i < 5; i++) {
+                manager.restartUnit("table-" + i + ".service", "replace");
+            }
+
+            manager.startUnit("fail.service", "replace");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> table.getStatistics("restart").map(JobStatistics::getCount).orElse(0L) == 3L
+                    && table.getStatistics("start").isPresent());
+
+            JobStatistics restarts = table.getStatistics("restart").get();
+
+            Assert.assertEquals(restarts.getResultCounts(), Map.of("done", 3L));
+            Assert.assertEquals(restarts.getQueueLatency().getCount(), 3L);
+            Assert.assertEquals(restarts.getExecutionLatency().getCount(), 3L);
+            Assert.assertEquals(restarts.getTotalLatency().getCount(), 3L);
+            Assert.assertTrue(restarts.getTotalLatency().getMax() >= restarts.getExecutionLatency().getMax());
+
+            // Stop and start, each pausing for 100 ms
+            Assert.assertTrue(table.getStatistics("table-2.service", "restart").get().getExecutionLatency().getMax() >= 150_000_000L);
+            Assert.assertEquals(table.getStatistics("fail.service", "start").get().getResultCount("failed"), 1L);
+            Assert.assertEquals(table.getJobTypes(), Set.of("restart", "start"));
+            Assert.assertTrue(table.getUnitNames().contains("table-4.service"));
+            Assert.assertFalse(table.getStatistics("table-4.service", "stop").isPresent());
+            Assert.assertEquals(table.size(), 0);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests that the statistics of removed units are discarded.")
+    public void testUnitRemoved() {
+        try (JobTable table = new JobTable(manager)) {
+            table.open();
+
+            fake.addUnit("transient-1.service", "inactive", "dead");
+            manager.startUnit("transient-1.service", "replace");
+            manager.restartUnit("table-1.service", "replace");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> table.getUnitNames().containsAll(Set.of("transient-1.service", "table-1.service")));
+
+            fake.removeUnit("transient-1.service");
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> !table.getUnitNames().contains("transient-1.service"));
+
+            Assert.assertFalse(table.getStatistics("transient-1.service", "start").isPresent());
+            Assert.assertEquals(table.getUnitNames(), Set.of("table-1.service"));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests parsing of job identifiers from object paths.")
+    public void testParseId() {
+        Assert.assertEquals(JobTable.parseId(FakeSystemd.JOB_PATH + "42"), 42L);
+        Assert.assertEquals(JobTable.parseId("/org/freedesktop/systemd1/unit/foo"), -1L);
+    }
+
+}
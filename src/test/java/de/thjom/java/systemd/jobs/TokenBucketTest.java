@@ -0,0 +1,57 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.jobs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    @Test(description="Tests bursts and refilling at the configured rate.")
+    public void testAcquire() {
+        TokenBucket bucket = new TokenBucket(10d, 3, 0L);
+
+        Assert.assertEquals(bucket.tryAcquire(0L), 0L);
+        Assert.assertEquals(bucket.tryAcquire(0L), 0L);
+        Assert.assertEquals(bucket.tryAcquire(0L), 0L);
+        Assert.assertEquals(bucket.tryAcquire(0L), SECOND / 10L);
+        Assert.assertEquals(bucket.tryAcquire(SECOND / 20L), SECOND / 20L);
+        Assert.assertEquals(bucket.tryAcquire(SECOND / 10L), 0L);
+
+        // Refilling is capped by the burst
+        long later = 10L * SECOND;
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(bucket.tryAcquire(later), 0L);
+        }
+
+        Assert.assertTrue(bucket.tryAcquire(later) > 0L);
+    }
+
+    @Test(description="Tests an unlimited rate and invalid parameters.")
+    public void testLimits() {
+        TokenBucket bucket = new TokenBucket(Double.POSITIVE_INFINITY, 1, 0L);
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(bucket.tryAcquire(0L), 0L);
+        }
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0d, 1, 0L));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TokenBucket(Double.NaN, 1, 0L));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1d, 0, 0L));
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.launch;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Scope;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.features.CpuAccounting;
+import de.thjom.java.systemd.features.MemoryAccounting;
+import de.thjom.java.systemd.features.TasksAccounting;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.FakeUnit;
+
+public class ScopedProcessLauncherTest {
+
+    private static final int WORKERS = 100;
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    private static ProcessBuilder sleep() {
+        return new ProcessBuilder("sleep", "30");
+    }
+
+    @Test(description="Tests placing a process into a transient scope with limits.")
+    public void testLaunch() {
+        ScopedProcessLauncher launcher = new ScopedProcessLauncher(manager);
+        launcher.setPrefix("limited");
+        launcher.setSlice("workers.slice");
+
+        ScopeLimits limits = new ScopeLimits();
+        limits.setMemoryMax(64L * 1024 * 1024);
+        limits.setCpuQuota(50L);
+        limits.setTasksMax(16L);
+
+        Process process = null;
+
+        try {
+            ScopedProcess scoped = launcher.launch(sleep(), limits).get(10L, TimeUnit.SECONDS);
+            process = scoped.getProcess();
+
+            Assert.assertEquals(scoped.getScopeName(), "limited-" + process.pid() + ".scope");
+            Assert.assertNotNull(scoped.getJob());
+
+            FakeUnit unit = fake.getUnit(scoped.getScopeName()).get();
+
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, "PIDs").getValue(), List.of(new UInt32(process.pid())));
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, Scope.Property.SLICE).getValue(), "workers.slice");
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, Unit.Property.COLLECT_MODE).getValue(), "inactive-or-failed");
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, Unit.Property.DESCRIPTION).getValue(), "sleep 30");
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, MemoryAccounting.Property.MEMORY_MAX).getValue(), new UInt64(64L * 1024 * 1024));
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, CpuAccounting.Property.CPU_QUOTA_PER_SEC_USEC).getValue(), new UInt64(500_000L));
+            Assert.assertEquals(unit.getProperty(Scope.SERVICE_NAME, TasksAccounting.Property.TASKS_MAX).getValue(), new UInt64(16L));
+
+            // Started by the job
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> "active".equals(unit.getActiveState()));
+
+            Assert.assertEquals(launcher.getLaunchCount(), 1L);
+            Assert.assertEquals(launcher.getFailureCount(), 0L);
+        }
+        catch (IOException | ExecutionException | TimeoutException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    @Test(description="Tests that the process is destroyed if its scope cannot be created.")
+    public void testFailure() {
+        ScopedProcessLauncher launcher = new ScopedProcessLauncher(manager);
+        launcher.setPrefix("invalid/name");
+
+        try {
+            CompletableFuture<ScopedProcess> future = launcher.launch(new ProcessBuilder("sleep", "31"));
+
+            try {
+                future.get(10L, TimeUnit.SECONDS);
+                Assert.fail("Launch must fail");
+            }
+            catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof DBusExecutionException, String.valueOf(e.getCause()));
+            }
+
+            Assert.assertEquals(launcher.getFailureCount(), 1L);
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> ProcessHandle.current().children()
+                    .noneMatch(h -> h.info().arguments().map(a -> List.of(a).contains("31")).orElse(false)));
+        }
+        catch (IOException | TimeoutException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test(description="Tests that launches are pipelined instead of waiting for each scope.")
+    public void testPipelining() {
+        ScopedProcessLauncher launcher = new ScopedProcessLauncher(manager);
+        launcher.setPrefix("pipelined");
+
+        List<CompletableFuture<ScopedProcess>> futures = new ArrayList<>(WORKERS);
+
+        try {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < WORKERS; i++) {
+                futures.add(launcher.launch(sleep()));
+            }
+
+            long launched = System.nanoTime() - start;
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(30L, TimeUnit.SECONDS);
+
+            long completed = System.nanoTime() - start;
+
+            // Launching does not wait for the replies
+            Assert.assertTrue(launched < completed);
+            Assert.assertEquals(launcher.getLaunchCount(), WORKERS);
+            Assert.assertEquals(fake.getUnits().stream().filter(u -> u.getName().startsWith("pipelined-")).count(), WORKERS);
+
+        }
+        catch (IOException | ExecutionException | TimeoutException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            futures.forEach(f -> f.thenAccept(p -> p.getProcess().destroyForcibly()));
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.AbstractTestCase;
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.features.CpuAccounting;
+import de.thjom.java.systemd.features.MemoryAccounting;
+import de.thjom.java.systemd.interfaces.PropertyInterface;
+import de.thjom.java.systemd.types.UnitType;
+
+public class MetricsCollectorTest extends AbstractTestCase {
+
+    static final String NOT_SET = "18446744073709551615";
+
+    private final List<UnitType> units = new ArrayList<>();
+
+    @Override
+    @BeforeClass
+    public void setup() {
+        super.setup();
+
+        Map<String, Variant<?>> managerProperties = new HashMap<>();
+        managerProperties.put(Manager.Property.NFAILED_UNITS, new Variant<>(new UInt32(1L)));
+        managerProperties.put(Manager.Property.NJOBS, new Variant<>(new UInt32(2L)));
+
+        Mockito.when(piface.getAllProperties(Manager.SERVICE_NAME)).thenReturn(managerProperties);
+
+        mockUnit("web.service", "active", "running", 2_500_000_000L, 1048576L);
+        mockUnit("db.service", "failed", "failed", 0L, -1L);
+        mockUnit("multi-user.target", "active", "active", 0L, 0L);
+
+        Mockito.when(miface.listUnits()).thenReturn(units);
+    }
+
+    private void mockUnit(final String name, final String activeState, final String subState, final long cpu, final long memory) {
+        String objectPath = Unit.OBJECT_PATH + Systemd.escapePath(name);
+
+        Map<String, Variant<?>> properties = new HashMap<>();
+        properties.put(CpuAccounting.Property.CPU_USAGE_NSEC, new Variant<>(new UInt64(cpu)));
+        properties.put(MemoryAccounting.Property.MEMORY_CURRENT, new Variant<>(memory < 0 ? new UInt64(NOT_SET) : new UInt64(memory)));
+
+        PropertyInterface unitProperties = Mockito.mock(PropertyInterface.class);
+        Mockito.when(unitProperties.getAllProperties(Service.SERVICE_NAME)).thenReturn(properties);
+
+        try {
+            Mockito.when(dbus.getRemoteObject(Systemd.SERVICE_NAME, objectPath, PropertyInterface.class)).thenReturn(unitProperties);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        units.add(new UnitType(name, name, "loaded", activeState, subState, "", new DBusPath(objectPath), new UInt32(0L), "", new DBusPath("/")));
+    }
+
+    static MetricsCollector.UnitMetrics find(final MetricsCollector collector, final String unitName) {
+        return collector.getUnits().stream().filter(u -> u.getUnitName().equals(unitName)).findFirst().orElse(null);
+    }
+
+    @Test(description="Tests refresh of states and counters.")
+    public void testRefresh() {
+        MetricsCollector collector = null;
+
+        try {
+            collector = new MetricsCollector(systemd.getManager());
+            collector.refresh();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertEquals(collector.getFailedUnits(), 1L);
+        Assert.assertEquals(collector.getJobs(), 2L);
+        Assert.assertEquals(collector.getUnits().size(), 3);
+
+        MetricsCollector.UnitMetrics web = find(collector, "web.service");
+
+        Assert.assertEquals(web.getState().getActive(), Unit.ActiveState.ACTIVE);
+        Assert.assertEquals(web.getCPUUsageNSec(), 2_500_000_000L);
+        Assert.assertEquals(web.getMemoryCurrent(), 1048576L);
+        Assert.assertEquals(web.getIOReadBytes(), -1L);
+
+        MetricsCollector.UnitMetrics db = find(collector, "db.service");
+
+        Assert.assertEquals(db.getMemoryCurrent(), -1L);
+
+        // Targets have no accounting interface
+        Assert.assertEquals(find(collector, "multi-user.target").getCPUUsageNSec(), -1L);
+    }
+
+    @Test(description="Tests state updates from signals.")
+    public void testSignalUpdate() {
+        MetricsCollector collector = null;
+
+        try {
+            collector = new MetricsCollector(systemd.getManager());
+            collector.refresh();
+
+            Map<String, Variant<?>> changed = Collections.singletonMap(Unit.Property.ACTIVE_STATE, new Variant<>("deactivating"));
+
+            collector.handleSignal(new PropertiesChanged(Unit.OBJECT_PATH + Systemd.escapePath("web.service"), Unit.SERVICE_NAME, changed, Collections.emptyList()));
+            collector.handleSignal(new PropertiesChanged(Unit.OBJECT_PATH + Systemd.escapePath("db.service"), Service.SERVICE_NAME, changed, Collections.emptyList()));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Unit.StateTuple web = find(collector, "web.service").getState();
+
+        Assert.assertEquals(web.getActive(), Unit.ActiveState.DEACTIVATING);
+        Assert.assertEquals(web.getSubState(), "running");
+        Assert.assertEquals(find(collector, "db.service").getState().getActive(), Unit.ActiveState.FAILED);
+    }
+
+    @Test(description="Tests label cardinality limit and unit filter.")
+    public void testLimits() {
+        Manager manager = null;
+        MetricsCollector limited = null;
+
+        try {
+            manager = systemd.getManager();
+            limited = new MetricsCollector(manager, 1, name -> name.endsWith(".service"));
+            limited.refresh();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertEquals(limited.getUnits().size(), 1);
+        Assert.assertEquals(limited.getDroppedUnits(), 1L);
+
+        Manager effectiveManager = manager;
+        Assert.assertThrows(IllegalArgumentException.class, () -> new MetricsCollector(effectiveManager, 0, name -> true));
+    }
+
+}
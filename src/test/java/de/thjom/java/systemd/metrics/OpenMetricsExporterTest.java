@@ -0,0 +1,102 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.metrics;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OpenMetricsExporterTest extends MetricsCollectorTest {
+
+    private MetricsCollector createCollector() {
+        MetricsCollector collector = null;
+
+        try {
+            collector = new MetricsCollector(systemd.getManager());
+            collector.refresh();
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        return collector;
+    }
+
+    @Test(description="Tests rendering of the OpenMetrics text format.")
+    public void testRender() {
+        OpenMetricsExporter exporter = new OpenMetricsExporter(createCollector());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            exporter.writeTo(out);
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        String text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+        Assert.assertTrue(text.contains("systemd_failed_units 1\n"));
+        Assert.assertTrue(text.contains("systemd_jobs 2\n"));
+        Assert.assertTrue(text.contains("systemd_unit_state{unit=\"web.service\",systemd_unit_state=\"active\"} 1\n"));
+        Assert.assertTrue(text.contains("systemd_unit_state{unit=\"web.service\",systemd_unit_state=\"failed\"} 0\n"));
+        Assert.assertTrue(text.contains("# TYPE systemd_unit_cpu_seconds counter\n"));
+        Assert.assertTrue(text.contains("systemd_unit_cpu_seconds_total{unit=\"web.service\"} 2.5\n"));
+        Assert.assertTrue(text.contains("systemd_unit_memory_bytes{unit=\"web.service\"} 1048576\n"));
+        Assert.assertFalse(text.contains("systemd_unit_memory_bytes{unit=\"db.service\"}"));
+        Assert.assertTrue(text.endsWith("# EOF\n"));
+
+        // Second rendering reuses the buffers and yields identical output
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+
+        try {
+            exporter.writeTo(again);
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        Assert.assertEquals(new String(again.toByteArray(), StandardCharsets.UTF_8), text);
+    }
+
+    @Test(description="Tests scraping via HTTP.")
+    public void testHttpEndpoint() {
+        try (OpenMetricsExporter exporter = new OpenMetricsExporter(createCollector())) {
+            exporter.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+
+            URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), exporter.getAddress().getPort(), OpenMetricsExporter.DEFAULT_PATH);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+            Assert.assertEquals(connection.getResponseCode(), 200);
+            Assert.assertEquals(connection.getContentType(), OpenMetricsExporter.CONTENT_TYPE);
+
+            try (InputStream in = connection.getInputStream()) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+
+                Assert.assertTrue(text.contains("systemd_units 3\n"));
+            }
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,421 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.scale;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.awaitility.Awaitility;
+import org.awaitility.core.ConditionTimeoutException;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.types.Variant;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.UnitNameMonitor;
+import de.thjom.java.systemd.UnitStateListener;
+import de.thjom.java.systemd.UnitTypeMonitor;
+import de.thjom.java.systemd.UnitTypeMonitor.MonitoredType;
+import de.thjom.java.systemd.instrumentation.LatencyHistogram;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.FakeUnit;
+import de.thjom.java.systemd.testkit.SignalStorm;
+
+/**
+ * Scale and soak tests of unit monitors against the simulated "systemd" of the
+ * testkit. All dimensions and limits are read from system properties prefixed
+ * with <code>scale.</code> (see the <code>scale</code> profile of the POM), the
+ * results are added to the {@link ScaleReport}.
+ */
+public class MonitorScaleTest {
+
+    private static final int UNITS = Integer.getInteger("scale.units", 10_000);
+    private static final double RATE = Double.parseDouble(System.getProperty("scale.rate", "2000"));
+    private static final int LISTENERS = Integer.getInteger("scale.listeners", 4);
+    private static final long STORM_SECONDS = Long.getLong("scale.stormSeconds", 10L);
+    private static final long SOAK_SECONDS = Long.getLong("scale.soakSeconds", 60L);
+    private static final long POLL_MILLIS = Long.getLong("scale.pollMillis", 5000L);
+    private static final double MAX_LOSS = Double.parseDouble(System.getProperty("scale.maxLoss", "0"));
+    private static final double MAX_P99_MILLIS = Double.parseDouble(System.getProperty("scale.maxP99Millis", "1000"));
+    private static final double MAX_HEAP_GROWTH_MB = Double.parseDouble(System.getProperty("scale.maxHeapGrowthMb", "64"));
+
+    private static final int[] REFRESH_COUNTS = { 1000, 2500, 5000, 10_000, 25_000, 50_000 };
+    private static final int REFRESH_RUNS = 3;
+    private static final double BYTES_PER_MB = 1024d * 1024d;
+
+    private final ScaleReport report = ScaleReport.shared();
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.addUnits("scale-", ".service", UNITS);
+
+            manager = fake.connectManager();
+
+            Map<String, Object> settings = report.section("settings");
+            settings.put("units", UNITS);
+            settings.put("rate", RATE);
+            settings.put("listeners", LISTENERS);
+            settings.put("stormSeconds", STORM_SECONDS);
+            settings.put("soakSeconds", SOAK_SECONDS);
+            settings.put("pollMillis", POLL_MILLIS);
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            report.section("bus").put("emitErrors", fake.getEmitErrorCount());
+            fake.close();
+        }
+
+        try {
+            report.write();
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Measures refresh durations of monitors against the number of units.", priority=1)
+    public void testRefreshDuration() {
+        Map<String, Object> section = report.section("refresh");
+        List<Object> byName = new ArrayList<>();
+
+        try {
+            for (int count : REFRESH_COUNTS) {
+                if (count > UNITS) {
+                    break;
+                }
+
+                UnitNameMonitor monitor = new UnitNameMonitor(manager);
+                String[] names = new String[count];
+
+                for (int i = 0; i < count; i++) {
+                    names[i] = "scale-" + i + ".service";
+                }
+
+                monitor.addUnits(names);
+
+                byName.add(measureRefresh(monitor, count));
+            }
+
+            UnitTypeMonitor monitor = new UnitTypeMonitor(manager);
+            monitor.addMonitoredTypes(MonitoredType.SERVICE);
+
+            Assert.assertEquals(monitor.getMonitoredUnits().size(), UNITS);
+
+            section.put("unitNameMonitor", byName);
+            section.put("unitTypeMonitor", measureRefresh(monitor, UNITS));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Object> measureRefresh(final UnitNameMonitor monitor, final int count) throws DBusException {
+        long[] durations = new long[REFRESH_RUNS];
+
+        for (int i = 0; i < REFRESH_RUNS; i++) {
+            long start = System.nanoTime();
+            monitor.refresh();
+            durations[i] = System.nanoTime() - start;
+        }
+
+        Assert.assertEquals(monitor.getMonitoredUnits().size(), count);
+
+        return refreshResult(durations, count);
+    }
+
+    private static Map<String, Object> measureRefresh(final UnitTypeMonitor monitor, final int count) throws DBusException {
+        long[] durations = new long[REFRESH_RUNS];
+
+        for (int i = 0; i < REFRESH_RUNS; i++) {
+            long start = System.nanoTime();
+            monitor.refresh();
+            durations[i] = System.nanoTime() - start;
+        }
+
+        Assert.assertEquals(monitor.getMonitoredUnits().size(), count);
+
+        return refreshResult(durations, count);
+    }
+
+    private static Map<String, Object> refreshResult(final long[] durations, final int count) {
+        Arrays.sort(durations);
+
+        double median = durations[durations.length / 2] / 1_000_000d;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("units", count);
+        result.put("minMillis", durations[0] / 1_000_000d);
+        result.put("medianMillis", median);
+        result.put("maxMillis", durations[durations.length - 1] / 1_000_000d);
+        result.put("microsPerUnit", median * 1000d / count);
+
+        return result;
+    }
+
+    @Test(description="Measures latency, loss and fairness of state listeners during a signal storm.", priority=2)
+    public void testSignalStorm() {
+        Map<String, Object> section = report.section("storm");
+        LatencyHistogram total = new LatencyHistogram();
+        List<ProbeListener> probes = new ArrayList<>(LISTENERS);
+
+        for (int i = 0; i < LISTENERS; i++) {
+            probes.add(new ProbeListener(total));
+        }
+
+        try {
+            UnitTypeMonitor monitor = new UnitTypeMonitor(manager);
+            monitor.addMonitoredTypes(MonitoredType.SERVICE);
+
+            attach(monitor, probes);
+
+            long emitted;
+
+            try (SignalStorm storm = fake.startStorm(SignalStorm.Type.PROPERTIES_CHANGED, RATE)) {
+                Thread.sleep(STORM_SECONDS * 1000L);
+                storm.close();
+
+                emitted = storm.getEmitted();
+            }
+
+            awaitDelivery(probes, emitted);
+            detach(monitor, probes);
+
+            long[] received = new long[LISTENERS];
+            List<Object> perListener = new ArrayList<>(LISTENERS);
+            double minMean = Double.MAX_VALUE;
+            double maxMean = 0d;
+
+            for (int i = 0; i < LISTENERS; i++) {
+                ProbeListener probe = probes.get(i);
+                received[i] = probe.received.get();
+
+                Map<String, Object> latencies = ScaleReport.latencies(probe.latencies);
+                latencies.put("received", received[i]);
+                perListener.add(latencies);
+
+                minMean = Math.min(minMean, probe.latencies.getMean());
+                maxMean = Math.max(maxMean, probe.latencies.getMean());
+            }
+
+            long minReceived = Arrays.stream(received).min().orElse(0L);
+            double loss = emitted > 0L ? 1d - (double) minReceived / emitted : 0d;
+            Map<String, Object> latencies = ScaleReport.latencies(total);
+
+            section.put("emitted", emitted);
+            section.put("emittedPerSecond", (double) emitted / STORM_SECONDS);
+            section.put("loss", Math.max(0d, loss));
+            section.put("latency", latencies);
+            section.put("fairnessIndex", jainIndex(received));
+            section.put("meanLatencySpread", minMean > 0d ? maxMean / minMean : 1d);
+            section.put("listeners", perListener);
+
+            Assert.assertTrue(emitted > 0L, "No signals emitted");
+            Assert.assertTrue(loss <= MAX_LOSS, String.format("Loss of %.4f exceeds %.4f", loss, MAX_LOSS));
+            Assert.assertTrue((Double) latencies.get("p99Millis") <= MAX_P99_MILLIS, String.format("p99 latency of %s ms exceeds %s ms", latencies.get("p99Millis"), MAX_P99_MILLIS));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test(description="Samples heap usage while polling monitors under a long-running signal storm.", priority=3)
+    public void testSoak() {
+        Map<String, Object> section = report.section("soak");
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ProbeListener probe = new ProbeListener(new LatencyHistogram());
+        long interval = Math.max(1000L, SOAK_SECONDS * 100L);
+        List<Object> samples = new ArrayList<>();
+
+        try {
+            UnitTypeMonitor monitor = new UnitTypeMonitor(manager);
+            monitor.addMonitoredTypes(MonitoredType.SERVICE);
+            attach(monitor, Arrays.asList(probe));
+
+            monitor.startPolling(POLL_MILLIS, POLL_MILLIS);
+
+            long start = System.nanoTime();
+            long end = start + SOAK_SECONDS * 1_000_000_000L;
+            long emitted;
+
+            try (SignalStorm storm = fake.startStorm(SignalStorm.Type.PROPERTIES_CHANGED, RATE)) {
+                while (System.nanoTime() < end) {
+                    Thread.sleep(interval);
+
+                    System.gc();
+
+                    Map<String, Object> sample = new LinkedHashMap<>();
+                    sample.put("seconds", (System.nanoTime() - start) / 1_000_000_000d);
+                    sample.put("usedMb", memory.getHeapMemoryUsage().getUsed() / BYTES_PER_MB);
+                    sample.put("received", probe.received.get());
+                    samples.add(sample);
+                }
+
+                storm.close();
+                emitted = storm.getEmitted();
+            }
+            finally {
+                monitor.stopPolling();
+            }
+
+            awaitDelivery(Arrays.asList(probe), emitted);
+            detach(monitor, Arrays.asList(probe));
+
+            double growth = heapGrowth(samples);
+
+            section.put("emitted", emitted);
+            section.put("received", probe.received.get());
+            section.put("loss", emitted > 0L ? Math.max(0d, 1d - (double) probe.received.get() / emitted) : 0d);
+            section.put("latency", ScaleReport.latencies(probe.latencies));
+            section.put("heapGrowthMb", growth);
+            section.put("heapSlopeMbPerMinute", heapSlope(samples) * 60d);
+            section.put("samples", samples);
+
+            Assert.assertTrue(growth <= MAX_HEAP_GROWTH_MB, String.format("Heap growth of %.1f MB exceeds %.1f MB", growth, MAX_HEAP_GROWTH_MB));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void attach(final UnitTypeMonitor monitor, final List<ProbeListener> probes) throws DBusException {
+        for (ProbeListener probe : probes) {
+            monitor.addListener(probe);
+        }
+    }
+
+    private static void detach(final UnitTypeMonitor monitor, final List<ProbeListener> probes) throws DBusException {
+        for (ProbeListener probe : probes) {
+            monitor.removeListener(probe);
+        }
+    }
+
+    private static void awaitDelivery(final List<ProbeListener> probes, final long emitted) {
+        try {
+            Awaitility.await().atMost(Duration.ofSeconds(30L)).until(() -> probes.stream().allMatch(p -> p.received.get() >= emitted));
+        }
+        catch (ConditionTimeoutException e) {
+            // Reported as loss
+        }
+    }
+
+    /**
+     * Computes Jain's fairness index, which is <code>1</code> if all listeners
+     * received the same number of signals.
+     */
+    static double jainIndex(final long[] values) {
+        double sum = 0d;
+        double squares = 0d;
+
+        for (long value : values) {
+            sum += value;
+            squares += (double) value * value;
+        }
+
+        return squares > 0d ? sum * sum / (values.length * squares) : 1d;
+    }
+
+    private static double heapGrowth(final List<Object> samples) {
+        if (samples.size() < 2) {
+            return 0d;
+        }
+
+        // First sample serves as baseline after warm-up
+        return usedMb(samples.get(samples.size() - 1)) - usedMb(samples.get(0));
+    }
+
+    private static double heapSlope(final List<Object> samples) {
+        int n = samples.size();
+
+        if (n < 2) {
+            return 0d;
+        }
+
+        double sumX = 0d;
+        double sumY = 0d;
+        double sumXY = 0d;
+        double sumXX = 0d;
+
+        for (Object sample : samples) {
+            double x = (Double) ((Map<?, ?>) sample).get("seconds");
+            double y = usedMb(sample);
+
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+
+        double denominator = n * sumXX - sumX * sumX;
+
+        return denominator != 0d ? (n * sumXY - sumX * sumY) / denominator : 0d;
+    }
+
+    private static double usedMb(final Object sample) {
+        return (Double) ((Map<?, ?>) sample).get("usedMb");
+    }
+
+    private static final class ProbeListener implements UnitStateListener {
+
+        private final LatencyHistogram total;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLong received = new AtomicLong();
+
+        ProbeListener(final LatencyHistogram total) {
+            this.total = total;
+        }
+
+        @Override
+        public void stateChanged(final Unit unit, final Map<String, Variant<?>> changedProperties) {
+            Variant<?> timestamp = changedProperties.get(Unit.Property.STATE_CHANGE_TIMESTAMP);
+
+            if (timestamp != null && timestamp.getValue() instanceof Number) {
+                long micros = FakeUnit.currentTimestamp() - ((Number) timestamp.getValue()).longValue();
+
+                latencies.record(micros * 1000L);
+                total.record(micros * 1000L);
+            }
+
+            received.incrementAndGet();
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.scale;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.thjom.java.systemd.instrumentation.LatencyHistogram;
+
+/**
+ * Machine-readable (JSON) report of a scale run.<p>
+ *
+ * The report consists of named sections, each being a map of values. Supported
+ * values are numbers, booleans, strings, maps and collections thereof. A single
+ * report is shared by all tests of a run; each test class writes it after
+ * completion, hence the file always contains the results of all finished tests.
+ */
+final class ScaleReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000d;
+    private static final ScaleReport SHARED = new ScaleReport();
+
+    private final Map<String, Object> sections = new LinkedHashMap<>();
+
+    private ScaleReport() {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, Object> environment = section("environment");
+
+        environment.put("timestamp", Instant.now().toString());
+        environment.put("javaVersion", System.getProperty("java.version"));
+        environment.put("javaVm", System.getProperty("java.vm.name"));
+        environment.put("osName", System.getProperty("os.name"));
+        environment.put("osArch", System.getProperty("os.arch"));
+        environment.put("processors", runtime.availableProcessors());
+        environment.put("maxHeapBytes", runtime.maxMemory());
+    }
+
+    static ScaleReport shared() {
+        return SHARED;
+    }
+
+    static Path getPath() {
+        return Paths.get(System.getProperty("scale.report", "target/scale-report.json"));
+    }
+
+    synchronized Map<String, Object> section(final String name) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> section = (Map<String, Object>) sections.computeIfAbsent(name, k -> new LinkedHashMap<String, Object>());
+
+        return section;
+    }
+
+    static Map<String, Object> latencies(final LatencyHistogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getCount());
+        values.put("meanMillis", histogram.getMean() / NANOS_PER_MILLI);
+        values.put("p50Millis", histogram.getPercentile(50d) / NANOS_PER_MILLI);
+        values.put("p90Millis", histogram.getPercentile(90d) / NANOS_PER_MILLI);
+        values.put("p99Millis", histogram.getPercentile(99d) / NANOS_PER_MILLI);
+        values.put("p999Millis", histogram.getPercentile(99.9d) / NANOS_PER_MILLI);
+        values.put("maxMillis", histogram.getMax() / NANOS_PER_MILLI);
+
+        return values;
+    }
+
+    synchronized void write() throws IOException {
+        Path file = getPath();
+        Path parent = file.toAbsolutePath().getParent();
+
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder json = new StringBuilder(4096);
+            appendValue(json, sections, 0);
+            json.append('\n');
+
+            writer.write(json.toString());
+        }
+    }
+
+    private static void appendValue(final StringBuilder json, final Object value, final int depth) {
+        if (value == null) {
+            json.append("null");
+        }
+        else if (value instanceof Map) {
+            appendMap(json, (Map<?, ?>) value, depth);
+        }
+        else if (value instanceof Collection) {
+            appendCollection(json, (Collection<?>) value, depth);
+        }
+        else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                json.append("null");
+            }
+            else {
+                json.append(Math.round(number * 1000d) / 1000d);
+            }
+        }
+        else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        }
+        else {
+            appendString(json, String.valueOf(value));
+        }
+    }
+
+    private static void appendMap(final StringBuilder json, final Map<?, ?> map, final int depth) {
+        json.append('{');
+
+        boolean first = true;
+
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            json.append(first ? "\n" : ",\n");
+            indent(json, depth + 1);
+            appendString(json, String.valueOf(entry.getKey()));
+            json.append(": ");
+            appendValue(json, entry.getValue(), depth + 1);
+
+            first = false;
+        }
+
+        if (!first) {
+            json.append('\n');
+            indent(json, depth);
+        }
+
+        json.append('}');
+    }
+
+    private static void appendCollection(final StringBuilder json, final Collection<?> collection, final int depth) {
+        json.append('[');
+
+        boolean first = true;
+
+        for (Object element : collection) {
+            if (!first) {
+                json.append(", ");
+            }
+
+            appendValue(json, element, depth + 1);
+
+            first = false;
+        }
+
+        json.append(']');
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        json.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        json.append(c);
+                    }
+                    break;
+            }
+        }
+
+        json.append('"');
+    }
+
+    private static void indent(final StringBuilder json, final int depth) {
+        for (int i = 0; i < depth; i++) {
+            json.append("  ");
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.scale;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.instrumentation.LatencyHistogram;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+
+/**
+ * Benchmark of concurrent property reads from a large number of virtual threads
+ * (Java 21 and newer, skipped otherwise). Carrier starvation shows up as delay
+ * of a probe thread which wakes up periodically; pinning is recorded via the
+ * flight recorder event <code>jdk.VirtualThreadPinned</code>. The results are
+ * compared to a pool of platform threads and added to the {@link ScaleReport}.
+ */
+public class VirtualThreadScaleTest {
+
+    private static final int THREADS = Integer.getInteger("scale.virtualThreads", 10_000);
+    private static final int PLATFORM_THREADS = Integer.getInteger("scale.platformThreads", 64);
+    private static final int UNITS = 100;
+    private static final long PROBE_PERIOD_MILLIS = 10L;
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final ScaleReport report = ScaleReport.shared();
+
+    private FakeSystemd fake;
+    private List<Unit> units;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.addUnits("vt-", ".service", UNITS);
+
+            Manager manager = fake.connectManager();
+            units = new ArrayList<>(UNITS);
+
+            for (int i = 0; i < UNITS; i++) {
+                units.add(manager.getUnit("vt-" + i + ".service"));
+            }
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+
+        try {
+            report.write();
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Measures concurrent unit getters issued by virtual threads and by a platform thread pool.")
+    public void testConcurrentGetters() {
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        Map<String, Object> section = report.section("virtualThreads");
+        section.put("threads", THREADS);
+        section.put("platformThreads", PLATFORM_THREADS);
+
+        try {
+            // Warm-up
+            run(Executors.newFixedThreadPool(PLATFORM_THREADS), UNITS);
+
+            section.put("platform", run(Executors.newFixedThreadPool(PLATFORM_THREADS), THREADS));
+
+            Path file = Files.createTempFile("pinning", ".jfr");
+
+            try (Recording recording = new Recording()) {
+                recording.enable(PINNED_EVENT).withStackTrace();
+                recording.start();
+
+                section.put("virtual", run(virtualThreads, THREADS));
+
+                recording.stop();
+                recording.dump(file);
+            }
+
+            section.put("pinning", pinning(file));
+
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> run(final ExecutorService executor, final int tasks) throws InterruptedException {
+        LatencyHistogram latencies = new LatencyHistogram();
+        LatencyHistogram probeDelays = new LatencyHistogram();
+        AtomicLong failures = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>(tasks);
+
+        // Runs on the executor under test, hence competes with the calls for (carrier) threads
+        Runnable probe = () -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                long start = System.nanoTime();
+
+                try {
+                    Thread.sleep(PROBE_PERIOD_MILLIS);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+
+                probeDelays.record(System.nanoTime() - start - TimeUnit.MILLISECONDS.toNanos(PROBE_PERIOD_MILLIS));
+            }
+        };
+
+        long start = System.nanoTime();
+        Future<?> probing = executor.submit(probe);
+
+        try {
+            for (int i = 0; i < tasks; i++) {
+                Unit unit = units.get(i % UNITS);
+
+                futures.add(executor.submit(() -> {
+                    long callStart = System.nanoTime();
+
+                    try {
+                        unit.getActiveState();
+                        latencies.record(System.nanoTime() - callStart);
+                    }
+                    catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        catch (ExecutionException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        finally {
+            probing.cancel(true);
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(executor.awaitTermination(1L, TimeUnit.MINUTES));
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tasks", tasks);
+        result.put("seconds", seconds);
+        result.put("callsPerSecond", tasks / seconds);
+        result.put("failures", failures.get());
+        result.put("latency", ScaleReport.latencies(latencies));
+        result.put("probeDelay", ScaleReport.latencies(probeDelays));
+
+        Assert.assertEquals(failures.get(), 0L);
+
+        return result;
+    }
+
+    private static Map<String, Object> pinning(final Path file) throws IOException {
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> PINNED_EVENT.equals(e.getEventType().getName()))
+                .collect(Collectors.toList());
+
+        // Frame below the blocking JDK code, i.e. the library which blocks while holding a monitor
+        Map<String, Long> sites = events.stream()
+                .map(VirtualThreadScaleTest::blockingSite)
+                .collect(Collectors.groupingBy(s -> s, LinkedHashMap::new, Collectors.counting()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("events", events.size());
+        result.put("sites", sites);
+
+        return result;
+    }
+
+    private static String blockingSite(final RecordedEvent event) {
+        if (event.getStackTrace() != null) {
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                String type = frame.getMethod().getType().getName();
+
+                if (!type.startsWith("java.") && !type.startsWith("jdk.")) {
+                    return type + '.' + frame.getMethod().getName();
+                }
+            }
+        }
+
+        return "unknown";
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (final NoSuchMethodException e) {
+            throw new SkipException("Virtual threads require Java 21 or newer");
+        }
+        catch (final IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
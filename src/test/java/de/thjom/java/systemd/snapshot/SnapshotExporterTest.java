@@ -0,0 +1,162 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.Socket;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.features.MemoryAccounting;
+import de.thjom.java.systemd.testkit.FakeSystemd;
+import de.thjom.java.systemd.testkit.FakeUnit;
+
+public class SnapshotExporterTest {
+
+    private static final int UNITS = 50;
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.addUnits("export-", ".service", UNITS);
+            fake.addUnit("export.socket", "active", "listening");
+            fake.addUnit("failed.service", "failed", "failed");
+
+            FakeUnit unit = fake.getUnit("export-0.service").get();
+
+            Map<String, Variant<?>> unitProperties = new HashMap<>();
+            unitProperties.put(Unit.Property.REQUIRES, new Variant<>(List.of("a.service", "b.socket"), "as"));
+            unitProperties.put(Unit.Property.INVOCATION_ID, new Variant<>(new byte[] { 1, 2, (byte) 0xff }));
+            unit.setProperties(Unit.SERVICE_NAME, unitProperties);
+
+            Map<String, Variant<?>> serviceProperties = new HashMap<>();
+            serviceProperties.put(MemoryAccounting.Property.MEMORY_CURRENT, new Variant<>(new UInt64(123_456_789L)));
+            serviceProperties.put(MemoryAccounting.Property.MEMORY_MAX, new Variant<>(new UInt64(UInt64.MAX_BIG_VALUE)));
+            unit.setProperties(Service.SERVICE_NAME, serviceProperties);
+
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass(alwaysRun=true)
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test(description="Tests that both formats export all units and read back identically.")
+    public void testExportAndRead() {
+        SnapshotExporter exporter = new SnapshotExporter(manager, 8);
+
+        try {
+            ByteArrayOutputStream jsonl = new ByteArrayOutputStream();
+            ByteArrayOutputStream binary = new ByteArrayOutputStream();
+
+            Assert.assertEquals(exporter.export(jsonl, SnapshotFormat.JSONL), UNITS + 2L);
+            Assert.assertEquals(exporter.export(binary, SnapshotFormat.BINARY), UNITS + 2L);
+
+            // Header plus one line per unit
+            Assert.assertEquals(jsonl.toString("UTF-8").split("\n").length, UNITS + 3);
+            Assert.assertTrue(binary.size() < jsonl.size() / 2, binary.size() + " / " + jsonl.size());
+
+            List<UnitSnapshot> fromJson = read(jsonl.toByteArray(), SnapshotFormat.JSONL);
+            List<UnitSnapshot> fromBinary = read(binary.toByteArray(), SnapshotFormat.BINARY);
+
+            Assert.assertEquals(fromJson.size(), UNITS + 2);
+            Assert.assertEquals(fromBinary, fromJson);
+
+            // Ordered by name
+            Assert.assertEquals(fromJson.get(0).getName(), "export-0.service");
+            Assert.assertEquals(fromJson.get(fromJson.size() - 1).getName(), "failed.service");
+
+            UnitSnapshot unit = fromBinary.get(0);
+
+            Assert.assertEquals(unit.getActiveState(), "active");
+            Assert.assertEquals(unit.getProperty(Unit.SERVICE_NAME, Unit.Property.REQUIRES), List.of("a.service", "b.socket"));
+            Assert.assertEquals(unit.getProperty(Unit.SERVICE_NAME, Unit.Property.INVOCATION_ID), "0102ff");
+            Assert.assertEquals(unit.getProperty(Service.SERVICE_NAME, MemoryAccounting.Property.MEMORY_CURRENT), 123_456_789L);
+            Assert.assertEquals(unit.getProperty(Service.SERVICE_NAME, MemoryAccounting.Property.MEMORY_MAX), UInt64.MAX_BIG_VALUE);
+            Assert.assertEquals(unit.getProperty(Service.SERVICE_NAME, Service.Property.TYPE), "simple");
+
+            UnitSnapshot failed = fromJson.get(fromJson.size() - 1);
+
+            Assert.assertEquals(failed.getActiveState(), "failed");
+            Assert.assertEquals(failed.getSubState(), "failed");
+            Assert.assertEquals(failed.getLoadState(), "loaded");
+
+            Map<String, UnitSnapshot> byName = fromJson.stream().collect(Collectors.toMap(UnitSnapshot::getName, u -> u));
+
+            Assert.assertEquals(byName.get("export.socket").getInterfaces().keySet(), Set.of(Unit.SERVICE_NAME, Socket.SERVICE_NAME));
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests the unit filter and the snapshot header.")
+    public void testFilterAndHeader() {
+        SnapshotExporter exporter = new SnapshotExporter(manager);
+        exporter.setUnitFilter(name -> name.endsWith(".socket"));
+
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            long before = System.currentTimeMillis() * 1000L;
+
+            Assert.assertEquals(exporter.export(out, SnapshotFormat.BINARY), 1L);
+
+            try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(out.toByteArray()))) {
+                Assert.assertEquals(reader.getFormat(), SnapshotFormat.BINARY);
+                Assert.assertTrue(reader.getTimestamp() >= before);
+                Assert.assertEquals(reader.getManagerProperties().get(Manager.Property.VERSION), manager.getVersion());
+
+                Assert.assertEquals(reader.read().getName(), "export.socket");
+                Assert.assertNull(reader.read());
+            }
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private static List<UnitSnapshot> read(final byte[] bytes, final SnapshotFormat format) throws IOException {
+        try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(bytes))) {
+            Assert.assertEquals(reader.getFormat(), format);
+
+            return reader.stream().collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.types.UnitFileChange;
+
+public class SnapshotReaderTest {
+
+    private static UnitSnapshot sample(final String name) {
+        Map<String, Object> properties = new TreeMap<>();
+        properties.put("String", "quote \" backslash \\ newline \n tab \t control \u0001 unicode ä€😀");
+        properties.put("Empty", "");
+        properties.put("Long", Long.MIN_VALUE);
+        properties.put("Negative", -1L);
+        properties.put("Unsigned", UInt64.MAX_BIG_VALUE);
+        properties.put("Double", 0.25d);
+        properties.put("Large", 1.0e300d);
+        properties.put("True", Boolean.TRUE);
+        properties.put("Null", null);
+        properties.put("List", Arrays.asList(1L, "two", Arrays.asList(), new LinkedHashMap<>()));
+        properties.put("Map", new TreeMap<>(Map.of("key", 3L)));
+
+        Map<String, Map<String, Object>> interfaces = new LinkedHashMap<>();
+        interfaces.put("org.freedesktop.systemd1.Unit", properties);
+
+        return new UnitSnapshot(name, interfaces);
+    }
+
+    private static byte[] write(final SnapshotFormat format, final List<UnitSnapshot> units) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotEncoder encoder = format == SnapshotFormat.JSONL ? new JsonCodec.Encoder(out) : new BinaryCodec.Encoder(out);
+
+        encoder.writeHeader(42L, new TreeMap<>(Map.of("Version", "250")));
+
+        for (UnitSnapshot unit : units) {
+            encoder.writeUnit(unit);
+        }
+
+        encoder.finish();
+
+        return out.toByteArray();
+    }
+
+    @Test(description="Tests the round trip of all value types in both formats.")
+    public void testRoundTrip() {
+        List<UnitSnapshot> units = List.of(sample("a.service"), sample("b.service"));
+
+        try {
+            for (SnapshotFormat format : SnapshotFormat.values()) {
+                try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(write(format, units)))) {
+                    Assert.assertEquals(reader.getFormat(), format);
+                    Assert.assertEquals(reader.getTimestamp(), 42L);
+                    Assert.assertEquals(reader.getManagerProperties(), Map.of("Version", "250"));
+                    Assert.assertEquals(reader.read(), units.get(0), format.name());
+                    Assert.assertEquals(reader.read(), units.get(1), format.name());
+                    Assert.assertNull(reader.read());
+                }
+            }
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests that the dictionary of the binary format stays consistent beyond its bound.")
+    public void testDictionaryOverflow() {
+        List<UnitSnapshot> units = new ArrayList<>();
+
+        for (int i = 0; i < BinaryCodec.MAX_DICTIONARY_SIZE + 1000; i += 1000) {
+            Map<String, Object> properties = new TreeMap<>();
+
+            for (int j = 0; j < 1000; j++) {
+                properties.put("P" + (i + j), "V" + (i + j) % 7);
+            }
+
+            units.add(new UnitSnapshot("u" + i + ".service", Map.of("I", properties)));
+        }
+
+        try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(write(SnapshotFormat.BINARY, units)))) {
+            for (UnitSnapshot unit : units) {
+                Assert.assertEquals(reader.read(), unit);
+            }
+
+            Assert.assertNull(reader.read());
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests that malformed and truncated snapshots are rejected.")
+    public void testMalformed() {
+        try {
+            byte[] binary = write(SnapshotFormat.BINARY, List.of(sample("a.service")));
+
+            try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(Arrays.copyOf(binary, binary.length - 20)))) {
+                reader.read();
+                Assert.fail("Truncated snapshot must be rejected");
+            }
+            catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("Truncated"), e.getMessage());
+            }
+
+            for (String json : List.of("", "{\"format\":\"other\"}", "{\"format\":\"systemd-snapshot\",\"version\":2}", "not json")) {
+                try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+                    Assert.fail("Invalid header must be rejected: " + json);
+                }
+                catch (IOException e) {
+                    // Expected
+                }
+            }
+
+            String header = "{ \"format\" : \"systemd-snapshot\", \"version\" : 1, \"timestamp\" : 7, \"manager\" : { } }\n";
+
+            try (SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream((header + "\n{\"name\":\"x.service\",\"interfaces\":{\"I\":{\"A\":[1, 2.5e1]}}}\n{\"name\":").getBytes(StandardCharsets.UTF_8)))) {
+                UnitSnapshot unit = reader.read();
+
+                Assert.assertEquals(unit.getProperty("I", "A"), List.of(1L, 25.0d));
+
+                reader.read();
+                Assert.fail("Truncated record must be rejected");
+            }
+            catch (IOException e) {
+                Assert.assertTrue(e.getMessage().contains("position"), e.getMessage());
+            }
+        }
+        catch (IOException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests the conversion of bus values into snapshot values.")
+    public void testValues() {
+        Assert.assertEquals(SnapshotValues.of(new Variant<>(new UInt32(7L))), 7L);
+        Assert.assertEquals(SnapshotValues.of(new UInt64(UInt64.MAX_BIG_VALUE)), UInt64.MAX_BIG_VALUE);
+        Assert.assertEquals(SnapshotValues.of(new UInt64(Long.MAX_VALUE)), Long.MAX_VALUE);
+        Assert.assertEquals(SnapshotValues.of((byte) -1), 255L);
+        Assert.assertEquals(SnapshotValues.of(new byte[] { 0x0a, (byte) 0xff }), "0aff");
+        Assert.assertEquals(SnapshotValues.of(Arrays.asList((byte) 1, (byte) 0x80)), "0180");
+        Assert.assertEquals(SnapshotValues.of(1.5f), 1.5d);
+        Assert.assertEquals(SnapshotValues.of(new DBusPath("/org/freedesktop/systemd1")), "/org/freedesktop/systemd1");
+        Assert.assertEquals(SnapshotValues.of(new long[] { 1L, 2L }), List.of(1L, 2L));
+        Assert.assertEquals(SnapshotValues.of(new UnitFileChange("symlink", "/etc/a", "/lib/a")), List.of("symlink", "/etc/a", "/lib/a"));
+        Assert.assertEquals(SnapshotValues.of(Map.of(new UInt32(1L), Collections.singletonList(new Object[] { "x", 2 }))), Map.of("1", List.of(List.of("x", 2L))));
+    }
+
+}
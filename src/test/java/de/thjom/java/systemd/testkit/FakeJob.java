@@ -0,0 +1,71 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.types.UInt32;
+
+import de.thjom.java.systemd.types.JobType;
+
+/**
+ * Simulated job, alive from its <code>JobNew</code> until its <code>JobRemoved</code>
+ * signal. The state changes from <code>waiting</code> to <code>running</code>
+ * when its script starts.
+ */
+public final class FakeJob {
+
+    public static final String STATE_WAITING = "waiting";
+    public static final String STATE_RUNNING = "running";
+
+    private final long id;
+    private final FakeUnit unit;
+    private final String jobType;
+    private final String objectPath;
+
+    private volatile String state = STATE_WAITING;
+
+    FakeJob(final long id, final FakeUnit unit, final String jobType) {
+        this.id = id;
+        this.unit = unit;
+        this.jobType = jobType;
+        this.objectPath = FakeSystemd.JOB_PATH + id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public FakeUnit getUnit() {
+        return unit;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public String getObjectPath() {
+        return objectPath;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    void setState(final String state) {
+        this.state = state;
+    }
+
+    JobType toJobType() {
+        return new JobType(new UInt32(id), unit.getName(), jobType, state, new DBusPath(objectPath), new DBusPath(unit.getObjectPath()));
+    }
+
+}
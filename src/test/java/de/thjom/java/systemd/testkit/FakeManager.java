@@ -0,0 +1,224 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.Variant;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Scope;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.types.AuxiliaryUnit;
+import de.thjom.java.systemd.types.JobType;
+import de.thjom.java.systemd.types.UnitProperty;
+
+/**
+ * Simulated manager object exported at {@value Systemd#OBJECT_PATH}. Only the
+ * members declared by {@link FakeManagerInterface} are served (unit lookup,
+ * unit and job listing and job control), calls of other members fail with an
+ * unknown method error.
+ */
+public class FakeManager implements FakeManagerInterface, Properties {
+
+    public static final String VERSION = "testkit";
+
+    private final FakeSystemd systemd;
+
+    FakeManager(final FakeSystemd systemd) {
+        this.systemd = systemd;
+    }
+
+    @Override
+    public String getObjectPath() {
+        return Systemd.OBJECT_PATH;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A Get(final String iface, final String property) {
+        Variant<?> value = GetAll(iface).get(property);
+
+        if (value == null) {
+            throw new DBusExecutionException(String.format("Unknown property %s.%s", iface, property));
+        }
+
+        return (A) value;
+    }
+
+    @Override
+    public <A> void Set(final String iface, final String property, final A value) {
+        throw new DBusExecutionException(String.format("Property %s.%s is read-only", iface, property));
+    }
+
+    @Override
+    public Map<String, Variant<?>> GetAll(final String iface) {
+        Map<String, Variant<?>> properties = new HashMap<>();
+
+        if (Manager.SERVICE_NAME.equals(iface)) {
+            properties.put(Manager.Property.VERSION, new Variant<>(VERSION));
+            properties.put(Manager.Property.NNAMES, new Variant<>(new UInt32(systemd.getUnits().size())));
+            properties.put(Manager.Property.NFAILED_UNITS, new Variant<>(new UInt32(systemd.getFailedUnitCount())));
+            properties.put(Manager.Property.NJOBS, new Variant<>(new UInt32(systemd.getRunningJobCount())));
+        }
+
+        return properties;
+    }
+
+    @Override
+    public List<ListedUnit> listUnits() {
+        List<ListedUnit> units = new ArrayList<>(systemd.getUnits().size());
+
+        for (FakeUnit unit : systemd.getUnits()) {
+            units.add(unit.toListedUnit());
+        }
+
+        return units;
+    }
+
+    @Override
+    public List<JobType> listJobs() {
+        List<JobType> jobs = new ArrayList<>();
+
+        for (FakeJob job : systemd.getJobs()) {
+            jobs.add(job.toJobType());
+        }
+
+        return jobs;
+    }
+
+    @Override
+    public DBusPath getJob(final UInt32 id) {
+        return systemd.findJobByPath(FakeSystemd.JOB_PATH + id.longValue())
+                .map(j -> new DBusPath(j.getObjectPath()))
+                .orElseThrow(() -> new DBusExecutionException(String.format("Job %d does not exist", id.longValue())));
+    }
+
+    @Override
+    public DBusPath loadUnit(final String name) {
+        return new DBusPath(systemd.requireUnit(name).getObjectPath());
+    }
+
+    @Override
+    public DBusPath startTransientUnit(final String name, final String mode, final List<UnitProperty> properties, final List<AuxiliaryUnit> aux) {
+        FakeUnit unit;
+
+        if (name.indexOf('/') >= 0) {
+            throw new DBusExecutionException(String.format("Unit name %s is not valid.", name));
+        }
+
+        try {
+            unit = systemd.addUnit(name, "inactive", "dead");
+        }
+        catch (final IllegalArgumentException e) {
+            throw new DBusExecutionException(String.format("Unit %s already exists.", name));
+        }
+
+        Map<String, Variant<?>> values = new HashMap<>();
+        properties.forEach(p -> values.put(p.getName(), p.getValue()));
+        unit.setProperties(Scope.SERVICE_NAME, values);
+
+        return systemd.enqueueJob(unit, JobScript.VERB_START);
+    }
+
+    @Override
+    public DBusPath startUnit(final String name, final String mode) {
+        return systemd.enqueueJob(systemd.requireUnit(name), JobScript.VERB_START);
+    }
+
+    @Override
+    public DBusPath stopUnit(final String name, final String mode) {
+        return systemd.enqueueJob(systemd.requireUnit(name), JobScript.VERB_STOP);
+    }
+
+    @Override
+    public DBusPath restartUnit(final String name, final String mode) {
+        return systemd.enqueueJob(systemd.requireUnit(name), JobScript.VERB_RESTART);
+    }
+
+    @Override
+    public DBusPath tryRestartUnit(final String name, final String mode) {
+        return restartUnit(name, mode);
+    }
+
+    @Override
+    public DBusPath reloadUnit(final String name, final String mode) {
+        return systemd.enqueueJob(systemd.requireUnit(name), JobScript.VERB_RELOAD);
+    }
+
+    @Override
+    public DBusPath reloadOrRestartUnit(final String name, final String mode) {
+        return restartUnit(name, mode);
+    }
+
+    @Override
+    public DBusPath reloadOrTryRestartUnit(final String name, final String mode) {
+        return restartUnit(name, mode);
+    }
+
+    @Override
+    public String getUnitFileState(final String name) {
+        return String.valueOf(systemd.requireUnit(name).getProperty(Unit.SERVICE_NAME, Unit.Property.UNIT_FILE_STATE).getValue());
+    }
+
+    @Override
+    public void resetFailedUnit(final String name) {
+        FakeUnit unit = systemd.requireUnit(name);
+
+        if ("failed".equals(unit.getActiveState())) {
+            unit.setState("inactive", "dead");
+        }
+    }
+
+    @Override
+    public void resetFailed() {
+        for (FakeUnit unit : systemd.getUnits()) {
+            if ("failed".equals(unit.getActiveState())) {
+                unit.setState("inactive", "dead");
+            }
+        }
+    }
+
+    @Override
+    public void reload() {
+        systemd.reload();
+    }
+
+    @Override
+    public void subscribe() {
+        // Do nothing (signals are always emitted)
+    }
+
+    @Override
+    public void unsubscribe() {
+        // Do nothing (signals are always emitted)
+    }
+
+    @Override
+    public String getDefaultTarget() {
+        return "multi-user.target";
+    }
+
+}
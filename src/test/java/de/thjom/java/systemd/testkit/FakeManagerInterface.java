@@ -0,0 +1,156 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.util.List;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.annotations.DBusInterfaceName;
+import org.freedesktop.dbus.annotations.DBusMemberName;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusInterface;
+import org.freedesktop.dbus.types.UInt32;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.interfaces.ManagerInterface;
+import de.thjom.java.systemd.types.AuxiliaryUnit;
+import de.thjom.java.systemd.types.JobType;
+import de.thjom.java.systemd.types.UnitProperty;
+
+/**
+ * Subset of the manager interface which is served by the simulation. Members
+ * not declared here (e.g. <code>GetDynamicUsers</code>, whose client-side
+ * signature is not exportable) fail with an unknown method error.<p>
+ *
+ * Exporting this interface makes the bus library resolve received manager
+ * signals within this interface, hence the signals are redeclared as subtypes
+ * of those of {@link ManagerInterface}. Handlers registered for the latter
+ * receive them unchanged.
+ */
+@DBusInterfaceName(value = Manager.SERVICE_NAME)
+public interface FakeManagerInterface extends DBusInterface {
+
+    @DBusMemberName(value = "ListUnits")
+    List<ListedUnit> listUnits();
+
+    @DBusMemberName(value = "ListJobs")
+    List<JobType> listJobs();
+
+    @DBusMemberName(value = "GetJob")
+    DBusPath getJob(UInt32 id);
+
+    @DBusMemberName(value = "LoadUnit")
+    DBusPath loadUnit(String name);
+
+    @DBusMemberName(value = "StartTransientUnit")
+    DBusPath startTransientUnit(String name, String mode, List<UnitProperty> properties, List<AuxiliaryUnit> aux);
+
+    @DBusMemberName(value = "StartUnit")
+    DBusPath startUnit(String name, String mode);
+
+    @DBusMemberName(value = "StopUnit")
+    DBusPath stopUnit(String name, String mode);
+
+    @DBusMemberName(value = "RestartUnit")
+    DBusPath restartUnit(String name, String mode);
+
+    @DBusMemberName(value = "TryRestartUnit")
+    DBusPath tryRestartUnit(String name, String mode);
+
+    @DBusMemberName(value = "ReloadUnit")
+    DBusPath reloadUnit(String name, String mode);
+
+    @DBusMemberName(value = "ReloadOrRestartUnit")
+    DBusPath reloadOrRestartUnit(String name, String mode);
+
+    @DBusMemberName(value = "ReloadOrTryRestartUnit")
+    DBusPath reloadOrTryRestartUnit(String name, String mode);
+
+    @DBusMemberName(value = "GetUnitFileState")
+    String getUnitFileState(String name);
+
+    @DBusMemberName(value = "ResetFailed")
+    void resetFailed();
+
+    @DBusMemberName(value = "ResetFailedUnit")
+    void resetFailedUnit(String name);
+
+    @DBusMemberName(value = "Reload")
+    void reload();
+
+    @DBusMemberName(value = "Subscribe")
+    void subscribe();
+
+    @DBusMemberName(value = "Unsubscribe")
+    void unsubscribe();
+
+    @DBusMemberName(value = "GetDefaultTarget")
+    String getDefaultTarget();
+
+    class JobNew extends ManagerInterface.JobNew {
+
+        public JobNew(String objectPath, long id, DBusPath job, String unit) throws DBusException {
+            super(objectPath, id, job, unit);
+        }
+
+    }
+
+    class JobRemoved extends ManagerInterface.JobRemoved {
+
+        public JobRemoved(String objectPath, long id, DBusPath job, String unit, String result) throws DBusException {
+            super(objectPath, id, job, unit, result);
+        }
+
+    }
+
+    class Reloading extends ManagerInterface.Reloading {
+
+        public Reloading(String objectPath, boolean active) throws DBusException {
+            super(objectPath, active);
+        }
+
+    }
+
+    class StartupFinished extends ManagerInterface.StartupFinished {
+
+        public StartupFinished(String objectPath, long firmware, long loader, long kernel, long initrd,
+                long userspace, long total) throws DBusException {
+            super(objectPath, firmware, loader, kernel, initrd, userspace, total);
+        }
+
+    }
+
+    class UnitFilesChanged extends ManagerInterface.UnitFilesChanged {
+
+        public UnitFilesChanged(String objectPath) throws DBusException {
+            super(objectPath);
+        }
+
+    }
+
+    class UnitNew extends ManagerInterface.UnitNew {
+
+        public UnitNew(String objectPath, String id, DBusPath unit) throws DBusException {
+            super(objectPath, id, unit);
+        }
+
+    }
+
+    class UnitRemoved extends ManagerInterface.UnitRemoved {
+
+        public UnitRemoved(String objectPath, String id, DBusPath unit) throws DBusException {
+            super(objectPath, id, unit);
+        }
+
+    }
+
+}
@@ -0,0 +1,474 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.bin.EmbeddedDBusDaemon;
+import org.freedesktop.dbus.connections.impl.DBusConnection;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.freedesktop.dbus.messages.DBusSignal;
+import org.freedesktop.dbus.types.Variant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+import de.thjom.java.systemd.interfaces.ManagerInterface.Reloading;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitNew;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitRemoved;
+
+/**
+ * Simulated "systemd" on an embedded bus daemon for load and latency tests
+ * without a real service manager.<p>
+ *
+ * The daemon listens on a loopback TCP port. A {@link FakeManager} is exported
+ * at {@value Systemd#OBJECT_PATH} and all units are served by a single fallback
+ * object, so ten thousands of units are cheap. Jobs run scripted state machines
+ * (see {@link JobScript}) on a job thread pool and announce themselves by
+ * <code>JobNew</code>/<code>JobRemoved</code>; {@link SignalStorm}s emit signals
+ * at configurable rates. Clients obtain private connections via {@link #connect()}.
+ */
+public final class FakeSystemd implements Closeable {
+
+    public static final String JOB_PATH = Systemd.OBJECT_PATH + "/job/";
+
+    static final String UNIT_FALLBACK_PATH = Unit.OBJECT_PATH.substring(0, Unit.OBJECT_PATH.length() - 1);
+
+    private static final Logger LOG = LoggerFactory.getLogger(FakeSystemd.class);
+
+    private static final long CONNECT_TIMEOUT = 5000L;
+    private static final long CONNECT_RETRY_DELAY = 50L;
+    private static final byte SERVER_THREADS = 4;
+    private static final int JOB_THREADS = 4;
+
+    private final String address;
+    private final EmbeddedDBusDaemon daemon;
+    private final DBusConnection server;
+    private final ConcurrentMap<String, FakeUnit> units = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FakeUnit> unitsByPath = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, FakeJob> jobsByPath = new ConcurrentHashMap<>();
+    private final List<DBusConnection> clients = new CopyOnWriteArrayList<>();
+    private final List<SignalStorm> storms = new CopyOnWriteArrayList<>();
+    private final ExecutorService jobExecutor = Executors.newFixedThreadPool(JOB_THREADS, r -> daemonThread(r, "FakeSystemd-job"));
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> daemonThread(r, "FakeSystemd-storm"));
+    private final AtomicLong jobIds = new AtomicLong();
+    private final AtomicInteger runningJobs = new AtomicInteger();
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong emitErrors = new AtomicLong();
+    private final AtomicInteger stormCursor = new AtomicInteger();
+
+    private volatile JobScript jobScript = JobScript.standard(10L);
+    private volatile List<FakeUnit> unitSnapshot = Collections.emptyList();
+
+    private FakeSystemd(final String address, final EmbeddedDBusDaemon daemon, final DBusConnection server) {
+        this.address = address;
+        this.daemon = daemon;
+        this.server = server;
+    }
+
+    /**
+     * Starts an embedded bus daemon on a free loopback port and exports the
+     * simulated manager.
+     *
+     * @return The running simulation.
+     * @throws IOException If no port is available.
+     * @throws DBusException If the daemon cannot be reached or the objects
+     *         cannot be exported.
+     */
+    public static FakeSystemd start() throws IOException, DBusException {
+        String address;
+
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            address = String.format("tcp:host=%s,port=%d", socket.getInetAddress().getHostAddress(), socket.getLocalPort());
+        }
+
+        // Exported interfaces and structs of the simulation must be accessible to the bus library
+        FakeSystemd.class.getModule().addOpens(FakeSystemd.class.getPackageName(), DBusConnection.class.getModule());
+
+        EmbeddedDBusDaemon daemon = new EmbeddedDBusDaemon();
+        daemon.setAddress(address + ",listen=true");
+        daemon.startInBackground();
+
+        DBusConnection server;
+
+        try {
+            server = open(address);
+            server.changeThreadCount(SERVER_THREADS);
+        }
+        catch (final DBusException e) {
+            daemon.close();
+
+            throw e;
+        }
+
+        FakeSystemd systemd = new FakeSystemd(address, daemon, server);
+
+        try {
+            server.requestBusName(Systemd.SERVICE_NAME);
+            server.exportObject(Systemd.OBJECT_PATH, new FakeManager(systemd));
+            server.addFallback(UNIT_FALLBACK_PATH, new FakeUnitObjects(systemd));
+        }
+        catch (final DBusException e) {
+            systemd.close();
+
+            throw e;
+        }
+
+        return systemd;
+    }
+
+    private static DBusConnection open(final String address) throws DBusException {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+
+        while (true) {
+            try {
+                return DBusConnection.getConnection(address, true, false);
+            }
+            catch (final DBusException e) {
+                // Daemon may still be starting up
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+            }
+
+            try {
+                Thread.sleep(CONNECT_RETRY_DELAY);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                throw new DBusException("Interrupted while connecting to embedded daemon");
+            }
+        }
+    }
+
+    private static Thread daemonThread(final Runnable runnable, final String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    /**
+     * Opens a new private client connection to the embedded daemon. Like
+     * {@link Systemd}, the connection dispatches signals with a single thread
+     * to preserve their order. The connection is closed together with the
+     * simulation.
+     *
+     * @return The client connection.
+     * @throws DBusException If the connection fails.
+     */
+    public DBusConnection connect() throws DBusException {
+        DBusConnection client = open(address);
+        client.changeThreadCount(Systemd.DEFAULT_THREAD_POOL_SIZE);
+        clients.add(client);
+
+        return client;
+    }
+
+    /**
+     * Opens a new client connection and creates a manager adapter on it.
+     *
+     * @return The manager adapter.
+     * @throws DBusException If the connection fails.
+     */
+    public Manager connectManager() throws DBusException {
+        return Manager.create(connect());
+    }
+
+    public FakeUnit addUnit(final String name) {
+        return addUnit(name, "active", "running");
+    }
+
+    public FakeUnit addUnit(final String name, final String activeState, final String subState) {
+        FakeUnit unit = new FakeUnit(this, name, activeState, subState);
+
+        if (units.putIfAbsent(name, unit) != null) {
+            throw new IllegalArgumentException(String.format("Unit %s already exists", name));
+        }
+
+        unitsByPath.put(unit.getObjectPath(), unit);
+        unitSnapshot = new ArrayList<>(units.values());
+
+        emit(() -> new UnitNew(Systemd.OBJECT_PATH, name, new DBusPath(unit.getObjectPath())));
+
+        return unit;
+    }
+
+    /**
+     * Adds a number of units named <code>&lt;prefix&gt;&lt;index&gt;&lt;suffix&gt;</code>.
+     *
+     * @param prefix The name prefix.
+     * @param suffix The unit suffix, e.g. ".service".
+     * @param count The number of units.
+     * @return The added units.
+     */
+    public List<FakeUnit> addUnits(final String prefix, final String suffix, final int count) {
+        List<FakeUnit> added = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            added.add(addUnit(prefix + i + suffix));
+        }
+
+        return added;
+    }
+
+    public void removeUnit(final String name) {
+        FakeUnit unit = units.remove(name);
+
+        if (unit != null) {
+            unitsByPath.remove(unit.getObjectPath());
+            unitSnapshot = new ArrayList<>(units.values());
+
+            emit(() -> new UnitRemoved(Systemd.OBJECT_PATH, name, new DBusPath(unit.getObjectPath())));
+        }
+    }
+
+    public Optional<FakeUnit> getUnit(final String name) {
+        return Optional.ofNullable(units.get(name));
+    }
+
+    public Collection<FakeUnit> getUnits() {
+        return Collections.unmodifiableCollection(units.values());
+    }
+
+    Optional<FakeUnit> findUnitByPath(final String objectPath) {
+        return Optional.ofNullable(unitsByPath.get(objectPath));
+    }
+
+    Optional<FakeJob> findJobByPath(final String objectPath) {
+        return Optional.ofNullable(jobsByPath.get(objectPath));
+    }
+
+    /**
+     * Returns the jobs which have not been removed yet.
+     *
+     * @return The pending jobs.
+     */
+    public Collection<FakeJob> getJobs() {
+        return Collections.unmodifiableCollection(jobsByPath.values());
+    }
+
+    FakeUnit requireUnit(final String name) {
+        FakeUnit unit = units.get(name);
+
+        if (unit == null) {
+            throw new DBusExecutionException(String.format("Unit %s not found.", name));
+        }
+
+        return unit;
+    }
+
+    int getFailedUnitCount() {
+        int count = 0;
+
+        for (FakeUnit unit : units.values()) {
+            if ("failed".equals(unit.getActiveState())) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    public JobScript getJobScript() {
+        return jobScript;
+    }
+
+    /**
+     * Sets the job script used for all units without an own script.
+     *
+     * @param jobScript The default job script.
+     */
+    public void setJobScript(final JobScript jobScript) {
+        this.jobScript = jobScript;
+    }
+
+    public int getRunningJobCount() {
+        return runningJobs.get();
+    }
+
+    public long getCompletedJobCount() {
+        return completedJobs.get();
+    }
+
+    /**
+     * Returns the number of signals which could not be sent.
+     *
+     * @return The number of failed emissions.
+     */
+    public long getEmitErrorCount() {
+        return emitErrors.get();
+    }
+
+    DBusPath enqueueJob(final FakeUnit unit, final String verb) {
+        long id = jobIds.incrementAndGet();
+        FakeJob job = new FakeJob(id, unit, verb);
+        DBusPath jobPath = new DBusPath(job.getObjectPath());
+        JobScript script = unit.getJobScript() != null ? unit.getJobScript() : jobScript;
+
+        runningJobs.incrementAndGet();
+        jobsByPath.put(job.getObjectPath(), job);
+        emit(() -> new JobNew(Systemd.OBJECT_PATH, id, jobPath, unit.getName()));
+
+        jobExecutor.execute(() -> {
+            String result = JobScript.RESULT_FAILED;
+
+            try {
+                job.setState(FakeJob.STATE_RUNNING);
+                propertiesChanged(job.getObjectPath(), Manager.JOB_SERVICE_NAME, Collections.singletonMap("State", new Variant<>(FakeJob.STATE_RUNNING)));
+
+                result = script.run(unit, verb);
+            }
+            catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            catch (final RuntimeException e) {
+                LOG.warn(String.format("Job script failed for unit %s", unit.getName()), e);
+            }
+            finally {
+                runningJobs.decrementAndGet();
+                completedJobs.incrementAndGet();
+            }
+
+            String jobResult = result;
+
+            jobsByPath.remove(job.getObjectPath());
+            emit(() -> new JobRemoved(Systemd.OBJECT_PATH, id, jobPath, unit.getName(), jobResult));
+        });
+
+        return jobPath;
+    }
+
+    void reload() {
+        emit(() -> new Reloading(Systemd.OBJECT_PATH, true));
+        emit(() -> new Reloading(Systemd.OBJECT_PATH, false));
+    }
+
+    /**
+     * Starts emitting signals of the given type.
+     *
+     * @param type The signal type.
+     * @param ratePerSecond The number of signals per second.
+     * @return The storm, to be closed to stop emission.
+     */
+    public SignalStorm startStorm(final SignalStorm.Type type, final double ratePerSecond) {
+        SignalStorm storm = new SignalStorm(this, type, ratePerSecond);
+        storms.add(storm);
+        storm.start(scheduler);
+
+        return storm;
+    }
+
+    boolean emit(final SignalStorm.Type type) {
+        if (type == SignalStorm.Type.JOB_REMOVED) {
+            long id = jobIds.incrementAndGet();
+
+            return emit(() -> new JobRemoved(Systemd.OBJECT_PATH, id, new DBusPath(JOB_PATH + id), "storm.service", JobScript.RESULT_DONE));
+        }
+
+        List<FakeUnit> snapshot = unitSnapshot;
+
+        if (snapshot.isEmpty()) {
+            return false;
+        }
+
+        FakeUnit unit = snapshot.get(Math.floorMod(stormCursor.getAndIncrement(), snapshot.size()));
+
+        if (type == SignalStorm.Type.PROPERTIES_CHANGED) {
+            unit.announceState();
+
+            return true;
+        }
+
+        return emit(() -> new UnitNew(Systemd.OBJECT_PATH, unit.getName(), new DBusPath(unit.getObjectPath())));
+    }
+
+    void propertiesChanged(final String objectPath, final String interfaceName, final Map<String, Variant<?>> changed) {
+        emit(() -> new PropertiesChanged(objectPath, interfaceName, changed, Collections.emptyList()));
+    }
+
+    private boolean emit(final SignalFactory factory) {
+        try {
+            server.sendMessage(factory.create());
+
+            return true;
+        }
+        catch (final DBusException e) {
+            emitErrors.incrementAndGet();
+            LOG.warn("Unable to emit signal", e);
+
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        storms.forEach(SignalStorm::close);
+        scheduler.shutdownNow();
+        jobExecutor.shutdownNow();
+
+        try {
+            jobExecutor.awaitTermination(1L, TimeUnit.SECONDS);
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        clients.forEach(DBusConnection::disconnect);
+        server.disconnect();
+
+        try {
+            daemon.close();
+        }
+        catch (final IOException e) {
+            LOG.warn("Unable to stop embedded daemon", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SignalFactory {
+
+        DBusSignal create() throws DBusException;
+
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.awaitility.Awaitility;
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.Properties.PropertiesChanged;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.interfaces.ManagerInterface.JobRemoved;
+import de.thjom.java.systemd.types.UnitType;
+
+public class FakeSystemdTest {
+
+    private FakeSystemd fake;
+    private Manager manager;
+
+    @BeforeClass
+    public void setup() {
+        try {
+            fake = FakeSystemd.start();
+            fake.setJobScript(JobScript.standard(5L));
+            fake.addUnits("load-", ".service", 10_000);
+            fake.addUnit("idle.service", "inactive", "dead");
+            fake.addUnit("fail.service", "inactive", "dead").setJobScript(JobScript.failing(5L));
+            fake.addUnit("web.socket");
+
+            manager = fake.connectManager();
+        }
+        catch (IOException | DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @AfterClass
+    public void teardown() {
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test(description="Tests listing and property access of simulated units.")
+    public void testUnits() {
+        try {
+            List<UnitType> units = manager.listUnits();
+
+            Assert.assertEquals(units.size(), 10_003);
+            Assert.assertTrue(units.stream().anyMatch(u -> "web.socket".equals(u.getUnitName()) && u.isSocket()));
+            Assert.assertEquals(manager.getVersion(), FakeManager.VERSION);
+            Assert.assertEquals(manager.getNNames(), 10_003L);
+
+            Service service = manager.getService("load-42");
+
+            Assert.assertEquals(service.getId(), "load-42.service");
+            Assert.assertEquals(service.getActiveState(), "active");
+            Assert.assertEquals(service.getType(), "simple");
+            Assert.assertEquals(manager.getSocket("web").getSubState(), "running");
+
+            Assert.assertThrows(DBusExecutionException.class, () -> manager.loadUnit("missing.service"));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests scripted jobs with state changes and job signals.")
+    public void testJobs() {
+        List<JobRemoved> removed = new CopyOnWriteArrayList<>();
+        List<String> activeStates = new CopyOnWriteArrayList<>();
+
+        try {
+            manager.addHandler(JobRemoved.class, removed::add);
+
+            Service service = manager.getService("idle");
+            service.addListener((unit, properties) -> activeStates.add(String.valueOf(properties.get("ActiveState").getValue())));
+
+            DBusPath job = service.start("replace");
+            manager.startUnit("fail.service", "replace");
+
+            Assert.assertTrue(job.getPath().startsWith(FakeSystemd.JOB_PATH));
+
+            Awaitility.await().atMost(Duration.ofSeconds(5L)).until(() -> removed.size() >= 2);
+
+            Assert.assertEquals(service.getActiveState(), "active");
+            Assert.assertEquals(activeStates, List.of("activating", "active"));
+            Assert.assertEquals(manager.getService("fail").getActiveState(), "failed");
+            Assert.assertEquals(manager.getNFailedUnits(), 1L);
+            Assert.assertTrue(removed.stream().anyMatch(s -> "failed".equals(s.getResult()) && "fail.service".equals(s.getUnit())));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests signal storms at a configured rate.")
+    public void testStorm() {
+        AtomicLong received = new AtomicLong();
+
+        try {
+            manager.addHandler(PropertiesChanged.class, s -> received.incrementAndGet());
+
+            try (SignalStorm storm = fake.startStorm(SignalStorm.Type.PROPERTIES_CHANGED, 2000d)) {
+                Thread.sleep(500L);
+                storm.close();
+
+                Assert.assertTrue(storm.getEmitted() >= 500L, "Emitted: " + storm.getEmitted());
+
+                Awaitility.await().atMost(Duration.ofSeconds(10L)).until(() -> received.get() >= storm.getEmitted());
+            }
+
+            Assert.assertEquals(fake.getEmitErrorCount(), 0L);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
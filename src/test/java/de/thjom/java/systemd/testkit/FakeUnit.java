@@ -0,0 +1,218 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.types.UInt32;
+import org.freedesktop.dbus.types.UInt64;
+import org.freedesktop.dbus.types.Variant;
+
+import de.thjom.java.systemd.Service;
+import de.thjom.java.systemd.Socket;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.Timer;
+import de.thjom.java.systemd.Unit;
+
+/**
+ * State of a simulated unit. Properties are held per interface and state
+ * changes are announced by <code>PropertiesChanged</code> signals.
+ */
+public final class FakeUnit {
+
+    private final FakeSystemd systemd;
+    private final String name;
+    private final String objectPath;
+    private final String typeInterface;
+    private final ConcurrentMap<String, Map<String, Variant<?>>> properties = new ConcurrentHashMap<>();
+
+    private volatile JobScript jobScript;
+
+    FakeUnit(final FakeSystemd systemd, final String name, final String activeState, final String subState) {
+        this.systemd = systemd;
+        this.name = name;
+        this.objectPath = Unit.OBJECT_PATH + Systemd.escapePath(name);
+        this.typeInterface = typeInterface(name);
+
+        Map<String, Variant<?>> unitProperties = new ConcurrentHashMap<>();
+        unitProperties.put(Unit.Property.ID, new Variant<>(name));
+        unitProperties.put(Unit.Property.NAMES, new Variant<>(Collections.singletonList(name), "as"));
+        unitProperties.put(Unit.Property.DESCRIPTION, new Variant<>("Simulated " + name));
+        unitProperties.put(Unit.Property.LOAD_STATE, new Variant<>("loaded"));
+        unitProperties.put(Unit.Property.ACTIVE_STATE, new Variant<>(activeState));
+        unitProperties.put(Unit.Property.SUB_STATE, new Variant<>(subState));
+        unitProperties.put(Unit.Property.FREEZER_STATE, new Variant<>("running"));
+        unitProperties.put(Unit.Property.UNIT_FILE_STATE, new Variant<>("enabled"));
+        unitProperties.put(Unit.Property.FRAGMENT_PATH, new Variant<>("/etc/systemd/system/" + name));
+        unitProperties.put(Unit.Property.STATE_CHANGE_TIMESTAMP, new Variant<>(now()));
+        properties.put(Unit.SERVICE_NAME, unitProperties);
+
+        if (typeInterface != null) {
+            Map<String, Variant<?>> typeProperties = new ConcurrentHashMap<>();
+
+            if (Service.SERVICE_NAME.equals(typeInterface)) {
+                typeProperties.put(Service.Property.TYPE, new Variant<>("simple"));
+                typeProperties.put(Service.Property.RESULT, new Variant<>("success"));
+                typeProperties.put(Service.Property.MAIN_PID, new Variant<>(new UInt32(0L)));
+                typeProperties.put(Service.Property.N_RESTARTS, new Variant<>(new UInt32(0L)));
+            }
+
+            properties.put(typeInterface, typeProperties);
+        }
+    }
+
+    private static String typeInterface(final String name) {
+        if (name.endsWith(Service.UNIT_SUFFIX)) {
+            return Service.SERVICE_NAME;
+        }
+        else if (name.endsWith(Socket.UNIT_SUFFIX)) {
+            return Socket.SERVICE_NAME;
+        }
+        else if (name.endsWith(Timer.UNIT_SUFFIX)) {
+            return Timer.SERVICE_NAME;
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the current wall clock time in microseconds since the epoch, as
+     * used by "systemd" for timestamps.
+     *
+     * @return The current timestamp.
+     */
+    public static long currentTimestamp() {
+        Instant now = Instant.now();
+
+        return now.getEpochSecond() * 1_000_000L + now.getNano() / 1000L;
+    }
+
+    private static UInt64 now() {
+        return new UInt64(currentTimestamp());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getObjectPath() {
+        return objectPath;
+    }
+
+    public String getLoadState() {
+        return String.valueOf(getProperty(Unit.SERVICE_NAME, Unit.Property.LOAD_STATE).getValue());
+    }
+
+    public String getActiveState() {
+        return String.valueOf(getProperty(Unit.SERVICE_NAME, Unit.Property.ACTIVE_STATE).getValue());
+    }
+
+    public String getSubState() {
+        return String.valueOf(getProperty(Unit.SERVICE_NAME, Unit.Property.SUB_STATE).getValue());
+    }
+
+    public JobScript getJobScript() {
+        return jobScript;
+    }
+
+    /**
+     * Sets a job script for this unit which overrides the default script of
+     * the simulated service.
+     *
+     * @param jobScript The job script or <code>null</code> to use the default.
+     */
+    public void setJobScript(final JobScript jobScript) {
+        this.jobScript = jobScript;
+    }
+
+    /**
+     * Changes the active and sub state and emits a <code>PropertiesChanged</code>
+     * signal.
+     *
+     * @param activeState The new active state.
+     * @param subState The new sub state.
+     */
+    public void setState(final String activeState, final String subState) {
+        Map<String, Variant<?>> changed = new HashMap<>(4);
+        changed.put(Unit.Property.ACTIVE_STATE, new Variant<>(activeState));
+        changed.put(Unit.Property.SUB_STATE, new Variant<>(subState));
+        changed.put(Unit.Property.STATE_CHANGE_TIMESTAMP, new Variant<>(now()));
+
+        setProperties(Unit.SERVICE_NAME, changed);
+    }
+
+    /**
+     * Changes properties of an interface and emits a <code>PropertiesChanged</code>
+     * signal.
+     *
+     * @param interfaceName The interface name.
+     * @param changed The changed properties.
+     */
+    public void setProperties(final String interfaceName, final Map<String, Variant<?>> changed) {
+        properties.computeIfAbsent(interfaceName, k -> new ConcurrentHashMap<>()).putAll(changed);
+
+        systemd.propertiesChanged(objectPath, interfaceName, changed);
+    }
+
+    /**
+     * Re-announces the current state with a fresh state change timestamp, which
+     * allows receivers to measure the signal latency.
+     */
+    void announceState() {
+        Map<String, Variant<?>> unitProperties = properties.get(Unit.SERVICE_NAME);
+        Map<String, Variant<?>> changed = new HashMap<>(4);
+        changed.put(Unit.Property.ACTIVE_STATE, unitProperties.get(Unit.Property.ACTIVE_STATE));
+        changed.put(Unit.Property.SUB_STATE, unitProperties.get(Unit.Property.SUB_STATE));
+        changed.put(Unit.Property.STATE_CHANGE_TIMESTAMP, new Variant<>(now()));
+
+        unitProperties.putAll(changed);
+        systemd.propertiesChanged(objectPath, Unit.SERVICE_NAME, changed);
+    }
+
+    /**
+     * Returns the current value of a property, e.g. one set by
+     * <code>StartTransientUnit</code>.
+     *
+     * @param interfaceName The interface name.
+     * @param propertyName The property name.
+     * @return The value.
+     */
+    public Variant<?> getProperty(final String interfaceName, final String propertyName) {
+        Map<String, Variant<?>> interfaceProperties = properties.get(interfaceName);
+        Variant<?> value = interfaceProperties != null ? interfaceProperties.get(propertyName) : null;
+
+        if (value == null) {
+            throw new DBusExecutionException(String.format("Unknown property %s.%s of unit %s", interfaceName, propertyName, name));
+        }
+
+        return value;
+    }
+
+    Map<String, Variant<?>> getAllProperties(final String interfaceName) {
+        Map<String, Variant<?>> interfaceProperties = properties.get(interfaceName);
+
+        return interfaceProperties != null ? new HashMap<>(interfaceProperties) : Collections.emptyMap();
+    }
+
+    ListedUnit toListedUnit() {
+        return new ListedUnit(name, String.valueOf(getProperty(Unit.SERVICE_NAME, Unit.Property.DESCRIPTION).getValue()),
+                getLoadState(), getActiveState(), getSubState(), "", new DBusPath(objectPath), new UInt32(0L), "", new DBusPath("/"));
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.connections.AbstractConnection;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.freedesktop.dbus.interfaces.Properties;
+import org.freedesktop.dbus.types.Variant;
+
+import de.thjom.java.systemd.Unit;
+import de.thjom.java.systemd.interfaces.ServiceInterface;
+import de.thjom.java.systemd.interfaces.SocketInterface;
+import de.thjom.java.systemd.interfaces.TimerInterface;
+import de.thjom.java.systemd.types.UnitProcessType;
+
+/**
+ * Fallback object which serves all unit object paths below {@value Unit#OBJECT_PATH}.
+ * A single exported object keeps the export cost independent of the number of
+ * simulated units; calls are routed to the unit by the object path of the call.
+ */
+public class FakeUnitObjects implements ServiceInterface, SocketInterface, TimerInterface, Properties {
+
+    private final FakeSystemd systemd;
+
+    FakeUnitObjects(final FakeSystemd systemd) {
+        this.systemd = systemd;
+    }
+
+    private FakeUnit unit() {
+        String objectPath = AbstractConnection.getCallInfo().getObjectPath();
+
+        return systemd.findUnitByPath(objectPath)
+                .orElseThrow(() -> new DBusExecutionException(String.format("Unknown object %s", objectPath)));
+    }
+
+    private static DBusExecutionException unsupported(final String member) {
+        return new DBusExecutionException(String.format("Member %s is not supported by simulated units", member));
+    }
+
+    @Override
+    public String getObjectPath() {
+        return FakeSystemd.UNIT_FALLBACK_PATH;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <A> A Get(final String iface, final String property) {
+        return (A) unit().getProperty(iface, property);
+    }
+
+    @Override
+    public <A> void Set(final String iface, final String property, final A value) {
+        throw new DBusExecutionException(String.format("Property %s.%s is read-only", iface, property));
+    }
+
+    @Override
+    public Map<String, Variant<?>> GetAll(final String iface) {
+        return unit().getAllProperties(iface);
+    }
+
+    @Override
+    public DBusPath start(final String mode) {
+        return systemd.enqueueJob(unit(), JobScript.VERB_START);
+    }
+
+    @Override
+    public DBusPath stop(final String mode) {
+        return systemd.enqueueJob(unit(), JobScript.VERB_STOP);
+    }
+
+    @Override
+    public DBusPath restart(final String mode) {
+        return systemd.enqueueJob(unit(), JobScript.VERB_RESTART);
+    }
+
+    @Override
+    public DBusPath tryRestart(final String mode) {
+        return restart(mode);
+    }
+
+    @Override
+    public DBusPath reload(final String mode) {
+        return systemd.enqueueJob(unit(), JobScript.VERB_RELOAD);
+    }
+
+    @Override
+    public DBusPath reloadOrRestart(final String mode) {
+        return restart(mode);
+    }
+
+    @Override
+    public DBusPath reloadOrTryRestart(final String mode) {
+        return restart(mode);
+    }
+
+    @Override
+    public void resetFailed() {
+        FakeUnit unit = unit();
+
+        if ("failed".equals(unit.getActiveState())) {
+            unit.setState("inactive", "dead");
+        }
+    }
+
+    @Override
+    public List<UnitProcessType> getProcesses() {
+        unit();
+
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void attachProcesses(final String cgroupPath, final long[] pids) {
+        throw unsupported("AttachProcesses");
+    }
+
+    @Override
+    public void clean(final List<String> mask) {
+        throw unsupported("Clean");
+    }
+
+    @Override
+    public void freeze() {
+        throw unsupported("Freeze");
+    }
+
+    @Override
+    public void kill(final String who, final int signal) {
+        throw unsupported("Kill");
+    }
+
+    @Override
+    public void ref() {
+        throw unsupported("Ref");
+    }
+
+    @Override
+    public void thaw() {
+        throw unsupported("Thaw");
+    }
+
+    @Override
+    public void unref() {
+        throw unsupported("Unref");
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+/**
+ * Scripted state machine of a simulated job. A script is run on a job thread
+ * of the simulated service, may change the unit state (with pauses in between)
+ * and returns the job result as announced by the <code>JobRemoved</code> signal.
+ */
+@FunctionalInterface
+public interface JobScript {
+
+    String RESULT_DONE = "done";
+    String RESULT_FAILED = "failed";
+
+    String VERB_START = "start";
+    String VERB_STOP = "stop";
+    String VERB_RESTART = "restart";
+    String VERB_RELOAD = "reload";
+
+    String run(FakeUnit unit, String verb) throws InterruptedException;
+
+    /**
+     * Creates the default script which passes through the transitional
+     * states like "systemd" does for a well-behaving unit.
+     *
+     * @param stepMillis The pause between two state changes.
+     * @return The job script.
+     */
+    static JobScript standard(final long stepMillis) {
+        return new JobScript() {
+
+            @Override
+            public String run(final FakeUnit unit, final String verb) throws InterruptedException {
+                switch (verb) {
+                    case VERB_START:
+                        start(unit);
+                        break;
+                    case VERB_STOP:
+                        stop(unit);
+                        break;
+                    case VERB_RESTART:
+                        stop(unit);
+                        start(unit);
+                        break;
+                    case VERB_RELOAD:
+                        unit.setState("reloading", "reload");
+                        Thread.sleep(stepMillis);
+                        unit.setState("active", "running");
+                        break;
+                    default:
+                        return RESULT_FAILED;
+                }
+
+                return RESULT_DONE;
+            }
+
+            private void start(final FakeUnit unit) throws InterruptedException {
+                if (!"active".equals(unit.getActiveState())) {
+                    unit.setState("activating", "start");
+                    Thread.sleep(stepMillis);
+                    unit.setState("active", "running");
+                }
+            }
+
+            private void stop(final FakeUnit unit) throws InterruptedException {
+                if (!"inactive".equals(unit.getActiveState())) {
+                    unit.setState("deactivating", "stop");
+                    Thread.sleep(stepMillis);
+                    unit.setState("inactive", "dead");
+                }
+            }
+
+        };
+    }
+
+    /**
+     * Creates a script which lets every start fail.
+     *
+     * @param stepMillis The pause between two state changes.
+     * @return The job script.
+     */
+    static JobScript failing(final long stepMillis) {
+        return (unit, verb) -> {
+            unit.setState("activating", "start");
+            Thread.sleep(stepMillis);
+            unit.setState("failed", "failed");
+
+            return RESULT_FAILED;
+        };
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import org.freedesktop.dbus.DBusPath;
+import org.freedesktop.dbus.Struct;
+import org.freedesktop.dbus.annotations.Position;
+import org.freedesktop.dbus.types.UInt32;
+
+/**
+ * Entry of the reply to <code>ListUnits</code> with the wire signature of
+ * "systemd" (<code>(ssssssouso)</code>). {@link de.thjom.java.systemd.types.UnitType}
+ * cannot be sent as is, since it keeps the job identifier as signed integer.
+ */
+public class ListedUnit extends Struct {
+
+    @Position(0)
+    private final String unitName;
+
+    @Position(1)
+    private final String unitDescription;
+
+    @Position(2)
+    private final String loadState;
+
+    @Position(3)
+    private final String activeState;
+
+    @Position(4)
+    private final String subState;
+
+    @Position(5)
+    private final String followingUnit;
+
+    @Position(6)
+    private final DBusPath unitObjectPath;
+
+    @Position(7)
+    private final UInt32 jobId;
+
+    @Position(8)
+    private final String jobType;
+
+    @Position(9)
+    private final DBusPath jobObjectPath;
+
+    public ListedUnit(final String unitName, final String unitDescription, final String loadState,
+            final String activeState, final String subState, final String followingUnit, final DBusPath unitObjectPath,
+            final UInt32 jobId, final String jobType, final DBusPath jobObjectPath) {
+        this.unitName = unitName;
+        this.unitDescription = unitDescription;
+        this.loadState = loadState;
+        this.activeState = activeState;
+        this.subState = subState;
+        this.followingUnit = followingUnit;
+        this.unitObjectPath = unitObjectPath;
+        this.jobId = jobId;
+        this.jobType = jobType;
+        this.jobObjectPath = jobObjectPath;
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.testkit;
+
+import java.io.Closeable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emission of signals of a single type at a fixed rate. Signals are emitted
+ * in batches every {@value #TICK_MILLIS} ms; fractional amounts are carried
+ * over to the next tick, hence the mean rate is met exactly.
+ */
+public final class SignalStorm implements Closeable {
+
+    public enum Type {
+
+        /** State announcements of units (round-robin, fresh timestamp only). */
+        PROPERTIES_CHANGED,
+
+        /** <code>UnitNew</code> signals of existing units (round-robin). */
+        UNIT_NEW,
+
+        /** <code>JobRemoved</code> signals of synthetic jobs. */
+        JOB_REMOVED
+
+    }
+
+    static final long TICK_MILLIS = 10L;
+
+    private final FakeSystemd systemd;
+    private final Type type;
+    private final double perTick;
+    private final AtomicLong emitted = new AtomicLong();
+
+    private double carry;
+    private ScheduledFuture<?> future;
+
+    SignalStorm(final FakeSystemd systemd, final Type type, final double ratePerSecond) {
+        if (ratePerSecond <= 0d) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+
+        this.systemd = systemd;
+        this.type = type;
+        this.perTick = ratePerSecond * TICK_MILLIS / 1000d;
+    }
+
+    synchronized void start(final ScheduledExecutorService scheduler) {
+        future = scheduler.scheduleAtFixedRate(this::tick, 0L, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void tick() {
+        carry += perTick;
+
+        int count = (int) carry;
+        carry -= count;
+
+        for (int i = 0; i < count; i++) {
+            if (systemd.emit(type)) {
+                emitted.incrementAndGet();
+            }
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getEmitted() {
+        return emitted.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+}
@@ -40,6 +40,9 @@ public class UnitTypeTest {
         Assert.assertEquals(type.getLoadState(), "loaded");
         Assert.assertEquals(type.getActiveState(), "active");
         Assert.assertEquals(type.getSubState(), "running");
+        Assert.assertEquals(type.getLoadStateValue(), Unit.LoadState.LOADED);
+        Assert.assertEquals(type.getActiveStateValue(), Unit.ActiveState.ACTIVE);
+        Assert.assertEquals(type.getSubStateValue(), Unit.SubState.RUNNING);
         Assert.assertEquals(type.getFollowingUnit(), "Follow");
         Assert.assertEquals(type.getUnitObjectPath().getPath(), Unit.OBJECT_PATH + Systemd.escapePath(unitName));
         Assert.assertEquals(type.getJobId(), 42);
@@ -0,0 +1,133 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.unitfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.interfaces.DBusSigHandler;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.AbstractTestCase;
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.Systemd;
+import de.thjom.java.systemd.interfaces.ManagerInterface.UnitFilesChanged;
+import de.thjom.java.systemd.types.UnitFileType;
+
+public class UnitFileIndexTest extends AbstractTestCase {
+
+    private final List<UnitFileType> unitFiles = new ArrayList<>();
+
+    private Manager manager;
+
+    @Override
+    @BeforeMethod
+    public void setup() {
+        super.setup();
+
+        unitFiles.clear();
+        unitFiles.add(new UnitFileType("/usr/lib/systemd/system/a.service", "enabled"));
+        unitFiles.add(new UnitFileType("/usr/lib/systemd/system/b.socket", "disabled"));
+        unitFiles.add(new UnitFileType("/etc/systemd/system/c.socket", "masked"));
+
+        Mockito.when(miface.listUnitFiles()).then(invocation -> new ArrayList<>(unitFiles));
+
+        try {
+            manager = Manager.create(dbus);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests lookups from a single listing.")
+    public void testLookup() {
+        UnitFileIndex index = new UnitFileIndex(manager);
+
+        Assert.assertEquals(index.getState("a.service"), UnitFileState.ENABLED);
+        Assert.assertEquals(index.getState("c.socket"), UnitFileState.MASKED);
+        Assert.assertEquals(index.getState("x.service"), UnitFileState.UNKNOWN);
+        Assert.assertEquals(index.get("b.socket").map(UnitFileIndex.Entry::getPath).orElse(null), "/usr/lib/systemd/system/b.socket");
+        Assert.assertFalse(index.get("x.service").isPresent());
+        Assert.assertEquals(index.size(), 3);
+
+        Assert.assertEquals(index.getLoadCount(), 1L);
+        Mockito.verify(miface, Mockito.times(1)).listUnitFiles();
+    }
+
+    @Test(description="Tests invalidation by manager signals.")
+    @SuppressWarnings("unchecked")
+    public void testInvalidation() {
+        try (UnitFileIndex index = new UnitFileIndex(manager)) {
+            index.open();
+
+            ArgumentCaptor<DBusSigHandler<UnitFilesChanged>> captor = ArgumentCaptor.forClass(DBusSigHandler.class);
+            Mockito.verify(dbus).addSigHandler(Mockito.eq(UnitFilesChanged.class), captor.capture());
+
+            Assert.assertEquals(index.getState("a.service"), UnitFileState.ENABLED);
+            Assert.assertTrue(index.isValid());
+
+            unitFiles.set(0, new UnitFileType("/usr/lib/systemd/system/a.service", "disabled"));
+            captor.getValue().handle(new UnitFilesChanged(Systemd.OBJECT_PATH));
+
+            Assert.assertFalse(index.isValid());
+            Assert.assertEquals(index.getState("a.service"), UnitFileState.DISABLED);
+            Assert.assertEquals(index.getLoadCount(), 2L);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+
+        try {
+            Mockito.verify(dbus).removeSigHandler(Mockito.eq(UnitFilesChanged.class), Mockito.any(DBusSigHandler.class));
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    @Test(description="Tests partial refreshes by pattern queries.")
+    public void testQuery() {
+        Mockito.when(miface.listUnitFilesByPatterns(Collections.emptyList(), Collections.singletonList("*.socket")))
+                .thenReturn(Collections.singletonList(new UnitFileType("/usr/lib/systemd/system/b.socket", "enabled")));
+
+        UnitFileIndex index = new UnitFileIndex(manager);
+        Assert.assertEquals(index.size(), 3);
+
+        List<UnitFileIndex.Entry> sockets = index.query(Collections.emptyList(), Collections.singletonList("*.socket"));
+
+        Assert.assertEquals(sockets.size(), 1);
+        Assert.assertEquals(index.getState("b.socket"), UnitFileState.ENABLED);
+
+        // Not returned anymore, hence removed
+        Assert.assertFalse(index.get("c.socket").isPresent());
+        Assert.assertEquals(index.getState("a.service"), UnitFileState.ENABLED);
+        Assert.assertEquals(index.getLoadCount(), 1L);
+    }
+
+    @Test(description="Tests conversion of shell-style patterns.")
+    public void testGlob() {
+        Assert.assertTrue(UnitFileIndex.glob("*.service").matcher("a.service").matches());
+        Assert.assertFalse(UnitFileIndex.glob("*.service").matcher("a.socket").matches());
+        Assert.assertTrue(UnitFileIndex.glob("getty@tty?.service").matcher("getty@tty1.service").matches());
+        Assert.assertTrue(UnitFileIndex.glob("[ab].s*").matcher("b.socket").matches());
+        Assert.assertFalse(UnitFileIndex.glob("[!ab].s*").matcher("b.socket").matches());
+        Assert.assertTrue(UnitFileIndex.glob("x+y.*").matcher("x+y.service").matches());
+    }
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Java-systemd implementation
+ * Copyright (c) 2016 Markus Enax
+ *
+ * This program is free software; you can redistribute it and/or modify it under
+ * the terms of either the GNU Lesser General Public License Version 2 or the
+ * Academic Free Licence Version 3.0.
+ *
+ * Full licence texts are included in the COPYING file with this program.
+ */
+
+package de.thjom.java.systemd.unitfiles;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freedesktop.dbus.exceptions.DBusException;
+import org.freedesktop.dbus.exceptions.DBusExecutionException;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import de.thjom.java.systemd.AbstractTestCase;
+import de.thjom.java.systemd.Manager;
+import de.thjom.java.systemd.types.UnitFileChange;
+import de.thjom.java.systemd.types.UnitFileType;
+import de.thjom.java.systemd.unitfiles.UnitFileReconciler.DesiredState;
+import de.thjom.java.systemd.unitfiles.UnitFileReconciler.Operation;
+
+public class UnitFileReconcilerTest extends AbstractTestCase {
+
+    private Manager manager;
+
+    @Override
+    @BeforeMethod
+    public void setup() {
+        super.setup();
+
+        Mockito.when(miface.listUnitFiles()).thenReturn(Arrays.asList(
+                new UnitFileType("/usr/lib/systemd/system/a.service", "enabled"),
+                new UnitFileType("/usr/lib/systemd/system/b.service", "disabled"),
+                new UnitFileType("/usr/lib/systemd/system/c.service", "masked"),
+                new UnitFileType("/usr/lib/systemd/system/d.service", "static"),
+                new UnitFileType("/usr/lib/systemd/system/e.service", "disabled"),
+                new UnitFileType("/usr/lib/systemd/system/f.service", "enabled")
+        ));
+        Mockito.when(miface.enableUnitFiles(Mockito.anyList(), Mockito.anyBoolean(), Mockito.anyBoolean())).then(invocation -> changes("symlink", invocation.getArgument(0)));
+        Mockito.when(miface.disableUnitFiles(Mockito.anyList(), Mockito.anyBoolean())).then(invocation -> changes("unlink", invocation.getArgument(0)));
+        Mockito.when(miface.maskUnitFiles(Mockito.anyList(), Mockito.anyBoolean(), Mockito.anyBoolean())).then(invocation -> changes("symlink", invocation.getArgument(0)));
+        Mockito.when(miface.unmaskUnitFiles(Mockito.anyList(), Mockito.anyBoolean())).then(invocation -> changes("unlink", invocation.getArgument(0)));
+
+        try {
+            manager = Manager.create(dbus);
+        }
+        catch (DBusException e) {
+            Assert.fail(e.getMessage(), e);
+        }
+    }
+
+    private static List<UnitFileChange> changes(final String type, final List<String> names) {
+        UnitFileChange[] changes = names.stream()
+                .map(name -> new UnitFileChange(type, "/etc/systemd/system/" + name, ""))
+                .toArray(UnitFileChange[]::new);
+
+        return Arrays.asList(changes);
+    }
+
+    @Test(description="Tests that units in their desired state cause no calls besides the listing.")
+    public void testConverged() {
+        Map<String, DesiredState> desired = new LinkedHashMap<>();
+        desired.put("a.service", DesiredState.ENABLED);
+        desired.put("b.service", DesiredState.DISABLED);
+        desired.put("c.service", DesiredState.MASKED);
+        desired.put("d.service", DesiredState.STATIC);
+        desired.put("d.service", DesiredState.DISABLED);
+
+        ReconcileReport report = new UnitFileReconciler(manager).reconcile(desired);
+
+        Assert.assertTrue(report.isConverged());
+        Assert.assertTrue(report.getOperations().isEmpty());
+        Assert.assertEquals(report.getUnchanged().size(), 4);
+        Assert.assertEquals(report.getCallCount(), 1);
+        Assert.assertFalse(report.isReloaded());
+
+        Mockito.verify(miface, Mockito.never()).reload();
+    }
+
+    @Test(description="Tests grouping of operations into batches and the final reload.")
+    public void testReconcile() {
+        Map<String, DesiredState> desired = new LinkedHashMap<>();
+        desired.put("a.service", DesiredState.DISABLED);
+        desired.put("b.service", DesiredState.ENABLED);
+        desired.put("c.service", DesiredState.ENABLED);
+        desired.put("e.service", DesiredState.ENABLED);
+        desired.put("f.service", DesiredState.MASKED);
+
+        UnitFileReconciler reconciler = new UnitFileReconciler(manager);
+        reconciler.setBatchSize(2);
+
+        ReconcileReport report = reconciler.reconcile(desired);
+
+        Assert.assertTrue(report.isConverged());
+        Assert.assertTrue(report.isApplied());
+        Assert.assertEquals(report.getOperations().get("a.service"), EnumSet.of(Operation.DISABLE));
+        Assert.assertEquals(report.getOperations().get("c.service"), EnumSet.of(Operation.UNMASK, Operation.ENABLE));
+        Assert.assertEquals(report.getChanges().size(), 6);
+
+        // Listing, unmask, disable, two enable batches, mask, reload
+        Assert.assertEquals(report.getCallCount(), 7);
+        Assert.assertTrue(report.isReloaded());
+
+        Mockito.verify(miface).unmaskUnitFiles(Collections.singletonList("c.service"), false);
+        Mockito.verify(miface).enableUnitFiles(Arrays.asList("b.service", "c.service"), false, false);
+        Mockito.verify(miface).enableUnitFiles(Collections.singletonList("e.service"), false, false);
+        Mockito.verify(miface).maskUnitFiles(Collections.singletonList("f.service"), false, false);
+        Mockito.verify(miface, Mockito.times(1)).reload();
+    }
+
+    @Test(description="Tests reporting of unreachable states, missing units and failed calls.")
+    public void testFailures() {
+        Mockito.when(miface.unmaskUnitFiles(Mockito.anyList(), Mockito.anyBoolean())).thenThrow(new DBusExecutionException("Access denied"));
+        Mockito.when(miface.getUnitFileState("x.service")).thenThrow(new DBusExecutionException("No such file or directory"));
+
+        Map<String, DesiredState> desired = new LinkedHashMap<>();
+        desired.put("c.service", DesiredState.ENABLED);
+        desired.put("d.service", DesiredState.ENABLED);
+        desired.put("x.service", DesiredState.ENABLED);
+
+        ReconcileReport report = new UnitFileReconciler(manager).reconcile(desired);
+
+        Assert.assertFalse(report.isConverged());
+        Assert.assertEquals(report.getFailures().keySet(), new HashSet<>(desired.keySet()));
+        Assert.assertEquals(report.getFailures().get("c.service"), "Access denied");
+        Assert.assertFalse(report.isReloaded());
+
+        // Enabling c.service is skipped after the failed unmask
+        Mockito.verify(miface, Mockito.never()).enableUnitFiles(Mockito.anyList(), Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+
+    @Test(description="Tests that the states of template instances are read individually.")
+    public void testInstance() {
+        Mockito.when(miface.getUnitFileState("getty@tty2.service")).thenReturn("disabled");
+
+        Map<String, DesiredState> desired = new LinkedHashMap<>();
+        desired.put("a.service", DesiredState.ENABLED);
+        desired.put("getty@tty2.service", DesiredState.ENABLED);
+
+        ReconcileReport report = new UnitFileReconciler(manager).reconcile(desired);
+
+        Assert.assertTrue(report.isConverged());
+        Assert.assertEquals(report.getOperations().get("getty@tty2.service"), EnumSet.of(Operation.ENABLE));
+
+        // Listing, state of the instance, enable, reload
+        Assert.assertEquals(report.getCallCount(), 4);
+
+        Mockito.verify(miface, Mockito.never()).getUnitFileState("a.service");
+        Mockito.verify(miface).enableUnitFiles(Collections.singletonList("getty@tty2.service"), false, false);
+    }
+
+    @Test(description="Tests planning without applying.")
+    public void testPlan() {
+        ReconcileReport report = new UnitFileReconciler(manager).plan(Collections.singletonMap("b.service", DesiredState.MASKED));
+
+        Assert.assertFalse(report.isApplied());
+        Assert.assertEquals(report.getOperations().get("b.service"), EnumSet.of(Operation.MASK));
+        Assert.assertEquals(report.getCallCount(), 1);
+
+        Mockito.verify(miface, Mockito.never()).maskUnitFiles(Mockito.anyList(), Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+
+}